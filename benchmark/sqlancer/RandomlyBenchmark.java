@@ -0,0 +1,177 @@
+package sqlancer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link Randomly} with its previous implementation, which used a {@link ThreadLocal} {@link Random}, a stream
+ * for every bounded number, list-based caches, and {@link List#remove(int)} to select subsets. Run it with
+ * <code>mvn -P benchmark test-compile exec:exec</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomlyBenchmark {
+
+    private static final int CACHE_SIZE = 100;
+
+    private final List<Integer> columns = new ArrayList<>();
+    private final String[] options = { "a", "b", "c", "d", "e" };
+    private Randomly randomly;
+
+    /**
+     * The relevant parts of the previous implementation of {@link Randomly}.
+     */
+    static final class LegacyRandomly {
+
+        private static final ThreadLocal<Random> THREAD_RANDOM = new ThreadLocal<>();
+        private final List<Long> cachedLongs = new ArrayList<>();
+
+        LegacyRandomly(long seed) {
+            THREAD_RANDOM.set(new Random(seed));
+        }
+
+        private static ThreadLocal<Random> getThreadRandom() {
+            if (THREAD_RANDOM.get() == null) {
+                THREAD_RANDOM.set(new Random());
+            }
+            return THREAD_RANDOM;
+        }
+
+        static long getNextLong(long lower, long upper) {
+            if (lower == upper) {
+                return lower;
+            }
+            return getThreadRandom().get().longs(lower, upper).findFirst().getAsLong();
+        }
+
+        static boolean getBoolean() {
+            return getThreadRandom().get().nextBoolean();
+        }
+
+        static int smallNumber() {
+            return (int) (Math.abs(getThreadRandom().get().nextGaussian()) * 2);
+        }
+
+        @SafeVarargs
+        static <T> T fromOptions(T... options) {
+            return options[(int) getNextLong(0, options.length)];
+        }
+
+        static <T> List<T> extractNrRandomColumns(List<T> columns, int nr) {
+            List<T> selectedColumns = new ArrayList<>();
+            List<T> remainingColumns = new ArrayList<>(columns);
+            for (int i = 0; i < nr; i++) {
+                selectedColumns.add(remainingColumns.remove((int) getNextLong(0, remainingColumns.size())));
+            }
+            return selectedColumns;
+        }
+
+        long getInteger() {
+            long nextLong = getThreadRandom().get().nextInt();
+            if (cachedLongs.size() < CACHE_SIZE && !cachedLongs.contains(nextLong)) {
+                cachedLongs.add(nextLong);
+            }
+            return nextLong;
+        }
+
+    }
+
+    private LegacyRandomly legacy;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < 1000; i++) {
+            columns.add(i);
+        }
+        legacy = new LegacyRandomly(0);
+        randomly = new Randomly(0);
+    }
+
+    @Benchmark
+    public boolean legacyGetBoolean() {
+        return LegacyRandomly.getBoolean();
+    }
+
+    @Benchmark
+    public boolean getBoolean() {
+        return Randomly.getBoolean();
+    }
+
+    @Benchmark
+    public long legacyGetNotCachedInteger() {
+        return LegacyRandomly.getNextLong(0, 1000);
+    }
+
+    @Benchmark
+    public long getNotCachedInteger() {
+        return Randomly.getNotCachedInteger(0, 1000);
+    }
+
+    @Benchmark
+    public int legacySmallNumber() {
+        return LegacyRandomly.smallNumber();
+    }
+
+    @Benchmark
+    public int smallNumber() {
+        return Randomly.smallNumber();
+    }
+
+    @Benchmark
+    public String legacyFromTwoOptions() {
+        return LegacyRandomly.fromOptions("a", "b");
+    }
+
+    @Benchmark
+    public String fromTwoOptions() {
+        return Randomly.fromOptions("a", "b");
+    }
+
+    @Benchmark
+    public String legacyFromOptions() {
+        return LegacyRandomly.fromOptions(options);
+    }
+
+    @Benchmark
+    public String fromOptions() {
+        return Randomly.fromOptions(options);
+    }
+
+    @Benchmark
+    public long legacyGetInteger() {
+        return legacy.getInteger();
+    }
+
+    @Benchmark
+    public long getInteger() {
+        return randomly.getInteger();
+    }
+
+    @Benchmark
+    public List<Integer> legacyExtractNrRandomColumns() {
+        return LegacyRandomly.extractNrRandomColumns(columns, 500);
+    }
+
+    @Benchmark
+    public List<Integer> extractNrRandomColumns() {
+        return Randomly.extractNrRandomColumns(columns, 500);
+    }
+
+}
@@ -0,0 +1,102 @@
+package sqlancer.postgres;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sqlancer.Randomly;
+import sqlancer.postgres.ast.PostgresExpression;
+
+/**
+ * Measures, for one to ten randomly-generated check constraints per column (like <code>--number-of-checks</code>), the
+ * time to compute the values of a column without the solver and the rate at which the solver is avoided. The rate is
+ * reported by the counters <code>checkLists</code> and <code>solverAvoided</code>, and printed after each trial. Run it
+ * with <code>mvn -P benchmark test-compile exec:exec</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostgresIntervalConstraintBenchmark {
+
+    private static final int NR_COLUMNS = 4;
+    private static final int NR_CHECK_LISTS = 1000;
+
+    @Param({ "1", "2", "3", "4", "5", "6", "7", "8", "9", "10" })
+    private int nrChecks;
+
+    private final List<List<PostgresExpression>> checkLists = new ArrayList<>();
+    private final List<Integer> checkedColumns = new ArrayList<>();
+    private Randomly r;
+    private int next;
+    private long nrCheckLists;
+    private long nrSolverAvoided;
+
+    /**
+     * Counts the check lists and those whose values are computed without the solver, in each iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SolverAvoidance {
+
+        public long checkLists;
+        public long solverAvoided;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            checkLists = 0;
+            solverAvoided = 0;
+        }
+
+    }
+
+    @Setup
+    public void setup() {
+        r = new Randomly(0);
+        PostgresCheckListGenerator generator = new PostgresCheckListGenerator(NR_COLUMNS);
+        for (int i = 0; i < NR_CHECK_LISTS; i++) {
+            int column = (int) Randomly.getNotCachedInteger(0, NR_COLUMNS);
+            checkedColumns.add(column);
+            checkLists.add(generator.generateChecks(nrChecks, column));
+        }
+    }
+
+    @Benchmark
+    public List<Integer> compileAndSolve(SolverAvoidance avoidance) {
+        int i = next;
+        next = (next + 1) % NR_CHECK_LISTS;
+        List<Integer> values = PostgresCheckListGenerator.computeWithoutSolver(checkLists.get(i),
+                checkedColumns.get(i), i % 2 == 0, r);
+        avoidance.checkLists++;
+        nrCheckLists++;
+        if (values != null) {
+            avoidance.solverAvoided++;
+            nrSolverAvoided++;
+        }
+        return values;
+    }
+
+    @TearDown
+    public void printAvoidanceRate() {
+        System.out.printf("%d checks: the solver was avoided for %.1f%% of %d check lists%n", nrChecks,
+                100.0 * nrSolverAvoided / nrCheckLists, nrCheckLists);
+    }
+
+}
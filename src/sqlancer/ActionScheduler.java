@@ -0,0 +1,236 @@
+package sqlancer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decides in which order a {@link StatementExecutor} executes its actions, and how often a failing action is retried.
+ * Each action is executed as many times as the {@link StatementExecutor.ActionMapper} specifies. When the scheduling is
+ * adaptive, the draw is weighted by the number of successful statements per unit of time that an action achieved so far
+ * (for all databases of the same provider that the current thread created), with an optimistic bonus for rarely-tried
+ * actions (UCB1), and actions that succeed far less often per unit of time than the others are retried only a few
+ * times. Otherwise, the actions are drawn with a probability proportional to their number of remaining executions. The
+ * statistics are kept per thread, so that the timing of one thread does not affect the statements that another thread
+ * generates.
+ *
+ * The weights are kept in a Fenwick tree, so that drawing an action and updating its weight take a logarithmic time in
+ * the number of actions.
+ */
+final class ActionScheduler {
+
+    /**
+     * The maximum factor by which the weight of an action (i.e., its number of remaining executions) is increased.
+     */
+    static final int MAX_WEIGHT_FACTOR = 16;
+
+    /**
+     * The number of times an action has to be tried before its retries are limited.
+     */
+    static final int MIN_TRIES_BEFORE_LIMITING_RETRIES = 100;
+
+    /**
+     * The factor by which the successful statements per unit of time of an action have to be lower than those of all
+     * actions for its retries to be limited.
+     */
+    static final int MAX_SLOWDOWN = 10;
+
+    static final int LIMITED_RETRY_COUNT = 10;
+
+    private static final ThreadLocal<Map<String, Map<Object, ActionStatistics>>> STATISTICS = ThreadLocal
+            .withInitial(HashMap::new);
+
+    private final ActionStatistics[] statistics;
+    private final int[] nrRemaining;
+    private final int[] weightFactors;
+    private final long[] tree;
+    private final int retryCount;
+    private final boolean adaptive;
+    private final double maxScore;
+    private long total;
+
+    /**
+     * The number of tries, successful tries, and time spent on an action by a single thread.
+     */
+    static final class ActionStatistics {
+
+        private long nrTries;
+        private long nrSuccesses;
+        private long nanos;
+
+        void record(boolean success, long elapsedNanos) {
+            nrTries++;
+            if (success) {
+                nrSuccesses++;
+            }
+            nanos += elapsedNanos;
+        }
+
+    }
+
+    static ActionStatistics getStatistics(String provider, Object action) {
+        return STATISTICS.get().computeIfAbsent(provider, p -> new HashMap<>()).computeIfAbsent(action,
+                a -> new ActionStatistics());
+    }
+
+    /**
+     * @param statistics
+     *            the statistics of each action
+     * @param nrExecutions
+     *            the number of times each action should be executed
+     * @param retryCount
+     *            the number of times a failing action is retried if its retries are not limited
+     * @param adaptive
+     *            whether the order of the actions and their retries depend on their statistics
+     */
+    ActionScheduler(ActionStatistics[] statistics, int[] nrExecutions, int retryCount, boolean adaptive) {
+        assert statistics.length == nrExecutions.length;
+        this.statistics = statistics.clone();
+        this.nrRemaining = nrExecutions.clone();
+        this.retryCount = retryCount;
+        this.adaptive = adaptive;
+        this.weightFactors = new int[nrExecutions.length];
+        this.tree = new long[nrExecutions.length + 1];
+        long totalTries = getTotalTries();
+        double max = 0;
+        if (adaptive) {
+            for (int i = 0; i < statistics.length; i++) {
+                double score = getScore(statistics[i], totalTries);
+                if (nrRemaining[i] != 0 && !Double.isInfinite(score)) {
+                    max = Math.max(max, score);
+                }
+            }
+        }
+        maxScore = max;
+        Arrays.fill(weightFactors, 1);
+        for (int i = 0; i < nrRemaining.length; i++) {
+            if (adaptive) {
+                weightFactors[i] = computeWeightFactor(i, totalTries);
+            }
+            add(i, (long) nrRemaining[i] * weightFactors[i]);
+        }
+    }
+
+    boolean hasNext() {
+        return total != 0;
+    }
+
+    /**
+     * Draws the next action to be executed and decrements its number of remaining executions.
+     *
+     * @param r
+     *            the random number generator
+     *
+     * @return the index of the action
+     */
+    int next(Randomly r) {
+        int i = find(r.getLong(0, total));
+        assert nrRemaining[i] > 0;
+        nrRemaining[i]--;
+        add(i, -weightFactors[i]);
+        return i;
+    }
+
+    /**
+     * Returns how often the action should be retried in its current execution if it fails.
+     *
+     * @param i
+     *            the index of the action
+     *
+     * @return the number of retries
+     */
+    int getRetryCount(int i) {
+        if (!adaptive || statistics[i].nrTries < MIN_TRIES_BEFORE_LIMITING_RETRIES) {
+            return retryCount;
+        }
+        long allSuccesses = 0;
+        long allNanos = 0;
+        for (ActionStatistics s : statistics) {
+            allSuccesses += s.nrSuccesses;
+            allNanos += s.nanos;
+        }
+        double rate = (statistics[i].nrSuccesses + 1.0) / (statistics[i].nanos + 1.0);
+        double allRate = (allSuccesses + 1.0) / (allNanos + 1.0);
+        if (rate * MAX_SLOWDOWN < allRate) {
+            return Math.min(retryCount, LIMITED_RETRY_COUNT);
+        } else {
+            return retryCount;
+        }
+    }
+
+    /**
+     * Records a single try to execute an action.
+     *
+     * @param i
+     *            the index of the action
+     * @param success
+     *            whether the statement was executed successfully
+     * @param elapsedNanos
+     *            the time spent on generating and executing the statement
+     */
+    void record(int i, boolean success, long elapsedNanos) {
+        statistics[i].record(success, elapsedNanos);
+        if (adaptive) {
+            int factor = computeWeightFactor(i, getTotalTries());
+            add(i, (long) nrRemaining[i] * (factor - weightFactors[i]));
+            weightFactors[i] = factor;
+        }
+    }
+
+    private int computeWeightFactor(int i, long totalTries) {
+        double score = getScore(statistics[i], totalTries);
+        if (maxScore == 0 || Double.isInfinite(score)) {
+            return MAX_WEIGHT_FACTOR;
+        }
+        double factor = Math.ceil(MAX_WEIGHT_FACTOR * score / maxScore);
+        return (int) Math.max(1, Math.min(MAX_WEIGHT_FACTOR, factor));
+    }
+
+    /**
+     * Computes the optimistic estimate of the successful statements per nanosecond of an action, which is infinite for
+     * an action that has not been tried yet.
+     */
+    private static double getScore(ActionStatistics s, long totalTries) {
+        long nrTries = s.nrTries;
+        if (nrTries == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double successRate = (double) s.nrSuccesses / nrTries
+                + Math.sqrt(2 * Math.log(Math.max(totalTries, 1)) / nrTries);
+        double meanNanos = Math.max(1.0, (double) s.nanos / nrTries);
+        return Math.min(1.0, successRate) / meanNanos;
+    }
+
+    private long getTotalTries() {
+        long totalTries = 0;
+        for (ActionStatistics s : statistics) {
+            totalTries += s.nrTries;
+        }
+        return totalTries;
+    }
+
+    private void add(int i, long delta) {
+        total += delta;
+        for (int j = i + 1; j < tree.length; j += j & -j) {
+            tree[j] += delta;
+        }
+    }
+
+    /**
+     * Finds the action whose range of weights contains the given value, that is, the smallest index whose prefix sum of
+     * weights exceeds the value.
+     */
+    private int find(long value) {
+        int pos = 0;
+        long remaining = value;
+        for (int step = Integer.highestOneBit(tree.length); step != 0; step >>= 1) {
+            int next = pos + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                pos = next;
+                remaining -= tree[next];
+            }
+        }
+        return pos;
+    }
+
+}
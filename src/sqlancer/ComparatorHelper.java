@@ -1,19 +1,30 @@
 package sqlancer;
 
-import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
+import sqlancer.common.oracle.QueryPlanCache;
 import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.QueryAdapter;
+import sqlancer.common.query.ReadConnectionPool;
 import sqlancer.common.query.SQLancerResultSet;
+import sqlancer.common.query.StatementCache;
+import sqlancer.common.query.StatementWatchdog;
 
 public final class ComparatorHelper {
 
+    private static final int MAX_REPORTED_MISSES = 100;
+    private static final BigInteger HASH_SUM_MODULUS = BigInteger.ONE.shiftLeft(64);
+
     private ComparatorHelper() {
     }
 
@@ -35,20 +46,69 @@ public final class ComparatorHelper {
         return Math.abs(a - b) < 0.001 * Math.max(Math.abs(a), Math.abs(b)) + 0.001;
     }
 
+    @FunctionalInterface
+    private interface RowConsumer {
+
+        void accept(SQLancerResultSet result) throws SQLException;
+
+    }
+
     public static List<String> getResultSetFirstColumnAsString(String queryString, ExpectedErrors errors,
             GlobalState<?, ?> state) throws SQLException {
+        List<String> resultSet = new ArrayList<>();
+        readResultSet(queryString, errors, state, result -> resultSet.add(result.getString(1)));
+        return resultSet;
+    }
+
+    /**
+     * Executes a query and returns the values of its first column as a multiset, which is more compact than a list of
+     * strings and can be compared with {@link #assumeResultSetsAreEqual}. If result fingerprints are enabled and
+     * supported by the DBMS, the query is executed only when the multiset is compared.
+     *
+     * @param queryString
+     *            the query
+     * @param errors
+     *            the errors that the query is expected to cause
+     * @param state
+     *            the state whose connection and options are used
+     *
+     * @return the values of the first column
+     *
+     * @throws SQLException
+     *             if reading the result set fails
+     */
+    public static ResultMultiset getResultSetFirstColumnAsMultiset(String queryString, ExpectedErrors errors,
+            GlobalState<?, ?> state) throws SQLException {
+        ResultMultiset resultSet = new ResultMultiset(state.getOptions().getResultSpillRows());
+        addResultSetFirstColumn(queryString, errors, state, resultSet);
+        return resultSet;
+    }
+
+    private static void addResultSetFirstColumn(String queryString, ExpectedErrors errors, GlobalState<?, ?> state,
+            ResultMultiset resultSet) throws SQLException {
+        if (state.getOptions().useResultFingerprints() && state.getResultFingerprintQuery(queryString) != null) {
+            resultSet.addPendingQuery(new QueryAdapter(queryString, errors));
+            return;
+        }
+        try {
+            readResultSet(queryString, errors, state, result -> resultSet.add(result, 1));
+        } catch (Throwable t) {
+            resultSet.close();
+            throw t;
+        }
+    }
+
+    private static void readResultSet(String queryString, ExpectedErrors errors, GlobalState<?, ?> state,
+            RowConsumer consumer) throws SQLException {
         if (state.getOptions().logEachSelect()) {
-            // TODO: refactor me
             state.getLogger().writeCurrent(queryString);
-            try {
-                state.getLogger().getCurrentFileWriter().flush();
-            } catch (IOException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            }
         }
+        readRows(queryString, errors, state, consumer);
+    }
+
+    private static void readRows(String queryString, ExpectedErrors errors, GlobalState<?, ?> state,
+            RowConsumer consumer) throws SQLException {
         QueryAdapter q = new QueryAdapter(queryString, errors);
-        List<String> resultSet = new ArrayList<>();
         SQLancerResultSet result = null;
         try {
             result = q.executeAndGet(state);
@@ -56,7 +116,7 @@ public final class ComparatorHelper {
                 throw new IgnoreMeException();
             }
             while (result.next()) {
-                resultSet.add(result.getString(1));
+                consumer.accept(result);
             }
         } catch (Exception e) {
             if (e instanceof IgnoreMeException) {
@@ -70,18 +130,105 @@ public final class ComparatorHelper {
                 throw new AssertionError(queryString, e);
             }
             if (errors.errorIsExpected(e.getMessage())) {
+                if (result != null) {
+                    // the query failed while its rows were fetched
+                    state.getGrammarWeights().recordFailure();
+                }
                 throw new IgnoreMeException();
             }
             throw new AssertionError(queryString, e);
         } finally {
-            if (result != null && !result.isClosed()) {
+            if (result != null) {
+                // the driver might have closed the JDBC result set after its last row, but not released the statement
                 result.close();
             }
         }
-        return resultSet;
     }
 
-    public static void assumeResultSetsAreEqual(List<String> resultSet, List<String> secondResultSet,
+    /**
+     * Checks that two result sets contain the same values with the same multiplicities, and deletes their temporary
+     * files. If the queries of the result sets have not been executed yet, their fingerprints are compared first, and
+     * the results are only fetched if the fingerprints differ.
+     *
+     * @param resultSet
+     *            the result set of the original query
+     * @param secondResultSet
+     *            the combined result set of the partitioning queries
+     * @param originalQueryString
+     *            the original query
+     * @param combinedString
+     *            the partitioning queries
+     * @param state
+     *            the state whose log receives the queries if the result sets differ
+     *
+     * @throws SQLException
+     *             if fetching a result set fails
+     */
+    public static void assumeResultSetsAreEqual(ResultMultiset resultSet, ResultMultiset secondResultSet,
+            String originalQueryString, List<String> combinedString, GlobalState<?, ?> state) throws SQLException {
+        try (ResultMultiset first = resultSet; ResultMultiset second = secondResultSet) {
+            if (!first.getPendingQueries().isEmpty() || !second.getPendingQueries().isEmpty()) {
+                if (haveEqualFingerprints(first, second, state)) {
+                    return;
+                }
+                addPendingResultSets(first, state);
+                addPendingResultSets(second, state);
+            }
+            assumeResultSetsAreEqualUnclosed(first, second, originalQueryString, combinedString, state);
+        }
+    }
+
+    private static void addPendingResultSets(ResultMultiset resultSet, GlobalState<?, ?> state) throws SQLException {
+        for (QueryAdapter q : resultSet.getPendingQueries()) {
+            readResultSet(q.getQueryString(), q.getExpectedErrors(), state, result -> resultSet.add(result, 1));
+        }
+        resultSet.getPendingQueries().clear();
+    }
+
+    private static boolean haveEqualFingerprints(ResultMultiset first, ResultMultiset second, GlobalState<?, ?> state) {
+        if (first.size() != 0 || second.size() != 0) {
+            return false;
+        }
+        try {
+            return getFingerprint(first, state).equals(getFingerprint(second, state));
+        } catch (SQLException e) {
+            // for example, the query cannot be used as a subquery (e.g., due to duplicate column names)
+            return false;
+        }
+    }
+
+    /*
+     * Returns the number of rows and the sum of the row hashes, modulo 2^64 since the sums of some DBMS overflow, of
+     * the pending queries of the result set.
+     */
+    private static List<BigInteger> getFingerprint(ResultMultiset resultSet, GlobalState<?, ?> state)
+            throws SQLException {
+        BigInteger nrRows = BigInteger.ZERO;
+        BigInteger hashSum = BigInteger.ZERO;
+        StatementCache cache = state.getStatementCache();
+        for (QueryAdapter q : resultSet.getPendingQueries()) {
+            String fingerprintQuery = state.getResultFingerprintQuery(q.getQueryString());
+            if (state.getOptions().logEachSelect()) {
+                state.getLogger().writeCurrent(fingerprintQuery);
+            }
+            Statement s = cache.getStatement();
+            try (ResultSet rs = s.executeQuery(fingerprintQuery)) {
+                if (!rs.next()) {
+                    throw new SQLException("the fingerprint query returned no row");
+                }
+                nrRows = nrRows.add(BigInteger.valueOf(rs.getLong(1)));
+                String sum = rs.getString(2);
+                if (sum != null) {
+                    hashSum = hashSum.add(new BigDecimal(sum).toBigInteger());
+                }
+            } finally {
+                cache.release(s);
+            }
+        }
+        return Arrays.asList(nrRows, hashSum.mod(HASH_SUM_MODULUS));
+    }
+
+    private static void assumeResultSetsAreEqualUnclosed(ResultMultiset resultSet, ResultMultiset secondResultSet,
             String originalQueryString, List<String> combinedString, GlobalState<?, ?> state) {
         if (resultSet.size() != secondResultSet.size()) {
             String queryFormatString = "-- %s;\n-- cardinality: %d";
@@ -94,14 +241,10 @@ public final class ComparatorHelper {
             throw new AssertionError(assertionMessage);
         }
 
-        Set<String> firstHashSet = new HashSet<>(resultSet);
-        Set<String> secondHashSet = new HashSet<>(secondResultSet);
-
-        if (!firstHashSet.equals(secondHashSet)) {
-            Set<String> firstResultSetMisses = new HashSet<>(firstHashSet);
-            firstResultSetMisses.removeAll(secondHashSet);
-            Set<String> secondResultSetMisses = new HashSet<>(secondHashSet);
-            secondResultSetMisses.removeAll(firstHashSet);
+        List<String> firstResultSetMisses = new ArrayList<>();
+        List<String> secondResultSetMisses = new ArrayList<>();
+        if (!ResultMultiset.compare(resultSet, secondResultSet, MAX_REPORTED_MISSES, firstResultSetMisses,
+                secondResultSetMisses)) {
             String queryFormatString = "-- %s;\n-- misses: %s";
             String firstQueryString = String.format(queryFormatString, originalQueryString, firstResultSetMisses);
             String secondQueryString = String.format(queryFormatString,
@@ -114,20 +257,255 @@ public final class ComparatorHelper {
         }
     }
 
-    public static List<String> getCombinedResultSet(String firstQueryString, String secondQueryString,
+    /**
+     * Executes the original query and the partitioning queries of TLP, and checks that they return the same values. If
+     * the DBMS supports {@link GlobalState#supportsPipelinedQueries() pipelined queries}, all queries are sent in a
+     * single round trip. Only if one of them fails with an unexpected error are they executed again one by one, so that
+     * the error is attributed to the failing query.
+     *
+     * @param originalQueryString
+     *            the original query
+     * @param partitioningQueryStrings
+     *            the partitioning queries with the predicate, the negated predicate, and the IS NULL predicate
+     * @param asUnion
+     *            whether the partitioning queries are combined by UNION ALL into a single query
+     * @param state
+     *            the state whose connection and options are used
+     * @param errors
+     *            the errors that the queries are expected to cause
+     *
+     * @throws SQLException
+     *             if reading a result set fails
+     */
+    public static void assumeResultSetsAreEqual(String originalQueryString, List<String> partitioningQueryStrings,
+            boolean asUnion, GlobalState<?, ?> state, ExpectedErrors errors) throws SQLException {
+        skipIfQueryPlanIsSaturated(partitioningQueryStrings.get(0), state);
+        List<String> combinedString = new ArrayList<>();
+        if (asUnion) {
+            combinedString.add(String.join(" UNION ALL ", partitioningQueryStrings));
+        } else {
+            combinedString.addAll(partitioningQueryStrings);
+        }
+        List<String> queryStrings = new ArrayList<>();
+        queryStrings.add(originalQueryString);
+        queryStrings.addAll(combinedString);
+        ResultMultiset resultSet;
+        ResultMultiset secondResultSet;
+        if (state.hasReadConnections() && !usesFingerprints(queryStrings, state)) {
+            List<ResultMultiset> resultSets = readResultSetsConcurrently(queryStrings, errors, state);
+            resultSet = resultSets.get(0);
+            secondResultSet = resultSets.get(1);
+            for (ResultMultiset partitionResultSet : resultSets.subList(2, resultSets.size())) {
+                secondResultSet.addAll(partitionResultSet);
+            }
+            assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString, state);
+            return;
+        }
+        if (canBePipelined(queryStrings, state)) {
+            resultSet = new ResultMultiset(state.getOptions().getResultSpillRows());
+            secondResultSet = new ResultMultiset(state.getOptions().getResultSpillRows());
+            List<ResultMultiset> resultSets = new ArrayList<>();
+            resultSets.add(resultSet);
+            resultSets.addAll(Collections.nCopies(combinedString.size(), secondResultSet));
+            if (readResultSetsPipelined(queryStrings, resultSets, errors, state)) {
+                assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString, state);
+                return;
+            }
+        }
+        resultSet = getResultSetFirstColumnAsMultiset(originalQueryString, errors, state);
+        secondResultSet = new ResultMultiset(state.getOptions().getResultSpillRows());
+        try {
+            for (String queryString : combinedString) {
+                addResultSetFirstColumn(queryString, errors, state, secondResultSet);
+            }
+        } catch (Throwable t) {
+            resultSet.close();
+            throw t;
+        }
+        assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString, state);
+    }
+
+    /*
+     * Skips the check if the query plan cache decides that queries with the same plan as the given query have been
+     * checked often enough. The plan of the first partitioning query is used, since it contains the predicate.
+     */
+    private static void skipIfQueryPlanIsSaturated(String queryString, GlobalState<?, ?> state) {
+        QueryPlanCache cache = state.getQueryPlanCache();
+        if (cache == null) {
+            return;
+        }
+        String plan;
+        try {
+            plan = state.getQueryPlan(queryString);
+        } catch (SQLException e) {
+            // the query is checked, which handles its errors
+            return;
+        }
+        if (plan == null) {
+            return;
+        }
+        long count = cache.record(plan);
+        if (count == 1) {
+            state.getMetrics().incrementNovelQueryPlans();
+        }
+        if (!cache.shouldCheck(count)) {
+            state.getMetrics().incrementSkippedChecks();
+            throw new IgnoreMeException();
+        }
+    }
+
+    /*
+     * Returns whether the queries are deferred until their fingerprints are compared.
+     */
+    private static boolean usesFingerprints(List<String> queryStrings, GlobalState<?, ?> state) {
+        if (!state.getOptions().useResultFingerprints()) {
+            return false;
+        }
+        return queryStrings.stream().anyMatch(queryString -> state.getResultFingerprintQuery(queryString) != null);
+    }
+
+    /*
+     * Reads the values of the first column of each query on the read connections of the state, so that the queries are
+     * executed concurrently.
+     */
+    private static List<ResultMultiset> readResultSetsConcurrently(List<String> queryStrings, ExpectedErrors errors,
+            GlobalState<?, ?> state) throws SQLException {
+        List<Future<ResultMultiset>> futures = new ArrayList<>();
+        for (String queryString : queryStrings) {
+            if (state.getOptions().logEachSelect()) {
+                state.getLogger().writeCurrent(queryString);
+            }
+            futures.add(state.submitRead(() -> {
+                ResultMultiset resultSet = new ResultMultiset(state.getOptions().getResultSpillRows());
+                try {
+                    readRows(queryString, errors, state, result -> resultSet.add(result, 1));
+                } catch (Throwable t) {
+                    resultSet.close();
+                    throw t;
+                }
+                return resultSet;
+            }));
+        }
+        List<ResultMultiset> resultSets = new ArrayList<>();
+        try {
+            for (Future<ResultMultiset> future : futures) {
+                resultSets.add(ReadConnectionPool.getResult(future));
+            }
+        } catch (Throwable t) {
+            for (ResultMultiset resultSet : resultSets) {
+                resultSet.close();
+            }
+            for (Future<ResultMultiset> future : futures.subList(resultSets.size() + 1, futures.size())) {
+                closeResult(future);
+            }
+            throw t;
+        }
+        return resultSets;
+    }
+
+    private static void closeResult(Future<ResultMultiset> future) {
+        try {
+            ReadConnectionPool.getResult(future).close();
+        } catch (SQLException | RuntimeException | AssertionError e) {
+            // only the first error of the queries is reported
+        }
+    }
+
+    private static boolean canBePipelined(List<String> queryStrings, GlobalState<?, ?> state) {
+        if (!state.supportsPipelinedQueries() || usesFingerprints(queryStrings, state)) {
+            return false;
+        }
+        for (String queryString : queryStrings) {
+            if (queryString.contains("--")) {
+                // a comment would extend to the next query
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Sends the queries in a single round trip and adds the values of the first column of the i-th result set to the
+     * i-th multiset. Since the DBMS aborts the remaining queries after an error, and the driver does not report which
+     * query failed, it returns false, after closing the multisets, if the error is not expected.
+     */
+    private static boolean readResultSetsPipelined(List<String> queryStrings, List<ResultMultiset> resultSets,
+            ExpectedErrors errors, GlobalState<?, ?> state) {
+        if (state.getOptions().logEachSelect()) {
+            for (String queryString : queryStrings) {
+                state.getLogger().writeCurrent(queryString);
+            }
+        }
+        StatementCache cache = state.getStatementCache();
+        StatementWatchdog.Watch watch = null;
+        try {
+            Statement s = cache.getStatement();
+            String queryString = String.join(";\n", queryStrings);
+            watch = state.watchStatement(s, queryString);
+            try {
+                readResultSets(s, queryString, resultSets, state.getOptions().getMaxResultRows());
+            } finally {
+                watch.close();
+                cache.release(s);
+            }
+        } catch (IgnoreMeException e) {
+            for (ResultMultiset resultSet : resultSets) {
+                resultSet.close();
+            }
+            if (watch != null) {
+                watch.handleCancel();
+            }
+            throw e;
+        } catch (SQLException e) {
+            state.getMetrics().incrementUnsuccessfulStatements();
+            for (ResultMultiset resultSet : resultSets) {
+                resultSet.close();
+            }
+            if (watch != null && watch.handleCancel()
+                    || e.getMessage() != null && errors.errorIsExpected(e.getMessage())) {
+                state.getGrammarWeights().recordFailure();
+                throw new IgnoreMeException();
+            }
+            // the queries are executed again one by one, which attributes their errors
+            return false;
+        }
+        watch.handleCancel();
+        for (int i = 0; i < queryStrings.size(); i++) {
+            state.getMetrics().incrementSuccessfulStatements();
+        }
+        return true;
+    }
+
+    private static void readResultSets(Statement s, String queryStrings, List<ResultMultiset> resultSets, long maxRows)
+            throws SQLException {
+        boolean isResultSet = s.execute(queryStrings);
+        for (ResultMultiset resultSet : resultSets) {
+            if (!isResultSet) {
+                throw new SQLException("the query did not return a result set");
+            }
+            try (ResultSet rs = s.getResultSet()) {
+                SQLancerResultSet result = new SQLancerResultSet(rs, null, maxRows);
+                while (result.next()) {
+                    resultSet.add(result, 1);
+                }
+            }
+            isResultSet = s.getMoreResults();
+        }
+    }
+
+    public static ResultMultiset getCombinedResultSet(String firstQueryString, String secondQueryString,
             String thirdQueryString, List<String> combinedString, boolean asUnion, GlobalState<?, ?> state,
             ExpectedErrors errors) throws SQLException {
-        List<String> secondResultSet;
+        ResultMultiset secondResultSet;
         if (asUnion) {
             String unionString = firstQueryString + " UNION ALL " + secondQueryString + " UNION ALL "
                     + thirdQueryString;
             combinedString.add(unionString);
-            secondResultSet = getResultSetFirstColumnAsString(unionString, errors, state);
+            secondResultSet = getResultSetFirstColumnAsMultiset(unionString, errors, state);
         } else {
-            secondResultSet = new ArrayList<>();
-            secondResultSet.addAll(getResultSetFirstColumnAsString(firstQueryString, errors, state));
-            secondResultSet.addAll(getResultSetFirstColumnAsString(secondQueryString, errors, state));
-            secondResultSet.addAll(getResultSetFirstColumnAsString(thirdQueryString, errors, state));
+            secondResultSet = getResultSetFirstColumnAsMultiset(firstQueryString, errors, state);
+            addResultSetFirstColumn(secondQueryString, errors, state, secondResultSet);
+            addResultSetFirstColumn(thirdQueryString, errors, state, secondResultSet);
             combinedString.add(firstQueryString);
             combinedString.add(secondQueryString);
             combinedString.add(thirdQueryString);
@@ -135,7 +513,7 @@ public final class ComparatorHelper {
         return secondResultSet;
     }
 
-    public static List<String> getCombinedResultSetNoDuplicates(String firstQueryString, String secondQueryString,
+    public static ResultMultiset getCombinedResultSetNoDuplicates(String firstQueryString, String secondQueryString,
             String thirdQueryString, List<String> combinedString, boolean asUnion, GlobalState<?, ?> state,
             ExpectedErrors errors) throws SQLException {
         String unionString;
@@ -145,10 +523,8 @@ public final class ComparatorHelper {
             unionString = "SELECT DISTINCT * FROM (" + firstQueryString + " UNION ALL " + secondQueryString
                     + " UNION ALL " + thirdQueryString + ")";
         }
-        List<String> secondResultSet;
         combinedString.add(unionString);
-        secondResultSet = getResultSetFirstColumnAsString(unionString, errors, state);
-        return secondResultSet;
+        return getResultSetFirstColumnAsMultiset(unionString, errors, state);
     }
 
 }
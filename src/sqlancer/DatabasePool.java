@@ -0,0 +1,132 @@
+package sqlancer;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a reserve of empty databases for each thread, so that a new database can be tested without waiting for
+ * catalog-level DDL statements, which take up to several seconds on some DBMS (e.g., TiDB and CockroachDB). A pool with
+ * size n rotates between n + 1 databases that are named after the database of the thread. While one of them is being
+ * tested, the others are dropped and re-created in the background.
+ *
+ * A pool is used only by the thread that owns it.
+ */
+public final class DatabasePool {
+
+    private static final Map<String, DatabasePool> POOLS = new ConcurrentHashMap<>();
+    private static final ExecutorService RECREATOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "sqlancer-database-pool");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final DatabaseCreator creator;
+    private final Deque<PooledDatabase> databases = new ArrayDeque<>();
+    private String currentDatabase;
+
+    @FunctionalInterface
+    public interface DatabaseCreator {
+
+        /**
+         * Drops the given database, if it exists, and creates it as an empty database.
+         *
+         * @param databaseName
+         *            the name of the database
+         *
+         * @throws SQLException
+         *             if the database cannot be created
+         */
+        void recreate(String databaseName) throws SQLException;
+
+    }
+
+    private static final class PooledDatabase {
+
+        private final String name;
+        private final CompletableFuture<Void> created;
+
+        PooledDatabase(String name, CompletableFuture<Void> created) {
+            this.name = name;
+            this.created = created;
+        }
+
+    }
+
+    private DatabasePool(String databaseName, int size, DatabaseCreator creator) {
+        this.creator = creator;
+        for (int i = 0; i <= size; i++) {
+            databases.addLast(recreate(databaseName + "_" + i));
+        }
+    }
+
+    /**
+     * Returns the name of an empty database that the given state can test, and sets it as the database name of the
+     * state and of its state to reproduce, so that the log and the reproducer refer to the tested database. If pooling
+     * is disabled by the options, the state's database is dropped and created synchronously.
+     *
+     * @param globalState
+     *            the state, whose database name identifies the thread's pool
+     * @param creator
+     *            drops and creates a database; it is called on a background thread when pooling is enabled
+     *
+     * @return the name of the empty database
+     *
+     * @throws SQLException
+     *             if the database cannot be created
+     */
+    public static String getEmptyDatabase(GlobalState<?, ?> globalState, DatabaseCreator creator) throws SQLException {
+        int size = globalState.getOptions().getDatabasePoolSize();
+        String databaseName = globalState.getDatabaseName();
+        if (size <= 0) {
+            creator.recreate(databaseName);
+            return databaseName;
+        }
+        String pooledName = POOLS.computeIfAbsent(databaseName, n -> new DatabasePool(n, size, creator)).acquire();
+        globalState.setDatabaseName(pooledName);
+        globalState.getState().setDatabaseName(pooledName);
+        return pooledName;
+    }
+
+    private PooledDatabase recreate(String name) {
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        RECREATOR.execute(() -> {
+            try {
+                creator.recreate(name);
+                created.complete(null);
+            } catch (Throwable t) {
+                created.completeExceptionally(t);
+            }
+        });
+        return new PooledDatabase(name, created);
+    }
+
+    private String acquire() throws SQLException {
+        if (currentDatabase != null) {
+            // the previous database is no longer used, since its connection has been closed
+            databases.addLast(recreate(currentDatabase));
+            currentDatabase = null;
+        }
+        PooledDatabase database = databases.pollFirst();
+        try {
+            database.created.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            databases.addFirst(database);
+            throw new AssertionError(e);
+        } catch (ExecutionException e) {
+            // the background thread might have failed for a transient reason (e.g., a lock timeout), so the database is
+            // created again synchronously, like without a pool, instead of failing the test run
+            creator.recreate(database.name);
+        }
+        currentDatabase = database.name;
+        return currentDatabase;
+    }
+
+}
@@ -31,6 +31,24 @@ public interface DatabaseProvider<G extends GlobalState<O, ?>, O extends DBMSSpe
 
     Connection createDatabase(G globalState) throws Exception;
 
+    /**
+     * Opens an additional connection to the database of the given state, on which test oracles can execute read-only
+     * queries concurrently to the main connection (see {@link GlobalState#submitRead}). It is called after the database
+     * has been generated, and the connection must observe the same data and session settings as the main connection.
+     *
+     * @param globalState
+     *            the state whose database is connected to
+     *
+     * @return the connection, or null if the DBMS does not support it or if the connection might observe a different
+     *         state (e.g., of temporary tables or of an open transaction)
+     *
+     * @throws Exception
+     *             if the connection cannot be established
+     */
+    default Connection createReadConnection(G globalState) throws Exception {
+        return null;
+    }
+
     /**
      * The DBMS name is used to name the log directory and command to test the respective DBMS.
      *
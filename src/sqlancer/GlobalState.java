@@ -1,13 +1,30 @@
 package sqlancer;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import sqlancer.Main.QueryManager;
 import sqlancer.Main.StateLogger;
+import sqlancer.common.gen.GrammarWeights;
+import sqlancer.common.metrics.MetricsRegistry;
+import sqlancer.common.metrics.MetricsScope;
+import sqlancer.common.oracle.QueryPlanCache;
 import sqlancer.common.query.Query;
+import sqlancer.common.query.ReadConnectionPool;
 import sqlancer.common.query.SQLancerResultSet;
+import sqlancer.common.query.StatementCache;
+import sqlancer.common.query.StatementWatchdog;
 import sqlancer.common.schema.AbstractSchema;
 import sqlancer.common.schema.AbstractTable;
+import sqlancer.common.schema.SchemaDelta;
+import sqlancer.common.schema.TableModification;
 
 /**
  * Represents a global state that is valid for a testing session on a given database.
@@ -19,6 +36,8 @@ import sqlancer.common.schema.AbstractTable;
  */
 public abstract class GlobalState<O extends DBMSSpecificOptions<?>, S extends AbstractSchema<?>> {
 
+    private static final int QUERY_PLAN_CACHE_CAPACITY = 4096;
+
     private Connection con;
     private Randomly r;
     private MainOptions options;
@@ -28,8 +47,19 @@ public abstract class GlobalState<O extends DBMSSpecificOptions<?>, S extends Ab
     private StateToReproduce state;
     private QueryManager manager;
     private String databaseName;
+    private MetricsScope metrics;
+    private GrammarWeights grammarWeights;
+    private QueryPlanCache queryPlanCache;
+    private StatementCache statementCache;
+    private ReadConnectionPool readConnections;
+    private long schemaVersion;
+    private Long schemaChecksum;
+    private boolean schemaOutdated;
 
     public void setConnection(Connection con) {
+        if (this.con != con) {
+            closeStatementCache();
+        }
         this.con = con;
     }
 
@@ -46,6 +76,74 @@ public abstract class GlobalState<O extends DBMSSpecificOptions<?>, S extends Ab
         return con;
     }
 
+    /**
+     * Gets the cache of JDBC statements for the current connection, or, within a task submitted by
+     * {@link #submitRead(Callable)}, for the read connection on which the task runs.
+     *
+     * @return the statement cache
+     */
+    public StatementCache getStatementCache() {
+        StatementCache readCache = ReadConnectionPool.getCurrentStatementCache();
+        if (readCache != null) {
+            return readCache;
+        }
+        if (statementCache == null) {
+            statementCache = new StatementCache(con, getMetrics());
+        }
+        return statementCache;
+    }
+
+    /**
+     * Closes all cached statements of the current connection.
+     */
+    public void closeStatementCache() {
+        if (statementCache != null) {
+            statementCache.close();
+            statementCache = null;
+        }
+    }
+
+    public void setReadConnections(ReadConnectionPool readConnections) {
+        closeReadConnections();
+        this.readConnections = readConnections;
+    }
+
+    public boolean hasReadConnections() {
+        return readConnections != null;
+    }
+
+    /**
+     * Executes a task that only reads from the database, such as a query of a test oracle. If the state has
+     * {@link ReadConnectionPool read connections}, the task is executed concurrently on one of them; otherwise, it is
+     * executed immediately on the current connection. The result should be obtained by
+     * {@link ReadConnectionPool#getResult(Future)}.
+     *
+     * @param <T>
+     *            the result type
+     * @param task
+     *            the task, which must not modify the database or use the logger
+     *
+     * @return the future result of the task
+     */
+    public <T> Future<T> submitRead(Callable<T> task) {
+        if (readConnections != null) {
+            return readConnections.submit(task);
+        }
+        FutureTask<T> future = new FutureTask<>(task);
+        future.run();
+        return future;
+    }
+
+    /**
+     * Closes the read connections, if any, after their running tasks have finished.
+     */
+    public void closeReadConnections() {
+        if (readConnections != null) {
+            readConnections.close();
+            readConnections = null;
+        }
+    }
+
     public void setRandomly(Randomly r) {
         this.r = r;
     }
@@ -94,6 +192,30 @@ public abstract class GlobalState<O extends DBMSSpecificOptions<?>, S extends Ab
         this.databaseName = databaseName;
     }
 
+    public MetricsScope getMetrics() {
+        if (metrics == null) {
+            metrics = new MetricsScope("unknown");
+        }
+        return metrics;
+    }
+
+    public void setMetrics(MetricsScope metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the weights with which the expression generators choose their productions on this database.
+     *
+     * @return the grammar weights
+     */
+    public GrammarWeights getGrammarWeights() {
+        if (grammarWeights == null) {
+            grammarWeights = new GrammarWeights(MetricsRegistry.getInstance(), getMetrics().getProvider(),
+                    options == null || options.useGrammarWeighting());
+        }
+        return grammarWeights;
+    }
+
     private ExecutionTimer executePrologue(Query q) throws Exception {
         boolean logExecutionTime = getOptions().logExecutionTime();
         ExecutionTimer timer = null;
@@ -122,7 +244,7 @@ public abstract class GlobalState<O extends DBMSSpecificOptions<?>, S extends Ab
             getLogger().writeCurrent(" -- " + timer.end().asString());
         }
         if (q.couldAffectSchema()) {
-            updateSchema();
+            updateSchema(q, success);
         }
     }
 
@@ -162,10 +284,119 @@ public abstract class GlobalState<O extends DBMSSpecificOptions<?>, S extends Ab
 
     protected void setSchema(S schema) {
         this.schema = schema;
+        schemaVersion++;
+    }
+
+    /**
+     * Gets the version of the schema, which is incremented whenever the schema changes.
+     *
+     * @return the schema version
+     */
+    public long getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    /**
+     * Returns whether the schema might not reflect the catalog, because updating it after a statement failed.
+     *
+     * @return true if {@link #updateSchema()} should be called
+     */
+    public boolean isSchemaOutdated() {
+        return schemaOutdated;
     }
 
     public void updateSchema() throws Exception {
+        schemaOutdated = true;
+        schemaChecksum = readSchemaChecksum();
         setSchema(readSchema());
+        recomputeCounts();
+        schemaOutdated = false;
+    }
+
+    /**
+     * Updates the schema after a query that could affect it. If the effect of the query is known, it is applied to the
+     * current schema; the schema is only re-read if the effect is unknown or if the catalog checksum shows that the
+     * catalog changed in an unexpected way.
+     *
+     * @param q
+     *            the executed query
+     * @param success
+     *            whether the query was executed successfully
+     *
+     * @throws Exception
+     *             if reading the catalog fails
+     */
+    private void updateSchema(Query q, boolean success) throws Exception {
+        @SuppressWarnings("unchecked")
+        SchemaDelta<S> delta = (SchemaDelta<S>) q.getSchemaDelta();
+        if (delta == null || schema == null || schemaOutdated) {
+            updateSchema();
+            return;
+        }
+        schemaOutdated = true;
+        boolean changesSchema = success && delta.changesSchema();
+        if (schemaChecksum != null) {
+            Long checksum = readSchemaChecksum();
+            if (checksum.equals(schemaChecksum)) {
+                // for example, the statement failed or was a no-op (e.g., CREATE INDEX IF NOT EXISTS)
+                changesSchema = false;
+            } else if (!changesSchema) {
+                updateSchema();
+                return;
+            }
+            schemaChecksum = checksum;
+        }
+        if (changesSchema) {
+            S newSchema = delta.apply(schema);
+            if (newSchema == null) {
+                updateSchema();
+                return;
+            }
+            setSchema(newSchema);
+            // statements with a schema delta are DDL statements, which do not modify the rows of existing tables
+            recomputeViewCounts();
+        } else {
+            updateCounts(q, success);
+        }
+        schemaOutdated = false;
+    }
+
+    /**
+     * Updates the row counts after a query that did not change the schema. Only the table modified by the query is
+     * updated if the query's effect is known; the row counts of views are always recomputed, since they might depend on
+     * the modified table.
+     *
+     * @param q
+     *            the executed query
+     * @param success
+     *            whether the query was executed successfully
+     */
+    private void updateCounts(Query q, boolean success) {
+        TableModification modification = q.getTableModification();
+        long updateCount = q.getUpdateCount();
+        if (!success || modification == null || updateCount < 0) {
+            // for example, a failing INSERT OR FAIL can leave some of its rows in the table
+            recomputeCounts();
+            return;
+        }
+        for (AbstractTable<?, ?> table : schema.getDatabaseTables()) {
+            if (table.getName().equals(modification.getTableName())) {
+                modification.apply(table, updateCount);
+            } else if (table.isView()) {
+                table.recomputeCount();
+            }
+        }
+    }
+
+    private void recomputeViewCounts() {
+        for (AbstractTable<?, ?> table : schema.getDatabaseTables()) {
+            if (table.isView()) {
+                table.recomputeCount();
+            }
+        }
+    }
+
+    private void recomputeCounts() {
         for (AbstractTable<?, ?> table : schema.getDatabaseTables()) {
             table.recomputeCount();
         }
@@ -173,4 +404,273 @@ public abstract class GlobalState<O extends DBMSSpecificOptions<?>, S extends Ab
 
     protected abstract S readSchema() throws Exception;
 
+    /**
+     * Computes a checksum over the parts of the catalog that are reflected by the schema, which is used to validate
+     * schema deltas. It should be considerably cheaper than {@link #readSchema()}.
+     *
+     * @return the checksum, or null if the DBMS does not support computing it
+     *
+     * @throws Exception
+     *             if reading the checksum fails
+     */
+    protected Long readSchemaChecksum() throws Exception {
+        return null;
+    }
+
+    /**
+     * Returns a query that computes an order-independent fingerprint of the rows of the given query within the DBMS,
+     * namely the number of rows and the sum of a hash of each row. It allows {@link ComparatorHelper} to compare the
+     * results of two queries without fetching them.
+     *
+     * @param query
+     *            the query whose result is fingerprinted
+     *
+     * @return a query that returns the number of rows and the sum of their hashes, or null if the DBMS has no suitable
+     *         hash function
+     */
+    public String getResultFingerprintQuery(String query) {
+        return null;
+    }
+
+    /**
+     * Gets the cache of the plans of the queries that have been checked on this database, if plan-guided checks are
+     * enabled by {@link MainOptions#getMaxChecksPerQueryPlan()}.
+     *
+     * @return the cache, or null if plan-guided checks are disabled
+     */
+    public QueryPlanCache getQueryPlanCache() {
+        int maxChecks = getOptions().getMaxChecksPerQueryPlan();
+        if (queryPlanCache == null && maxChecks > 0) {
+            queryPlanCache = new QueryPlanCache(QUERY_PLAN_CACHE_CAPACITY, maxChecks);
+        }
+        return queryPlanCache;
+    }
+
+    /**
+     * Returns a query that explains how the DBMS executes the given query, such as <code>EXPLAIN QUERY PLAN</code>. It
+     * should be considerably cheaper than the query itself, and must not execute it.
+     *
+     * @param query
+     *            the query to be explained
+     *
+     * @return the query that returns the plan, or null if the DBMS does not support plan-guided checks
+     */
+    protected String getQueryPlanQuery(String query) {
+        return null;
+    }
+
+    /**
+     * Normalizes the rows returned by the {@link #getQueryPlanQuery(String) query-plan query} into the shape of the
+     * plan, so that queries that differ only in their constants and predicates, but are executed in the same way, have
+     * the same plan. By default, the columns of the rows are concatenated.
+     *
+     * @param rows
+     *            the rows of the query-plan query, each given by its columns
+     *
+     * @return the normalized plan
+     */
+    protected String normalizeQueryPlan(List<List<String>> rows) {
+        StringBuilder sb = new StringBuilder();
+        for (List<String> row : rows) {
+            sb.append(String.join("|", row));
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gets the normalized plan of a query.
+     *
+     * @param query
+     *            the query
+     *
+     * @return the plan, or null if the DBMS does not support plan-guided checks
+     *
+     * @throws SQLException
+     *             if the query cannot be explained (e.g., because it refers to an unknown function)
+     */
+    public String getQueryPlan(String query) throws SQLException {
+        String planQuery = getQueryPlanQuery(query);
+        if (planQuery == null) {
+            return null;
+        }
+        if (getOptions().logEachSelect()) {
+            getLogger().writeCurrent(planQuery);
+        }
+        List<List<String>> rows = new ArrayList<>();
+        StatementCache cache = getStatementCache();
+        Statement s = cache.getStatement();
+        try (ResultSet rs = s.executeQuery(planQuery)) {
+            int nrColumns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                List<String> row = new ArrayList<>(nrColumns);
+                for (int i = 1; i <= nrColumns; i++) {
+                    row.add(rs.getString(i));
+                }
+                rows.add(row);
+            }
+        } finally {
+            cache.release(s);
+        }
+        return normalizeQueryPlan(rows);
+    }
+
+    /**
+     * Configures how the driver fetches the result of a query before the query is executed on the given statement. By
+     * default, the fetch size given by {@link MainOptions#getFetchSize()} is set, if any. DBMS whose drivers only
+     * stream results in a specific mode (e.g., MySQL and PostgreSQL) override this method to enter it.
+     *
+     * @param s
+     *            the statement on which the query is executed
+     *
+     * @return an action that undoes changes to the statement and connection after the result set has been closed or
+     *         the query has failed, or null
+     *
+     * @throws SQLException
+     *             if the statement cannot be configured
+     */
+    public Runnable configureResultStreaming(Statement s) throws SQLException {
+        int fetchSize = getOptions().getFetchSize();
+        if (fetchSize > 0) {
+            return setFetchSize(s, fetchSize);
+        }
+        return null;
+    }
+
+    /**
+     * Sets the fetch size of a statement for a single query. Since the {@link StatementCache} reuses the statement for
+     * later queries, the returned action restores the previous fetch size; if this fails, the statement is closed, so
+     * that it is discarded when it is released.
+     *
+     * @param s
+     *            the statement on which the query is executed
+     * @param fetchSize
+     *            the fetch size for the query
+     *
+     * @return an action that restores the previous fetch size
+     *
+     * @throws SQLException
+     *             if the fetch size cannot be set
+     */
+    protected static Runnable setFetchSize(Statement s, int fetchSize) throws SQLException {
+        int previousFetchSize = s.getFetchSize();
+        s.setFetchSize(fetchSize);
+        return () -> {
+            try {
+                s.setFetchSize(previousFetchSize);
+            } catch (SQLException e) {
+                try {
+                    s.close();
+                } catch (SQLException e2) {
+                    // the statement or connection is already unusable
+                }
+            }
+        };
+    }
+
+    /**
+     * Starts watching a statement, which is cancelled if it runs for longer than the statement timeout. A statement
+     * that timed out is logged, together with the statements that created the database, to the "-hangs.log" file.
+     *
+     * @param s
+     *            the statement that is about to be executed
+     * @param query
+     *            the query string of the statement
+     *
+     * @return the watch, which must be closed once the statement has finished
+     */
+    public StatementWatchdog.Watch watchStatement(Statement s, String query) {
+        return watchStatement(getCancelAction(s), () -> {
+            try {
+                recoverFromCancel(s);
+            } catch (SQLException e) {
+                throw new AssertionError(e);
+            }
+        }, query);
+    }
+
+    /**
+     * Starts watching a statement that is not executed by a JDBC {@link Statement} (e.g., a COPY executed by an API of
+     * the driver), and which is cancelled by the given action.
+     *
+     * @param cancelAction
+     *            the action that cancels the statement, which can be executed by any thread
+     * @param query
+     *            the query string of the statement
+     *
+     * @return the watch, which must be closed once the statement has finished
+     */
+    public StatementWatchdog.Watch watchStatement(Runnable cancelAction, String query) {
+        return watchStatement(cancelAction, () -> {
+        }, query);
+    }
+
+    private StatementWatchdog.Watch watchStatement(Runnable cancelAction, Runnable recoverAction, String query) {
+        long timeoutMs = getStatementTimeoutMs();
+        return StatementWatchdog.watch(timeoutMs, cancelAction, recoverAction, () -> {
+            if (getLogger() != null) {
+                getLogger().logHang(query, timeoutMs, getState());
+            }
+        });
+    }
+
+    /**
+     * Returns an action that cancels a statement that is about to be executed by the current thread. The action is
+     * typically executed by another thread, while the statement is executed.
+     *
+     * @param s
+     *            the statement
+     *
+     * @return the action
+     */
+    protected Runnable getCancelAction(Statement s) {
+        return () -> {
+            try {
+                s.cancel();
+            } catch (SQLException e) {
+                // the statement might have finished in the meantime
+            }
+        };
+    }
+
+    /**
+     * Restores the connection of a cancelled statement after the statement has finished, so that subsequent statements
+     * are not affected by the cancellation.
+     *
+     * @param s
+     *            the cancelled statement
+     *
+     * @throws SQLException
+     *             if the connection cannot be restored
+     */
+    protected void recoverFromCancel(Statement s) throws SQLException {
+    }
+
+    public long getStatementTimeoutMs() {
+        long timeoutMs = getOptions().getStatementTimeoutMs();
+        return timeoutMs < 0 ? getDefaultStatementTimeoutMs() : timeoutMs;
+    }
+
+    /**
+     * Returns the statement timeout used if none is given by {@link MainOptions#getStatementTimeoutMs()}. By default,
+     * statements do not time out; a DBMS that overrides it should return a timeout well above the execution time of
+     * regular statements, including DDL statements.
+     *
+     * @return the timeout in milliseconds, or 0 if statements should not time out
+     */
+    protected long getDefaultStatementTimeoutMs() {
+        return 0;
+    }
+
+    /**
+     * Returns whether the JDBC driver can execute several queries, separated by semicolons, in a single round trip and
+     * return their result sets in order (see {@link java.sql.Statement#getMoreResults()}). If so,
+     * {@link ComparatorHelper} sends the original and the partitioning queries of TLP together.
+     *
+     * @return true if several queries can be sent to the DBMS at once
+     */
+    public boolean supportsPipelinedQueries() {
+        return false;
+    }
+
 }
@@ -18,7 +18,6 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.JCommander.Builder;
@@ -26,7 +25,15 @@ import com.beust.jcommander.JCommander.Builder;
 import sqlancer.citus.CitusProvider;
 import sqlancer.clickhouse.ClickHouseProvider;
 import sqlancer.cockroachdb.CockroachDBProvider;
+import sqlancer.common.log.AsyncLogFile;
 import sqlancer.common.log.Loggable;
+import sqlancer.common.metrics.MetricsEndpoint;
+import sqlancer.common.metrics.MetricsRegistry;
+import sqlancer.common.metrics.MetricsRegistry.Counters;
+import sqlancer.common.metrics.MetricsRegistry.Metric;
+import sqlancer.common.metrics.MetricsRegistry.MetricKey;
+import sqlancer.common.metrics.MetricsRegistry.ProductionCounters;
+import sqlancer.common.metrics.MetricsScope;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.SQLancerResultSet;
 import sqlancer.duckdb.DuckDBProvider;
@@ -40,12 +47,9 @@ import sqlancer.tidb.TiDBProvider;
 public final class Main {
 
     public static final File LOG_DIRECTORY = new File("logs");
-    public static volatile AtomicLong nrQueries = new AtomicLong();
-    public static volatile AtomicLong nrDatabases = new AtomicLong();
-    public static volatile AtomicLong nrSuccessfulActions = new AtomicLong();
-    public static volatile AtomicLong nrUnsuccessfulActions = new AtomicLong();
     static int threadsShutdown;
     static boolean progressMonitorStarted;
+    static MetricsEndpoint metricsEndpoint;
 
     static {
         System.setProperty(org.slf4j.impl.SimpleLogger.DEFAULT_LOG_LEVEL_KEY, "ERROR");
@@ -60,9 +64,10 @@ public final class Main {
     public static final class StateLogger {
 
         private final File loggerFile;
+        private final File hangsFile;
         private File curFile;
         private FileWriter logFileWriter;
-        public FileWriter currentFileWriter;
+        private AsyncLogFile currentLog;
         private static final List<String> INITIALIZED_PROVIDER_NAMES = new ArrayList<>();
         private final boolean logEachSelect;
         private final DatabaseProvider<?, ?> databaseProvider;
@@ -93,6 +98,7 @@ public final class Main {
             }
             ensureExistsAndIsEmpty(dir, provider);
             loggerFile = new File(dir, databaseName + ".log");
+            hangsFile = new File(dir, databaseName + "-hangs.log");
             logEachSelect = options.logEachSelect();
             if (logEachSelect) {
                 curFile = new File(dir, databaseName + "-cur.log");
@@ -134,31 +140,44 @@ public final class Main {
             return logFileWriter;
         }
 
-        public FileWriter getCurrentFileWriter() {
+        private AsyncLogFile getCurrentLog() {
             if (!logEachSelect) {
                 throw new UnsupportedOperationException();
             }
-            if (currentFileWriter == null) {
+            if (currentLog == null) {
                 try {
-                    currentFileWriter = new FileWriter(curFile, false);
+                    currentLog = AsyncLogFile.open(curFile);
                 } catch (IOException e) {
                     throw new AssertionError(e);
                 }
             }
-            return currentFileWriter;
+            return currentLog;
+        }
+
+        /**
+         * Writes the pending statements to the "-cur.log" file and closes it.
+         *
+         * @throws IOException
+         *             if the file cannot be closed
+         */
+        public void closeCurrent() throws IOException {
+            if (currentLog != null) {
+                currentLog.close();
+                currentLog = null;
+            }
         }
 
         public void writeCurrent(StateToReproduce state) {
             if (!logEachSelect) {
                 throw new UnsupportedOperationException();
             }
-            printState(getCurrentFileWriter(), state);
+            StringBuilder sb = new StringBuilder();
             try {
-                currentFileWriter.flush();
-
+                appendState(sb, state);
             } catch (IOException e) {
-                e.printStackTrace();
+                throw new AssertionError(e);
             }
+            getCurrentLog().append(sb.toString());
         }
 
         public void writeCurrent(String input) {
@@ -173,21 +192,19 @@ public final class Main {
             if (!logEachSelect) {
                 throw new UnsupportedOperationException();
             }
-            try {
-                getCurrentFileWriter().write(loggable.getLogString());
-
-                currentFileWriter.flush();
-            } catch (IOException e) {
-                throw new AssertionError();
-            }
+            getCurrentLog().append(loggable.getLogString());
         }
 
         public void logException(Throwable reduce, StateToReproduce state) {
+            if (currentLog != null) {
+                // make sure that the statements leading to the bug are persisted before reporting it
+                currentLog.sync();
+            }
             Loggable stackTrace = getStackTrace(reduce);
             FileWriter logFileWriter2 = getLogFileWriter();
             try {
                 logFileWriter2.write(stackTrace.getLogString());
-                printState(logFileWriter2, state);
+                appendState(logFileWriter2, state);
             } catch (IOException e) {
                 throw new AssertionError(e);
             } finally {
@@ -200,24 +217,38 @@ public final class Main {
             }
         }
 
+        /**
+         * Logs a statement that was cancelled after exceeding the statement timeout, together with the statements that
+         * led to the database state. It can be called by a thread that executes queries on a read connection.
+         *
+         * @param statement
+         *            the statement that timed out
+         * @param timeoutMs
+         *            the statement timeout
+         * @param state
+         *            the state of the database
+         */
+        public synchronized void logHang(String statement, long timeoutMs, StateToReproduce state) {
+            try (FileWriter writer = new FileWriter(hangsFile, true)) {
+                writer.write("-- timed out after " + timeoutMs + " ms: " + statement.replace("\n", "\n-- ") + "\n");
+                appendState(writer, state);
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+
         private Loggable getStackTrace(Throwable e1) {
             return databaseProvider.getLoggableFactory().convertStacktraceToLoggable(e1);
         }
 
-        private void printState(FileWriter writer, StateToReproduce state) {
-            StringBuilder sb = new StringBuilder();
-
-            sb.append(databaseProvider.getLoggableFactory()
+        private void appendState(Appendable out, StateToReproduce state) throws IOException {
+            out.append(databaseProvider.getLoggableFactory()
                     .getInfo(state.getDatabaseName(), state.getDatabaseVersion(), state.getSeedValue()).getLogString());
 
-            for (Query s : state.getStatements()) {
-                sb.append(s.getQueryString());
-                sb.append('\n');
-            }
-            try {
-                writer.write(sb.toString());
-            } catch (IOException e) {
-                throw new AssertionError(e);
+            for (String s : state.getStatements()) {
+                out.append(s);
+                out.append('\n');
             }
         }
 
@@ -233,26 +264,20 @@ public final class Main {
 
         public boolean execute(Query q, String... fills) throws Exception {
             globalState.getState().logStatement(q);
-            boolean success;
-            success = q.execute(globalState, fills);
-            Main.nrSuccessfulActions.addAndGet(1);
-            return success;
+            return q.execute(globalState, fills);
         }
 
         public SQLancerResultSet executeAndGet(Query q, String... fills) throws Exception {
             globalState.getState().logStatement(q);
-            SQLancerResultSet result;
-            result = q.executeAndGet(globalState, fills);
-            Main.nrSuccessfulActions.addAndGet(1);
-            return result;
+            return q.executeAndGet(globalState, fills);
         }
 
         public void incrementSelectQueryCount() {
-            Main.nrQueries.addAndGet(1);
+            globalState.getMetrics().incrementQueries();
         }
 
         public void incrementCreateDatabase() {
-            Main.nrDatabases.addAndGet(1);
+            globalState.getMetrics().incrementDatabases();
         }
 
     }
@@ -296,6 +321,8 @@ public final class Main {
             G state = getInitializedGlobalState(options.getRandomSeed());
             try (Connection con = provider.createDatabase(state)) {
                 return;
+            } finally {
+                stateToRepro.close();
             }
         }
 
@@ -309,6 +336,7 @@ public final class Main {
             state.setDatabaseName(databaseName);
             state.setMainOptions(options);
             state.setDmbsSpecificOptions(command);
+            state.setMetrics(new MetricsScope(provider.getDBMSName()));
             try (Connection con = provider.createDatabase(state)) {
                 QueryManager manager = new QueryManager(state);
                 try {
@@ -325,8 +353,7 @@ public final class Main {
                 }
                 provider.generateAndTestDatabase(state);
                 try {
-                    logger.getCurrentFileWriter().close();
-                    logger.currentFileWriter = null;
+                    logger.closeCurrent();
                 } catch (IOException e) {
                     throw new AssertionError(e);
                 }
@@ -344,6 +371,7 @@ public final class Main {
             state.setDatabaseName(databaseName);
             state.setMainOptions(options);
             state.setDmbsSpecificOptions(command);
+            state.setMetrics(new MetricsScope(provider.getDBMSName()));
             return state;
         }
 
@@ -419,6 +447,17 @@ public final class Main {
         }
 
         Randomly.initialize(options);
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.registerMBean();
+        if (options.getMetricsPort() != -1) {
+            try {
+                startMetricsEndpoint(metrics, options.getMetricsPort());
+            } catch (IOException e) {
+                System.err.println("SQLancer failed to serve the metrics on port " + options.getMetricsPort());
+                e.printStackTrace();
+                return options.getErrorExitCode();
+            }
+        }
         if (options.printProgressInformation()) {
             startProgressMonitor();
             if (options.printProgressSummary()) {
@@ -428,12 +467,48 @@ public final class Main {
                     public void run() {
                         System.out.println("Overall execution statistics");
                         System.out.println("============================");
-                        System.out.println(formatInteger(nrQueries.get()) + " queries");
-                        System.out.println(formatInteger(nrDatabases.get()) + " databases");
-                        System.out.println(
-                                formatInteger(nrSuccessfulActions.get()) + " successfully-executed statements");
-                        System.out.println(
-                                formatInteger(nrUnsuccessfulActions.get()) + " unsuccessfuly-executed statements");
+                        System.out.println(formatInteger(metrics.getTotal(Metric.QUERIES)) + " queries");
+                        System.out.println(formatInteger(metrics.getTotal(Metric.DATABASES)) + " databases");
+                        System.out.println(formatInteger(metrics.getTotal(Metric.SUCCESSFUL_STATEMENTS))
+                                + " successfully-executed statements");
+                        System.out.println(formatInteger(metrics.getTotal(Metric.UNSUCCESSFUL_STATEMENTS))
+                                + " unsuccessfuly-executed statements");
+                        long nrSolverCalls = metrics.getTotal(Metric.SOLVER_CALLS);
+                        long nrAvoidedCalls = metrics.getTotal(Metric.SOLVER_AVOIDED_CALLS);
+                        if (nrSolverCalls + nrAvoidedCalls != 0) {
+                            System.out.println(String.format(
+                                    "%.1f%% of the constrained column values computed without the solver",
+                                    100.0 * nrAvoidedCalls / (nrSolverCalls + nrAvoidedCalls)));
+                        }
+                        System.out.println();
+                        System.out.println("Statements by provider, oracle, and action");
+                        System.out.println("==========================================");
+                        for (Map.Entry<MetricKey, Counters> entry : metrics.getAllCounters().entrySet()) {
+                            long successful = entry.getValue().get(Metric.SUCCESSFUL_STATEMENTS);
+                            long unsuccessful = entry.getValue().get(Metric.UNSUCCESSFUL_STATEMENTS);
+                            if (successful + unsuccessful == 0) {
+                                continue;
+                            }
+                            MetricKey key = entry.getKey();
+                            System.out.println(String.format("%s %s %s: %s successful, %s unsuccessful",
+                                    key.getProvider(), key.getOracle().isEmpty() ? "-" : key.getOracle(),
+                                    key.getAction().isEmpty() ? "-" : key.getAction(), formatInteger(successful),
+                                    formatInteger(unsuccessful)));
+                        }
+                        Map<MetricKey, ProductionCounters> productions = metrics.getAllProductionCounters();
+                        if (!productions.isEmpty()) {
+                            System.out.println();
+                            System.out.println("Unsuccessful statements by grammar production");
+                            System.out.println("=============================================");
+                            for (Map.Entry<MetricKey, ProductionCounters> entry : productions.entrySet()) {
+                                long statements = entry.getValue().getStatements();
+                                long failures = entry.getValue().getFailures();
+                                double failureRate = statements == 0 ? 0 : 100.0 * failures / statements;
+                                System.out.println(String.format("%s %s: %s statements, %5.1f%% unsuccessful",
+                                        entry.getKey().getProvider(), entry.getKey().getAction(),
+                                        formatInteger(statements), failureRate));
+                            }
+                        }
                     }
 
                     private String formatInteger(long intValue) {
@@ -520,14 +595,14 @@ public final class Main {
                     } finally {
                         try {
                             if (options.logEachSelect()) {
-                                if (executor.getLogger().currentFileWriter != null) {
-                                    executor.getLogger().currentFileWriter.close();
-                                }
-                                executor.getLogger().currentFileWriter = null;
+                                executor.getLogger().closeCurrent();
                             }
                         } catch (IOException e) {
                             e.printStackTrace();
                         }
+                        if (executor.getStateToReproduce() != null) {
+                            executor.getStateToReproduce().close();
+                        }
                     }
                 }
             });
@@ -560,6 +635,14 @@ public final class Main {
         return providers;
     }
 
+    private static synchronized void startMetricsEndpoint(MetricsRegistry metrics, int port) throws IOException {
+        if (metricsEndpoint != null) {
+            // the main method might be called multiple times in a test
+            return;
+        }
+        metricsEndpoint = MetricsEndpoint.start(metrics, port);
+    }
+
     private static synchronized void startProgressMonitor() {
         if (progressMonitorStarted) {
             /*
@@ -576,6 +659,7 @@ public final class Main {
             private long timeMillis = System.currentTimeMillis();
             private long lastNrQueries;
             private long lastNrDbs;
+            private long lastNrNovelQueryPlans;
 
             {
                 timeMillis = System.currentTimeMillis();
@@ -584,23 +668,33 @@ public final class Main {
             @Override
             public void run() {
                 long elapsedTimeMillis = System.currentTimeMillis() - timeMillis;
-                long currentNrQueries = nrQueries.get();
+                MetricsRegistry metrics = MetricsRegistry.getInstance();
+                long currentNrQueries = metrics.getTotal(Metric.QUERIES);
                 long nrCurrentQueries = currentNrQueries - lastNrQueries;
                 double throughput = nrCurrentQueries / (elapsedTimeMillis / 1000d);
-                long currentNrDbs = nrDatabases.get();
+                long currentNrDbs = metrics.getTotal(Metric.DATABASES);
                 long nrCurrentDbs = currentNrDbs - lastNrDbs;
                 double throughputDbs = nrCurrentDbs / (elapsedTimeMillis / 1000d);
-                long successfulStatementsRatio = (long) (100.0 * nrSuccessfulActions.get()
-                        / (nrSuccessfulActions.get() + nrUnsuccessfulActions.get()));
+                long nrSuccessfulStatements = metrics.getTotal(Metric.SUCCESSFUL_STATEMENTS);
+                long nrUnsuccessfulStatements = metrics.getTotal(Metric.UNSUCCESSFUL_STATEMENTS);
+                long successfulStatementsRatio = (long) (100.0 * nrSuccessfulStatements
+                        / (nrSuccessfulStatements + nrUnsuccessfulStatements));
+                long currentNrNovelQueryPlans = metrics.getTotal(Metric.NOVEL_QUERY_PLANS);
+                double novelQueryPlansPerMinute = (currentNrNovelQueryPlans - lastNrNovelQueryPlans)
+                        / (elapsedTimeMillis / 60_000d);
                 DateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
                 Date date = new Date();
                 System.out.println(String.format(
-                        "[%s] Executed %d queries (%d queries/s; %.2f/s dbs, successful statements: %2d%%). Threads shut down: %d.",
+                        "[%s] Executed %d queries (%d queries/s; %.2f/s dbs, successful statements: %2d%%%s). Threads shut down: %d.",
                         dateFormat.format(date), currentNrQueries, (int) throughput, throughputDbs,
-                        successfulStatementsRatio, threadsShutdown));
+                        successfulStatementsRatio,
+                        currentNrNovelQueryPlans == 0 ? ""
+                                : String.format(", novel query plans: %.0f/min", novelQueryPlansPerMinute),
+                        threadsShutdown));
                 timeMillis = System.currentTimeMillis();
                 lastNrQueries = currentNrQueries;
                 lastNrDbs = currentNrDbs;
+                lastNrNovelQueryPlans = currentNrNovelQueryPlans;
             }
         }, 5, 5, TimeUnit.SECONDS);
     }
@@ -94,6 +94,39 @@ public class MainOptions {
     @Parameter(names = "--database-prefix", description = "The prefix used for each database created")
     private String databasePrefix = "database"; // NOPMD
 
+    @Parameter(names = "--metrics-port", description = "The local port on which the execution statistics are served as plain text (-1 to disable)")
+    private int metricsPort = -1; // NOPMD
+
+    @Parameter(names = "--database-pool-size", description = "The number of empty databases that each thread keeps in reserve for server-based DBMS, which are dropped and re-created in the background (0 to drop and create each database on demand)")
+    private int databasePoolSize; // NOPMD
+
+    @Parameter(names = "--result-spill-rows", description = "The number of values of a result set that the TLP oracles keep in memory before spilling them to temporary files")
+    private int resultSpillRows = 1_000_000; // NOPMD
+
+    @Parameter(names = "--use-result-fingerprints", description = "Compares the results of the TLP oracles by fingerprints that the DBMS computes from a hash of each row, and fetches the results only if the fingerprints differ (only supported for DBMS with a suitable hash function)", arity = 1)
+    private boolean useResultFingerprints; // NOPMD
+
+    @Parameter(names = "--read-connections", description = "The number of additional connections on which the NoREC and TLP oracles execute their queries concurrently (only supported for SQLite, PostgreSQL, Citus, and CockroachDB)")
+    private int nrReadConnections; // NOPMD
+
+    @Parameter(names = "--fetch-size", description = "The number of rows that the JDBC driver fetches at a time when reading the result of a query; a positive value also makes the MySQL and PostgreSQL drivers stream results rather than buffering them entirely (0 = driver default)")
+    private int fetchSize; // NOPMD
+
+    @Parameter(names = "--max-result-rows", description = "The maximum number of rows that are read from the result of a query, after which the query is aborted and ignored (0 = no limit)")
+    private long maxResultRows; // NOPMD
+
+    @Parameter(names = "--statement-timeout-ms", description = "The time after which a statement is cancelled and logged to the \"-hangs.log\" file (-1 = DBMS-specific default, which is no timeout for most DBMSs, 0 = no timeout)")
+    private long statementTimeoutMs = -1; // NOPMD
+
+    @Parameter(names = "--adaptive-action-scheduling", description = "Prefers the statement kinds that succeed most often per unit of time when creating a database and limits the retries of statement kinds that rarely succeed, based on the statistics of the databases that the same thread created before (note that this makes the generated statements depend on timing and thus not reproducible by --random-seed)", arity = 1)
+    private boolean adaptiveActionScheduling; // NOPMD
+
+    @Parameter(names = "--grammar-weighting", description = "Generates the expression kinds that often cause expected errors less often, based on the outcomes of the statements and test-oracle checks that used them on the current database", arity = 1)
+    private boolean grammarWeighting; // NOPMD
+
+    @Parameter(names = "--max-checks-per-query-plan", description = "The number of times the partitioning oracles check queries with the same query plan on a database before they only check such queries with a decreasing probability (0 = check all queries without computing their plans)")
+    private int maxChecksPerQueryPlan; // NOPMD
+
     public int getMaxExpressionDepth() {
         return maxExpressionDepth;
     }
@@ -211,4 +244,48 @@ public class MainOptions {
         return useConnectionTest;
     }
 
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    public boolean useResultFingerprints() {
+        return useResultFingerprints;
+    }
+
+    public int getResultSpillRows() {
+        return resultSpillRows;
+    }
+
+    public int getNrReadConnections() {
+        return nrReadConnections;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public long getMaxResultRows() {
+        return maxResultRows;
+    }
+
+    public long getStatementTimeoutMs() {
+        return statementTimeoutMs;
+    }
+
+    public boolean useAdaptiveActionScheduling() {
+        return adaptiveActionScheduling;
+    }
+
+    public boolean useGrammarWeighting() {
+        return grammarWeighting;
+    }
+
+    public int getMaxChecksPerQueryPlan() {
+        return maxChecksPerQueryPlan;
+    }
+
+    public int getDatabasePoolSize() {
+        return databasePoolSize;
+    }
+
 }
@@ -1,12 +1,19 @@
 package sqlancer;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import sqlancer.StateToReproduce.OracleRunReproductionState;
+import sqlancer.common.gen.GrammarWeights;
 import sqlancer.common.oracle.CompositeTestOracle;
 import sqlancer.common.oracle.TestOracle;
 import sqlancer.common.query.QueryAdapter;
+import sqlancer.common.query.ReadConnectionPool;
 import sqlancer.common.schema.AbstractTable;
 
 public abstract class ProviderAdapter<G extends GlobalState<O, ?>, O extends DBMSSpecificOptions<? extends OracleFactory<G>>>
@@ -41,26 +48,95 @@ public abstract class ProviderAdapter<G extends GlobalState<O, ?>, O extends DBM
             generateDatabase(globalState);
             checkViewsAreValid(globalState);
             globalState.getManager().incrementCreateDatabase();
+            openReadConnections(globalState);
 
             TestOracle oracle = getTestOracle(globalState);
+            globalState.getMetrics().enterOracle(oracle);
+            GrammarWeights grammarWeights = globalState.getGrammarWeights();
             for (int i = 0; i < globalState.getOptions().getNrQueries(); i++) {
                 try (OracleRunReproductionState localState = globalState.getState().createLocalState()) {
                     assert localState != null;
+                    grammarWeights.discardChoices();
+                    boolean completed = false;
                     try {
                         oracle.check();
                         globalState.getManager().incrementSelectQueryCount();
+                        completed = true;
                     } catch (IgnoreMeException e) {
 
+                    }
+                    // a check that was skipped without an error (e.g., for an empty table) is not attributed
+                    GrammarWeights.Productions productions = grammarWeights.takeChoices();
+                    if (completed || productions.causedError()) {
+                        productions.recordOutcome(!productions.causedError());
                     }
                     assert localState != null;
                     localState.executedWithoutError();
                 }
             }
         } finally {
+            globalState.getMetrics().leave();
+            globalState.closeReadConnections();
+            globalState.closeStatementCache();
             globalState.getConnection().close();
         }
     }
 
+    private void openReadConnections(G globalState) throws Exception {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < globalState.getOptions().getNrReadConnections(); i++) {
+                Connection con = createReadConnection(globalState);
+                if (con == null) {
+                    break;
+                }
+                connections.add(con);
+            }
+        } catch (Exception e) {
+            for (Connection con : connections) {
+                con.close();
+            }
+            throw e;
+        }
+        if (!connections.isEmpty()) {
+            globalState.setReadConnections(new ReadConnectionPool(connections, globalState.getMetrics()));
+        }
+    }
+
+    /**
+     * Executes the logged statements that changed the session of the main connection (e.g., SET statements) on a
+     * connection opened by {@link #createReadConnection}. Statements that fail are ignored, since they presumably also
+     * failed on the main connection.
+     *
+     * @param con
+     *            the read connection
+     * @param globalState
+     *            the state whose statements are replayed
+     * @param isSessionStatement
+     *            selects the statements that change the session
+     *
+     * @throws SQLException
+     *             if no statement can be created
+     */
+    protected static void replaySessionStatements(Connection con, GlobalState<?, ?> globalState,
+            Predicate<String> isSessionStatement) throws SQLException {
+        try (Statement s = con.createStatement()) {
+            for (String statement : globalState.getState().getStatements()) {
+                if (isSessionStatement.test(statement)) {
+                    executeIgnoringErrors(s, statement);
+                }
+            }
+        }
+    }
+
+    private static void executeIgnoringErrors(Statement s, String statement) {
+        try {
+            s.execute(statement);
+        } catch (SQLException e) {
+            // the statement is not needed to reproduce the session
+        }
+    }
+
     private void checkViewsAreValid(G globalState) {
         List<? extends AbstractTable<?, ?>> views = globalState.getSchema().getViews();
         for (AbstractTable<?, ?> view : views) {
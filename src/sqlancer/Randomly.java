@@ -3,10 +3,17 @@ package sqlancer;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Set;
 import java.util.function.Supplier;
 
+/**
+ * Generates the random values used by SQLancer. Each instance is bound to a non-synchronized {@link Xoshiro256}
+ * generator. The static methods use the generator of the instance that was last created on the current thread, so
+ * that a thread's sequence of values only depends on the seed of its {@link Randomly} instance.
+ */
 public final class Randomly {
 
     private static StringGenerationStrategy stringGenerationStrategy = StringGenerationStrategy.SOPHISTICATED;
@@ -14,29 +21,56 @@ public final class Randomly {
     private static boolean useCaching = true;
     private static int cacheSize = 100;
 
-    private final List<Long> cachedLongs = new ArrayList<>();
-    private final List<String> cachedStrings = new ArrayList<>();
-    private final List<Double> cachedDoubles = new ArrayList<>();
+    private final ValueCache<Long> cachedLongs = new ValueCache<>();
+    private final ValueCache<String> cachedStrings = new ValueCache<>();
+    private final ValueCache<Double> cachedDoubles = new ValueCache<>();
     private final List<byte[]> cachedBytes = new ArrayList<>();
     private Supplier<String> provider;
 
-    private static final ThreadLocal<Random> THREAD_RANDOM = new ThreadLocal<>();
+    private static final ThreadLocal<Xoshiro256> THREAD_RANDOM = ThreadLocal
+            .withInitial(() -> new Xoshiro256(System.nanoTime() ^ Thread.currentThread().getId()));
+    private final Xoshiro256 random;
     private long seed;
 
+    /**
+     * A set of distinct values from which a random value can be drawn. The values are kept in a list for drawing, and
+     * in a hash set for checking in constant time whether a value is already contained.
+     */
+    private static final class ValueCache<T> {
+
+        private final List<T> values = new ArrayList<>();
+        private final Set<T> set = new HashSet<>();
+
+        void add(T val) {
+            if (values.size() < cacheSize && set.add(val)) {
+                values.add(val);
+            }
+        }
+
+        boolean isEmpty() {
+            return values.isEmpty();
+        }
+
+        T get(Xoshiro256 random) {
+            return values.get(random.nextInt(values.size()));
+        }
+
+    }
+
     private void addToCache(long val) {
-        if (useCaching && cachedLongs.size() < cacheSize && !cachedLongs.contains(val)) {
+        if (useCaching) {
             cachedLongs.add(val);
         }
     }
 
     private void addToCache(double val) {
-        if (useCaching && cachedDoubles.size() < cacheSize && !cachedDoubles.contains(val)) {
+        if (useCaching) {
             cachedDoubles.add(val);
         }
     }
 
     private void addToCache(String val) {
-        if (useCaching && cachedStrings.size() < cacheSize && !cachedStrings.contains(val)) {
+        if (useCaching) {
             cachedStrings.add(val);
         }
     }
@@ -45,7 +79,7 @@ public final class Randomly {
         if (!useCaching || cachedLongs.isEmpty()) {
             return null;
         } else {
-            return Randomly.fromList(cachedLongs);
+            return cachedLongs.get(random);
         }
     }
 
@@ -53,10 +87,10 @@ public final class Randomly {
         if (!useCaching) {
             return null;
         }
-        if (Randomly.getBoolean() && !cachedLongs.isEmpty()) {
-            return (double) Randomly.fromList(cachedLongs);
+        if (random.nextBoolean() && !cachedLongs.isEmpty()) {
+            return (double) cachedLongs.get(random);
         } else if (!cachedDoubles.isEmpty()) {
-            return Randomly.fromList(cachedDoubles);
+            return cachedDoubles.get(random);
         } else {
             return null;
         }
@@ -66,16 +100,16 @@ public final class Randomly {
         if (!useCaching) {
             return null;
         }
-        if (Randomly.getBoolean() && !cachedLongs.isEmpty()) {
-            return String.valueOf(Randomly.fromList(cachedLongs));
-        } else if (Randomly.getBoolean() && !cachedDoubles.isEmpty()) {
-            return String.valueOf(Randomly.fromList(cachedDoubles));
-        } else if (Randomly.getBoolean() && !cachedBytes.isEmpty()
+        if (random.nextBoolean() && !cachedLongs.isEmpty()) {
+            return String.valueOf(cachedLongs.get(random));
+        } else if (random.nextBoolean() && !cachedDoubles.isEmpty()) {
+            return String.valueOf(cachedDoubles.get(random));
+        } else if (random.nextBoolean() && !cachedBytes.isEmpty()
                 && stringGenerationStrategy == StringGenerationStrategy.SOPHISTICATED) {
-            return new String(Randomly.fromList(cachedBytes));
+            return new String(cachedBytes.get(random.nextInt(cachedBytes.size())));
         } else if (!cachedStrings.isEmpty()) {
-            String randomString = Randomly.fromList(cachedStrings);
-            if (Randomly.getBoolean()) {
+            String randomString = cachedStrings.get(random);
+            if (random.nextBoolean()) {
                 return randomString;
             } else {
                 return stringGenerationStrategy.transformCachedString(this, randomString);
@@ -85,19 +119,37 @@ public final class Randomly {
         }
     }
 
-    private static boolean cacheProbability() {
-        return useCaching && getNextLong(0, 3) == 1;
+    private boolean cacheProbability() {
+        return useCaching && random.nextInt(3) == 1;
     }
 
     // CACHING END
 
     public static <T> T fromList(List<T> list) {
-        return list.get((int) getNextLong(0, list.size()));
+        return list.get(getThreadRandom().nextInt(list.size()));
+    }
+
+    /*
+     * Overloads for the common numbers of options, which avoid allocating the varargs array.
+     */
+    public static <T> T fromOptions(T first, T second) {
+        return getThreadRandom().nextBoolean() ? first : second;
+    }
+
+    public static <T> T fromOptions(T first, T second, T third) {
+        switch (getThreadRandom().nextInt(3)) {
+        case 0:
+            return first;
+        case 1:
+            return second;
+        default:
+            return third;
+        }
     }
 
     @SafeVarargs
     public static <T> T fromOptions(T... options) {
-        return options[getNextInt(0, options.length)];
+        return options[getThreadRandom().nextInt(options.length)];
     }
 
     @SafeVarargs
@@ -147,35 +199,45 @@ public final class Randomly {
         return subset(list);
     }
 
+    /**
+     * Selects the given number of distinct elements in a random order by a partial Fisher-Yates shuffle of a copy of
+     * the list, which takes a linear time in the size of the list.
+     *
+     * @param <T>
+     *            the element type
+     * @param columns
+     *            the list, which is not modified
+     * @param nr
+     *            the number of elements to select
+     *
+     * @return a new list with the selected elements
+     */
     public static <T> List<T> extractNrRandomColumns(List<T> columns, int nr) {
         assert nr >= 0;
-        List<T> selectedColumns = new ArrayList<>();
-        List<T> remainingColumns = new ArrayList<>(columns);
+        List<T> shuffled = new ArrayList<>(columns);
+        Xoshiro256 random = getThreadRandom();
+        int size = shuffled.size();
         for (int i = 0; i < nr; i++) {
-            selectedColumns.add(remainingColumns.remove(getNextInt(0, remainingColumns.size())));
+            Collections.swap(shuffled, i, i + random.nextInt(size - i));
         }
-        return selectedColumns;
+        return new ArrayList<>(shuffled.subList(0, nr));
     }
 
     public static int smallNumber() {
         // no need to cache for small numbers
-        return (int) (Math.abs(getThreadRandom().get().nextGaussian()) * 2);
+        return (int) (Math.abs(getThreadRandom().nextGaussian()) * 2);
     }
 
     public static boolean getBoolean() {
-        return getThreadRandom().get().nextBoolean();
+        return getThreadRandom().nextBoolean();
     }
 
-    private static ThreadLocal<Random> getThreadRandom() {
-        if (THREAD_RANDOM.get() == null) {
-            // a static method has been called, before Randomly was instantiated
-            THREAD_RANDOM.set(new Random());
-        }
-        return THREAD_RANDOM;
+    private static Xoshiro256 getThreadRandom() {
+        return THREAD_RANDOM.get();
     }
 
     public long getInteger() {
-        if (smallBiasProbability()) {
+        if (smallBiasProbability(random)) {
             return Randomly.fromOptions(-1L, Long.MAX_VALUE, Long.MIN_VALUE, 1L, 0L);
         } else {
             if (cacheProbability()) {
@@ -184,7 +246,7 @@ public final class Randomly {
                     return l;
                 }
             }
-            long nextLong = getThreadRandom().get().nextInt();
+            long nextLong = random.nextInt();
             addToCache(nextLong);
             return nextLong;
         }
@@ -223,10 +285,10 @@ public final class Randomly {
 
             @Override
             public String getString(Randomly r) {
-                if (smallBiasProbability()) {
+                if (smallBiasProbability(r.random)) {
                     return Randomly.fromOptions("TRUE", "FALSE", "0.0", "-0.0", "1e500", "-1e500");
                 }
-                if (cacheProbability()) {
+                if (r.cacheProbability()) {
                     String s = r.getFromStringCache();
                     if (s != null) {
                         return s;
@@ -245,7 +307,7 @@ public final class Randomly {
                             sb.append(val);
                         }
                     } else {
-                        sb.append(ALPHABET.charAt(getNextInt(0, n)));
+                        sb.append(ALPHABET.charAt(r.random.nextInt(n)));
                     }
                 }
                 while (Randomly.getBooleanWithSmallProbability()) {
@@ -308,7 +370,7 @@ public final class Randomly {
             int chars = getStringLength(r);
             StringBuilder sb = new StringBuilder();
             for (int i = 0; i < chars; i++) {
-                sb.append(alphabet.charAt(getNextInt(0, alphabet.length())));
+                sb.append(alphabet.charAt(r.random.nextInt(alphabet.length())));
             }
             return sb.toString();
         }
@@ -328,13 +390,13 @@ public final class Randomly {
     public byte[] getBytes() {
         int size = Randomly.smallNumber();
         byte[] arr = new byte[size];
-        getThreadRandom().get().nextBytes(arr);
+        random.nextBytes(arr);
         return arr;
     }
 
     public long getNonZeroInteger() {
         long value;
-        if (smallBiasProbability()) {
+        if (smallBiasProbability(random)) {
             return Randomly.fromOptions(-1L, Long.MAX_VALUE, Long.MIN_VALUE, 1L);
         }
         if (cacheProbability()) {
@@ -359,10 +421,10 @@ public final class Randomly {
             }
         }
         long value;
-        if (smallBiasProbability()) {
+        if (smallBiasProbability(random)) {
             value = Randomly.fromOptions(0L, Long.MAX_VALUE, 1L);
         } else {
-            value = getNextLong(0, Long.MAX_VALUE);
+            value = random.nextLong(0, Long.MAX_VALUE);
         }
         addToCache(value);
         assert value >= 0;
@@ -379,7 +441,7 @@ public final class Randomly {
     }
 
     public double getDouble() {
-        if (smallBiasProbability()) {
+        if (smallBiasProbability(random)) {
             return Randomly.fromOptions(0.0, -0.0, Double.MAX_VALUE, -Double.MAX_VALUE, Double.POSITIVE_INFINITY,
                     Double.NEGATIVE_INFINITY);
         } else if (cacheProbability()) {
@@ -388,21 +450,21 @@ public final class Randomly {
                 return d;
             }
         }
-        double value = getThreadRandom().get().nextDouble();
+        double value = random.nextDouble();
         addToCache(value);
         return value;
     }
 
-    private static boolean smallBiasProbability() {
-        return getThreadRandom().get().nextInt(100) == 1;
+    private static boolean smallBiasProbability(Xoshiro256 random) {
+        return random.nextInt(100) == 1;
     }
 
     public static boolean getBooleanWithRatherLowProbability() {
-        return getThreadRandom().get().nextInt(10) == 1;
+        return getThreadRandom().nextInt(10) == 1;
     }
 
     public static boolean getBooleanWithSmallProbability() {
-        return smallBiasProbability();
+        return smallBiasProbability(getThreadRandom());
     }
 
     public int getInteger(int left, int right) {
@@ -417,11 +479,11 @@ public final class Randomly {
         if (left == right) {
             return left;
         }
-        return getNextLong(left, right);
+        return getNextLong(random, left, right);
     }
 
     public BigDecimal getRandomBigDecimal() {
-        return new BigDecimal(getThreadRandom().get().nextDouble());
+        return new BigDecimal(random.nextDouble());
     }
 
     public long getPositiveIntegerNotNull() {
@@ -434,32 +496,40 @@ public final class Randomly {
     }
 
     public static long getNonCachedInteger() {
-        return getThreadRandom().get().nextLong();
+        return getThreadRandom().nextLong();
     }
 
     public static long getPositiveOrZeroNonCachedInteger() {
-        return getNextLong(0, Long.MAX_VALUE);
+        return getNextLong(getThreadRandom(), 0, Long.MAX_VALUE);
     }
 
     public static long getNotCachedInteger(int lower, int upper) {
-        return getNextLong(lower, upper);
+        return getNextLong(getThreadRandom(), lower, upper);
     }
 
+    /**
+     * Creates an instance that shares the generator of the current thread.
+     *
+     * @param provider
+     *            the supplier of strings that are inserted into the generated strings
+     */
     public Randomly(Supplier<String> provider) {
         this.provider = provider;
+        this.random = getThreadRandom();
     }
 
     public Randomly() {
-        THREAD_RANDOM.set(new Random());
+        this(System.nanoTime() ^ Thread.currentThread().getId());
     }
 
     public Randomly(long seed) {
         this.seed = seed;
-        THREAD_RANDOM.set(new Random(seed));
+        this.random = new Xoshiro256(seed);
+        THREAD_RANDOM.set(random);
     }
 
     public static double getUncachedDouble() {
-        return getThreadRandom().get().nextDouble();
+        return getThreadRandom().nextDouble();
     }
 
     public String getChar() {
@@ -480,21 +550,18 @@ public final class Randomly {
         }
     }
 
-    // see https://stackoverflow.com/a/2546158
-    // uniformity does not seem to be important for us
-    // SQLancer previously used ThreadLocalRandom.current().nextLong(lower, upper)
-    private static long getNextLong(long lower, long upper) {
+    private static long getNextLong(Xoshiro256 random, long lower, long upper) {
         if (lower > upper) {
             throw new IllegalArgumentException(lower + " " + upper);
         }
         if (lower == upper) {
             return lower;
         }
-        return (long) (getThreadRandom().get().longs(lower, upper).findFirst().getAsLong());
+        return random.nextLong(lower, upper);
     }
 
     private static int getNextInt(int lower, int upper) {
-        return (int) getNextLong(lower, upper);
+        return (int) getNextLong(getThreadRandom(), lower, upper);
     }
 
     public long getSeed() {
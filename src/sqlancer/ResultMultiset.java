@@ -0,0 +1,576 @@
+package sqlancer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import sqlancer.common.query.QueryAdapter;
+import sqlancer.common.query.SQLancerResultSet;
+
+/**
+ * The values of a result set column as a multiset, which is used to compare the results of the queries of the TLP
+ * oracles. Rather than storing each value as a string, integers and floating-point numbers are stored in primitive
+ * arrays and other values are dictionary-encoded, so that duplicate strings are stored only once. Two multisets are
+ * equal if their values can be matched one-to-one; floating-point numbers are matched with the tolerance of
+ * {@link ComparatorHelper#isEqualDouble}, and values of different kinds (e.g., the integer 1 and the string '1') never
+ * match.
+ *
+ * The multisets are compared by sorting their values. If a multiset grows beyond the given number of values, its values
+ * are sorted and written to temporary files, which are merged when the multisets are compared.
+ */
+public final class ResultMultiset implements Closeable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int spillThreshold;
+    private final Map<Kind, List<Path>> spilledRuns = new EnumMap<>(Kind.class);
+    private long size;
+    private long nrNulls;
+    private long[] longs = new long[INITIAL_CAPACITY];
+    private int nrLongs;
+    private double[] doubles = new double[INITIAL_CAPACITY];
+    private int nrDoubles;
+    private int[] textCodes = new int[INITIAL_CAPACITY];
+    private int nrTexts;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> dictionaryValues = new ArrayList<>();
+    private final List<QueryAdapter> pendingQueries = new ArrayList<>();
+
+    private enum Kind {
+        LONG, DOUBLE, TEXT
+    }
+
+    /**
+     * Creates an empty multiset.
+     *
+     * @param spillThreshold
+     *            the number of values that are kept in memory before they are written to a temporary file
+     */
+    public ResultMultiset(int spillThreshold) {
+        if (spillThreshold <= 0) {
+            throw new IllegalArgumentException(String.valueOf(spillThreshold));
+        }
+        this.spillThreshold = spillThreshold;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Records a query whose values have not been added yet, since the multiset might be compared by fingerprints
+     * instead (see {@link ComparatorHelper#assumeResultSetsAreEqual}).
+     *
+     * @param query
+     *            the query and the errors that it is expected to cause
+     */
+    void addPendingQuery(QueryAdapter query) {
+        pendingQueries.add(query);
+    }
+
+    List<QueryAdapter> getPendingQueries() {
+        return pendingQueries;
+    }
+
+    /**
+     * Adds the value of the given column of the current row. Integers and floating-point numbers are added as such; all
+     * other values are added as the string that the JDBC driver returns for them.
+     *
+     * @param rs
+     *            the result set, positioned on a row
+     * @param column
+     *            the index of the column
+     *
+     * @throws SQLException
+     *             if the value cannot be read
+     */
+    public void add(SQLancerResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value == null) {
+            addNull();
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            addLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            addDouble(((Number) value).doubleValue());
+        } else if (value instanceof String) {
+            addText((String) value);
+        } else {
+            addText(rs.getString(column));
+        }
+    }
+
+    public void addNull() {
+        nrNulls++;
+        size++;
+    }
+
+    public void addLong(long value) {
+        if (nrLongs == longs.length) {
+            longs = Arrays.copyOf(longs, nrLongs * 2);
+        }
+        longs[nrLongs++] = value;
+        valueAdded();
+    }
+
+    public void addDouble(double value) {
+        if (nrDoubles == doubles.length) {
+            doubles = Arrays.copyOf(doubles, nrDoubles * 2);
+        }
+        doubles[nrDoubles++] = value;
+        valueAdded();
+    }
+
+    public void addText(String value) {
+        if (value == null) {
+            addNull();
+            return;
+        }
+        Integer code = dictionary.get(value);
+        if (code == null) {
+            code = dictionaryValues.size();
+            dictionary.put(value, code);
+            dictionaryValues.add(value);
+        }
+        if (nrTexts == textCodes.length) {
+            textCodes = Arrays.copyOf(textCodes, nrTexts * 2);
+        }
+        textCodes[nrTexts++] = code;
+        valueAdded();
+    }
+
+    /**
+     * Moves the values of another multiset into this multiset, for example, to combine the results of queries that were
+     * read concurrently. The other multiset must not be used afterwards.
+     *
+     * @param other
+     *            the multiset whose values are added
+     */
+    void addAll(ResultMultiset other) {
+        other.spilledRuns
+                .forEach((kind, runs) -> spilledRuns.computeIfAbsent(kind, k -> new ArrayList<>()).addAll(runs));
+        other.spilledRuns.clear();
+        // the values in memory are counted again when they are added below
+        size += other.size - other.nrLongs - other.nrDoubles - other.nrTexts;
+        nrNulls += other.nrNulls;
+        for (int i = 0; i < other.nrLongs; i++) {
+            addLong(other.longs[i]);
+        }
+        for (int i = 0; i < other.nrDoubles; i++) {
+            addDouble(other.doubles[i]);
+        }
+        for (int i = 0; i < other.nrTexts; i++) {
+            addText(other.dictionaryValues.get(other.textCodes[i]));
+        }
+        pendingQueries.addAll(other.pendingQueries);
+    }
+
+    private void valueAdded() {
+        size++;
+        if (nrLongs + nrDoubles + nrTexts >= spillThreshold) {
+            spill();
+        }
+    }
+
+    /**
+     * Writes the values in memory to temporary files, one for each kind of value that occurs, in sorted order.
+     */
+    private void spill() {
+        try {
+            if (nrLongs != 0) {
+                Arrays.sort(longs, 0, nrLongs);
+                try (DataOutputStream out = openOutput(createRun(Kind.LONG))) {
+                    for (int i = 0; i < nrLongs; i++) {
+                        out.writeLong(longs[i]);
+                    }
+                }
+            }
+            if (nrDoubles != 0) {
+                Arrays.sort(doubles, 0, nrDoubles);
+                try (DataOutputStream out = openOutput(createRun(Kind.DOUBLE))) {
+                    for (int i = 0; i < nrDoubles; i++) {
+                        out.writeDouble(doubles[i]);
+                    }
+                }
+            }
+            if (nrTexts != 0) {
+                try (DataOutputStream out = openOutput(createRun(Kind.TEXT))) {
+                    for (String text : getSortedTexts()) {
+                        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        nrLongs = 0;
+        nrDoubles = 0;
+        nrTexts = 0;
+        dictionary.clear();
+        dictionaryValues.clear();
+    }
+
+    /*
+     * The run is deleted by close(), which the oracles call through try-with-resources.
+     */
+    private Path createRun(Kind kind) throws IOException {
+        Path run = Files.createTempFile("sqlancer-result", null);
+        spilledRuns.computeIfAbsent(kind, k -> new ArrayList<>()).add(run);
+        return run;
+    }
+
+    private static DataOutputStream openOutput(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+    }
+
+    private static DataInputStream openInput(Path path) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+    }
+
+    /*
+     * Sorts the texts in memory by replacing each dictionary code by the rank of its string among the dictionary's
+     * strings, so that the codes can be sorted as primitive integers.
+     */
+    private String[] getSortedTexts() {
+        Integer[] codesByRank = new Integer[dictionaryValues.size()];
+        for (int i = 0; i < codesByRank.length; i++) {
+            codesByRank[i] = i;
+        }
+        Arrays.sort(codesByRank, Comparator.comparing(dictionaryValues::get));
+        int[] rankOfCode = new int[codesByRank.length];
+        for (int rank = 0; rank < codesByRank.length; rank++) {
+            rankOfCode[codesByRank[rank]] = rank;
+        }
+        int[] ranks = new int[nrTexts];
+        for (int i = 0; i < nrTexts; i++) {
+            ranks[i] = rankOfCode[textCodes[i]];
+        }
+        Arrays.sort(ranks);
+        String[] texts = new String[nrTexts];
+        for (int i = 0; i < nrTexts; i++) {
+            texts[i] = dictionaryValues.get(codesByRank[ranks[i]]);
+        }
+        return texts;
+    }
+
+    /**
+     * Deletes the temporary files of the multiset.
+     */
+    @Override
+    public void close() {
+        for (List<Path> runs : spilledRuns.values()) {
+            for (Path run : runs) {
+                try {
+                    Files.deleteIfExists(run);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        spilledRuns.clear();
+    }
+
+    /**
+     * Compares two multisets and collects the values that only one of them contains.
+     *
+     * @param first
+     *            the first multiset
+     * @param second
+     *            the second multiset
+     * @param maxMisses
+     *            the maximum number of values that are collected for each multiset
+     * @param firstMisses
+     *            receives the string representations of the values that the second multiset does not contain
+     * @param secondMisses
+     *            receives the string representations of the values that the first multiset does not contain
+     *
+     * @return true if the multisets are equal
+     */
+    public static boolean compare(ResultMultiset first, ResultMultiset second, int maxMisses, List<String> firstMisses,
+            List<String> secondMisses) {
+        for (long i = second.nrNulls; i < first.nrNulls && firstMisses.size() < maxMisses; i++) {
+            firstMisses.add("null");
+        }
+        for (long i = first.nrNulls; i < second.nrNulls && secondMisses.size() < maxMisses; i++) {
+            secondMisses.add("null");
+        }
+        boolean equal = first.nrNulls == second.nrNulls;
+        try {
+            for (Kind kind : Kind.values()) {
+                try (SortedValues firstValues = first.getSortedValues(kind);
+                        SortedValues secondValues = second.getSortedValues(kind)) {
+                    equal &= compare(firstValues, secondValues, maxMisses, firstMisses, secondMisses);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return equal;
+    }
+
+    private static boolean compare(SortedValues first, SortedValues second, int maxMisses, List<String> firstMisses,
+            List<String> secondMisses) throws IOException {
+        boolean equal = true;
+        boolean hasFirst = first.next();
+        boolean hasSecond = second.next();
+        while (hasFirst || hasSecond) {
+            if (hasFirst && hasSecond && first.matches(second)) {
+                hasFirst = first.next();
+                hasSecond = second.next();
+                continue;
+            }
+            equal = false;
+            if (!hasSecond || hasFirst && first.compareTo(second) < 0) {
+                if (firstMisses.size() < maxMisses) {
+                    firstMisses.add(first.getValueAsString());
+                }
+                hasFirst = first.next();
+            } else {
+                if (secondMisses.size() < maxMisses) {
+                    secondMisses.add(second.getValueAsString());
+                }
+                hasSecond = second.next();
+            }
+        }
+        return equal;
+    }
+
+    private SortedValues getSortedValues(Kind kind) throws IOException {
+        List<SortedValues> runs = new ArrayList<>();
+        for (Path run : spilledRuns.getOrDefault(kind, Collections.emptyList())) {
+            runs.add(new SpilledValues(kind, openInput(run)));
+        }
+        switch (kind) {
+        case LONG:
+            long[] sortedLongs = Arrays.copyOf(longs, nrLongs);
+            Arrays.sort(sortedLongs);
+            runs.add(new InMemoryValues(kind, sortedLongs.length) {
+                @Override
+                void read(int i) {
+                    longValue = sortedLongs[i];
+                }
+            });
+            break;
+        case DOUBLE:
+            double[] sortedDoubles = Arrays.copyOf(doubles, nrDoubles);
+            Arrays.sort(sortedDoubles);
+            runs.add(new InMemoryValues(kind, sortedDoubles.length) {
+                @Override
+                void read(int i) {
+                    doubleValue = sortedDoubles[i];
+                }
+            });
+            break;
+        case TEXT:
+            String[] sortedTexts = getSortedTexts();
+            runs.add(new InMemoryValues(kind, sortedTexts.length) {
+                @Override
+                void read(int i) {
+                    textValue = sortedTexts[i];
+                }
+            });
+            break;
+        default:
+            throw new AssertionError(kind);
+        }
+        return runs.size() == 1 ? runs.get(0) : new MergedValues(kind, runs);
+    }
+
+    /**
+     * A sorted sequence of values of the same kind, which is traversed by calling {@link #next()}.
+     */
+    private abstract static class SortedValues implements Closeable {
+
+        final Kind kind;
+        long longValue;
+        double doubleValue;
+        String textValue;
+
+        SortedValues(Kind kind) {
+            this.kind = kind;
+        }
+
+        /**
+         * Moves to the next value.
+         *
+         * @return false if there is no next value
+         *
+         * @throws IOException
+         *             if reading a spilled value fails
+         */
+        abstract boolean next() throws IOException;
+
+        int compareTo(SortedValues other) {
+            switch (kind) {
+            case LONG:
+                return Long.compare(longValue, other.longValue);
+            case DOUBLE:
+                return Double.compare(doubleValue, other.doubleValue);
+            case TEXT:
+                return textValue.compareTo(other.textValue);
+            default:
+                throw new AssertionError(kind);
+            }
+        }
+
+        boolean matches(SortedValues other) {
+            if (kind == Kind.DOUBLE) {
+                return Double.compare(doubleValue, other.doubleValue) == 0
+                        || ComparatorHelper.equals(doubleValue, other.doubleValue);
+            }
+            return compareTo(other) == 0;
+        }
+
+        void copyFrom(SortedValues other) {
+            longValue = other.longValue;
+            doubleValue = other.doubleValue;
+            textValue = other.textValue;
+        }
+
+        String getValueAsString() {
+            switch (kind) {
+            case LONG:
+                return String.valueOf(longValue);
+            case DOUBLE:
+                return String.valueOf(doubleValue);
+            case TEXT:
+                return textValue;
+            default:
+                throw new AssertionError(kind);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+
+    }
+
+    private abstract static class InMemoryValues extends SortedValues {
+
+        private final int length;
+        private int index = -1;
+
+        InMemoryValues(Kind kind, int length) {
+            super(kind);
+            this.length = length;
+        }
+
+        abstract void read(int i);
+
+        @Override
+        boolean next() {
+            if (++index >= length) {
+                return false;
+            }
+            read(index);
+            return true;
+        }
+
+    }
+
+    private static class SpilledValues extends SortedValues {
+
+        private final DataInputStream in;
+
+        SpilledValues(Kind kind, DataInputStream in) {
+            super(kind);
+            this.in = in;
+        }
+
+        @Override
+        boolean next() throws IOException {
+            try {
+                switch (kind) {
+                case LONG:
+                    longValue = in.readLong();
+                    break;
+                case DOUBLE:
+                    doubleValue = in.readDouble();
+                    break;
+                case TEXT:
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    textValue = new String(bytes, StandardCharsets.UTF_8);
+                    break;
+                default:
+                    throw new AssertionError(kind);
+                }
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+    }
+
+    /**
+     * Merges sorted sequences of values into a single sorted sequence.
+     */
+    private static class MergedValues extends SortedValues {
+
+        private final List<SortedValues> runs;
+        private final PriorityQueue<SortedValues> queue = new PriorityQueue<>(SortedValues::compareTo);
+        private SortedValues current;
+        private boolean started;
+
+        MergedValues(Kind kind, List<SortedValues> runs) {
+            super(kind);
+            this.runs = runs;
+        }
+
+        @Override
+        boolean next() throws IOException {
+            if (!started) {
+                started = true;
+                for (SortedValues run : runs) {
+                    if (run.next()) {
+                        queue.add(run);
+                    }
+                }
+            } else if (current.next()) {
+                queue.add(current);
+            }
+            current = queue.poll();
+            if (current == null) {
+                return false;
+            }
+            copyFrom(current);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (SortedValues run : runs) {
+                run.close();
+            }
+        }
+
+    }
+
+}
@@ -2,16 +2,17 @@ package sqlancer;
 
 import java.io.Closeable;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
+import sqlancer.common.log.LoggableFactory;
+import sqlancer.common.log.StatementJournal;
 import sqlancer.common.query.Query;
 
-public class StateToReproduce {
+public class StateToReproduce implements Closeable {
 
-    private final List<Query> statements = new ArrayList<>();
+    private StatementJournal statements = new StatementJournal();
 
-    private final String databaseName;
+    private String databaseName;
 
     private final DatabaseProvider<?, ?> databaseProvider;
 
@@ -36,6 +37,10 @@ public class StateToReproduce {
         return databaseName;
     }
 
+    void setDatabaseName(String databaseName) {
+        this.databaseName = databaseName;
+    }
+
     public String getDatabaseVersion() {
         return databaseVersion;
     }
@@ -63,20 +68,29 @@ public class StateToReproduce {
         if (query == null) {
             throw new IllegalArgumentException();
         }
-        statements.add(query);
+        statements.append(query.getQueryString());
     }
 
-    public List<Query> getStatements() {
-        return Collections.unmodifiableList(statements);
+    /**
+     * Returns the strings of the logged statements. The statements are decoded from the statement journal while
+     * iterating over them, rather than being kept in memory.
+     *
+     * @return the logged statement strings, in the order in which they were logged
+     */
+    public Iterable<String> getStatements() {
+        return statements;
     }
 
     @Deprecated
     public void commentStatements() {
-        for (int i = 0; i < statements.size(); i++) {
-            Query statement = statements.get(i);
-            Query newQuery = databaseProvider.getLoggableFactory().commentOutQuery(statement);
-            statements.set(i, newQuery);
+        LoggableFactory loggableFactory = databaseProvider.getLoggableFactory();
+        StatementJournal commentedStatements = new StatementJournal();
+        for (String statement : statements) {
+            Query newQuery = loggableFactory.commentOutQuery(loggableFactory.getQueryForStateToReproduce(statement));
+            commentedStatements.append(newQuery.getQueryString());
         }
+        statements.close();
+        statements = commentedStatements;
     }
 
     public long getSeedValue() {
@@ -117,7 +131,9 @@ public class StateToReproduce {
         @Override
         public void close() {
             if (!success) {
-                StateToReproduce.this.statements.addAll(statements);
+                for (Query q : statements) {
+                    StateToReproduce.this.logStatement(q);
+                }
             }
 
         }
@@ -128,4 +144,12 @@ public class StateToReproduce {
         return new OracleRunReproductionState();
     }
 
+    /**
+     * Releases the statement journal. The logged statements are no longer available afterwards.
+     */
+    @Override
+    public void close() {
+        statements.close();
+    }
+
 }
@@ -1,8 +1,5 @@
 package sqlancer;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import sqlancer.common.query.Query;
 
 public class StatementExecutor<G extends GlobalState<?, ?>, A extends AbstractAction<G>> {
@@ -32,50 +29,48 @@ public class StatementExecutor<G extends GlobalState<?, ?>, A extends AbstractAc
     public void executeStatements() throws Exception {
         Randomly r = globalState.getRandomly();
         int[] nrRemaining = new int[actions.length];
-        List<A> availableActions = new ArrayList<>();
-        int total = 0;
+        ActionScheduler.ActionStatistics[] statistics = new ActionScheduler.ActionStatistics[actions.length];
         for (int i = 0; i < actions.length; i++) {
             A action = actions[i];
-            int nrPerformed = mapping.map(globalState, action);
-            if (nrPerformed != 0) {
-                availableActions.add(action);
-            }
-            nrRemaining[i] = nrPerformed;
-            total += nrPerformed;
+            nrRemaining[i] = mapping.map(globalState, action);
+            statistics[i] = ActionScheduler.getStatistics(globalState.getMetrics().getProvider(), action);
         }
-        while (total != 0) {
-            A nextAction = null;
-            int selection = r.getInteger(0, total);
-            int previousRange = 0;
-            int i;
-            for (i = 0; i < nrRemaining.length; i++) {
-                if (previousRange <= selection && selection < previousRange + nrRemaining[i]) {
-                    nextAction = actions[i];
-                    break;
-                } else {
-                    previousRange += nrRemaining[i];
-                }
-            }
-            assert nextAction != null;
-            assert nrRemaining[i] > 0;
-            nrRemaining[i]--;
+        ActionScheduler scheduler = new ActionScheduler(statistics, nrRemaining,
+                globalState.getOptions().getNrStatementRetryCount(),
+                globalState.getOptions().useAdaptiveActionScheduling());
+        while (scheduler.hasNext()) {
+            int i = scheduler.next(r);
+            A nextAction = actions[i];
             Query query = null;
+            globalState.getMetrics().enterAction(nextAction);
             try {
-                boolean success;
+                boolean success = false;
                 int nrTries = 0;
+                int nrRetries = scheduler.getRetryCount(i);
                 do {
-                    query = nextAction.getQuery(globalState);
-                    success = globalState.executeStatement(query);
-                } while (nextAction.canBeRetried() && !success
-                        && nrTries++ < globalState.getOptions().getNrStatementRetryCount());
+                    long startTime = System.nanoTime();
+                    try {
+                        // the choices of a statement whose generation failed are not attributed to this one
+                        globalState.getGrammarWeights().discardChoices();
+                        query = nextAction.getQuery(globalState);
+                        query.setProductions(globalState.getGrammarWeights().takeChoices());
+                        success = globalState.executeStatement(query);
+                    } finally {
+                        scheduler.record(i, success, System.nanoTime() - startTime);
+                    }
+                } while (nextAction.canBeRetried() && !success && nrTries++ < nrRetries);
             } catch (IgnoreMeException e) {
 
+            } finally {
+                globalState.getMetrics().leave();
             }
             if (query != null && query.couldAffectSchema()) {
-                globalState.updateSchema();
+                if (globalState.isSchemaOutdated()) {
+                    // updating the schema after executing the query failed
+                    globalState.updateSchema();
+                }
                 queryConsumer.notify(query);
             }
-            total--;
         }
     }
 }
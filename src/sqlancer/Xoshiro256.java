@@ -0,0 +1,128 @@
+package sqlancer;
+
+/**
+ * The xoshiro256** pseudo-random number generator (see https://prng.di.unimi.it/). Unlike {@link java.util.Random}, it
+ * is not thread safe, and thus does not need an atomic update of its state for every number. The state is initialized
+ * from the seed by SplitMix64, so that generators with similar seeds (e.g., the seeds of the threads, which differ by
+ * one) produce independent sequences.
+ */
+final class Xoshiro256 {
+
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+    private double nextGaussian;
+    private boolean hasNextGaussian;
+
+    Xoshiro256(long seed) {
+        long x = seed;
+        x += 0x9e3779b97f4a7c15L;
+        s0 = mix(x);
+        x += 0x9e3779b97f4a7c15L;
+        s1 = mix(x);
+        x += 0x9e3779b97f4a7c15L;
+        s2 = mix(x);
+        x += 0x9e3779b97f4a7c15L;
+        s3 = mix(x);
+    }
+
+    private static long mix(long z) {
+        long x = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Returns a uniformly-distributed value in the range [origin, bound), using the same rejection method as
+     * {@link java.util.SplittableRandom}. Like {@link java.util.Random#nextInt(int)}, it throws an
+     * {@link IllegalArgumentException} if the range is empty (e.g., when choosing from an empty list).
+     */
+    long nextLong(long origin, long bound) {
+        if (origin >= bound) {
+            throw new IllegalArgumentException("bound must be greater than origin: " + origin + " " + bound);
+        }
+        long r = nextLong();
+        long n = bound - origin;
+        long m = n - 1;
+        if ((n & m) == 0L) {
+            // a power of two
+            return (r & m) + origin;
+        } else if (n > 0L) {
+            long u = r >>> 1;
+            // reject values that would make the distribution non-uniform
+            while (u + m - u % n < 0L) {
+                u = nextLong() >>> 1;
+            }
+            return u % n + origin;
+        } else {
+            // the range is not representable as a long
+            while (r < origin || r >= bound) {
+                r = nextLong();
+            }
+            return r;
+        }
+    }
+
+    int nextInt(int bound) {
+        return (int) nextLong(0, bound);
+    }
+
+    boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Returns a normally-distributed value, using the polar method like {@link java.util.Random#nextGaussian()}.
+     */
+    double nextGaussian() {
+        if (hasNextGaussian) {
+            hasNextGaussian = false;
+            return nextGaussian;
+        }
+        double v1;
+        double v2;
+        double s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+        nextGaussian = v2 * multiplier;
+        hasNextGaussian = true;
+        return v1 * multiplier;
+    }
+
+    void nextBytes(byte[] bytes) {
+        int i = 0;
+        while (i < bytes.length) {
+            long r = nextLong();
+            for (int n = Math.min(bytes.length - i, Long.BYTES); n > 0; n--) {
+                bytes[i++] = (byte) r;
+                r >>>= Byte.SIZE;
+            }
+        }
+    }
+
+}
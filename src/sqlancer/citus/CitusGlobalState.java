@@ -21,4 +21,13 @@ public class CitusGlobalState extends PostgresGlobalState {
         return CitusSchema.fromConnection(getConnection(), getDatabaseName());
     }
 
+    /*
+     * The coordinator forwards the rows of a COPY to the shards, so that the context of an error does not necessarily
+     * identify the line of the rejected row.
+     */
+    @Override
+    public boolean supportsCopy() {
+        return false;
+    }
+
 }
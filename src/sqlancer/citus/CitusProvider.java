@@ -385,6 +385,12 @@ public class CitusProvider extends PostgresProvider {
         }
     }
 
+    @Override
+    protected boolean usesDatabasePool(PostgresGlobalState globalState) {
+        // the worker nodes need a database with the same name, which is created on demand
+        return false;
+    }
+
     @Override
     public Connection createDatabase(PostgresGlobalState globalState) throws SQLException {
         synchronized (CitusProvider.class) {
@@ -433,7 +439,7 @@ public class CitusProvider extends PostgresProvider {
                 });
         se.executeStatements();
         globalState.executeStatement(new QueryAdapter("COMMIT", true));
-        globalState.executeStatement(new QueryAdapter("SET SESSION statement_timeout = 5000;\n"));
+        globalState.setServerStatementTimeout(5000);
     }
 
     @Override
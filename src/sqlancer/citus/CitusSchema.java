@@ -1,12 +1,11 @@
 package sqlancer.citus;
 
 import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.SQLIntegrityConstraintViolationException;
-import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import sqlancer.postgres.PostgresSchema;
@@ -57,38 +56,35 @@ public class CitusSchema extends PostgresSchema {
     }
 
     public static CitusSchema fromConnection(Connection con, String databaseName) throws SQLException {
-        PostgresSchema schema = PostgresSchema.fromConnection(con, databaseName);
-        try {
-            List<CitusTable> databaseTables = new ArrayList<>();
-            try (Statement s = con.createStatement()) {
-                try (ResultSet rs = s.executeQuery(
-                        "SELECT table_name, column_to_column_name(logicalrelid, partkey) AS dist_col_name, colocationid FROM information_schema.tables LEFT OUTER JOIN pg_dist_partition ON logicalrelid=table_name::regclass WHERE table_schema='public' OR table_schema LIKE 'pg_temp_%';")) {
+        Map<String, String> distributionColumnNames = new HashMap<>();
+        Map<String, Integer> colocationIds = new HashMap<>();
+        // the distribution columns are read in the same round trip as the tables
+        List<PostgresTable> tables = loadTables(con,
+                "SELECT relname, column_to_column_name(logicalrelid, partkey) AS dist_col_name, colocationid "
+                        + "FROM pg_dist_partition JOIN pg_class ON pg_class.oid=logicalrelid "
+                        + "JOIN pg_namespace ON pg_namespace.oid=relnamespace "
+                        + "WHERE nspname='public' OR nspname LIKE 'pg_temp_%';",
+                rs -> {
                     while (rs.next()) {
-                        String tableName = rs.getString("table_name");
-                        String distributionColumnName = rs.getString("dist_col_name");
-                        Integer colocationId = rs.getInt("colocationid");
-                        if (rs.wasNull()) {
-                            colocationId = null;
+                        String tableName = rs.getString("relname");
+                        distributionColumnNames.put(tableName, rs.getString("dist_col_name"));
+                        int colocationId = rs.getInt("colocationid");
+                        if (!rs.wasNull()) {
+                            colocationIds.put(tableName, colocationId);
                         }
-                        PostgresTable t = schema.getDatabaseTable(tableName);
-                        PostgresColumn distributionColumn = null;
-                        if (t == null) {
-                            continue;
-                        }
-                        if (distributionColumnName != null && !distributionColumnName.equals("")) {
-                            distributionColumn = t.getColumns().stream()
-                                    .filter(c -> c.getName().equals(distributionColumnName))
-                                    .collect(Collectors.toList()).get(0);
-                        }
-                        CitusTable tCitus = new CitusTable(t, distributionColumn, colocationId);
-                        databaseTables.add(tCitus);
                     }
-                }
+                });
+        List<CitusTable> databaseTables = new ArrayList<>();
+        for (PostgresTable t : tables) {
+            String distributionColumnName = distributionColumnNames.get(t.getName());
+            PostgresColumn distributionColumn = null;
+            if (distributionColumnName != null && !distributionColumnName.equals("")) {
+                distributionColumn = t.getColumns().stream().filter(c -> c.getName().equals(distributionColumnName))
+                        .collect(Collectors.toList()).get(0);
             }
-            return new CitusSchema(databaseTables, databaseName);
-        } catch (SQLIntegrityConstraintViolationException e) {
-            throw new AssertionError(e);
+            databaseTables.add(new CitusTable(t, distributionColumn, colocationIds.get(t.getName())));
         }
+        return new CitusSchema(databaseTables, databaseName);
     }
 
 }
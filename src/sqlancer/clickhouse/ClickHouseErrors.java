@@ -4,10 +4,21 @@ import sqlancer.common.query.ExpectedErrors;
 
 public final class ClickHouseErrors {
 
+    private static final ExpectedErrors EXPECTED_EXPRESSION_ERRORS = getExpectedExpressionErrors();
+    private static final ExpectedErrors EXPRESSION_HAVING_ERRORS = getExpressionHavingErrors();
+    private static final ExpectedErrors QUERY_ERRORS = getQueryErrors();
+    private static final ExpectedErrors GROUPING_ERRORS = getGroupingErrors();
+    private static final ExpectedErrors TABLE_MANIPULATION_ERRORS = getTableManipulationErrors();
+
     private ClickHouseErrors() {
     }
 
     public static void addExpectedExpressionErrors(ExpectedErrors errors) {
+        errors.addAll(EXPECTED_EXPRESSION_ERRORS);
+    }
+
+    private static ExpectedErrors getExpectedExpressionErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("Illegal type");
         errors.add("Argument at index 1 for function like must be constant");
         errors.add("Argument at index 1 for function notLike must be constant");
@@ -30,21 +41,45 @@ public final class ClickHouseErrors {
         errors.add(" is not under aggregate function and not in GROUP BY");
         errors.add("Expected one of: compound identifier, identifier, list of elements (version"); // VALUES ()
         errors.add("OptimizedRegularExpression: cannot compile re2");
+        return errors.toImmutable();
     }
 
     public static void addExpressionHavingErrors(ExpectedErrors errors) {
+        errors.addAll(EXPRESSION_HAVING_ERRORS);
+    }
+
+    private static ExpectedErrors getExpressionHavingErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("Memory limit");
+        return errors.toImmutable();
     }
 
     public static void addQueryErrors(ExpectedErrors errors) {
+        errors.addAll(QUERY_ERRORS);
+    }
+
+    private static ExpectedErrors getQueryErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("Memory limit");
+        return errors.toImmutable();
     }
 
     public static void addGroupingErrors(ExpectedErrors errors) {
+        errors.addAll(GROUPING_ERRORS);
+    }
+
+    private static ExpectedErrors getGroupingErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("Memory limit");
+        return errors.toImmutable();
     }
 
     public static void addTableManipulationErrors(ExpectedErrors errors) {
+        errors.addAll(TABLE_MANIPULATION_ERRORS);
+    }
+
+    private static ExpectedErrors getTableManipulationErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("Memory limit");
         errors.add("Directory for table data");
         errors.add("Directory not empty");
@@ -54,6 +89,7 @@ public final class ClickHouseErrors {
         errors.add("Attempt to read after eof: while converting");
         errors.add("Sorting key cannot contain constants");
         errors.add("Sampling expression must be present in the primary key");
+        return errors.toImmutable();
     }
 
 }
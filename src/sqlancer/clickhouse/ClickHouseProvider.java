@@ -7,6 +7,7 @@ import java.sql.Statement;
 import java.util.stream.Collectors;
 
 import sqlancer.AbstractAction;
+import sqlancer.DatabasePool;
 import sqlancer.GlobalState;
 import sqlancer.IgnoreMeException;
 import sqlancer.Randomly;
@@ -77,6 +78,11 @@ public class ClickHouseProvider extends SQLProviderAdapter<ClickHouseGlobalState
         protected ClickHouseSchema readSchema() throws SQLException {
             return ClickHouseSchema.fromConnection(getConnection(), getDatabaseName());
         }
+
+        @Override
+        public String getResultFingerprintQuery(String query) {
+            return String.format("SELECT count(), sum(cityHash64(*)) FROM (%s)", query);
+        }
     }
 
     @Override
@@ -103,30 +109,35 @@ public class ClickHouseProvider extends SQLProviderAdapter<ClickHouseGlobalState
     public Connection createDatabase(ClickHouseGlobalState globalState) throws SQLException {
         ClickHouseOptions clickHouseOptions = globalState.getDmbsSpecificOptions();
         globalState.setClickHouseOptions(clickHouseOptions);
-        String url = "jdbc:clickhouse://localhost:8123/default";
-        String databaseName = globalState.getDatabaseName();
-        Connection con = DriverManager.getConnection(url, globalState.getOptions().getUserName(),
-                globalState.getOptions().getPassword());
-        String dropDatabaseCommand = "DROP DATABASE IF EXISTS " + databaseName;
-        globalState.getState().logStatement(dropDatabaseCommand);
-        String createDatabaseCommand = "CREATE DATABASE IF NOT EXISTS " + databaseName;
-        globalState.getState().logStatement(createDatabaseCommand);
-        try (Statement s = con.createStatement()) {
-            s.execute(dropDatabaseCommand);
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        try (Statement s = con.createStatement()) {
-            s.execute(createDatabaseCommand);
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-        con.close();
-        con = DriverManager.getConnection("jdbc:clickhouse://localhost:8123/" + databaseName,
+        String url = "jdbc:clickhouse://localhost:8123/";
+        String userName = globalState.getOptions().getUserName();
+        String password = globalState.getOptions().getPassword();
+        String databaseName = DatabasePool.getEmptyDatabase(globalState, name -> {
+            try (Connection con = DriverManager.getConnection(url + "default", userName, password)) {
+                try (Statement s = con.createStatement()) {
+                    s.execute("DROP DATABASE IF EXISTS " + name);
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+                try (Statement s = con.createStatement()) {
+                    s.execute("CREATE DATABASE IF NOT EXISTS " + name);
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+        globalState.getState().logStatement("DROP DATABASE IF EXISTS " + databaseName);
+        globalState.getState().logStatement("CREATE DATABASE IF NOT EXISTS " + databaseName);
+        return DriverManager.getConnection(url + databaseName, userName, password);
+    }
+
+    @Override
+    public Connection createReadConnection(ClickHouseGlobalState globalState) throws SQLException {
+        // the generated statements neither change the session nor open transactions
+        return DriverManager.getConnection(globalState.getConnection().getMetaData().getURL(),
                 globalState.getOptions().getUserName(), globalState.getOptions().getPassword());
-        return con;
     }
 
     @Override
@@ -3,8 +3,6 @@ package sqlancer.clickhouse;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +16,7 @@ import sqlancer.common.schema.AbstractSchema;
 import sqlancer.common.schema.AbstractTable;
 import sqlancer.common.schema.AbstractTableColumn;
 import sqlancer.common.schema.AbstractTables;
+import sqlancer.common.schema.CatalogSnapshot;
 import sqlancer.common.schema.TableIndex;
 
 public class ClickHouseSchema extends AbstractSchema<ClickHouseTable> {
@@ -176,51 +175,20 @@ public class ClickHouseSchema extends AbstractSchema<ClickHouseTable> {
     }
 
     public static ClickHouseSchema fromConnection(Connection con, String databaseName) throws SQLException {
-        List<ClickHouseTable> databaseTables = new ArrayList<>();
-        List<String> tableNames = getTableNames(con);
-        for (String tableName : tableNames) {
-            List<ClickHouseColumn> databaseColumns = getTableColumns(con, tableName);
-            List<TableIndex> indexes = Collections.emptyList();
-            boolean isView = tableName.startsWith("v");
-            ClickHouseTable t = new ClickHouseTable(tableName, databaseColumns, indexes, isView);
-            for (ClickHouseColumn c : databaseColumns) {
-                c.setTable(t);
-            }
-            databaseTables.add(t);
-
-        }
-        return new ClickHouseSchema(databaseTables);
-    }
-
-    private static List<String> getTableNames(Connection con) throws SQLException {
-        List<String> tableNames = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            ResultSet tableRs = s.executeQuery("SHOW TABLES");
-            while (tableRs.next()) {
-                String tableName = tableRs.getString(1);
-                tableNames.add(tableName);
-            }
-        }
-        return tableNames;
-    }
-
-    private static List<ClickHouseColumn> getTableColumns(Connection con, String tableName) throws SQLException {
-        List<ClickHouseColumn> columns = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery("DESCRIBE " + tableName)) {
-                while (rs.next()) {
+        CatalogSnapshot<ClickHouseTable, ClickHouseColumn, TableIndex> snapshot = new CatalogSnapshot<>();
+        // every table has at least one column, so that the tables can be derived from the columns
+        CatalogSnapshot.scan(con, "SELECT table, name, type, default_kind FROM system.columns "
+                + "WHERE database = currentDatabase() ORDER BY table, position", rs -> {
                     String columnName = rs.getString("name");
                     String dataType = rs.getString("type");
-                    String defaultType = rs.getString("default_type");
+                    String defaultType = rs.getString("default_kind");
                     boolean isAlias = "ALIAS".compareTo(defaultType) == 0;
                     boolean isMaterialized = "MATERIALIZED".compareTo(defaultType) == 0;
-                    ClickHouseColumn c = new ClickHouseColumn(columnName, getColumnType(dataType), isAlias,
-                            isMaterialized);
-                    columns.add(c);
-                }
-            }
-        }
-        return columns;
+                    snapshot.addColumn(rs.getString("table"),
+                            new ClickHouseColumn(columnName, getColumnType(dataType), isAlias, isMaterialized));
+                });
+        return new ClickHouseSchema(snapshot.toTables((tableName, columns, indexes) -> new ClickHouseTable(tableName,
+                columns, Collections.emptyList(), tableName.startsWith("v"))));
     }
 
 }
@@ -44,7 +44,7 @@ public class ClickHouseExpressionGenerator
         if (depth >= globalState.getOptions().getMaxExpressionDepth() || Randomly.getBoolean()) {
             return generateLeafNode(type);
         }
-        Expression expr = Randomly.fromOptions(Expression.values());
+        Expression expr = globalState.getGrammarWeights().choose(Expression.values());
         ClickHouseLancerDataType leftLeafType = ClickHouseLancerDataType.getRandom();
         ClickHouseLancerDataType rightLeafType = ClickHouseLancerDataType.getRandom();
         if (Randomly.getBoolean()) {
@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
+import sqlancer.ResultMultiset;
 import sqlancer.clickhouse.ClickHouseProvider;
 import sqlancer.clickhouse.ClickHouseVisitor;
 import sqlancer.clickhouse.ast.ClickHouseColumnReference;
@@ -25,19 +26,21 @@ public class ClickHouseTLPGroupByOracle extends ClickHouseTLPBase {
         select.setWhereClause(null);
         String originalQueryString = ClickHouseVisitor.asString(select);
 
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
-        select.setWhereClause(predicate);
-        String firstQueryString = ClickHouseVisitor.asString(select);
-        select.setWhereClause(negatedPredicate);
-        String secondQueryString = ClickHouseVisitor.asString(select);
-        select.setWhereClause(isNullPredicate);
-        String thirdQueryString = ClickHouseVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSetNoDuplicates(firstQueryString,
-                secondQueryString, thirdQueryString, combinedString, false, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        try (ResultMultiset resultSet = ComparatorHelper.getResultSetFirstColumnAsMultiset(originalQueryString, errors,
+                state)) {
+            select.setWhereClause(predicate);
+            String firstQueryString = ClickHouseVisitor.asString(select);
+            select.setWhereClause(negatedPredicate);
+            String secondQueryString = ClickHouseVisitor.asString(select);
+            select.setWhereClause(isNullPredicate);
+            String thirdQueryString = ClickHouseVisitor.asString(select);
+            List<String> combinedString = new ArrayList<>();
+            try (ResultMultiset secondResultSet = ComparatorHelper.getCombinedResultSetNoDuplicates(firstQueryString,
+                    secondQueryString, thirdQueryString, combinedString, false, state, errors)) {
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, state);
+            }
+        }
     }
 
     @Override
@@ -6,6 +6,7 @@ import java.util.List;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
+import sqlancer.ResultMultiset;
 import sqlancer.clickhouse.ClickHouseErrors;
 import sqlancer.clickhouse.ClickHouseProvider;
 import sqlancer.clickhouse.ClickHouseVisitor;
@@ -25,22 +26,24 @@ public class ClickHouseTLPWhereOracle extends ClickHouseTLPBase {
             select.setOrderByExpressions(gen.generateOrderBys());
         }
         String originalQueryString = ClickHouseVisitor.asString(select);
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
-        boolean orderBy = Randomly.getBooleanWithRatherLowProbability();
-        if (orderBy) {
-            select.setOrderByExpressions(gen.generateOrderBys());
+        try (ResultMultiset resultSet = ComparatorHelper.getResultSetFirstColumnAsMultiset(originalQueryString, errors,
+                state)) {
+            boolean orderBy = Randomly.getBooleanWithRatherLowProbability();
+            if (orderBy) {
+                select.setOrderByExpressions(gen.generateOrderBys());
+            }
+            select.setWhereClause(predicate);
+            String firstQueryString = ClickHouseVisitor.asString(select);
+            select.setWhereClause(negatedPredicate);
+            String secondQueryString = ClickHouseVisitor.asString(select);
+            select.setWhereClause(isNullPredicate);
+            String thirdQueryString = ClickHouseVisitor.asString(select);
+            List<String> combinedString = new ArrayList<>();
+            try (ResultMultiset secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString,
+                    secondQueryString, thirdQueryString, combinedString, !orderBy, state, errors)) {
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, state);
+            }
         }
-        select.setWhereClause(predicate);
-        String firstQueryString = ClickHouseVisitor.asString(select);
-        select.setWhereClause(negatedPredicate);
-        String secondQueryString = ClickHouseVisitor.asString(select);
-        select.setWhereClause(isNullPredicate);
-        String thirdQueryString = ClickHouseVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, !orderBy, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
     }
 }
@@ -4,10 +4,18 @@ import sqlancer.common.query.ExpectedErrors;
 
 public final class CockroachDBErrors {
 
+    private static final ExpectedErrors EXPRESSION_ERRORS = getExpressionErrors();
+    private static final ExpectedErrors TRANSACTION_ERRORS = getTransactionErrors();
+
     private CockroachDBErrors() {
     }
 
     public static void addExpressionErrors(ExpectedErrors errors) {
+        errors.addAll(EXPRESSION_ERRORS);
+    }
+
+    private static ExpectedErrors getExpressionErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add(" non-streaming operator encountered when vectorize=auto");
 
         if (CockroachDBBugs.bug46915) {
@@ -180,6 +188,7 @@ public final class CockroachDBErrors {
         errors.add("ERROR: for SELECT DISTINCT, ORDER BY expressions must appear in select list");
 
         addArrayErrors(errors);
+        return errors.toImmutable();
     }
 
     private static void addArrayErrors(ExpectedErrors errors) {
@@ -285,7 +294,13 @@ public final class CockroachDBErrors {
     }
 
     public static void addTransactionErrors(ExpectedErrors errors) {
+        errors.addAll(TRANSACTION_ERRORS);
+    }
+
+    private static ExpectedErrors getTransactionErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("current transaction is aborted");
+        return errors.toImmutable();
     }
 
 }
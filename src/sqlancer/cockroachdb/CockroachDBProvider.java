@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import sqlancer.DatabasePool;
 import sqlancer.GlobalState;
 import sqlancer.IgnoreMeException;
 import sqlancer.Main.QueryManager;
@@ -117,6 +118,22 @@ public class CockroachDBProvider extends SQLProviderAdapter<CockroachDBGlobalSta
             return CockroachDBSchema.fromConnection(getConnection(), getDatabaseName());
         }
 
+        @Override
+        public String getResultFingerprintQuery(String query) {
+            return String.format("SELECT COUNT(*), SUM(fnv64a(r::STRING)) FROM (%s) AS r", query);
+        }
+
+        @Override
+        public boolean supportsPipelinedQueries() {
+            return true;
+        }
+
+        @Override
+        protected long getDefaultStatementTimeoutMs() {
+            // schema changes are executed as jobs and can take considerably longer than queries
+            return 120_000;
+        }
+
     }
 
     @Override
@@ -248,17 +265,18 @@ public class CockroachDBProvider extends SQLProviderAdapter<CockroachDBGlobalSta
 
     @Override
     public Connection createDatabase(CockroachDBGlobalState globalState) throws SQLException {
-        String databaseName = globalState.getDatabaseName();
-        String url = "jdbc:postgresql://localhost:26257/test";
-        Connection con = DriverManager.getConnection(url, globalState.getOptions().getUserName(),
-                globalState.getOptions().getPassword());
-        globalState.getState().logStatement("USE test");
-        globalState.getState().logStatement("DROP DATABASE IF EXISTS " + databaseName + " CASCADE");
-        String createDatabaseCommand = "CREATE DATABASE " + databaseName;
-        globalState.getState().logStatement(createDatabaseCommand);
-        globalState.getState().logStatement("USE " + databaseName);
-        try (Statement s = con.createStatement()) {
-            s.execute("DROP DATABASE IF EXISTS " + databaseName);
+        String url = "jdbc:postgresql://localhost:26257/";
+        String userName = globalState.getOptions().getUserName();
+        String password = globalState.getOptions().getPassword();
+        String databaseName;
+        try {
+            databaseName = DatabasePool.getEmptyDatabase(globalState, name -> {
+                try (Connection con = DriverManager.getConnection(url + "test", userName, password);
+                        Statement s = con.createStatement()) {
+                    s.execute("DROP DATABASE IF EXISTS " + name);
+                    s.execute("CREATE DATABASE " + name);
+                }
+            });
         } catch (SQLException e) {
             if (e.getMessage().contains("ERROR: invalid interleave backreference")) {
                 throw new IgnoreMeException(); // TODO: investigate
@@ -266,12 +284,30 @@ public class CockroachDBProvider extends SQLProviderAdapter<CockroachDBGlobalSta
                 throw e;
             }
         }
-        try (Statement s = con.createStatement()) {
-            s.execute(createDatabaseCommand);
+        globalState.getState().logStatement("USE test");
+        globalState.getState().logStatement("DROP DATABASE IF EXISTS " + databaseName + " CASCADE");
+        globalState.getState().logStatement("CREATE DATABASE " + databaseName);
+        globalState.getState().logStatement("USE " + databaseName);
+        return DriverManager.getConnection(url + databaseName, userName, password);
+    }
+
+    @Override
+    public Connection createReadConnection(CockroachDBGlobalState globalState) throws SQLException {
+        boolean inTransaction = false;
+        for (String statement : globalState.getState().getStatements()) {
+            if (statement.startsWith("BEGIN")) {
+                inTransaction = true;
+            } else if (statement.startsWith("COMMIT") || statement.startsWith("ROLLBACK")) {
+                inTransaction = false;
+            }
+        }
+        if (inTransaction) {
+            // the read connection would not observe the changes of the open transaction
+            return null;
         }
-        con.close();
-        con = DriverManager.getConnection("jdbc:postgresql://localhost:26257/" + databaseName,
+        Connection con = DriverManager.getConnection(globalState.getConnection().getMetaData().getURL(),
                 globalState.getOptions().getUserName(), globalState.getOptions().getPassword());
+        replaySessionStatements(con, globalState, s -> s.startsWith("SET ") && !s.startsWith("SET CLUSTER SETTING"));
         return con;
     }
 
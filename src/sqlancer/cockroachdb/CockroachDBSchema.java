@@ -1,11 +1,10 @@
 package sqlancer.cockroachdb;
 
 import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import sqlancer.Randomly;
 import sqlancer.cockroachdb.CockroachDBSchema.CockroachDBTable;
@@ -13,10 +12,13 @@ import sqlancer.common.schema.AbstractSchema;
 import sqlancer.common.schema.AbstractTable;
 import sqlancer.common.schema.AbstractTableColumn;
 import sqlancer.common.schema.AbstractTables;
+import sqlancer.common.schema.CatalogSnapshot;
 import sqlancer.common.schema.TableIndex;
 
 public class CockroachDBSchema extends AbstractSchema<CockroachDBTable> {
 
+    private static final String SYSTEM_SCHEMAS = "('crdb_internal', 'information_schema', 'pg_catalog', 'pg_extension')";
+
     public enum CockroachDBDataType {
 
         INT, BOOL, STRING, FLOAT, BYTES, BIT, VARBIT, SERIAL, INTERVAL, TIMESTAMP, TIMESTAMPTZ, DECIMAL, JSONB, TIME,
@@ -273,68 +275,41 @@ public class CockroachDBSchema extends AbstractSchema<CockroachDBTable> {
     }
 
     public static CockroachDBSchema fromConnection(Connection con, String databaseName) throws SQLException {
-        List<CockroachDBTable> databaseTables = new ArrayList<>();
-        List<String> tableNames = getTableNames(con);
-        for (String tableName : tableNames) {
-            List<CockroachDBColumn> databaseColumns = getTableColumns(con, tableName);
-            List<TableIndex> indexes = getIndexes(con, tableName);
-            boolean isView = tableName.startsWith("v");
-            CockroachDBTable t = new CockroachDBTable(tableName, databaseColumns, indexes, isView);
-            for (CockroachDBColumn c : databaseColumns) {
-                c.setTable(t);
-            }
-            databaseTables.add(t);
-
-        }
-        return new CockroachDBSchema(databaseTables);
-    }
-
-    private static List<String> getTableNames(Connection con) throws SQLException {
-        List<String> tableNames = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            ResultSet tableRs = s.executeQuery(
-                    "SELECT table_name FROM information_schema.tables WHERE TABLE_TYPE IN ('BASE TABLE', 'LOCAL TEMPORARY');");
-            while (tableRs.next()) {
-                String tableName = tableRs.getString(1);
-                tableNames.add(tableName);
-            }
-        }
-        return tableNames;
-    }
-
-    private static List<TableIndex> getIndexes(Connection con, String tableName) throws SQLException {
-        List<TableIndex> indexes = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery(String.format("SHOW INDEX FROM %s", tableName))) {
-                while (rs.next()) {
+        CatalogSnapshot<CockroachDBTable, CockroachDBColumn, TableIndex> snapshot = new CatalogSnapshot<>();
+        CatalogSnapshot.scan(con,
+                "SELECT table_name FROM information_schema.tables WHERE TABLE_TYPE IN ('BASE TABLE', 'LOCAL TEMPORARY');",
+                rs -> snapshot.addTable(rs.getString("table_name")));
+        // SHOW COLUMNS derives the primary key columns from the indexes that contain them
+        Set<String> primaryKeyColumns = new HashSet<>();
+        CatalogSnapshot.scan(con, "SELECT table_name, column_name, index_name FROM information_schema.statistics "
+                + "WHERE table_schema NOT IN " + SYSTEM_SCHEMAS + ";", rs -> {
+                    String tableName = rs.getString("table_name");
                     String indexName = rs.getString("index_name");
-                    indexes.add(TableIndex.create(indexName));
-                }
-            }
-        }
-        return indexes;
-    }
-
-    private static List<CockroachDBColumn> getTableColumns(Connection con, String tableName) throws SQLException {
-        List<CockroachDBColumn> columns = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery("SHOW COLUMNS FROM " + tableName)) {
-                while (rs.next()) {
+                    if (snapshot.containsTable(tableName)) {
+                        snapshot.addIndex(tableName, TableIndex.create(indexName));
+                        if (indexName.contains("primary")) {
+                            primaryKeyColumns.add(tableName + "." + rs.getString("column_name"));
+                        }
+                    }
+                });
+        CatalogSnapshot.scan(con,
+                "SELECT table_name, column_name, crdb_sql_type, is_nullable FROM information_schema.columns "
+                        + "WHERE table_schema NOT IN " + SYSTEM_SCHEMAS + " ORDER BY table_name, ordinal_position;",
+                rs -> {
+                    String tableName = rs.getString("table_name");
                     String columnName = rs.getString("column_name");
-                    if (columnName.contains("crdb_internal")) {
-                        continue; // created for CREATE INDEX ON t0(c0) USING HASH WITH BUCKET_COUNT = 1;
+                    if (!snapshot.containsTable(tableName) || columnName.contains("crdb_internal")) {
+                        // created for CREATE INDEX ON t0(c0) USING HASH WITH BUCKET_COUNT = 1;
+                        return;
                     }
-                    String dataType = rs.getString("data_type");
-                    boolean isNullable = rs.getBoolean("is_nullable");
-                    String indices = rs.getString("indices");
-                    boolean isPrimaryKey = indices.contains("primary");
-                    CockroachDBColumn c = new CockroachDBColumn(columnName, getColumnType(dataType), isPrimaryKey,
-                            isNullable);
-                    columns.add(c);
-                }
-            }
-        }
-        return columns;
+                    String dataType = rs.getString("crdb_sql_type");
+                    boolean isNullable = "YES".equals(rs.getString("is_nullable"));
+                    boolean isPrimaryKey = primaryKeyColumns.contains(tableName + "." + columnName);
+                    snapshot.addColumn(tableName,
+                            new CockroachDBColumn(columnName, getColumnType(dataType), isPrimaryKey, isNullable));
+                });
+        return new CockroachDBSchema(snapshot.toTables((tableName, columns, indexes) -> new CockroachDBTable(tableName,
+                columns, indexes, tableName.startsWith("v"))));
     }
 
 }
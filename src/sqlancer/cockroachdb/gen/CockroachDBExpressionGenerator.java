@@ -182,7 +182,7 @@ public class CockroachDBExpressionGenerator
     }
 
     private CockroachDBExpression generateStringExpression(int depth) {
-        StringExpression exprType = Randomly.fromOptions(StringExpression.values());
+        StringExpression exprType = globalState.getGrammarWeights().choose(StringExpression.values());
         switch (exprType) {
         case CONCAT:
             return new CockroachDBConcatOperation(generateExpression(CockroachDBDataType.STRING.get(), depth + 1),
@@ -193,7 +193,7 @@ public class CockroachDBExpressionGenerator
     }
 
     private CockroachDBExpression generateBooleanExpression(int depth) {
-        BooleanExpression exprType = Randomly.fromOptions(BooleanExpression.values());
+        BooleanExpression exprType = globalState.getGrammarWeights().choose(BooleanExpression.values());
         CockroachDBExpression expr;
         switch (exprType) {
         case NOT:
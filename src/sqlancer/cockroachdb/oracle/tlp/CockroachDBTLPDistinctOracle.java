@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import sqlancer.ComparatorHelper;
+import sqlancer.ResultMultiset;
 import sqlancer.cockroachdb.CockroachDBProvider.CockroachDBGlobalState;
 import sqlancer.cockroachdb.CockroachDBSchema.CockroachDBDataType;
 import sqlancer.cockroachdb.CockroachDBVisitor;
@@ -26,19 +27,23 @@ public class CockroachDBTLPDistinctOracle extends CockroachDBTLPBase {
         select.setDistinct(true);
         String originalQueryString = CockroachDBVisitor.asString(select);
 
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-        select.setDistinct(false);
-        CockroachDBExpression predicate = gen.generateExpression(CockroachDBDataType.BOOL.get());
-        select.setWhereClause(predicate);
-        String firstQueryString = CockroachDBVisitor.asString(select);
-        select.setWhereClause(new CockroachDBNotOperation(predicate));
-        String secondQueryString = CockroachDBVisitor.asString(select);
-        select.setWhereClause(new CockroachDBUnaryPostfixOperation(predicate, CockroachDBUnaryPostfixOperator.IS_NULL));
-        String thirdQueryString = CockroachDBVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSetNoDuplicates(firstQueryString,
-                secondQueryString, thirdQueryString, combinedString, true, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        try (ResultMultiset resultSet = ComparatorHelper.getResultSetFirstColumnAsMultiset(originalQueryString, errors,
+                state)) {
+            select.setDistinct(false);
+            CockroachDBExpression predicate = gen.generateExpression(CockroachDBDataType.BOOL.get());
+            select.setWhereClause(predicate);
+            String firstQueryString = CockroachDBVisitor.asString(select);
+            select.setWhereClause(new CockroachDBNotOperation(predicate));
+            String secondQueryString = CockroachDBVisitor.asString(select);
+            select.setWhereClause(
+                    new CockroachDBUnaryPostfixOperation(predicate, CockroachDBUnaryPostfixOperator.IS_NULL));
+            String thirdQueryString = CockroachDBVisitor.asString(select);
+            List<String> combinedString = new ArrayList<>();
+            try (ResultMultiset secondResultSet = ComparatorHelper.getCombinedResultSetNoDuplicates(firstQueryString,
+                    secondQueryString, thirdQueryString, combinedString, true, state, errors)) {
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, state);
+            }
+        }
     }
 }
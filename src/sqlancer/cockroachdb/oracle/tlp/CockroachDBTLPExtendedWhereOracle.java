@@ -1,8 +1,7 @@
 package sqlancer.cockroachdb.oracle.tlp;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
@@ -32,7 +31,6 @@ public class CockroachDBTLPExtendedWhereOracle extends CockroachDBTLPBase {
         originalPredicate = generatePredicate();
         select.setWhereClause(originalPredicate);
         String originalQueryString = CockroachDBVisitor.asString(select);
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
 
         boolean allowOrderBy = Randomly.getBoolean();
         if (allowOrderBy) {
@@ -45,11 +43,8 @@ public class CockroachDBTLPExtendedWhereOracle extends CockroachDBTLPBase {
         select.setWhereClause(combinePredicate(
                 new CockroachDBUnaryPostfixOperation(predicate, CockroachDBUnaryPostfixOperator.IS_NULL)));
         String thirdQueryString = CockroachDBVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, !allowOrderBy, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        ComparatorHelper.assumeResultSetsAreEqual(originalQueryString,
+                Arrays.asList(firstQueryString, secondQueryString, thirdQueryString), !allowOrderBy, state, errors);
     }
 
     public CockroachDBExpression combinePredicate(CockroachDBExpression expr) {
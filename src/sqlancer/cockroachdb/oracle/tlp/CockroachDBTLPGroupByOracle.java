@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
+import sqlancer.ResultMultiset;
 import sqlancer.cockroachdb.CockroachDBProvider.CockroachDBGlobalState;
 import sqlancer.cockroachdb.CockroachDBVisitor;
 import sqlancer.cockroachdb.ast.CockroachDBColumnReference;
@@ -25,19 +26,21 @@ public class CockroachDBTLPGroupByOracle extends CockroachDBTLPBase {
         select.setWhereClause(null);
         String originalQueryString = CockroachDBVisitor.asString(select);
 
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
-        select.setWhereClause(predicate);
-        String firstQueryString = CockroachDBVisitor.asString(select);
-        select.setWhereClause(negatedPredicate);
-        String secondQueryString = CockroachDBVisitor.asString(select);
-        select.setWhereClause(isNullPredicate);
-        String thirdQueryString = CockroachDBVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSetNoDuplicates(firstQueryString,
-                secondQueryString, thirdQueryString, combinedString, true, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        try (ResultMultiset resultSet = ComparatorHelper.getResultSetFirstColumnAsMultiset(originalQueryString, errors,
+                state)) {
+            select.setWhereClause(predicate);
+            String firstQueryString = CockroachDBVisitor.asString(select);
+            select.setWhereClause(negatedPredicate);
+            String secondQueryString = CockroachDBVisitor.asString(select);
+            select.setWhereClause(isNullPredicate);
+            String thirdQueryString = CockroachDBVisitor.asString(select);
+            List<String> combinedString = new ArrayList<>();
+            try (ResultMultiset secondResultSet = ComparatorHelper.getCombinedResultSetNoDuplicates(firstQueryString,
+                    secondQueryString, thirdQueryString, combinedString, true, state, errors)) {
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, state);
+            }
+        }
     }
 
     @Override
@@ -1,8 +1,7 @@
 package sqlancer.cockroachdb.oracle.tlp;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
@@ -31,7 +30,6 @@ public class CockroachDBTLPHavingOracle extends CockroachDBTLPBase {
         select.setGroupByExpressions(gen.generateExpressions(Randomly.smallNumber() + 1));
         select.setHavingClause(null);
         String originalQueryString = CockroachDBVisitor.asString(select);
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
 
         select.setHavingClause(predicate);
         String firstQueryString = CockroachDBVisitor.asString(select);
@@ -39,11 +37,8 @@ public class CockroachDBTLPHavingOracle extends CockroachDBTLPBase {
         String secondQueryString = CockroachDBVisitor.asString(select);
         select.setHavingClause(isNullPredicate);
         String thirdQueryString = CockroachDBVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, !orderBy, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        ComparatorHelper.assumeResultSetsAreEqual(originalQueryString,
+                Arrays.asList(firstQueryString, secondQueryString, thirdQueryString), !orderBy, state, errors);
     }
 
     @Override
@@ -1,7 +1,6 @@
 package sqlancer.cockroachdb.oracle.tlp;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -82,8 +81,6 @@ public class CockroachDBTLPJoinOracle implements TestOracle {
         String originalQueryString = originalQueryString1 + " UNION ALL " + originalQueryString2 + " UNION ALL "
                 + originalQueryString2;
 
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
         // boolean allowOrderBy = Randomly.getBoolean();
         // if (allowOrderBy) {
         // select.setOrderByExpressions(gen.getOrderingTerms());
@@ -100,11 +97,9 @@ public class CockroachDBTLPJoinOracle implements TestOracle {
         select.setJoinList(
                 Arrays.asList(CockroachDBJoin.createOuterJoin(leftTable, rightTable, OuterType.LEFT, isNullPredicate)));
         String thirdQueryString = CockroachDBVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, Randomly.getBoolean(), state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        ComparatorHelper.assumeResultSetsAreEqual(originalQueryString,
+                Arrays.asList(firstQueryString, secondQueryString, thirdQueryString), Randomly.getBoolean(), state,
+                errors);
     }
 
     List<CockroachDBExpression> generateFetchColumns() {
@@ -1,8 +1,7 @@
 package sqlancer.cockroachdb.oracle.tlp;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
@@ -26,8 +25,6 @@ public class CockroachDBTLPWhereOracle extends CockroachDBTLPBase {
         super.check();
         String originalQueryString = CockroachDBVisitor.asString(select);
 
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
         boolean allowOrderBy = Randomly.getBoolean();
         if (allowOrderBy) {
             select.setOrderByExpressions(gen.getOrderingTerms());
@@ -39,10 +36,7 @@ public class CockroachDBTLPWhereOracle extends CockroachDBTLPBase {
         String secondQueryString = CockroachDBVisitor.asString(select);
         select.setWhereClause(new CockroachDBUnaryPostfixOperation(predicate, CockroachDBUnaryPostfixOperator.IS_NULL));
         String thirdQueryString = CockroachDBVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, !allowOrderBy, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        ComparatorHelper.assumeResultSetsAreEqual(originalQueryString,
+                Arrays.asList(firstQueryString, secondQueryString, thirdQueryString), !allowOrderBy, state, errors);
     }
 }
@@ -0,0 +1,333 @@
+package sqlancer.common.gen;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import sqlancer.Randomly;
+import sqlancer.common.metrics.MetricsRegistry;
+import sqlancer.common.metrics.MetricsRegistry.ProductionCounters;
+
+/**
+ * Chooses the productions (i.e., enum constants such as the kinds of expression nodes) of the expression generators of
+ * a single database session. The productions drawn while a statement or a test-oracle check is generated are taken as a
+ * {@link Productions} handle, which attributes the outcome of exactly that statement or check to them: when weighting
+ * is enabled, a production is drawn with a probability proportional to the (smoothed) fraction of statements and checks
+ * using it that succeeded, so that productions that mostly cause expected errors (e.g., type mismatches) are generated
+ * less often. A check fails if any of its queries fails with an expected error, since all its queries are built from
+ * the same generated expressions. The weight of a production never drops below {@link #MIN_WEIGHT}, so that each
+ * production is still tested. The outcomes are also counted in the {@link MetricsRegistry}, to report the error rate
+ * per production.
+ *
+ * The draws use alias tables, which are rebuilt only every {@link #REBUILD_INTERVAL} statements. The methods are
+ * synchronized, since the queries of a test oracle might be executed on other threads (see
+ * {@link sqlancer.GlobalState#submitRead(java.util.concurrent.Callable)}).
+ */
+public final class GrammarWeights {
+
+    static final double MIN_WEIGHT = 0.05;
+
+    static final int REBUILD_INTERVAL = 16;
+
+    private final MetricsRegistry registry;
+    private final String provider;
+    private final boolean weighted;
+    private final Map<Class<?>, Group> groups = new HashMap<>();
+    private final List<Group> usedGroups = new ArrayList<>();
+    private boolean failed;
+
+    /**
+     * The statistics of the constants of a single enum type. The constants are identified by their ordinal, and sets of
+     * constants are represented as bit masks; constants whose ordinal is 64 or higher are chosen uniformly and are not
+     * tracked.
+     */
+    private final class Group {
+
+        private final Enum<?>[] constants;
+        private final String name;
+        private final long[] nrStatements;
+        private final long[] nrFailures;
+        private final ProductionCounters[] counters;
+        private final Map<Long, AliasTable> tables = new HashMap<>();
+        private long version;
+        private long usedMask;
+
+        Group(Class<?> enumClass) {
+            this.constants = (Enum<?>[]) enumClass.getEnumConstants();
+            String className = enumClass.getName();
+            this.name = className.substring(className.lastIndexOf('.') + 1).replace('$', '.');
+            int nrConstants = Math.min(Long.SIZE, constants.length);
+            this.nrStatements = new long[nrConstants];
+            this.nrFailures = new long[nrConstants];
+            this.counters = new ProductionCounters[nrConstants];
+        }
+
+        double getWeight(int ordinal) {
+            double successRate = (nrStatements[ordinal] - nrFailures[ordinal] + 1.0) / (nrStatements[ordinal] + 2.0);
+            return Math.max(MIN_WEIGHT, successRate);
+        }
+
+        ProductionCounters getCounters(int ordinal, Enum<?> constant) {
+            if (counters[ordinal] == null) {
+                counters[ordinal] = registry.getProductionCounters(provider, name + "." + constant.name());
+            }
+            return counters[ordinal];
+        }
+
+        void record(long productions, boolean success) {
+            for (long mask = productions; mask != 0; mask &= mask - 1) {
+                int ordinal = Long.numberOfTrailingZeros(mask);
+                nrStatements[ordinal]++;
+                if (!success) {
+                    nrFailures[ordinal]++;
+                }
+                getCounters(ordinal, constants[ordinal]).record(success);
+            }
+            version++;
+        }
+
+    }
+
+    /**
+     * The productions chosen for a single statement or test-oracle check, to whose outcome they are attributed.
+     */
+    public final class Productions {
+
+        private final Group[] usedGroups;
+        private final long[] usedMasks;
+        private final boolean causedError;
+
+        private Productions(Group[] usedGroups, long[] usedMasks, boolean causedError) {
+            this.usedGroups = usedGroups;
+            this.usedMasks = usedMasks;
+            this.causedError = causedError;
+        }
+
+        /**
+         * Records the outcome of the statement or check that uses the productions.
+         *
+         * @param success
+         *            whether the statement or check succeeded, rather than failing with an expected error or a timeout
+         */
+        public void recordOutcome(boolean success) {
+            synchronized (GrammarWeights.this) {
+                for (int i = 0; i < usedGroups.length; i++) {
+                    usedGroups[i].record(usedMasks[i], success);
+                }
+            }
+        }
+
+        /**
+         * Whether a query without productions of its own failed while the productions were chosen, that is, during the
+         * check that uses them (see {@link GrammarWeights#recordFailure()}).
+         *
+         * @return true if a query failed with an expected error or a timeout
+         */
+        public boolean causedError() {
+            return causedError;
+        }
+
+    }
+
+    /**
+     * An alias table (Vose's method) over a fixed set of constants, which allows drawing a constant in constant time.
+     */
+    private static final class AliasTable {
+
+        private final Enum<?>[] options;
+        private final double[] probabilities;
+        private final int[] aliases;
+        private final long version;
+
+        AliasTable(Enum<?>[] options, double[] weights, long version) {
+            int n = options.length;
+            this.options = options.clone();
+            this.probabilities = new double[n];
+            this.aliases = new int[n];
+            this.version = version;
+            double sum = 0;
+            for (double weight : weights) {
+                sum += weight;
+            }
+            double[] scaled = new double[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int nrSmall = 0;
+            int nrLarge = 0;
+            for (int i = 0; i < n; i++) {
+                scaled[i] = weights[i] * n / sum;
+                if (scaled[i] < 1) {
+                    small[nrSmall++] = i;
+                } else {
+                    large[nrLarge++] = i;
+                }
+            }
+            while (nrSmall != 0 && nrLarge != 0) {
+                int s = small[--nrSmall];
+                int l = large[--nrLarge];
+                probabilities[s] = scaled[s];
+                aliases[s] = l;
+                scaled[l] = scaled[l] + scaled[s] - 1;
+                if (scaled[l] < 1) {
+                    small[nrSmall++] = l;
+                } else {
+                    large[nrLarge++] = l;
+                }
+            }
+            // the remaining entries are 1 up to rounding errors
+            while (nrLarge != 0) {
+                probabilities[large[--nrLarge]] = 1;
+            }
+            while (nrSmall != 0) {
+                probabilities[small[--nrSmall]] = 1;
+            }
+        }
+
+        Enum<?> draw() {
+            int i = (int) Randomly.getNotCachedInteger(0, options.length);
+            return Randomly.getUncachedDouble() < probabilities[i] ? options[i] : options[aliases[i]];
+        }
+
+    }
+
+    /**
+     * @param registry
+     *            the registry in which the outcomes per production are counted
+     * @param provider
+     *            the name of the DBMS provider
+     * @param weighted
+     *            whether productions are drawn according to their success rate, rather than uniformly
+     */
+    public GrammarWeights(MetricsRegistry registry, String provider, boolean weighted) {
+        this.registry = registry;
+        this.provider = provider;
+        this.weighted = weighted;
+    }
+
+    /**
+     * Chooses one of the given productions and records that it is used by the statement or check being generated.
+     *
+     * @param <T>
+     *            the enum type of the productions
+     * @param options
+     *            the productions, which must not contain duplicates
+     *
+     * @return the chosen production
+     */
+    @SafeVarargs
+    public final <T extends Enum<T>> T choose(T... options) {
+        return chooseFrom(options);
+    }
+
+    /**
+     * Chooses one of the given productions and records that it is used by the statement or check being generated.
+     *
+     * @param <T>
+     *            the enum type of the productions
+     * @param options
+     *            the productions, which must not contain duplicates
+     *
+     * @return the chosen production
+     */
+    public <T extends Enum<T>> T choose(List<T> options) {
+        return chooseFrom(options.toArray(new Enum<?>[0]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T extends Enum<T>> T chooseFrom(Enum<?>... options) {
+        if (options.length == 0) {
+            throw new IllegalArgumentException();
+        }
+        Group group = getGroup(options[0]);
+        Enum<?> choice;
+        if (!weighted || options.length == 1 || !isTracked(options)) {
+            choice = Randomly.fromOptions(options);
+        } else {
+            long mask = getMask(options);
+            AliasTable table = group.tables.get(mask);
+            if (table == null || group.version - table.version >= REBUILD_INTERVAL) {
+                double[] weights = new double[options.length];
+                for (int i = 0; i < options.length; i++) {
+                    weights[i] = group.getWeight(options[i].ordinal());
+                }
+                table = new AliasTable(options, weights, group.version);
+                group.tables.put(mask, table);
+            }
+            choice = table.draw();
+        }
+        if (choice.ordinal() < Long.SIZE) {
+            if (group.usedMask == 0) {
+                usedGroups.add(group);
+            }
+            group.usedMask |= 1L << choice.ordinal();
+        }
+        return (T) choice;
+    }
+
+    /**
+     * Takes the productions that have been chosen since the choices were last taken or discarded.
+     *
+     * @return the productions, whose outcome is recorded by the statement or check that uses them
+     */
+    public synchronized Productions takeChoices() {
+        Group[] taken = usedGroups.toArray(new Group[0]);
+        long[] masks = new long[taken.length];
+        for (int i = 0; i < taken.length; i++) {
+            masks[i] = taken[i].usedMask;
+            taken[i].usedMask = 0;
+        }
+        usedGroups.clear();
+        Productions productions = new Productions(taken, masks, failed);
+        failed = false;
+        return productions;
+    }
+
+    /**
+     * Records that a query without productions of its own (i.e., a query of the check in progress) failed with an
+     * expected error or a timeout, possibly on a read connection or while its rows were fetched.
+     */
+    public synchronized void recordFailure() {
+        failed = true;
+    }
+
+    /**
+     * Forgets the productions that have been chosen since the choices were last taken, and the failures of queries
+     * since then, for example, before a check is generated.
+     */
+    public synchronized void discardChoices() {
+        for (Group group : usedGroups) {
+            group.usedMask = 0;
+        }
+        usedGroups.clear();
+        failed = false;
+    }
+
+    private Group getGroup(Enum<?> constant) {
+        Class<?> enumClass = constant.getDeclaringClass();
+        Group group = groups.get(enumClass);
+        if (group == null) {
+            group = new Group(enumClass);
+            groups.put(enumClass, group);
+        }
+        return group;
+    }
+
+    private static boolean isTracked(Enum<?>[] options) {
+        for (Enum<?> option : options) {
+            if (option.ordinal() >= Long.SIZE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long getMask(Enum<?>[] options) {
+        long mask = 0;
+        for (Enum<?> option : options) {
+            mask |= 1L << option.ordinal();
+        }
+        return mask;
+    }
+
+}
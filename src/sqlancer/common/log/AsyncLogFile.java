@@ -0,0 +1,171 @@
+package sqlancer.common.log;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A log file that is written asynchronously. The owning thread appends log strings to a bounded, lock-free ring buffer,
+ * from which a shared background thread writes them in batches, flushing the file once per batch rather than once per
+ * log string. {@link #sync()} forces a synchronous drain, for example, before a bug is reported, and all open log files
+ * are drained when the JVM shuts down.
+ *
+ * Appending is intended for a single thread (i.e., the worker that tests a given database).
+ */
+public final class AsyncLogFile implements Closeable {
+
+    private static final int CAPACITY = 4096;
+    private static final int MASK = CAPACITY - 1;
+
+    private final String[] buffer = new String[CAPACITY];
+    /** The index of the next log string to be written to the file, only advanced while holding the lock. */
+    private final AtomicLong head = new AtomicLong();
+    /** The index of the next free slot, only advanced by the appending thread. */
+    private final AtomicLong tail = new AtomicLong();
+    private final Writer writer;
+    private boolean closed;
+
+    private AsyncLogFile(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Creates (or truncates) the given file and registers it with the background writer.
+     *
+     * @param file
+     *            the file to log to
+     *
+     * @return the log file
+     *
+     * @throws IOException
+     *             if the file cannot be opened
+     */
+    public static AsyncLogFile open(File file) throws IOException {
+        AsyncLogFile log = new AsyncLogFile(new BufferedWriter(new FileWriter(file, false)));
+        BackgroundWriter.INSTANCE.register(log);
+        return log;
+    }
+
+    public void append(String s) {
+        if (s == null) {
+            throw new IllegalArgumentException();
+        }
+        if (closed) {
+            throw new IllegalStateException();
+        }
+        long t = tail.get();
+        while (t - head.get() == CAPACITY) {
+            // the background writer is lagging behind, so write the buffered strings ourselves
+            drain();
+        }
+        buffer[(int) (t & MASK)] = s;
+        tail.lazySet(t + 1);
+        if (t - head.get() == CAPACITY / 2) {
+            BackgroundWriter.INSTANCE.wakeUp();
+        }
+    }
+
+    /**
+     * Writes all strings appended so far to the file and flushes it.
+     */
+    public void sync() {
+        drain();
+    }
+
+    /**
+     * Writes all pending log strings as a single batch.
+     *
+     * @return whether any log string was written
+     */
+    synchronized boolean drain() {
+        if (closed) {
+            return false;
+        }
+        long h = head.get();
+        long t = tail.get();
+        if (h == t) {
+            return false;
+        }
+        try {
+            for (long i = h; i < t; i++) {
+                int index = (int) (i & MASK);
+                writer.write(buffer[index]);
+                buffer[index] = null;
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        } finally {
+            head.lazySet(t);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        BackgroundWriter.INSTANCE.unregister(this);
+        synchronized (this) {
+            drain();
+            closed = true;
+            writer.close();
+        }
+    }
+
+    private static final class BackgroundWriter implements Runnable {
+
+        private static final BackgroundWriter INSTANCE = new BackgroundWriter();
+        private static final long BATCH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+        private final Set<AsyncLogFile> logs = ConcurrentHashMap.newKeySet();
+        private final Thread thread;
+
+        private BackgroundWriter() {
+            thread = new Thread(this, "sqlancer-log-writer");
+            thread.setDaemon(true);
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::drainAll));
+        }
+
+        void register(AsyncLogFile log) {
+            logs.add(log);
+        }
+
+        void unregister(AsyncLogFile log) {
+            logs.remove(log);
+        }
+
+        void wakeUp() {
+            LockSupport.unpark(thread);
+        }
+
+        private void drainAll() {
+            for (AsyncLogFile log : logs) {
+                log.drain();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    drainAll();
+                    // wait for more log strings to accumulate, so that they are written as a single batch
+                    LockSupport.parkNanos(BATCH_INTERVAL_NANOS);
+                } catch (Throwable t) {
+                    // a failing log file must not stop logging for the other threads
+                    t.printStackTrace();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,376 @@
+package sqlancer.common.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An append-only journal of statement strings that is stored outside of the Java heap. Statements are written to
+ * memory-mapped segment files in the temporary directory; when a segment is full, a new one is started. To keep the
+ * journal compact, words (e.g., keywords, table names, and column names) that occur repeatedly are replaced by indexes
+ * into a dictionary. Since the dictionary and the admission table for new words have a fixed maximum size, the heap
+ * usage of the journal does not grow with the number of journaled statements.
+ *
+ * A journal is not thread safe.
+ */
+public final class StatementJournal implements Closeable, Iterable<String> {
+
+    private static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final int MAX_DICTIONARY_SIZE = 4096;
+    private static final int MIN_WORD_LENGTH = 2;
+    private static final int MAX_WORD_LENGTH = 32;
+    private static final int ADMISSION_TABLE_SIZE = 4096;
+    private static final int MAX_VARINT_LENGTH = 5;
+
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    /**
+     * Hashes of words that have been seen once. A word is only added to the dictionary when it is seen a second time,
+     * so that random identifiers and string constants do not fill up the dictionary.
+     */
+    private final int[] admissionTable = new int[ADMISSION_TABLE_SIZE];
+    private byte[] scratch = new byte[256];
+    private int scratchLength;
+    private int size;
+    private boolean closed;
+
+    private static final class Segment {
+
+        /** The segment file, or null if it has already been deleted. */
+        private final Path path;
+        private final MappedByteBuffer buffer;
+
+        Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+    }
+
+    public StatementJournal() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    public StatementJournal(int segmentSize) {
+        if (segmentSize <= MAX_VARINT_LENGTH) {
+            throw new IllegalArgumentException();
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    public void append(String statement) {
+        if (statement == null) {
+            throw new IllegalArgumentException();
+        }
+        if (closed) {
+            throw new IllegalStateException();
+        }
+        scratchLength = 0;
+        encode(statement);
+        int recordLength = varIntLength(scratchLength) + scratchLength;
+        ByteBuffer buffer = getSegmentWithCapacity(recordLength).buffer;
+        writeVarInt(buffer, scratchLength);
+        buffer.put(scratch, 0, scratchLength);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private Segment getSegmentWithCapacity(int recordLength) {
+        if (!segments.isEmpty()) {
+            Segment last = segments.get(segments.size() - 1);
+            if (last.buffer.remaining() >= recordLength) {
+                return last;
+            }
+        }
+        Segment segment = createSegment(Math.max(segmentSize, recordLength));
+        segments.add(segment);
+        return segment;
+    }
+
+    /*
+     * The segment file is deleted as soon as it has been mapped, which is possible on POSIX systems, where the mapping
+     * remains valid until the buffer is garbage collected. Otherwise (e.g., on Windows, where a mapped file cannot be
+     * deleted), the file is deleted when the journal is closed.
+     */
+    private static Segment createSegment(int capacity) {
+        try {
+            Path path = Files.createTempFile("sqlancer-journal-", ".seg");
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(MapMode.READ_WRITE, 0, capacity);
+            } catch (IOException e) {
+                Files.deleteIfExists(path);
+                throw e;
+            }
+            return new Segment(tryDelete(path) ? null : path, buffer);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static boolean tryDelete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /*
+     * A record consists of a sequence of variable-length integers. An odd value v refers to the dictionary word with
+     * index v >>> 1, while an even value v is followed by (v >>> 1) bytes of encoded literal text.
+     */
+    private void encode(String s) {
+        int literalStart = -1;
+        int i = 0;
+        while (i < s.length()) {
+            if (!isWordStart(s.charAt(i))) {
+                if (literalStart == -1) {
+                    literalStart = i;
+                }
+                i++;
+                continue;
+            }
+            int wordEnd = i + 1;
+            while (wordEnd < s.length() && isWordPart(s.charAt(wordEnd))) {
+                wordEnd++;
+            }
+            Integer index = lookUpWord(s.substring(i, wordEnd));
+            if (index == null) {
+                if (literalStart == -1) {
+                    literalStart = i;
+                }
+            } else {
+                if (literalStart != -1) {
+                    encodeLiteral(s, literalStart, i);
+                    literalStart = -1;
+                }
+                putVarInt((index << 1) | 1);
+            }
+            i = wordEnd;
+        }
+        if (literalStart != -1) {
+            encodeLiteral(s, literalStart, s.length());
+        }
+    }
+
+    private Integer lookUpWord(String word) {
+        Integer index = dictionary.get(word);
+        if (index != null || words.size() == MAX_DICTIONARY_SIZE || word.length() < MIN_WORD_LENGTH
+                || word.length() > MAX_WORD_LENGTH) {
+            return index;
+        }
+        int hash = word.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & (ADMISSION_TABLE_SIZE - 1);
+        if (admissionTable[slot] != hash) {
+            admissionTable[slot] = hash;
+            return null;
+        }
+        index = words.size();
+        words.add(word);
+        dictionary.put(word, index);
+        return index;
+    }
+
+    /*
+     * Literal text is encoded like UTF-8, but character by character (i.e., surrogates are encoded separately), so that
+     * strings with unpaired surrogates, which the random string generators might produce, can be restored exactly.
+     */
+    private void encodeLiteral(String s, int start, int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            length += encodedLength(s.charAt(i));
+        }
+        putVarInt(length << 1);
+        ensureScratchCapacity(length);
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                scratch[scratchLength++] = (byte) c;
+            } else if (c < 0x800) {
+                scratch[scratchLength++] = (byte) (0xC0 | c >> 6);
+                scratch[scratchLength++] = (byte) (0x80 | c & 0x3F);
+            } else {
+                scratch[scratchLength++] = (byte) (0xE0 | c >> 12);
+                scratch[scratchLength++] = (byte) (0x80 | c >> 6 & 0x3F);
+                scratch[scratchLength++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    private static int encodedLength(char c) {
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800) {
+            return 2;
+        } else {
+            return 3;
+        }
+    }
+
+    private static void decodeLiteral(ByteBuffer buffer, int length, StringBuilder sb) {
+        int end = buffer.position() + length;
+        while (buffer.position() < end) {
+            int b = buffer.get() & 0xFF;
+            if (b < 0x80) {
+                sb.append((char) b);
+            } else if (b < 0xE0) {
+                sb.append((char) ((b & 0x1F) << 6 | buffer.get() & 0x3F));
+            } else {
+                int second = buffer.get() & 0x3F;
+                sb.append((char) ((b & 0x0F) << 12 | second << 6 | buffer.get() & 0x3F));
+            }
+        }
+    }
+
+    private static boolean isWordStart(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_';
+    }
+
+    private static boolean isWordPart(char c) {
+        return isWordStart(c) || c >= '0' && c <= '9';
+    }
+
+    private void ensureScratchCapacity(int additionalBytes) {
+        if (scratchLength + additionalBytes > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, scratchLength + additionalBytes));
+        }
+    }
+
+    private void putVarInt(int value) {
+        ensureScratchCapacity(MAX_VARINT_LENGTH);
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            scratch[scratchLength++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        scratch[scratchLength++] = (byte) v;
+    }
+
+    private static void writeVarInt(ByteBuffer buffer, int value) {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            buffer.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buffer.put((byte) v);
+    }
+
+    private static int varIntLength(int value) {
+        int length = 1;
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            length++;
+            v >>>= 7;
+        }
+        return length;
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private String decode(ByteBuffer buffer) {
+        int recordEnd = readVarInt(buffer);
+        recordEnd += buffer.position();
+        StringBuilder sb = new StringBuilder();
+        while (buffer.position() < recordEnd) {
+            int value = readVarInt(buffer);
+            if ((value & 1) == 1) {
+                sb.append(words.get(value >>> 1));
+            } else {
+                decodeLiteral(buffer, value >>> 1, sb);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns an iterator that decodes the journaled statements one at a time, in the order in which they were
+     * appended. The iterator reflects the statements appended before its creation.
+     */
+    @Override
+    public Iterator<String> iterator() {
+        if (closed) {
+            throw new IllegalStateException();
+        }
+        final List<ByteBuffer> readBuffers = new ArrayList<>();
+        for (Segment segment : segments) {
+            ByteBuffer readBuffer = segment.buffer.duplicate();
+            readBuffer.flip();
+            readBuffers.add(readBuffer);
+        }
+        return new Iterator<String>() {
+
+            private int segmentIndex;
+
+            @Override
+            public boolean hasNext() {
+                while (segmentIndex < readBuffers.size() && !readBuffers.get(segmentIndex).hasRemaining()) {
+                    segmentIndex++;
+                }
+                return segmentIndex < readBuffers.size();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return decode(readBuffers.get(segmentIndex));
+            }
+        };
+    }
+
+    /**
+     * Deletes the segment files that could not be deleted when they were created, and releases the segments, whose
+     * memory is unmapped once they have been garbage collected. The journal cannot be used after it has been closed.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Segment segment : segments) {
+            if (segment.path != null) {
+                tryDelete(segment.path);
+            }
+        }
+        segments.clear();
+        dictionary.clear();
+        words.clear();
+    }
+
+}
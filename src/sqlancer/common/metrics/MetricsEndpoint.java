@@ -0,0 +1,81 @@
+package sqlancer.common.metrics;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the plain-text representation of the {@link MetricsRegistry} over HTTP on a port of the loopback interface, so
+ * that the counters can be scraped by external monitoring tools. Each request is answered with the current counters,
+ * regardless of the requested path.
+ */
+public final class MetricsEndpoint implements Runnable, Closeable {
+
+    // a client that does not send its request within this time is disconnected, so that it cannot block the others
+    private static final int CLIENT_TIMEOUT_MS = 5000;
+
+    private final ServerSocket serverSocket;
+    private final MetricsRegistry registry;
+
+    private MetricsEndpoint(ServerSocket serverSocket, MetricsRegistry registry) {
+        this.serverSocket = serverSocket;
+        this.registry = registry;
+    }
+
+    public static MetricsEndpoint start(MetricsRegistry registry, int port) throws IOException {
+        ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        MetricsEndpoint endpoint = new MetricsEndpoint(serverSocket, registry);
+        Thread thread = new Thread(endpoint, "sqlancer-metrics-endpoint");
+        thread.setDaemon(true);
+        thread.start();
+        return endpoint;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            try (Socket client = serverSocket.accept()) {
+                client.setSoTimeout(CLIENT_TIMEOUT_MS);
+                serve(client);
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                // the client disconnected or timed out, continue with the next one
+            }
+        }
+    }
+
+    private void serve(Socket client) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+        String line;
+        do {
+            // skip the request line and headers
+            line = reader.readLine();
+        } while (line != null && !line.isEmpty());
+        byte[] body = registry.toPlainText().getBytes(StandardCharsets.UTF_8);
+        String header = "HTTP/1.0 200 OK\r\nContent-Type: text/plain; version=0.0.4; charset=utf-8\r\nContent-Length: "
+                + body.length + "\r\nConnection: close\r\n\r\n";
+        OutputStream out = client.getOutputStream();
+        out.write(header.getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+}
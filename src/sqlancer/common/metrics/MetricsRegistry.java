@@ -0,0 +1,326 @@
+package sqlancer.common.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide registry of the execution statistics (e.g., the number of issued queries or successfully-executed
+ * statements). The counters are keyed by the DBMS provider, the test oracle, and the statement kind, and are backed by
+ * {@link LongAdder}s, so that worker threads do not contend on a single counter for every statement.
+ */
+public final class MetricsRegistry implements MetricsRegistryMBean {
+
+    public static final String OBJECT_NAME = "sqlancer:type=Metrics";
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final ConcurrentMap<MetricKey, Counters> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MetricKey, ProductionCounters> productionCounters = new ConcurrentHashMap<>();
+    private boolean mbeanRegistered;
+
+    public enum Metric {
+        QUERIES("queries"), DATABASES("databases"), SUCCESSFUL_STATEMENTS("successful_statements"),
+        UNSUCCESSFUL_STATEMENTS("unsuccessful_statements"), STATEMENT_CACHE_HITS("statement_cache_hits"),
+        STATEMENT_CACHE_MISSES("statement_cache_misses"), NOVEL_QUERY_PLANS("novel_query_plans"),
+        SKIPPED_CHECKS("skipped_checks"), SOLVER_CALLS("solver_calls"), SOLVER_AVOIDED_CALLS("solver_avoided_calls");
+
+        private final String name;
+
+        Metric(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Identifies a set of counters. The oracle and action are empty strings if no test oracle or action was active when
+     * the counted event occurred.
+     */
+    public static final class MetricKey implements Comparable<MetricKey> {
+
+        private final String provider;
+        private final String oracle;
+        private final String action;
+
+        public MetricKey(String provider, String oracle, String action) {
+            if (provider == null || oracle == null || action == null) {
+                throw new IllegalArgumentException();
+            }
+            this.provider = provider;
+            this.oracle = oracle;
+            this.action = action;
+        }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public String getOracle() {
+            return oracle;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof MetricKey)) {
+                return false;
+            }
+            MetricKey other = (MetricKey) obj;
+            return provider.equals(other.provider) && oracle.equals(other.oracle) && action.equals(other.action);
+        }
+
+        @Override
+        public int hashCode() {
+            return (provider.hashCode() * 31 + oracle.hashCode()) * 31 + action.hashCode();
+        }
+
+        @Override
+        public int compareTo(MetricKey o) {
+            int cmp = provider.compareTo(o.provider);
+            if (cmp == 0) {
+                cmp = oracle.compareTo(o.oracle);
+            }
+            if (cmp == 0) {
+                cmp = action.compareTo(o.action);
+            }
+            return cmp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("provider=\"%s\",oracle=\"%s\",action=\"%s\"", provider, oracle, action);
+        }
+
+    }
+
+    public static final class Counters {
+
+        private final LongAdder[] adders = new LongAdder[Metric.values().length];
+
+        Counters() {
+            for (int i = 0; i < adders.length; i++) {
+                adders[i] = new LongAdder();
+            }
+        }
+
+        public void increment(Metric metric) {
+            adders[metric.ordinal()].increment();
+        }
+
+        public long get(Metric metric) {
+            return adders[metric.ordinal()].sum();
+        }
+
+    }
+
+    /**
+     * Counts the statements that used a grammar production of an expression generator (see
+     * {@link sqlancer.common.gen.GrammarWeights}), and how many of them failed.
+     */
+    public static final class ProductionCounters {
+
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        public void record(boolean success) {
+            statements.increment();
+            if (!success) {
+                failures.increment();
+            }
+        }
+
+        public long getStatements() {
+            return statements.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+    }
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public Counters getCounters(String provider, String oracle, String action) {
+        return counters.computeIfAbsent(new MetricKey(provider, oracle, action), k -> new Counters());
+    }
+
+    /**
+     * Gets the counters of a grammar production. The production is stored as the action of the key, and the oracle is
+     * empty.
+     *
+     * @param provider
+     *            the name of the DBMS provider
+     * @param production
+     *            the name of the production (e.g.,
+     *            <code>SQLite3ExpressionGenerator.ExpressionType.CAST_EXPRESSION</code>)
+     *
+     * @return the counters
+     */
+    public ProductionCounters getProductionCounters(String provider, String production) {
+        return productionCounters.computeIfAbsent(new MetricKey(provider, "", production),
+                k -> new ProductionCounters());
+    }
+
+    /**
+     * Returns the counters of the grammar productions that have been used so far, ordered by provider and production.
+     *
+     * @return an unmodifiable map from keys to their counters
+     */
+    public Map<MetricKey, ProductionCounters> getAllProductionCounters() {
+        List<MetricKey> keys = new ArrayList<>(productionCounters.keySet());
+        Collections.sort(keys);
+        Map<MetricKey, ProductionCounters> sorted = new LinkedHashMap<>();
+        for (MetricKey key : keys) {
+            sorted.put(key, productionCounters.get(key));
+        }
+        return Collections.unmodifiableMap(sorted);
+    }
+
+    public long getTotal(Metric metric) {
+        long total = 0;
+        for (Counters c : counters.values()) {
+            total += c.get(metric);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the counters that have been created so far, ordered by provider, oracle, and action.
+     *
+     * @return an unmodifiable map from keys to their counters
+     */
+    public Map<MetricKey, Counters> getAllCounters() {
+        List<MetricKey> keys = new ArrayList<>(counters.keySet());
+        Collections.sort(keys);
+        Map<MetricKey, Counters> sorted = new LinkedHashMap<>();
+        for (MetricKey key : keys) {
+            sorted.put(key, counters.get(key));
+        }
+        return Collections.unmodifiableMap(sorted);
+    }
+
+    /**
+     * Renders all counters in a line-based plain-text format, in which each line consists of a metric name, its labels,
+     * and its value (e.g., <code>sqlancer_queries_total{provider="sqlite3",oracle="",action=""} 10</code>).
+     *
+     * @return the counters as plain text
+     */
+    public String toPlainText() {
+        StringBuilder sb = new StringBuilder();
+        Map<MetricKey, Counters> allCounters = getAllCounters();
+        for (Metric metric : Metric.values()) {
+            String name = "sqlancer_" + metric.getName() + "_total";
+            sb.append("# TYPE ");
+            sb.append(name);
+            sb.append(" counter\n");
+            for (Map.Entry<MetricKey, Counters> entry : allCounters.entrySet()) {
+                long value = entry.getValue().get(metric);
+                if (value == 0) {
+                    continue;
+                }
+                sb.append(name);
+                sb.append('{');
+                sb.append(entry.getKey());
+                sb.append("} ");
+                sb.append(value);
+                sb.append('\n');
+            }
+        }
+        Map<MetricKey, ProductionCounters> allProductionCounters = getAllProductionCounters();
+        appendProductionCounters(sb, "sqlancer_production_statements_total", allProductionCounters, false);
+        appendProductionCounters(sb, "sqlancer_production_failures_total", allProductionCounters, true);
+        return sb.toString();
+    }
+
+    private static void appendProductionCounters(StringBuilder sb, String name,
+            Map<MetricKey, ProductionCounters> allProductionCounters, boolean failures) {
+        sb.append("# TYPE ");
+        sb.append(name);
+        sb.append(" counter\n");
+        for (Map.Entry<MetricKey, ProductionCounters> entry : allProductionCounters.entrySet()) {
+            ProductionCounters c = entry.getValue();
+            long value = failures ? c.getFailures() : c.getStatements();
+            if (value == 0) {
+                continue;
+            }
+            sb.append(name);
+            sb.append("{provider=\"");
+            sb.append(entry.getKey().getProvider());
+            sb.append("\",production=\"");
+            sb.append(entry.getKey().getAction());
+            sb.append("\"} ");
+            sb.append(value);
+            sb.append('\n');
+        }
+    }
+
+    /**
+     * Registers the registry with the platform MBean server, unless it has already been registered.
+     */
+    public synchronized void registerMBean() {
+        if (mbeanRegistered) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // registered by another class loader, for example, in a test
+        } catch (JMException e) {
+            throw new AssertionError(e);
+        }
+        mbeanRegistered = true;
+    }
+
+    @Override
+    public long getQueries() {
+        return getTotal(Metric.QUERIES);
+    }
+
+    @Override
+    public long getDatabases() {
+        return getTotal(Metric.DATABASES);
+    }
+
+    @Override
+    public long getSuccessfulStatements() {
+        return getTotal(Metric.SUCCESSFUL_STATEMENTS);
+    }
+
+    @Override
+    public long getUnsuccessfulStatements() {
+        return getTotal(Metric.UNSUCCESSFUL_STATEMENTS);
+    }
+
+    @Override
+    public long getNovelQueryPlans() {
+        return getTotal(Metric.NOVEL_QUERY_PLANS);
+    }
+
+    @Override
+    public String getMetricsText() {
+        return toPlainText();
+    }
+
+}
@@ -0,0 +1,20 @@
+package sqlancer.common.metrics;
+
+/**
+ * The JMX management interface of the {@link MetricsRegistry}.
+ */
+public interface MetricsRegistryMBean {
+
+    long getQueries();
+
+    long getDatabases();
+
+    long getSuccessfulStatements();
+
+    long getUnsuccessfulStatements();
+
+    long getNovelQueryPlans();
+
+    String getMetricsText();
+
+}
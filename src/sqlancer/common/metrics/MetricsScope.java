@@ -0,0 +1,109 @@
+package sqlancer.common.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import sqlancer.common.metrics.MetricsRegistry.Counters;
+import sqlancer.common.metrics.MetricsRegistry.Metric;
+
+/**
+ * The view of a single worker on the {@link MetricsRegistry}. A scope is owned by a single {@link sqlancer.GlobalState}
+ * and caches the counters of the currently-active test oracle or action, so that counting a statement does not require
+ * a lookup in the shared registry.
+ *
+ * Only the thread of the worker enters and leaves actions and oracles, but events are also counted by the tasks that an
+ * oracle submits to the read connections (see {@link sqlancer.GlobalState#submitRead(java.util.concurrent.Callable)}).
+ * The scope is therefore thread safe: an event counted on a read thread is attributed to the oracle that submitted the
+ * task, which is still active while its result is awaited.
+ */
+public class MetricsScope {
+
+    private final MetricsRegistry registry;
+    private final String provider;
+    private final Counters providerCounters;
+    private final Map<Object, Counters> actionCounters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Counters> oracleCounters = new ConcurrentHashMap<>();
+    private volatile Counters current;
+
+    public MetricsScope(String provider) {
+        this(MetricsRegistry.getInstance(), provider);
+    }
+
+    public MetricsScope(MetricsRegistry registry, String provider) {
+        this.registry = registry;
+        this.provider = provider;
+        this.providerCounters = registry.getCounters(provider, "", "");
+        this.current = providerCounters;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    /**
+     * Attributes subsequent events to the given action (e.g., an enum constant implementing
+     * {@link sqlancer.AbstractAction}).
+     *
+     * @param action
+     *            the action that is about to be executed
+     */
+    public void enterAction(Object action) {
+        current = actionCounters.computeIfAbsent(action, a -> registry.getCounters(provider, "", a.toString()));
+    }
+
+    /**
+     * Attributes subsequent events to the given test oracle.
+     *
+     * @param oracle
+     *            the test oracle that is about to be executed
+     */
+    public void enterOracle(Object oracle) {
+        current = oracleCounters.computeIfAbsent(oracle.getClass(),
+                c -> registry.getCounters(provider, c.getSimpleName(), ""));
+    }
+
+    public void leave() {
+        current = providerCounters;
+    }
+
+    public void incrementSuccessfulStatements() {
+        current.increment(Metric.SUCCESSFUL_STATEMENTS);
+    }
+
+    public void incrementUnsuccessfulStatements() {
+        current.increment(Metric.UNSUCCESSFUL_STATEMENTS);
+    }
+
+    public void incrementQueries() {
+        current.increment(Metric.QUERIES);
+    }
+
+    public void incrementStatementCacheHits() {
+        current.increment(Metric.STATEMENT_CACHE_HITS);
+    }
+
+    public void incrementStatementCacheMisses() {
+        current.increment(Metric.STATEMENT_CACHE_MISSES);
+    }
+
+    public void incrementNovelQueryPlans() {
+        current.increment(Metric.NOVEL_QUERY_PLANS);
+    }
+
+    public void incrementSkippedChecks() {
+        current.increment(Metric.SKIPPED_CHECKS);
+    }
+
+    public void incrementSolverCalls() {
+        current.increment(Metric.SOLVER_CALLS);
+    }
+
+    public void incrementSolverAvoidedCalls() {
+        current.increment(Metric.SOLVER_AVOIDED_CALLS);
+    }
+
+    public void incrementDatabases() {
+        providerCounters.increment(Metric.DATABASES);
+    }
+
+}
@@ -18,6 +18,7 @@ public class CompositeTestOracle implements TestOracle {
     @Override
     public void check() throws Exception {
         try {
+            globalState.getMetrics().enterOracle(oracles[i]);
             oracles[i].check();
             boolean lastOracleIndex = i == oracles.length - 1;
             if (!lastOracleIndex) {
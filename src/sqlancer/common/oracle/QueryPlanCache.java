@@ -0,0 +1,90 @@
+package sqlancer.common.oracle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import sqlancer.Randomly;
+
+/**
+ * Counts how often the test oracles have checked queries with a given plan on a single database, to focus the checks on
+ * queries with novel plans. The plans are identified by a 64-bit hash of their normalized text (see
+ * {@link sqlancer.GlobalState#getQueryPlan(String)}), and only the most recently seen plans are retained.
+ *
+ * A plan is saturated once it has been checked more often than a given number of times. A check of a saturated plan
+ * that has been seen <i>n</i> times is only performed with a probability of <i>max</i> / <i>n</i>, so that the number
+ * of checks of a plan grows only logarithmically with the number of queries that use it. A cache is owned by a single
+ * {@link sqlancer.GlobalState} and is not thread safe.
+ */
+public class QueryPlanCache {
+
+    private final int maxChecks;
+    private final Map<Long, long[]> counts;
+
+    /**
+     * @param capacity
+     *            the maximum number of plans whose counts are retained
+     * @param maxChecks
+     *            the number of times a plan is checked before it is saturated
+     */
+    public QueryPlanCache(int capacity, int maxChecks) {
+        if (capacity <= 0 || maxChecks <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxChecks = maxChecks;
+        this.counts = new LinkedHashMap<Long, long[]>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+                return size() > capacity;
+            }
+
+        };
+    }
+
+    /**
+     * Records that a query with the given plan is about to be checked.
+     *
+     * @param plan
+     *            the normalized plan of the query
+     *
+     * @return the number of times the plan has been seen, including this time, which is 1 for a novel plan
+     */
+    public long record(String plan) {
+        long[] count = counts.computeIfAbsent(fingerprint(plan), k -> new long[1]);
+        return ++count[0];
+    }
+
+    /**
+     * Decides whether a query should be checked.
+     *
+     * @param count
+     *            the number of times the plan of the query has been seen, as returned by {@link #record(String)}
+     *
+     * @return whether the query should be checked
+     */
+    public boolean shouldCheck(long count) {
+        if (count <= maxChecks) {
+            return true;
+        }
+        return Randomly.getNotCachedInteger(0, (int) Math.min(count, Integer.MAX_VALUE)) < maxChecks;
+    }
+
+    public int size() {
+        return counts.size();
+    }
+
+    /*
+     * The 64-bit FNV-1a hash of the plan, which makes collisions of the few thousand retained plans negligible.
+     */
+    static long fingerprint(String plan) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < plan.length(); i++) {
+            hash ^= plan.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+}
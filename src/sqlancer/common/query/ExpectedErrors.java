@@ -1,22 +1,33 @@
 package sqlancer.common.query;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
  * This class represents the errors that executing a statement might result in. For example, an INSERT statement might
  * result in an error "UNIQUE constraint violated" when it attempts to insert a duplicate value in a column declared as
  * UNIQUE.
+ *
+ * Errors can be added to a new instance one by one. Generators and oracles that use the same errors for every statement
+ * should instead build them once by {@link #toImmutable()}, which compiles the errors into an automaton that checks an
+ * error message in a single pass, and share the immutable instance (e.g., the shared errors of a DBMS, such as
+ * {@code SQLite3Errors}, are immutable instances in static fields). Immutable instances are added to other instances,
+ * or combined by {@link #union(ExpectedErrors...)}, without copying their errors.
  */
 public class ExpectedErrors {
 
-    private final Set<String> errors = new HashSet<>();
+    private final Set<String> errors = new LinkedHashSet<>();
+    private final List<ExpectedErrors> includedErrors = new ArrayList<>();
+    private SubstringAutomaton automaton;
 
     public ExpectedErrors add(String error) {
         if (error == null) {
             throw new IllegalArgumentException();
         }
+        checkMutable();
         errors.add(error);
         return this;
     }
@@ -34,8 +45,19 @@ public class ExpectedErrors {
         if (error == null) {
             throw new IllegalArgumentException();
         }
-        for (String s : errors) {
-            if (error.contains(s)) {
+        if (automaton != null) {
+            if (automaton.matches(error)) {
+                return true;
+            }
+        } else {
+            for (String s : errors) {
+                if (error.contains(s)) {
+                    return true;
+                }
+            }
+        }
+        for (ExpectedErrors included : includedErrors) {
+            if (included.errorIsExpected(error)) {
                 return true;
             }
         }
@@ -43,10 +65,79 @@ public class ExpectedErrors {
     }
 
     public ExpectedErrors addAll(Collection<String> list) {
+        checkMutable();
         errors.addAll(list);
         return this;
     }
 
+    /**
+     * Adds all errors of the given instance. The errors of an immutable instance are not copied, but checked by its own
+     * automaton.
+     *
+     * @param other
+     *            the errors to add
+     *
+     * @return this instance
+     */
+    public ExpectedErrors addAll(ExpectedErrors other) {
+        checkMutable();
+        if (other.isImmutable()) {
+            if (!includedErrors.contains(other)) {
+                includedErrors.add(other);
+            }
+        } else {
+            errors.addAll(other.errors);
+            for (ExpectedErrors included : other.includedErrors) {
+                addAll(included);
+            }
+        }
+        return this;
+    }
+
+    public boolean isImmutable() {
+        return automaton != null;
+    }
+
+    /**
+     * Returns an immutable instance with the same errors, whose errors are compiled into an automaton. Since compiling
+     * the automaton takes time linear in the length of the errors, the instance should be built once, for example, in
+     * a static field, rather than for every statement.
+     *
+     * @return the immutable instance
+     */
+    public ExpectedErrors toImmutable() {
+        if (isImmutable()) {
+            return this;
+        }
+        ExpectedErrors immutable = new ExpectedErrors();
+        immutable.errors.addAll(errors);
+        immutable.includedErrors.addAll(includedErrors);
+        immutable.automaton = new SubstringAutomaton(errors);
+        return immutable;
+    }
+
+    /**
+     * Combines several sets of errors into an immutable instance that refers to, rather than copies, their errors.
+     *
+     * @param errors
+     *            the sets of errors, which are made immutable if necessary
+     *
+     * @return the immutable union
+     */
+    public static ExpectedErrors union(ExpectedErrors... errors) {
+        ExpectedErrors union = new ExpectedErrors();
+        for (ExpectedErrors e : errors) {
+            union.addAll(e.toImmutable());
+        }
+        return union.toImmutable();
+    }
+
+    private void checkMutable() {
+        if (isImmutable()) {
+            throw new UnsupportedOperationException("the expected errors are immutable");
+        }
+    }
+
     public static ExpectedErrors from(String... errors) {
         ExpectedErrors expectedErrors = new ExpectedErrors();
         for (String error : errors) {
@@ -1,10 +1,15 @@
 package sqlancer.common.query;
 
 import sqlancer.GlobalState;
+import sqlancer.common.gen.GrammarWeights;
 import sqlancer.common.log.Loggable;
+import sqlancer.common.schema.SchemaDelta;
+import sqlancer.common.schema.TableModification;
 
 public abstract class Query implements Loggable {
 
+    private GrammarWeights.Productions productions;
+
     /**
      * Gets the query string, which is guaranteed to be terminated with a semicolon.
      *
@@ -26,8 +31,65 @@ public abstract class Query implements Loggable {
      */
     public abstract boolean couldAffectSchema();
 
+    /**
+     * Gets the known effect of the query on the schema, which is only relevant if {@link #couldAffectSchema()} is true.
+     *
+     * @return the schema delta, or null if the whole schema needs to be re-read after executing the query
+     */
+    public SchemaDelta<?> getSchemaDelta() {
+        return null;
+    }
+
+    /**
+     * Gets the known effect of the query on the rows of a table, which is only relevant if {@link #couldAffectSchema()}
+     * is true.
+     *
+     * @return the table modification, or null if the rows of all tables need to be counted again after executing the
+     *         query
+     */
+    public TableModification getTableModification() {
+        return null;
+    }
+
+    /**
+     * Gets the update count of the last successful execution of the query.
+     *
+     * @return the number of modified rows, or -1 if it is unknown
+     */
+    public long getUpdateCount() {
+        return -1;
+    }
+
     public abstract boolean execute(GlobalState<?, ?> globalState, String... fills) throws Exception;
 
+    /**
+     * Sets the productions of the expression generators that the query contains, to which the outcome of its executions
+     * is attributed.
+     *
+     * @param productions
+     *            the productions chosen while the query was generated
+     */
+    public void setProductions(GrammarWeights.Productions productions) {
+        this.productions = productions;
+    }
+
+    /**
+     * Attributes the outcome of an execution to the productions of the query or, if it has none, a failure to the
+     * test-oracle check in progress, whose queries are built from the productions chosen for the check.
+     *
+     * @param globalState
+     *            the state on which the query was executed
+     * @param success
+     *            whether the query succeeded, rather than failing with an expected error or a timeout
+     */
+    protected void recordOutcome(GlobalState<?, ?> globalState, boolean success) {
+        if (productions != null) {
+            productions.recordOutcome(success);
+        } else if (!success) {
+            globalState.getGrammarWeights().recordFailure();
+        }
+    }
+
     public abstract ExpectedErrors getExpectedErrors();
 
     @Override
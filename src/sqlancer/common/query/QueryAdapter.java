@@ -6,13 +6,17 @@ import java.sql.SQLException;
 import java.sql.Statement;
 
 import sqlancer.GlobalState;
-import sqlancer.Main;
+import sqlancer.common.schema.SchemaDelta;
+import sqlancer.common.schema.TableModification;
 
 public class QueryAdapter extends Query {
 
     private final String query;
     private final ExpectedErrors expectedErrors;
     private final boolean couldAffectSchema;
+    private final SchemaDelta<?> schemaDelta;
+    private final TableModification tableModification;
+    private long updateCount = -1;
 
     public QueryAdapter(String query) {
         this(query, new ExpectedErrors());
@@ -27,9 +31,53 @@ public class QueryAdapter extends Query {
     }
 
     public QueryAdapter(String query, ExpectedErrors expectedErrors, boolean couldAffectSchema) {
+        this(query, expectedErrors, couldAffectSchema, null);
+    }
+
+    public QueryAdapter(String query, SchemaDelta<?> schemaDelta) {
+        this(query, new ExpectedErrors(), schemaDelta);
+    }
+
+    /**
+     * Creates a query that affects the schema in a known way.
+     *
+     * @param query
+     *            the query string
+     * @param expectedErrors
+     *            the errors that the query is expected to cause
+     * @param schemaDelta
+     *            the effect of the query on the schema
+     */
+    public QueryAdapter(String query, ExpectedErrors expectedErrors, SchemaDelta<?> schemaDelta) {
+        this(query, expectedErrors, true, schemaDelta, null);
+    }
+
+    /**
+     * Creates a DML query that does not affect the schema, and that modifies the rows of a single table in a known way.
+     *
+     * @param query
+     *            the query string
+     * @param expectedErrors
+     *            the errors that the query is expected to cause
+     * @param tableModification
+     *            the effect of the query on the rows of the table
+     */
+    public QueryAdapter(String query, ExpectedErrors expectedErrors, TableModification tableModification) {
+        this(query, expectedErrors, true, SchemaDelta.unchanged(), tableModification);
+    }
+
+    private QueryAdapter(String query, ExpectedErrors expectedErrors, boolean couldAffectSchema,
+            SchemaDelta<?> schemaDelta) {
+        this(query, expectedErrors, couldAffectSchema, schemaDelta, null);
+    }
+
+    private QueryAdapter(String query, ExpectedErrors expectedErrors, boolean couldAffectSchema,
+            SchemaDelta<?> schemaDelta, TableModification tableModification) {
         this.query = canonicalizeString(query);
         this.expectedErrors = expectedErrors;
         this.couldAffectSchema = couldAffectSchema;
+        this.schemaDelta = schemaDelta;
+        this.tableModification = tableModification;
         checkQueryString();
     }
 
@@ -69,28 +117,48 @@ public class QueryAdapter extends Query {
 
     @Override
     public boolean execute(GlobalState<?, ?> globalState, String... fills) throws SQLException {
-        Statement s;
-        if (fills.length > 0) {
-            s = globalState.getConnection().prepareStatement(fills[0]);
-            for (int i = 1; i < fills.length; i++) {
-                ((PreparedStatement) s).setString(i, fills[i]);
-            }
-        } else {
-            s = globalState.getConnection().createStatement();
-        }
+        StatementCache cache = globalState.getStatementCache();
+        Statement s = getStatement(cache, fills);
+        StatementWatchdog.Watch watch = globalState.watchStatement(s, query);
         try {
             if (fills.length > 0) {
                 ((PreparedStatement) s).execute();
             } else {
                 s.execute(query);
             }
-            Main.nrSuccessfulActions.addAndGet(1);
-            return true;
+            if (tableModification != null) {
+                updateCount = s.getUpdateCount();
+            }
         } catch (Exception e) {
-            Main.nrUnsuccessfulActions.addAndGet(1);
-            checkException(e);
+            watch.close();
+            cache.release(s);
+            updateCount = -1;
+            globalState.getMetrics().incrementUnsuccessfulStatements();
+            recordOutcome(globalState, false);
+            if (!watch.handleCancel()) {
+                checkException(e);
+            }
             return false;
         }
+        watch.close();
+        cache.release(s);
+        // the statement might have been cancelled just before it finished
+        watch.handleCancel();
+        globalState.getMetrics().incrementSuccessfulStatements();
+        recordOutcome(globalState, true);
+        return true;
+    }
+
+    private Statement getStatement(StatementCache cache, String... fills) throws SQLException {
+        if (fills.length > 0) {
+            PreparedStatement s = cache.getPreparedStatement(fills[0]);
+            for (int i = 1; i < fills.length; i++) {
+                s.setString(i, fills[i]);
+            }
+            return s;
+        } else {
+            return cache.getStatement();
+        }
     }
 
     public void checkException(Exception e) throws AssertionError {
@@ -101,40 +169,74 @@ public class QueryAdapter extends Query {
 
     @Override
     public SQLancerResultSet executeAndGet(GlobalState<?, ?> globalState, String... fills) throws SQLException {
-        Statement s;
-        if (fills.length > 0) {
-            s = globalState.getConnection().prepareStatement(fills[0]);
-            for (int i = 1; i < fills.length; i++) {
-                ((PreparedStatement) s).setString(i, fills[i]);
-            }
-        } else {
-            s = globalState.getConnection().createStatement();
-        }
+        StatementCache cache = globalState.getStatementCache();
+        Statement s = getStatement(cache, fills);
         ResultSet result = null;
+        Runnable closeAction = null;
+        StatementWatchdog.Watch watch = null;
         try {
+            closeAction = globalState.configureResultStreaming(s);
+            watch = globalState.watchStatement(s, query);
             if (fills.length > 0) {
                 result = ((PreparedStatement) s).executeQuery();
             } else {
                 result = s.executeQuery(query);
             }
-            Main.nrSuccessfulActions.addAndGet(1);
+            globalState.getMetrics().incrementSuccessfulStatements();
+            recordOutcome(globalState, true);
             if (result == null) {
+                watch.close();
+                runCloseAction(closeAction);
+                cache.release(s);
+                watch.handleCancel();
                 return null;
             }
-            return new SQLancerResultSet(result);
+            SQLancerResultSet resultSet = new SQLancerResultSet(result, cache,
+                    globalState.getOptions().getMaxResultRows());
+            resultSet.registerCloseAction(closeAction);
+            resultSet.registerWatch(watch);
+            return resultSet;
         } catch (Exception e) {
-            s.close();
-            Main.nrUnsuccessfulActions.addAndGet(1);
-            checkException(e);
+            if (watch != null) {
+                watch.close();
+            }
+            runCloseAction(closeAction);
+            cache.release(s);
+            globalState.getMetrics().incrementUnsuccessfulStatements();
+            recordOutcome(globalState, false);
+            if (watch == null || !watch.handleCancel()) {
+                checkException(e);
+            }
         }
         return null;
     }
 
+    private static void runCloseAction(Runnable closeAction) {
+        if (closeAction != null) {
+            closeAction.run();
+        }
+    }
+
     @Override
     public boolean couldAffectSchema() {
         return couldAffectSchema;
     }
 
+    @Override
+    public SchemaDelta<?> getSchemaDelta() {
+        return schemaDelta;
+    }
+
+    @Override
+    public TableModification getTableModification() {
+        return tableModification;
+    }
+
+    @Override
+    public long getUpdateCount() {
+        return updateCount;
+    }
+
     @Override
     public ExpectedErrors getExpectedErrors() {
         return expectedErrors;
@@ -18,14 +18,22 @@ public class QueryResultCheckAdapter extends QueryAdapter {
 
     @Override
     public boolean execute(GlobalState<?, ?> globalState, String... fills) throws SQLException {
-        try (Statement s = globalState.getConnection().createStatement()) {
-            ResultSet rs = s.executeQuery(getQueryString());
+        StatementCache cache = globalState.getStatementCache();
+        Statement s = cache.getStatement();
+        StatementWatchdog.Watch watch = globalState.watchStatement(s, getQueryString());
+        Exception exception = null;
+        try (ResultSet rs = s.executeQuery(getQueryString())) {
             rsChecker.accept(rs);
-            return true;
         } catch (Exception e) {
-            checkException(e);
-            return false;
+            exception = e;
+        } finally {
+            watch.close();
+            cache.release(s);
         }
+        if (!watch.handleCancel() && exception != null) {
+            checkException(exception);
+        }
+        return exception == null;
     }
 
 }
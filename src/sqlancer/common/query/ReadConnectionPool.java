@@ -0,0 +1,125 @@
+package sqlancer.common.query;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import sqlancer.IgnoreMeException;
+import sqlancer.common.metrics.MetricsScope;
+
+/**
+ * Additional connections to the database of a {@link sqlancer.GlobalState}, on which test oracles execute their
+ * read-only queries concurrently, so that the latency of a check is that of its slowest query rather than the sum of
+ * the latencies of its queries. Each connection is used by a single thread, which owns a {@link StatementCache} for it.
+ * While a task runs on such a thread, {@link sqlancer.GlobalState#getStatementCache()} returns this cache, so that the
+ * task can execute queries as usual (e.g., by {@link QueryAdapter#executeAndGet}). A task must therefore not use the
+ * connection or the logger of the global state directly, which are not thread safe.
+ */
+public class ReadConnectionPool implements Closeable {
+
+    private static final ThreadLocal<StatementCache> CURRENT_CACHE = new ThreadLocal<>();
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final List<Connection> connections;
+    private final List<StatementCache> caches = new ArrayList<>();
+    private final ExecutorService executor;
+    private int nrThreads;
+
+    public ReadConnectionPool(List<Connection> connections, MetricsScope metrics) {
+        if (connections.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        this.connections = new ArrayList<>(connections);
+        for (Connection con : connections) {
+            caches.add(new StatementCache(con, metrics));
+        }
+        executor = Executors.newFixedThreadPool(connections.size(), r -> {
+            StatementCache cache = caches.get(nrThreads++ % caches.size());
+            Thread t = new Thread(() -> {
+                CURRENT_CACHE.set(cache);
+                r.run();
+            }, "read-connection-" + nrThreads);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Returns the statement cache of the read connection of the current thread.
+     *
+     * @return the statement cache, or null if the current thread does not belong to a pool
+     */
+    public static StatementCache getCurrentStatementCache() {
+        return CURRENT_CACHE.get();
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    /**
+     * Waits for the result of a task and rethrows the exception that the task threw, if any (e.g., an
+     * {@link IgnoreMeException} for an expected error or an {@link AssertionError} for a bug).
+     *
+     * @param <T>
+     *            the result type
+     * @param future
+     *            the future of the task
+     *
+     * @return the result of the task
+     *
+     * @throws SQLException
+     *             if the task threw an {@link SQLException}
+     */
+    public static <T> T getResult(Future<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IgnoreMeException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else {
+                throw new AssertionError(cause);
+            }
+        }
+    }
+
+    /**
+     * Waits for the running tasks and closes the connections.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (StatementCache cache : caches) {
+            cache.close();
+        }
+        for (Connection con : connections) {
+            try {
+                con.close();
+            } catch (SQLException e) {
+                // the connection is already unusable
+            }
+        }
+    }
+
+}
@@ -3,31 +3,106 @@ package sqlancer.common.query;
 import java.io.Closeable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+
+import sqlancer.IgnoreMeException;
 
 public class SQLancerResultSet implements Closeable {
 
     ResultSet rs;
+    private final StatementCache statementCache;
     private Runnable runnableEpilogue;
+    private Runnable closeAction;
+    private StatementWatchdog.Watch watch;
+    private final long maxRows;
+    private long nrRows;
 
     public SQLancerResultSet(ResultSet rs) {
+        this(rs, null);
+    }
+
+    /**
+     * Creates a result set whose statement is returned to the given cache, rather than being closed, when the result
+     * set is closed.
+     *
+     * @param rs
+     *            the JDBC result set
+     * @param statementCache
+     *            the cache from which the result set's statement was obtained, or null
+     */
+    public SQLancerResultSet(ResultSet rs, StatementCache statementCache) {
+        this(rs, statementCache, 0);
+    }
+
+    /**
+     * Creates a result set that is aborted by an {@link IgnoreMeException} once more than the given number of rows have
+     * been read, so that a query with a pathologically large result (e.g., a cross join of several tables) cannot
+     * exhaust the memory or stall the thread.
+     *
+     * @param rs
+     *            the JDBC result set
+     * @param statementCache
+     *            the cache from which the result set's statement was obtained, or null
+     * @param maxRows
+     *            the maximum number of rows that may be read, or 0 if the number is unlimited
+     */
+    public SQLancerResultSet(ResultSet rs, StatementCache statementCache, long maxRows) {
         this.rs = rs;
+        this.statementCache = statementCache;
+        this.maxRows = maxRows;
     }
 
     @Override
     public void close() {
+        if (watch != null) {
+            watch.close();
+        }
         try {
             if (runnableEpilogue != null) {
                 runnableEpilogue.run();
             }
-            rs.getStatement().close();
+            Statement statement = rs.getStatement();
             rs.close();
+            if (closeAction != null) {
+                closeAction.run();
+            }
+            if (statementCache == null) {
+                statement.close();
+            } else {
+                statementCache.release(statement);
+            }
+            if (watch != null) {
+                watch.handleCancel();
+            }
         } catch (SQLException e) {
             throw new AssertionError(e);
         }
     }
 
     public boolean next() throws SQLException {
-        return rs.next();
+        boolean hasNext;
+        try {
+            hasNext = rs.next();
+        } catch (SQLException e) {
+            if (watch != null && watch.handleCancel()) {
+                throw new IgnoreMeException();
+            }
+            throw e;
+        }
+        if (hasNext && maxRows > 0 && ++nrRows > maxRows) {
+            // stops a driver that streams the result from reading the remaining rows when the result set is closed
+            if (watch != null) {
+                watch.cancel();
+            } else {
+                try {
+                    rs.getStatement().cancel();
+                } catch (SQLException e) {
+                    // the result set is discarded anyway
+                }
+            }
+            throw new IgnoreMeException();
+        }
+        return hasNext;
     }
 
     public int getInt(int i) throws SQLException {
@@ -46,8 +121,34 @@ public class SQLancerResultSet implements Closeable {
         return rs.getLong(i);
     }
 
+    public Object getObject(int i) throws SQLException {
+        return rs.getObject(i);
+    }
+
     public void registerEpilogue(Runnable runnableEpilogue) {
         this.runnableEpilogue = runnableEpilogue;
     }
 
+    /**
+     * Registers an action that is executed after the JDBC result set has been closed, but before its statement is
+     * released, for example, to restore a connection setting that was changed to stream the result.
+     *
+     * @param closeAction
+     *            the action
+     */
+    public void registerCloseAction(Runnable closeAction) {
+        this.closeAction = closeAction;
+    }
+
+    /**
+     * Registers the watch that cancels the result set's statement if reading the result takes too long. The watch is
+     * closed when the result set is closed.
+     *
+     * @param watch
+     *            the watch of the statement
+     */
+    public void registerWatch(StatementWatchdog.Watch watch) {
+        this.watch = watch;
+    }
+
 }
@@ -0,0 +1,144 @@
+package sqlancer.common.query;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import sqlancer.common.metrics.MetricsScope;
+
+/**
+ * Caches the JDBC statements of a single connection, so that executing a query does not allocate a new driver-side
+ * (and, for some DBMS, server-side) statement object. Plain {@link Statement}s are kept in a small pool, while
+ * {@link PreparedStatement}s are kept in an LRU cache keyed by their SQL template.
+ *
+ * Statements are checked out for a single execution and need to be returned by {@link #release(Statement)} once their
+ * result set has been consumed. Since a JDBC statement remains usable after its execution failed, statements of failed
+ * executions are reused as well. A cache is owned by a single {@link sqlancer.GlobalState} and is not thread safe.
+ */
+public class StatementCache implements Closeable {
+
+    private static final int MAX_IDLE_STATEMENTS = 4;
+    private static final int MAX_PREPARED_STATEMENTS = 32;
+
+    private final Connection connection;
+    private final MetricsScope metrics;
+    private final Deque<Statement> idleStatements = new ArrayDeque<>();
+    private final Map<String, PreparedStatement> idlePreparedStatements = new LinkedHashMap<String, PreparedStatement>(
+            MAX_PREPARED_STATEMENTS, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() > MAX_PREPARED_STATEMENTS) {
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Set<Statement> checkedOutStatements = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Statement, String> checkedOutPreparedStatements = new IdentityHashMap<>();
+    private boolean closed;
+
+    public StatementCache(Connection connection, MetricsScope metrics) {
+        this.connection = connection;
+        this.metrics = metrics;
+    }
+
+    public Statement getStatement() throws SQLException {
+        Statement s = idleStatements.pollFirst();
+        if (s == null || s.isClosed()) {
+            metrics.incrementStatementCacheMisses();
+            s = connection.createStatement();
+        } else {
+            metrics.incrementStatementCacheHits();
+        }
+        checkedOutStatements.add(s);
+        return s;
+    }
+
+    public PreparedStatement getPreparedStatement(String sql) throws SQLException {
+        PreparedStatement s = idlePreparedStatements.remove(sql);
+        if (s == null || s.isClosed()) {
+            metrics.incrementStatementCacheMisses();
+            s = connection.prepareStatement(sql);
+        } else {
+            metrics.incrementStatementCacheHits();
+            s.clearParameters();
+        }
+        checkedOutPreparedStatements.put(s, sql);
+        return s;
+    }
+
+    /**
+     * Returns a statement obtained from this cache, after it has been executed and its result set (if any) has been
+     * closed.
+     *
+     * @param s
+     *            the statement to be reused
+     */
+    public void release(Statement s) {
+        String sql = checkedOutPreparedStatements.remove(s);
+        checkedOutStatements.remove(s);
+        if (closed || isClosed(s)) {
+            closeQuietly(s);
+        } else if (sql != null) {
+            PreparedStatement previous = idlePreparedStatements.put(sql, (PreparedStatement) s);
+            if (previous != null) {
+                closeQuietly(previous);
+            }
+        } else if (idleStatements.size() < MAX_IDLE_STATEMENTS) {
+            idleStatements.addFirst(s);
+        } else {
+            closeQuietly(s);
+        }
+    }
+
+    /**
+     * Closes all statements, including those that are currently checked out.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<Statement> statements = new ArrayList<>(idleStatements);
+        statements.addAll(idlePreparedStatements.values());
+        statements.addAll(checkedOutStatements);
+        statements.addAll(checkedOutPreparedStatements.keySet());
+        idleStatements.clear();
+        idlePreparedStatements.clear();
+        checkedOutStatements.clear();
+        checkedOutPreparedStatements.clear();
+        for (Statement s : statements) {
+            closeQuietly(s);
+        }
+    }
+
+    private static boolean isClosed(Statement s) {
+        try {
+            return s.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void closeQuietly(Statement s) {
+        try {
+            s.close();
+        } catch (SQLException e) {
+            // the statement or connection is already unusable
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+package sqlancer.common.query;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces a timeout on the statements of all threads by a single daemon thread, which cancels a statement (typically
+ * by {@link java.sql.Statement#cancel()}) once it has run for longer than its timeout. Unlike
+ * {@link java.sql.Statement#setQueryTimeout(int)}, which some drivers ignore or only implement with a timer thread per
+ * statement, this works uniformly for all drivers that support cancelling a statement from another thread.
+ */
+public final class StatementWatchdog {
+
+    private static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "statement-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        EXECUTOR.setRemoveOnCancelPolicy(true);
+    }
+
+    private StatementWatchdog() {
+    }
+
+    /**
+     * Starts watching a statement that is about to be executed.
+     *
+     * @param timeoutMs
+     *            the time after which the statement is cancelled, or 0 if the statement should not time out
+     * @param cancelAction
+     *            the action that cancels the statement, which can be executed by any thread
+     * @param recoverAction
+     *            the action that restores the connection after the statement has been cancelled, which is executed by
+     *            {@link Watch#handleCancel()} in the thread that executed the statement
+     * @param timeoutAction
+     *            the action that reports a statement that timed out, which is executed after the recover action
+     *
+     * @return the watch, which must be closed once the statement (including reading its result) has finished
+     */
+    public static Watch watch(long timeoutMs, Runnable cancelAction, Runnable recoverAction, Runnable timeoutAction) {
+        Watch watch = new Watch(cancelAction, recoverAction, timeoutAction);
+        if (timeoutMs > 0) {
+            watch.future = EXECUTOR.schedule(() -> watch.cancel(true), timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        return watch;
+    }
+
+    public static final class Watch implements AutoCloseable {
+
+        private final Runnable cancelAction;
+        private final Runnable recoverAction;
+        private final Runnable timeoutAction;
+        private ScheduledFuture<?> future;
+        private boolean finished;
+        private boolean cancelled;
+        private boolean timedOut;
+        private boolean handled;
+
+        private Watch(Runnable cancelAction, Runnable recoverAction, Runnable timeoutAction) {
+            this.cancelAction = cancelAction;
+            this.recoverAction = recoverAction;
+            this.timeoutAction = timeoutAction;
+        }
+
+        private synchronized void cancel(boolean timeout) {
+            if (finished || cancelled) {
+                return;
+            }
+            cancelled = true;
+            timedOut = timeout;
+            cancelAction.run();
+        }
+
+        /**
+         * Cancels the statement before it has timed out, for example, because its result set is discarded.
+         */
+        public void cancel() {
+            cancel(false);
+        }
+
+        /**
+         * Handles a cancelled statement after the watch has been closed: the connection is restored and, if the
+         * statement timed out, the timeout is reported. The cancellation is handled only once.
+         *
+         * @return true if the statement timed out, which explains the error that executing it might have resulted in
+         */
+        public boolean handleCancel() {
+            synchronized (this) {
+                if (!cancelled || handled) {
+                    return timedOut;
+                }
+                handled = true;
+            }
+            recoverAction.run();
+            if (timedOut) {
+                timeoutAction.run();
+            }
+            return timedOut;
+        }
+
+        /**
+         * Stops watching the statement. Once this method returns, the statement is no longer cancelled, so that the
+         * connection can safely be used for the next statement.
+         */
+        @Override
+        public void close() {
+            if (future != null) {
+                future.cancel(false);
+            }
+            synchronized (this) {
+                finished = true;
+            }
+        }
+
+    }
+
+}
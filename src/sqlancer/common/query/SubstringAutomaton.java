@@ -0,0 +1,122 @@
+package sqlancer.common.query;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * An Aho-Corasick automaton that determines whether a string contains any of a set of substrings in a single pass over
+ * the string, that is, in time linear in its length, independently of the number of substrings. The automaton is
+ * compiled into a complete transition table over the characters that occur in the substrings; any other character leads
+ * back to the initial state.
+ */
+final class SubstringAutomaton {
+
+    private static final int ASCII_SIZE = 128;
+
+    private final int[] asciiIndex = new int[ASCII_SIZE];
+    private final Map<Character, Integer> otherIndex = new HashMap<>();
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final boolean[] accepting;
+    private final boolean acceptsAll;
+
+    SubstringAutomaton(Collection<String> substrings) {
+        Arrays.fill(asciiIndex, -1);
+        int nrSymbols = 0;
+        boolean hasEmptySubstring = false;
+        for (String s : substrings) {
+            hasEmptySubstring |= s.isEmpty();
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (getIndex(c) == -1) {
+                    if (c < ASCII_SIZE) {
+                        asciiIndex[c] = nrSymbols++;
+                    } else {
+                        otherIndex.put(c, nrSymbols++);
+                    }
+                }
+            }
+        }
+        alphabetSize = nrSymbols;
+        acceptsAll = hasEmptySubstring;
+
+        // build the trie of the substrings
+        List<int[]> rows = new ArrayList<>();
+        List<Boolean> isEnd = new ArrayList<>();
+        rows.add(newRow());
+        isEnd.add(false);
+        for (String s : substrings) {
+            int state = 0;
+            for (int i = 0; i < s.length(); i++) {
+                int symbol = getIndex(s.charAt(i));
+                if (rows.get(state)[symbol] == -1) {
+                    rows.get(state)[symbol] = rows.size();
+                    rows.add(newRow());
+                    isEnd.add(false);
+                }
+                state = rows.get(state)[symbol];
+            }
+            isEnd.set(state, true);
+        }
+
+        // complete the transitions along the failure links, in breadth-first order so that the transitions of a
+        // failure target (which is shallower) are complete when they are used
+        int nrStates = rows.size();
+        transitions = new int[nrStates * Math.max(alphabetSize, 1)];
+        accepting = new boolean[nrStates];
+        int[] failure = new int[nrStates];
+        Queue<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            accepting[state] = isEnd.get(state) || accepting[failure[state]];
+            int[] row = rows.get(state);
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int fallback = state == 0 ? 0 : transitions[failure[state] * alphabetSize + symbol];
+                if (row[symbol] == -1) {
+                    transitions[state * alphabetSize + symbol] = fallback;
+                } else {
+                    failure[row[symbol]] = fallback;
+                    transitions[state * alphabetSize + symbol] = row[symbol];
+                    queue.add(row[symbol]);
+                }
+            }
+        }
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private int getIndex(char c) {
+        if (c < ASCII_SIZE) {
+            return asciiIndex[c];
+        }
+        Integer index = otherIndex.get(c);
+        return index == null ? -1 : index;
+    }
+
+    boolean matches(String s) {
+        if (acceptsAll) {
+            return true;
+        }
+        int state = 0;
+        for (int i = 0; i < s.length(); i++) {
+            int symbol = getIndex(s.charAt(i));
+            state = symbol == -1 ? 0 : transitions[state * alphabetSize + symbol];
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -2,6 +2,7 @@ package sqlancer.common.schema;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import sqlancer.GlobalState;
@@ -14,11 +15,13 @@ public class AbstractTable<C extends AbstractTableColumn<?, ?>, I extends TableI
         implements Comparable<AbstractTable<?, ?>> {
 
     private static final int NO_ROW_COUNT_AVAILABLE = -1;
+    private static final AtomicLong MODIFICATION_VERSIONS = new AtomicLong();
     private final String name;
     private final List<C> columns;
     private final List<I> indexes;
     private final boolean isView;
     private long rowCount = NO_ROW_COUNT_AVAILABLE;
+    private long modificationVersion = MODIFICATION_VERSIONS.incrementAndGet();
 
     public AbstractTable(String name, List<C> columns, List<I> indexes, boolean isView) {
         this.name = name;
@@ -116,7 +119,46 @@ public class AbstractTable<C extends AbstractTableColumn<?, ?>, I extends TableI
         }
     }
 
+    /**
+     * Marks the row count as unknown, so that it is counted again when it is requested, since a statement with an
+     * unknown effect might have modified the table.
+     */
     public void recomputeCount() {
         rowCount = NO_ROW_COUNT_AVAILABLE;
+        modificationVersion = MODIFICATION_VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Sets the row count of a table whose number of rows is known without counting them (e.g., a newly created table).
+     *
+     * @param rowCount
+     *            the number of rows of the table
+     */
+    public void setRowCount(long rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Updates the row count after a statement modified the table in a known way.
+     *
+     * @param rowCountChange
+     *            the number of rows that were added (if positive) or removed (if negative)
+     */
+    public void updateRowCount(long rowCountChange) {
+        if (rowCount != NO_ROW_COUNT_AVAILABLE) {
+            rowCount += rowCountChange;
+        }
+        modificationVersion = MODIFICATION_VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Returns the version of the table's rows, which changes whenever a statement (might have) modified them. Versions
+     * are unique across tables and schema updates, so that the pair of table name and version identifies the contents
+     * of a table.
+     *
+     * @return the modification version
+     */
+    public long getModificationVersion() {
+        return modificationVersion;
     }
 }
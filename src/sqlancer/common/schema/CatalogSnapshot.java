@@ -0,0 +1,136 @@
+package sqlancer.common.schema;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The columns and indexes of all tables of a database, as read from the catalog by a fixed number of set-based queries
+ * (e.g., a single scan of information_schema.columns) rather than by a number of queries that grows with the number of
+ * tables. The rows of the scans are grouped by table on the client side, and the tables are created by
+ * {@link #toTables}, in the order in which they were first added to the snapshot.
+ *
+ * @param <T>
+ *            the table type
+ * @param <C>
+ *            the column type
+ * @param <I>
+ *            the index type
+ */
+public class CatalogSnapshot<T extends AbstractTable<C, I>, C extends AbstractTableColumn<T, ?>, I extends TableIndex> {
+
+    private final Map<String, TableEntry<C, I>> tables = new LinkedHashMap<>();
+
+    @FunctionalInterface
+    public interface RowHandler {
+
+        void handle(ResultSet rs) throws SQLException;
+
+    }
+
+    @FunctionalInterface
+    public interface TableFactory<T, C, I> {
+
+        T create(String tableName, List<C> columns, List<I> indexes) throws SQLException;
+
+    }
+
+    private static final class TableEntry<C, I> {
+
+        private final List<C> columns = new ArrayList<>();
+        private final List<I> indexes = new ArrayList<>();
+
+    }
+
+    /**
+     * Executes a catalog query and passes each of its rows to the handler.
+     *
+     * @param con
+     *            the connection to the database
+     * @param query
+     *            the catalog query
+     * @param handler
+     *            called once for every row, with the result set positioned on the row
+     *
+     * @throws SQLException
+     *             if the query or the handler fails
+     */
+    public static void scan(Connection con, String query, RowHandler handler) throws SQLException {
+        try (Statement s = con.createStatement()) {
+            try (ResultSet rs = s.executeQuery(query)) {
+                while (rs.next()) {
+                    handler.handle(rs);
+                }
+            }
+        }
+    }
+
+    public void addTable(String tableName) {
+        getEntry(tableName);
+    }
+
+    public boolean containsTable(String tableName) {
+        return tables.containsKey(tableName);
+    }
+
+    public List<String> getTableNames() {
+        return new ArrayList<>(tables.keySet());
+    }
+
+    /**
+     * Adds a column to the given table, which is added to the snapshot if it has not been added yet.
+     *
+     * @param tableName
+     *            the name of the table
+     * @param column
+     *            the column, in the order of the table's columns
+     */
+    public void addColumn(String tableName, C column) {
+        getEntry(tableName).columns.add(column);
+    }
+
+    /**
+     * Adds an index to the given table, which is added to the snapshot if it has not been added yet.
+     *
+     * @param tableName
+     *            the name of the table
+     * @param index
+     *            the index
+     */
+    public void addIndex(String tableName, I index) {
+        getEntry(tableName).indexes.add(index);
+    }
+
+    private TableEntry<C, I> getEntry(String tableName) {
+        return tables.computeIfAbsent(tableName, n -> new TableEntry<>());
+    }
+
+    /**
+     * Creates the tables of the snapshot and sets the table of each of their columns.
+     *
+     * @param factory
+     *            creates a table from its name and the (modifiable) lists of its columns and indexes
+     *
+     * @return the tables
+     *
+     * @throws SQLException
+     *             if the factory fails
+     */
+    public List<T> toTables(TableFactory<T, C, I> factory) throws SQLException {
+        List<T> databaseTables = new ArrayList<>();
+        for (Map.Entry<String, TableEntry<C, I>> entry : tables.entrySet()) {
+            T t = factory.create(entry.getKey(), entry.getValue().columns, entry.getValue().indexes);
+            for (C c : t.getColumns()) {
+                c.setTable(t);
+            }
+            databaseTables.add(t);
+        }
+        return databaseTables;
+    }
+
+}
@@ -0,0 +1,129 @@
+package sqlancer.common.schema;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import sqlancer.IgnoreMeException;
+import sqlancer.Randomly;
+
+/**
+ * A uniform random sample of the rows of a table, from which PQS selects its pivot rows without querying the DBMS. The
+ * sample is taken by a single streaming scan of the table (reservoir sampling) and is kept until the
+ * {@link AbstractTable#getModificationVersion() modification version} of the table changes. Since the tables of a pivot
+ * row are combined by a cross product, a random row of the cross product consists of a random row of each table. The
+ * rows of views are sampled again for every pivot row, since their contents might change without a modification of the
+ * view (e.g., for views that depend on other tables).
+ *
+ * @param <C>
+ *            the column type
+ * @param <V>
+ *            the value type
+ */
+public class RowReservoir<C extends AbstractTableColumn<?, ?>, V> {
+
+    /**
+     * The maximum number of rows in the sample, which exceeds the number of rows of most tables that SQLancer
+     * generates, so that all their rows can be selected as pivot rows.
+     */
+    public static final int CAPACITY = 1000;
+    private static final long NO_VERSION = -1;
+
+    private final List<Map<C, V>> rows = new ArrayList<>();
+    private long version = NO_VERSION;
+
+    @FunctionalInterface
+    public interface RowReader<C, V> {
+
+        /**
+         * Reads the values of the current row of the scan.
+         *
+         * @param rs
+         *            the result set, positioned on the row
+         *
+         * @return the values of the row's columns
+         *
+         * @throws SQLException
+         *             if reading the row fails
+         */
+        Map<C, V> read(ResultSet rs) throws SQLException;
+
+    }
+
+    /**
+     * Returns a random row of the table, and samples the rows of the table if they changed since the last call.
+     *
+     * @param con
+     *            the connection to the database
+     * @param table
+     *            the table to which the reservoir belongs
+     * @param query
+     *            the query that scans the table
+     * @param reader
+     *            reads a row of the scan; it can throw an {@link IgnoreMeException} to exclude the row from the sample
+     *            (e.g., if its values cannot be represented as constants)
+     *
+     * @return the values of a random row
+     *
+     * @throws SQLException
+     *             if reading a row fails
+     * @throws IgnoreMeException
+     *             if the scan fails or the table has no rows that can be sampled
+     */
+    public Map<C, V> getRandomRow(Connection con, AbstractTable<C, ?> table, String query, RowReader<C, V> reader)
+            throws SQLException {
+        if (table.isView() || version != table.getModificationVersion()) {
+            sample(con, query, reader);
+            version = table.getModificationVersion();
+        }
+        if (rows.isEmpty()) {
+            throw new IgnoreMeException();
+        }
+        return Randomly.fromList(rows);
+    }
+
+    private void sample(Connection con, String query, RowReader<C, V> reader) throws SQLException {
+        rows.clear();
+        version = NO_VERSION;
+        try (Statement s = con.createStatement(); ResultSet rs = executeScan(s, query)) {
+            int nrRowsSeen = 0;
+            while (rs.next()) {
+                int index = nrRowsSeen < CAPACITY ? nrRowsSeen : (int) Randomly.getNotCachedInteger(0, nrRowsSeen + 1);
+                if (index < CAPACITY) {
+                    Map<C, V> row = readRow(rs, reader);
+                    if (row == null) {
+                        continue;
+                    }
+                    if (index == rows.size()) {
+                        rows.add(row);
+                    } else {
+                        rows.set(index, row);
+                    }
+                }
+                nrRowsSeen++;
+            }
+        }
+    }
+
+    private static ResultSet executeScan(Statement s, String query) {
+        try {
+            return s.executeQuery(query);
+        } catch (SQLException e) {
+            // for example, a view that refers to a dropped table
+            throw new IgnoreMeException();
+        }
+    }
+
+    private static <C, V> Map<C, V> readRow(ResultSet rs, RowReader<C, V> reader) throws SQLException {
+        try {
+            return reader.read(rs);
+        } catch (IgnoreMeException e) {
+            return null;
+        }
+    }
+
+}
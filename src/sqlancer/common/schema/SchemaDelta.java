@@ -0,0 +1,60 @@
+package sqlancer.common.schema;
+
+/**
+ * The known effect of a statement on the schema, which allows updating the schema after the statement without
+ * re-reading the whole catalog. A delta describes the effect of a successful execution; a statement that fails is
+ * assumed to leave the schema unchanged. A delta that changes the schema describes a DDL statement, which is assumed
+ * not to modify the rows of existing tables.
+ *
+ * @param <S>
+ *            the schema type
+ */
+@FunctionalInterface
+public interface SchemaDelta<S extends AbstractSchema<?>> {
+
+    SchemaDelta<AbstractSchema<?>> UNCHANGED = new SchemaDelta<AbstractSchema<?>>() {
+
+        @Override
+        public AbstractSchema<?> apply(AbstractSchema<?> schema) {
+            return schema;
+        }
+
+        @Override
+        public boolean changesSchema() {
+            return false;
+        }
+    };
+
+    /**
+     * Derives the schema after the statement from the schema before the statement.
+     *
+     * @param schema
+     *            the schema before the statement was executed
+     *
+     * @return the schema after the statement was executed, or null if it cannot be derived, in which case the whole
+     *         schema is re-read
+     *
+     * @throws Exception
+     *             if reading a part of the catalog fails
+     */
+    S apply(S schema) throws Exception;
+
+    default boolean changesSchema() {
+        return true;
+    }
+
+    /**
+     * Returns the delta for statements that do not modify the catalog, but are marked as affecting the schema so that
+     * the row counts of the tables are recomputed (e.g., INSERT statements).
+     *
+     * @param <S>
+     *            the schema type
+     *
+     * @return the delta that leaves the schema unchanged
+     */
+    @SuppressWarnings("unchecked")
+    static <S extends AbstractSchema<?>> SchemaDelta<S> unchanged() {
+        return (SchemaDelta<S>) (SchemaDelta<?>) UNCHANGED;
+    }
+
+}
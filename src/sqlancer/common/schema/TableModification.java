@@ -0,0 +1,89 @@
+package sqlancer.common.schema;
+
+/**
+ * The known effect of a DML statement on the rows of a single table. It allows maintaining the row count of the table
+ * from the update count that the JDBC driver reports for the statement, rather than by counting the rows again. A
+ * statement with a table modification must not modify other tables (e.g., through triggers).
+ */
+public final class TableModification {
+
+    public enum Kind {
+        /**
+         * The update count is the number of inserted rows.
+         */
+        INSERT,
+        /**
+         * The update count is the number of deleted rows.
+         */
+        DELETE,
+        /**
+         * The update count is the number of updated rows; the number of rows stays the same.
+         */
+        UPDATE,
+        /**
+         * The update count does not describe the change of the number of rows (e.g., for INSERT OR REPLACE, which might
+         * delete rows), so the rows of the table need to be counted again.
+         */
+        UNKNOWN
+    }
+
+    private final String tableName;
+    private final Kind kind;
+
+    private TableModification(String tableName, Kind kind) {
+        this.tableName = tableName;
+        this.kind = kind;
+    }
+
+    public static TableModification insert(String tableName) {
+        return new TableModification(tableName, Kind.INSERT);
+    }
+
+    public static TableModification delete(String tableName) {
+        return new TableModification(tableName, Kind.DELETE);
+    }
+
+    public static TableModification update(String tableName) {
+        return new TableModification(tableName, Kind.UPDATE);
+    }
+
+    public static TableModification unknown(String tableName) {
+        return new TableModification(tableName, Kind.UNKNOWN);
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Applies the modification to the given table.
+     *
+     * @param table
+     *            the modified table
+     * @param updateCount
+     *            the update count of the statement
+     */
+    public void apply(AbstractTable<?, ?> table, long updateCount) {
+        switch (kind) {
+        case INSERT:
+            table.updateRowCount(updateCount);
+            break;
+        case DELETE:
+            table.updateRowCount(-updateCount);
+            break;
+        case UPDATE:
+            table.updateRowCount(0);
+            break;
+        case UNKNOWN:
+            table.recomputeCount();
+            break;
+        default:
+            throw new AssertionError(kind);
+        }
+    }
+
+}
@@ -4,10 +4,19 @@ import sqlancer.common.query.ExpectedErrors;
 
 public final class DuckDBErrors {
 
+    private static final ExpectedErrors EXPRESSION_ERRORS = getExpressionErrors();
+    private static final ExpectedErrors INSERT_ERRORS = getInsertErrors();
+    private static final ExpectedErrors GROUP_BY_ERRORS = getGroupByErrors();
+
     private DuckDBErrors() {
     }
 
     public static void addExpressionErrors(ExpectedErrors errors) {
+        errors.addAll(EXPRESSION_ERRORS);
+    }
+
+    private static ExpectedErrors getExpressionErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("Could not convert string");
         errors.add("ORDER term out of range - should be between ");
         errors.add("You might need to add explicit type casts.");
@@ -48,6 +57,7 @@ public final class DuckDBErrors {
                                                     // removed column
         errors.add("Contents of view were altered: types don't match!");
         errors.add("Not implemented: ROUND(DECIMAL, INTEGER) with non-constant precision is not supported");
+        return errors.toImmutable();
     }
 
     private static void addRegexErrors(ExpectedErrors errors) {
@@ -76,6 +86,11 @@ public final class DuckDBErrors {
     }
 
     public static void addInsertErrors(ExpectedErrors errors) {
+        errors.addAll(INSERT_ERRORS);
+    }
+
+    private static ExpectedErrors getInsertErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("NOT NULL constraint failed");
         errors.add("PRIMARY KEY or UNIQUE constraint violated");
         errors.add("duplicate key value violates primary key or unique constraint");
@@ -89,11 +104,18 @@ public final class DuckDBErrors {
         errors.add(" Column with name rowid does not exist!"); // currently, there doesn't seem to way to determine if
                                                                // the table has a primary key
         errors.add("Out of Range: Could not cast value");
+        return errors.toImmutable();
     }
 
     public static void addGroupByErrors(ExpectedErrors errors) {
+        errors.addAll(GROUP_BY_ERRORS);
+    }
+
+    private static ExpectedErrors getGroupByErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("must appear in the GROUP BY clause or be used in an aggregate function");
         errors.add("GROUP BY term out of range");
+        return errors.toImmutable();
     }
 
 }
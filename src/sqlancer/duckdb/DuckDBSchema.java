@@ -1,18 +1,18 @@
 package sqlancer.duckdb;
 
 import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import sqlancer.Randomly;
 import sqlancer.common.schema.AbstractSchema;
 import sqlancer.common.schema.AbstractTable;
 import sqlancer.common.schema.AbstractTableColumn;
 import sqlancer.common.schema.AbstractTables;
+import sqlancer.common.schema.CatalogSnapshot;
 import sqlancer.common.schema.TableIndex;
 import sqlancer.duckdb.DuckDBSchema.DuckDBTable;
 
@@ -208,54 +208,35 @@ public class DuckDBSchema extends AbstractSchema<DuckDBTable> {
     }
 
     public static DuckDBSchema fromConnection(Connection con, String databaseName) throws SQLException {
-        List<DuckDBTable> databaseTables = new ArrayList<>();
-        List<String> tableNames = getTableNames(con);
-        for (String tableName : tableNames) {
-            List<DuckDBColumn> databaseColumns = getTableColumns(con, tableName);
-            boolean isView = tableName.startsWith("v");
-            DuckDBTable t = new DuckDBTable(tableName, databaseColumns, isView);
-            for (DuckDBColumn c : databaseColumns) {
-                c.setTable(t);
+        CatalogSnapshot<DuckDBTable, DuckDBColumn, TableIndex> snapshot = new CatalogSnapshot<>();
+        CatalogSnapshot.scan(con, "SELECT * FROM sqlite_master()", rs -> snapshot.addTable(rs.getString("name")));
+        if (snapshot.getTableNames().isEmpty()) {
+            return new DuckDBSchema(new ArrayList<>());
+        }
+        // table functions cannot take the table names from another table, so the columns of all tables are read by
+        // combining the pragma_table_info calls into a single query
+        String columnsQuery = snapshot
+                .getTableNames().stream().map(tableName -> String
+                        .format("SELECT '%s' AS table_name, * FROM pragma_table_info('%s')", tableName, tableName))
+                .collect(Collectors.joining(" UNION ALL "));
+        CatalogSnapshot.scan(con, columnsQuery, rs -> {
+            String columnName = rs.getString("name");
+            String dataType = rs.getString("type");
+            boolean isNullable = rs.getString("notnull").contentEquals("false");
+            boolean isPrimaryKey = rs.getString("pk").contains("true");
+            snapshot.addColumn(rs.getString("table_name"),
+                    new DuckDBColumn(columnName, getColumnType(dataType), isPrimaryKey, isNullable));
+        });
+        return new DuckDBSchema(snapshot.toTables((tableName, columns, indexes) -> {
+            if (columns.stream().noneMatch(c -> c.isPrimaryKey())) {
+                // https://github.com/cwida/duckdb/issues/589
+                // https://github.com/cwida/duckdb/issues/588
+                // TODO: implement an option to enable/disable rowids
+                columns.add(
+                        new DuckDBColumn("rowid", new DuckDBCompositeDataType(DuckDBDataType.INT, 4), false, false));
             }
-            databaseTables.add(t);
-
-        }
-        return new DuckDBSchema(databaseTables);
-    }
-
-    private static List<String> getTableNames(Connection con) throws SQLException {
-        List<String> tableNames = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery("SELECT * FROM sqlite_master()")) {
-                while (rs.next()) {
-                    tableNames.add(rs.getString("name"));
-                }
-            }
-        }
-        return tableNames;
-    }
-
-    private static List<DuckDBColumn> getTableColumns(Connection con, String tableName) throws SQLException {
-        List<DuckDBColumn> columns = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery(String.format("SELECT * FROM pragma_table_info('%s');", tableName))) {
-                while (rs.next()) {
-                    String columnName = rs.getString("name");
-                    String dataType = rs.getString("type");
-                    boolean isNullable = rs.getString("notnull").contentEquals("false");
-                    boolean isPrimaryKey = rs.getString("pk").contains("true");
-                    DuckDBColumn c = new DuckDBColumn(columnName, getColumnType(dataType), isPrimaryKey, isNullable);
-                    columns.add(c);
-                }
-            }
-        }
-        if (columns.stream().noneMatch(c -> c.isPrimaryKey())) {
-            // https://github.com/cwida/duckdb/issues/589
-            // https://github.com/cwida/duckdb/issues/588
-            // TODO: implement an option to enable/disable rowids
-            columns.add(new DuckDBColumn("rowid", new DuckDBCompositeDataType(DuckDBDataType.INT, 4), false, false));
-        }
-        return columns;
+            return new DuckDBTable(tableName, columns, tableName.startsWith("v"));
+        }));
     }
 
 }
@@ -75,7 +75,7 @@ public final class DuckDBExpressionGenerator extends UntypedExpressionGenerator<
         if (!globalState.getDmbsSpecificOptions().testBinaryLogicals) {
             possibleOptions.remove(Expression.BINARY_LOGICAL);
         }
-        Expression expr = Randomly.fromList(possibleOptions);
+        Expression expr = globalState.getGrammarWeights().choose(possibleOptions);
         switch (expr) {
         case COLLATE:
             return new NewUnaryPostfixOperatorNode<DuckDBExpression>(generateExpression(depth + 1),
@@ -1,6 +1,5 @@
 package sqlancer.duckdb.test;
 
-import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -19,6 +18,8 @@ import sqlancer.common.oracle.TestOracle;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.QueryAdapter;
 import sqlancer.common.query.SQLancerResultSet;
+import sqlancer.common.query.StatementCache;
+import sqlancer.common.query.StatementWatchdog;
 import sqlancer.duckdb.DuckDBErrors;
 import sqlancer.duckdb.DuckDBProvider.DuckDBGlobalState;
 import sqlancer.duckdb.DuckDBSchema;
@@ -55,7 +56,7 @@ public class DuckDBNoRECOracle extends NoRECBase<DuckDBGlobalState> implements T
                 .map(t -> new TableReferenceNode<DuckDBExpression, DuckDBTable>(t)).collect(Collectors.toList());
         List<Node<DuckDBExpression>> joins = DuckDBJoin.getJoins(tableList, state);
         int secondCount = getSecondQuery(tableList.stream().collect(Collectors.toList()), randomWhereCondition, joins);
-        int firstCount = getFirstQueryCount(con, tableList.stream().collect(Collectors.toList()), columns,
+        int firstCount = getFirstQueryCount(tableList.stream().collect(Collectors.toList()), columns,
                 randomWhereCondition, joins);
         if (firstCount == -1 || secondCount == -1) {
             throw new IgnoreMeException();
@@ -100,7 +101,7 @@ public class DuckDBNoRECOracle extends NoRECBase<DuckDBGlobalState> implements T
         return secondCount;
     }
 
-    private int getFirstQueryCount(Connection con, List<Node<DuckDBExpression>> tableList, List<DuckDBColumn> columns,
+    private int getFirstQueryCount(List<Node<DuckDBExpression>> tableList, List<DuckDBColumn> columns,
             Node<DuckDBExpression> randomWhereCondition, List<Node<DuckDBExpression>> joins) throws SQLException {
         DuckDBSelect select = new DuckDBSelect();
         // select.setGroupByClause(groupBys);
@@ -118,18 +119,23 @@ public class DuckDBNoRECOracle extends NoRECBase<DuckDBGlobalState> implements T
         // select.setSelectType(SelectType.ALL);
         select.setJoinList(joins);
         int firstCount = 0;
-        try (Statement stat = con.createStatement()) {
-            optimizedQueryString = DuckDBToStringVisitor.asString(select);
-            if (options.logEachSelect()) {
-                logger.writeCurrent(optimizedQueryString);
-            }
-            try (ResultSet rs = stat.executeQuery(optimizedQueryString)) {
-                while (rs.next()) {
-                    firstCount++;
-                }
+        optimizedQueryString = DuckDBToStringVisitor.asString(select);
+        if (options.logEachSelect()) {
+            logger.writeCurrent(optimizedQueryString);
+        }
+        StatementCache cache = state.getStatementCache();
+        Statement stat = cache.getStatement();
+        StatementWatchdog.Watch watch = state.watchStatement(stat, optimizedQueryString);
+        try (ResultSet rs = stat.executeQuery(optimizedQueryString)) {
+            while (rs.next()) {
+                firstCount++;
             }
         } catch (SQLException e) {
             throw new IgnoreMeException();
+        } finally {
+            watch.close();
+            cache.release(stat);
+            watch.handleCancel();
         }
         return firstCount;
     }
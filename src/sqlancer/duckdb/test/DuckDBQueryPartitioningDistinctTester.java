@@ -6,6 +6,7 @@ import java.util.List;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
+import sqlancer.ResultMultiset;
 import sqlancer.duckdb.DuckDBErrors;
 import sqlancer.duckdb.DuckDBProvider.DuckDBGlobalState;
 import sqlancer.duckdb.DuckDBToStringVisitor;
@@ -24,21 +25,24 @@ public class DuckDBQueryPartitioningDistinctTester extends DuckDBQueryPartitioni
         select.setWhereClause(null);
         String originalQueryString = DuckDBToStringVisitor.asString(select);
 
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-        if (Randomly.getBoolean()) {
-            select.setDistinct(false);
+        try (ResultMultiset resultSet = ComparatorHelper.getResultSetFirstColumnAsMultiset(originalQueryString, errors,
+                state)) {
+            if (Randomly.getBoolean()) {
+                select.setDistinct(false);
+            }
+            select.setWhereClause(predicate);
+            String firstQueryString = DuckDBToStringVisitor.asString(select);
+            select.setWhereClause(negatedPredicate);
+            String secondQueryString = DuckDBToStringVisitor.asString(select);
+            select.setWhereClause(isNullPredicate);
+            String thirdQueryString = DuckDBToStringVisitor.asString(select);
+            List<String> combinedString = new ArrayList<>();
+            try (ResultMultiset secondResultSet = ComparatorHelper.getCombinedResultSetNoDuplicates(firstQueryString,
+                    secondQueryString, thirdQueryString, combinedString, true, state, errors)) {
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, state);
+            }
         }
-        select.setWhereClause(predicate);
-        String firstQueryString = DuckDBToStringVisitor.asString(select);
-        select.setWhereClause(negatedPredicate);
-        String secondQueryString = DuckDBToStringVisitor.asString(select);
-        select.setWhereClause(isNullPredicate);
-        String thirdQueryString = DuckDBToStringVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSetNoDuplicates(firstQueryString,
-                secondQueryString, thirdQueryString, combinedString, true, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
     }
 
 }
@@ -7,6 +7,7 @@ import java.util.List;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
+import sqlancer.ResultMultiset;
 import sqlancer.common.ast.newast.Node;
 import sqlancer.common.oracle.TestOracle;
 import sqlancer.duckdb.DuckDBErrors;
@@ -34,19 +35,21 @@ public class DuckDBQueryPartitioningHavingTester extends DuckDBQueryPartitioning
         select.setGroupByExpressions(gen.generateExpressions(Randomly.smallNumber() + 1));
         select.setHavingClause(null);
         String originalQueryString = DuckDBToStringVisitor.asString(select);
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
-        select.setHavingClause(predicate);
-        String firstQueryString = DuckDBToStringVisitor.asString(select);
-        select.setHavingClause(negatedPredicate);
-        String secondQueryString = DuckDBToStringVisitor.asString(select);
-        select.setHavingClause(isNullPredicate);
-        String thirdQueryString = DuckDBToStringVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, !orderBy, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        try (ResultMultiset resultSet = ComparatorHelper.getResultSetFirstColumnAsMultiset(originalQueryString, errors,
+                state)) {
+            select.setHavingClause(predicate);
+            String firstQueryString = DuckDBToStringVisitor.asString(select);
+            select.setHavingClause(negatedPredicate);
+            String secondQueryString = DuckDBToStringVisitor.asString(select);
+            select.setHavingClause(isNullPredicate);
+            String thirdQueryString = DuckDBToStringVisitor.asString(select);
+            List<String> combinedString = new ArrayList<>();
+            try (ResultMultiset secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString,
+                    secondQueryString, thirdQueryString, combinedString, !orderBy, state, errors)) {
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, state);
+            }
+        }
     }
 
     @Override
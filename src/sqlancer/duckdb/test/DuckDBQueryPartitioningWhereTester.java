@@ -6,6 +6,7 @@ import java.util.List;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
+import sqlancer.ResultMultiset;
 import sqlancer.duckdb.DuckDBErrors;
 import sqlancer.duckdb.DuckDBProvider.DuckDBGlobalState;
 import sqlancer.duckdb.DuckDBToStringVisitor;
@@ -23,23 +24,25 @@ public class DuckDBQueryPartitioningWhereTester extends DuckDBQueryPartitioningB
         select.setWhereClause(null);
         String originalQueryString = DuckDBToStringVisitor.asString(select);
 
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
-        boolean orderBy = Randomly.getBooleanWithRatherLowProbability();
-        if (orderBy) {
-            select.setOrderByExpressions(gen.generateOrderBys());
+        try (ResultMultiset resultSet = ComparatorHelper.getResultSetFirstColumnAsMultiset(originalQueryString, errors,
+                state)) {
+            boolean orderBy = Randomly.getBooleanWithRatherLowProbability();
+            if (orderBy) {
+                select.setOrderByExpressions(gen.generateOrderBys());
+            }
+            select.setWhereClause(predicate);
+            String firstQueryString = DuckDBToStringVisitor.asString(select);
+            select.setWhereClause(negatedPredicate);
+            String secondQueryString = DuckDBToStringVisitor.asString(select);
+            select.setWhereClause(isNullPredicate);
+            String thirdQueryString = DuckDBToStringVisitor.asString(select);
+            List<String> combinedString = new ArrayList<>();
+            try (ResultMultiset secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString,
+                    secondQueryString, thirdQueryString, combinedString, !orderBy, state, errors)) {
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, state);
+            }
         }
-        select.setWhereClause(predicate);
-        String firstQueryString = DuckDBToStringVisitor.asString(select);
-        select.setWhereClause(negatedPredicate);
-        String secondQueryString = DuckDBToStringVisitor.asString(select);
-        select.setWhereClause(isNullPredicate);
-        String thirdQueryString = DuckDBToStringVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, !orderBy, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
     }
 
 }
@@ -4,10 +4,19 @@ import sqlancer.common.query.ExpectedErrors;
 
 public final class H2Errors {
 
+    private static final ExpectedErrors INSERT_ERRORS = getInsertErrors();
+    private static final ExpectedErrors EXPRESSION_ERRORS = getExpressionErrors();
+    private static final ExpectedErrors DELETE_ERRORS = getDeleteErrors();
+
     private H2Errors() {
     }
 
     public static void addInsertErrors(ExpectedErrors errors) {
+        errors.addAll(INSERT_ERRORS);
+    }
+
+    private static ExpectedErrors getInsertErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("NULL not allowed for column");
         errors.add("Unique index or primary key violation");
         errors.add("Data conversion error");
@@ -16,9 +25,15 @@ public final class H2Errors {
         errors.add("Referential integrity constraint violation");
         errors.add("Check constraint invalid");
         errors.add("Check constraint violation");
+        return errors.toImmutable();
     }
 
     public static void addExpressionErrors(ExpectedErrors errors) {
+        errors.addAll(EXPRESSION_ERRORS);
+    }
+
+    private static ExpectedErrors getExpressionErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("Numeric value out of range");
         errors.add("are not comparable");
         errors.add("Data conversion error converting");
@@ -39,12 +54,19 @@ public final class H2Errors {
         errors.add(/* precision */ "must be between"); // TRUNCATE_VALUE
         errors.add("Cannot parse \"TIMESTAMP\" constant"); // TRUNCATE
         errors.add("Invalid parameter count for \"TRUNC\", expected count: \"1\""); // TRUNCATE
+        return errors.toImmutable();
     }
 
     public static void addDeleteErrors(ExpectedErrors errors) {
+        errors.addAll(DELETE_ERRORS);
+    }
+
+    private static ExpectedErrors getDeleteErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("No default value is set for column"); // referential actions
         errors.add("Referential integrity constraint violation");
         errors.add("NULL not allowed for column");
+        return errors.toImmutable();
     }
 
 }
@@ -35,7 +35,7 @@ public class H2ExpressionGenerator extends UntypedExpressionGenerator<Node<H2Exp
         if (depth >= globalState.getOptions().getMaxExpressionDepth() || Randomly.getBoolean()) {
             return generateLeafNode();
         }
-        Expression expr = Randomly.fromOptions(Expression.values());
+        Expression expr = globalState.getGrammarWeights().choose(Expression.values());
         switch (expr) {
         case BINARY_COMPARISON:
             Operator op = H2BinaryComparisonOperator.getRandom();
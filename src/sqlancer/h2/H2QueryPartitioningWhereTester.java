@@ -6,6 +6,7 @@ import java.util.List;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
+import sqlancer.ResultMultiset;
 import sqlancer.h2.H2Provider.H2GlobalState;
 
 public class H2QueryPartitioningWhereTester extends H2QueryPartitioningBase {
@@ -20,23 +21,25 @@ public class H2QueryPartitioningWhereTester extends H2QueryPartitioningBase {
         select.setWhereClause(null);
         String originalQueryString = H2ToStringVisitor.asString(select);
 
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
-        boolean orderBy = Randomly.getBooleanWithRatherLowProbability();
-        if (orderBy) {
-            select.setOrderByExpressions(gen.generateOrderBys());
+        try (ResultMultiset resultSet = ComparatorHelper.getResultSetFirstColumnAsMultiset(originalQueryString, errors,
+                state)) {
+            boolean orderBy = Randomly.getBooleanWithRatherLowProbability();
+            if (orderBy) {
+                select.setOrderByExpressions(gen.generateOrderBys());
+            }
+            select.setWhereClause(predicate);
+            String firstQueryString = H2ToStringVisitor.asString(select);
+            select.setWhereClause(negatedPredicate);
+            String secondQueryString = H2ToStringVisitor.asString(select);
+            select.setWhereClause(isNullPredicate);
+            String thirdQueryString = H2ToStringVisitor.asString(select);
+            List<String> combinedString = new ArrayList<>();
+            try (ResultMultiset secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString,
+                    secondQueryString, thirdQueryString, combinedString, !orderBy, state, errors)) {
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, state);
+            }
         }
-        select.setWhereClause(predicate);
-        String firstQueryString = H2ToStringVisitor.asString(select);
-        select.setWhereClause(negatedPredicate);
-        String secondQueryString = H2ToStringVisitor.asString(select);
-        select.setWhereClause(isNullPredicate);
-        String thirdQueryString = H2ToStringVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, !orderBy, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
     }
 
 }
@@ -3,8 +3,6 @@ package sqlancer.h2;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -13,6 +11,7 @@ import sqlancer.common.schema.AbstractSchema;
 import sqlancer.common.schema.AbstractTable;
 import sqlancer.common.schema.AbstractTableColumn;
 import sqlancer.common.schema.AbstractTables;
+import sqlancer.common.schema.CatalogSnapshot;
 import sqlancer.common.schema.TableIndex;
 import sqlancer.h2.H2Schema.H2Table;
 
@@ -161,47 +160,17 @@ public class H2Schema extends AbstractSchema<H2Table> {
     }
 
     public static H2Schema fromConnection(Connection con, String databaseName) throws SQLException {
-        List<H2Table> databaseTables = new ArrayList<>();
-        List<String> tableNames = getTableNames(con);
-        for (String tableName : tableNames) {
-            List<H2Column> databaseColumns = getTableColumns(con, tableName);
-            H2Table t = new H2Table(tableName, databaseColumns);
-            for (H2Column c : databaseColumns) {
-                c.setTable(t);
-            }
-            databaseTables.add(t);
-
-        }
-        return new H2Schema(databaseTables);
-    }
-
-    private static List<String> getTableNames(Connection con) throws SQLException {
-        List<String> tableNames = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery("SHOW TABLES")) {
-                while (rs.next()) {
-                    tableNames.add(rs.getString("TABLE_NAME"));
-                }
-            }
-        }
-        return tableNames;
-    }
-
-    private static List<H2Column> getTableColumns(Connection con, String tableName) throws SQLException {
-        List<H2Column> columns = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery(String.format("SHOW COLUMNS FROM %s;", tableName))) {
-                while (rs.next()) {
-                    String columnName = rs.getString("COLUMN_NAME");
-                    String columnType = rs.getString("TYPE");
-                    H2DataType primitiveType = getColumnType(columnType);
-                    H2Column c = new H2Column(columnName,
-                            new H2CompositeDataType(primitiveType, -1, -1 /* TODO: read size and precision */));
-                    columns.add(c);
-                }
+        CatalogSnapshot<H2Table, H2Column, TableIndex> snapshot = new CatalogSnapshot<>();
+        // the metadata query returns the same type names as SHOW COLUMNS, without the size and precision
+        try (ResultSet rs = con.getMetaData().getColumns(null, con.getSchema(), null, null)) {
+            while (rs.next()) {
+                String columnName = rs.getString("COLUMN_NAME");
+                H2DataType primitiveType = getColumnType(rs.getString("TYPE_NAME"));
+                snapshot.addColumn(rs.getString("TABLE_NAME"), new H2Column(columnName,
+                        new H2CompositeDataType(primitiveType, -1, -1 /* TODO: read size and precision */)));
             }
         }
-        return columns;
+        return new H2Schema(snapshot.toTables((tableName, columns, indexes) -> new H2Table(tableName, columns)));
     }
 
     private static H2DataType getColumnType(String columnType) {
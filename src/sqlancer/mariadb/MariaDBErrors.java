@@ -4,10 +4,17 @@ import sqlancer.common.query.ExpectedErrors;
 
 public final class MariaDBErrors {
 
+    private static final ExpectedErrors INSERT_ERRORS = getInsertErrors();
+
     private MariaDBErrors() {
     }
 
     public static void addInsertErrors(ExpectedErrors errors) {
+        errors.addAll(INSERT_ERRORS);
+    }
+
+    private static ExpectedErrors getInsertErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("Out of range");
         errors.add("Duplicate entry"); // violates UNIQUE constraint
         errors.add("cannot be null"); // violates NOT NULL constraint
@@ -17,6 +24,7 @@ public final class MariaDBErrors {
         errors.add("The value specified for generated column"); // trying to insert into a generated column
         errors.add("Incorrect double value");
         errors.add("Incorrect string value");
+        return errors.toImmutable();
     }
 
 }
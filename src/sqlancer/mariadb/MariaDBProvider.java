@@ -7,6 +7,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import sqlancer.DatabasePool;
 import sqlancer.GlobalState;
 import sqlancer.IgnoreMeException;
 import sqlancer.MainOptions;
@@ -163,22 +164,41 @@ public class MariaDBProvider extends SQLProviderAdapter<MariaDBGlobalState, Mari
 
     @Override
     public Connection createDatabase(MariaDBGlobalState globalState) throws SQLException {
-        globalState.getState().logStatement("DROP DATABASE IF EXISTS " + globalState.getDatabaseName());
-        globalState.getState().logStatement("CREATE DATABASE " + globalState.getDatabaseName());
-        globalState.getState().logStatement("USE " + globalState.getDatabaseName());
         // /?serverTimezone=UTC&useSSL=false&allowPublicKeyRetrieval=true
         String url = "jdbc:mariadb://localhost:3306";
-        Connection con = DriverManager.getConnection(url, globalState.getOptions().getUserName(),
-                globalState.getOptions().getPassword());
+        String userName = globalState.getOptions().getUserName();
+        String password = globalState.getOptions().getPassword();
+        String databaseName = DatabasePool.getEmptyDatabase(globalState, name -> {
+            try (Connection con = DriverManager.getConnection(url, userName, password);
+                    Statement s = con.createStatement()) {
+                s.execute("DROP DATABASE IF EXISTS " + name);
+                s.execute("CREATE DATABASE " + name);
+            }
+        });
+        globalState.getState().logStatement("DROP DATABASE IF EXISTS " + databaseName);
+        globalState.getState().logStatement("CREATE DATABASE " + databaseName);
+        globalState.getState().logStatement("USE " + databaseName);
+        Connection con = DriverManager.getConnection(url, userName, password);
         try (Statement s = con.createStatement()) {
-            s.execute("DROP DATABASE IF EXISTS " + globalState.getDatabaseName());
+            s.execute("USE " + databaseName);
         }
-        try (Statement s = con.createStatement()) {
-            s.execute("CREATE DATABASE " + globalState.getDatabaseName());
+        return con;
+    }
+
+    @Override
+    public Connection createReadConnection(MariaDBGlobalState globalState) throws SQLException {
+        for (String statement : globalState.getState().getStatements()) {
+            if (statement.startsWith("SET GLOBAL")) {
+                // the main connection keeps the session values that it had before the global values were changed
+                return null;
+            }
         }
+        Connection con = DriverManager.getConnection(globalState.getConnection().getMetaData().getURL(),
+                globalState.getOptions().getUserName(), globalState.getOptions().getPassword());
         try (Statement s = con.createStatement()) {
             s.execute("USE " + globalState.getDatabaseName());
         }
+        replaySessionStatements(con, globalState, s -> s.startsWith("SET SESSION"));
         return con;
     }
 
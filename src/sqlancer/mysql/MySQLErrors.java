@@ -4,12 +4,20 @@ import sqlancer.common.query.ExpectedErrors;
 
 public final class MySQLErrors {
 
+    private static final ExpectedErrors EXPRESSION_ERRORS = getExpressionErrors();
+
     private MySQLErrors() {
     }
 
     public static void addExpressionErrors(ExpectedErrors errors) {
+        errors.addAll(EXPRESSION_ERRORS);
+    }
+
+    private static ExpectedErrors getExpressionErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("BIGINT value is out of range"); // e.g., CAST(-('-1e500') AS SIGNED)
         errors.add("is not valid for CHARACTER SET");
+        return errors.toImmutable();
     }
 
 }
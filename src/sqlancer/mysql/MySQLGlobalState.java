@@ -3,10 +3,9 @@ package sqlancer.mysql;
 
 import java.sql.SQLException;
 
-import sqlancer.GlobalState;
 import sqlancer.mysql.MySQLOptions.MySQLOracleFactory;
 
-public class MySQLGlobalState extends GlobalState<MySQLOptions, MySQLSchema> {
+public class MySQLGlobalState extends MySQLProtocolGlobalState<MySQLOptions, MySQLSchema> {
 
     @Override
     protected MySQLSchema readSchema() throws SQLException {
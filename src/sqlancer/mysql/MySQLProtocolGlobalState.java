@@ -0,0 +1,33 @@
+package sqlancer.mysql;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import sqlancer.DBMSSpecificOptions;
+import sqlancer.GlobalState;
+import sqlancer.common.schema.AbstractSchema;
+
+/**
+ * The global state of a DBMS that is accessed with MySQL Connector/J, such as MySQL and TiDB.
+ *
+ * @param <O>
+ *            the DBMS-specific options
+ * @param <S>
+ *            the schema of the DBMS
+ */
+public abstract class MySQLProtocolGlobalState<O extends DBMSSpecificOptions<?>, S extends AbstractSchema<?>>
+        extends GlobalState<O, S> {
+
+    /**
+     * Connector/J buffers the entire result of a query unless the fetch size is {@link Integer#MIN_VALUE}, in which
+     * case it streams the result row by row; a positive fetch size is ignored without the useCursorFetch property.
+     */
+    @Override
+    public Runnable configureResultStreaming(Statement s) throws SQLException {
+        if (getOptions().getFetchSize() > 0) {
+            return setFetchSize(s, Integer.MIN_VALUE);
+        }
+        return null;
+    }
+
+}
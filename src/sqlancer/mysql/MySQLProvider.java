@@ -6,6 +6,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 
 import sqlancer.AbstractAction;
+import sqlancer.DatabasePool;
 import sqlancer.IgnoreMeException;
 import sqlancer.Randomly;
 import sqlancer.SQLProviderAdapter;
@@ -149,22 +150,40 @@ public class MySQLProvider extends SQLProviderAdapter<MySQLGlobalState, MySQLOpt
 
     @Override
     public Connection createDatabase(MySQLGlobalState globalState) throws SQLException {
-        String databaseName = globalState.getDatabaseName();
+        String url = "jdbc:mysql://localhost:3306/?serverTimezone=UTC&useSSL=false&allowPublicKeyRetrieval=true";
+        String userName = globalState.getOptions().getUserName();
+        String password = globalState.getOptions().getPassword();
+        String databaseName = DatabasePool.getEmptyDatabase(globalState, name -> {
+            try (Connection con = DriverManager.getConnection(url, userName, password);
+                    Statement s = con.createStatement()) {
+                s.execute("DROP DATABASE IF EXISTS " + name);
+                s.execute("CREATE DATABASE " + name);
+            }
+        });
         globalState.getState().logStatement("DROP DATABASE IF EXISTS " + databaseName);
         globalState.getState().logStatement("CREATE DATABASE " + databaseName);
         globalState.getState().logStatement("USE " + databaseName);
-        String url = "jdbc:mysql://localhost:3306/?serverTimezone=UTC&useSSL=false&allowPublicKeyRetrieval=true";
-        Connection con = DriverManager.getConnection(url, globalState.getOptions().getUserName(),
-                globalState.getOptions().getPassword());
+        Connection con = DriverManager.getConnection(url, userName, password);
         try (Statement s = con.createStatement()) {
-            s.execute("DROP DATABASE IF EXISTS " + databaseName);
+            s.execute("USE " + databaseName);
         }
-        try (Statement s = con.createStatement()) {
-            s.execute("CREATE DATABASE " + databaseName);
+        return con;
+    }
+
+    @Override
+    public Connection createReadConnection(MySQLGlobalState globalState) throws SQLException {
+        for (String statement : globalState.getState().getStatements()) {
+            if (statement.startsWith("SET GLOBAL")) {
+                // the main connection keeps the session values that it had before the global values were changed
+                return null;
+            }
         }
+        Connection con = DriverManager.getConnection(globalState.getConnection().getMetaData().getURL(),
+                globalState.getOptions().getUserName(), globalState.getOptions().getPassword());
         try (Statement s = con.createStatement()) {
-            s.execute("USE " + databaseName);
+            s.execute("USE " + globalState.getDatabaseName());
         }
+        replaySessionStatements(con, globalState, s -> s.startsWith("SET SESSION"));
         return con;
     }
 
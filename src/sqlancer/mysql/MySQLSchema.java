@@ -17,6 +17,9 @@ import sqlancer.common.schema.AbstractSchema;
 import sqlancer.common.schema.AbstractTable;
 import sqlancer.common.schema.AbstractTableColumn;
 import sqlancer.common.schema.AbstractTables;
+import sqlancer.common.schema.CatalogSnapshot;
+import sqlancer.common.schema.RowReservoir;
+import sqlancer.common.schema.SchemaDelta;
 import sqlancer.common.schema.TableIndex;
 import sqlancer.mysql.MySQLSchema.MySQLTable;
 import sqlancer.mysql.MySQLSchema.MySQLTable.MySQLEngine;
@@ -89,45 +92,11 @@ public class MySQLSchema extends AbstractSchema<MySQLTable> {
         }
 
         public MySQLRowValue getRandomRowValue(Connection con) throws SQLException {
-            String randomRow = String.format("SELECT %s FROM %s ORDER BY RAND() LIMIT 1", columnNamesAsString(
-                    c -> c.getTable().getName() + "." + c.getName() + " AS " + c.getTable().getName() + c.getName()),
-                    // columnNamesAsString(c -> "typeof(" + c.getTable().getName() + "." +
-                    // c.getName() + ")")
-                    tableNamesAsString());
             Map<MySQLColumn, MySQLConstant> values = new HashMap<>();
-            try (Statement s = con.createStatement()) {
-                ResultSet randomRowValues = s.executeQuery(randomRow);
-                if (!randomRowValues.next()) {
-                    throw new AssertionError("could not find random row! " + randomRow + "\n");
-                }
-                for (int i = 0; i < getColumns().size(); i++) {
-                    MySQLColumn column = getColumns().get(i);
-                    Object value;
-                    int columnIndex = randomRowValues.findColumn(column.getTable().getName() + column.getName());
-                    assert columnIndex == i + 1;
-                    MySQLConstant constant;
-                    if (randomRowValues.getString(columnIndex) == null) {
-                        constant = MySQLConstant.createNullConstant();
-                    } else {
-                        switch (column.getType()) {
-                        case INT:
-                            value = randomRowValues.getLong(columnIndex);
-                            constant = MySQLConstant.createIntConstant((long) value);
-                            break;
-                        case VARCHAR:
-                            value = randomRowValues.getString(columnIndex);
-                            constant = MySQLConstant.createStringConstant((String) value);
-                            break;
-                        default:
-                            throw new AssertionError(column.getType());
-                        }
-                    }
-                    values.put(column, constant);
-                }
-                assert !randomRowValues.next();
-                return new MySQLRowValue(this, values);
+            for (MySQLTable table : getTables()) {
+                values.putAll(table.getRandomRowValue(con));
             }
-
+            return new MySQLRowValue(this, values);
         }
 
     }
@@ -184,6 +153,7 @@ public class MySQLSchema extends AbstractSchema<MySQLTable> {
         }
 
         private final MySQLEngine engine;
+        private final RowReservoir<MySQLColumn, MySQLConstant> rowReservoir = new RowReservoir<>();
 
         public MySQLTable(String tableName, List<MySQLColumn> columns, List<MySQLIndex> indexes, MySQLEngine engine) {
             super(tableName, columns, indexes, false /* TODO: support views */);
@@ -198,6 +168,34 @@ public class MySQLSchema extends AbstractSchema<MySQLTable> {
             return getColumns().stream().anyMatch(c -> c.isPrimaryKey());
         }
 
+        Map<MySQLColumn, MySQLConstant> getRandomRowValue(Connection con) throws SQLException {
+            String query = String.format("SELECT %s FROM %s", getColumnsAsString(), getName());
+            return rowReservoir.getRandomRow(con, this, query, rs -> {
+                Map<MySQLColumn, MySQLConstant> values = new HashMap<>();
+                for (int i = 0; i < getColumns().size(); i++) {
+                    MySQLColumn column = getColumns().get(i);
+                    int columnIndex = i + 1;
+                    MySQLConstant constant;
+                    if (rs.getString(columnIndex) == null) {
+                        constant = MySQLConstant.createNullConstant();
+                    } else {
+                        switch (column.getType()) {
+                        case INT:
+                            constant = MySQLConstant.createIntConstant(rs.getLong(columnIndex));
+                            break;
+                        case VARCHAR:
+                            constant = MySQLConstant.createStringConstant(rs.getString(columnIndex));
+                            break;
+                        default:
+                            throw new AssertionError(column.getType());
+                        }
+                    }
+                    values.put(column, constant);
+                }
+                return values;
+            });
+        }
+
     }
 
     public static final class MySQLIndex extends TableIndex {
@@ -226,26 +224,33 @@ public class MySQLSchema extends AbstractSchema<MySQLTable> {
         /* the loop is a workaround for https://bugs.mysql.com/bug.php?id=95929 */
         for (int i = 0; i < NR_SCHEMA_READ_TRIES; i++) {
             try {
-                List<MySQLTable> databaseTables = new ArrayList<>();
-                try (Statement s = con.createStatement()) {
-                    try (ResultSet rs = s.executeQuery(
-                            "select TABLE_NAME, ENGINE from information_schema.TABLES where table_schema = '"
-                                    + databaseName + "';")) {
-                        while (rs.next()) {
+                CatalogSnapshot<MySQLTable, MySQLColumn, MySQLIndex> snapshot = new CatalogSnapshot<>();
+                Map<String, MySQLEngine> engines = new HashMap<>();
+                CatalogSnapshot.scan(con,
+                        "select TABLE_NAME, ENGINE from information_schema.TABLES where table_schema = '" + databaseName
+                                + "';",
+                        rs -> {
                             String tableName = rs.getString("TABLE_NAME");
-                            String tableEngineStr = rs.getString("ENGINE");
-                            MySQLEngine engine = MySQLEngine.get(tableEngineStr);
-                            List<MySQLColumn> databaseColumns = getTableColumns(con, tableName, databaseName);
-                            List<MySQLIndex> indexes = getIndexes(con, tableName, databaseName);
-                            MySQLTable t = new MySQLTable(tableName, databaseColumns, indexes, engine);
-                            for (MySQLColumn c : databaseColumns) {
-                                c.setTable(t);
+                            snapshot.addTable(tableName);
+                            engines.put(tableName, MySQLEngine.get(rs.getString("ENGINE")));
+                        });
+                CatalogSnapshot.scan(con, "select * from information_schema.columns where table_schema = '"
+                        + databaseName + "' ORDER BY TABLE_NAME, ORDINAL_POSITION;", rs -> {
+                            String tableName = rs.getString("TABLE_NAME");
+                            if (snapshot.containsTable(tableName)) {
+                                snapshot.addColumn(tableName, createColumn(rs));
                             }
-                            databaseTables.add(t);
-                        }
-                    }
-                }
-                return new MySQLSchema(databaseTables);
+                        });
+                CatalogSnapshot.scan(con, String.format(
+                        "SELECT TABLE_NAME, INDEX_NAME FROM INFORMATION_SCHEMA.STATISTICS WHERE TABLE_SCHEMA = '%s';",
+                        databaseName), rs -> {
+                            String tableName = rs.getString("TABLE_NAME");
+                            if (snapshot.containsTable(tableName)) {
+                                snapshot.addIndex(tableName, MySQLIndex.create(rs.getString("INDEX_NAME")));
+                            }
+                        });
+                return new MySQLSchema(snapshot.toTables((tableName, columns, indexes) -> new MySQLTable(tableName,
+                        columns, indexes, engines.get(tableName))));
             } catch (SQLIntegrityConstraintViolationException e) {
                 ex = e;
             }
@@ -253,6 +258,43 @@ public class MySQLSchema extends AbstractSchema<MySQLTable> {
         throw new AssertionError(ex);
     }
 
+    /**
+     * Returns a delta that re-reads the columns and indexes of a single table, rather than the whole schema.
+     *
+     * @param globalState
+     *            the state whose connection is used
+     * @param tableName
+     *            the table that was altered
+     *
+     * @return the delta
+     */
+    public static SchemaDelta<MySQLSchema> reloadTable(MySQLGlobalState globalState, String tableName) {
+        return schema -> {
+            MySQLTable table = schema.getDatabaseTable(tableName);
+            if (table == null) {
+                return null;
+            }
+            Connection con = globalState.getConnection();
+            String databaseName = globalState.getDatabaseName();
+            List<MySQLColumn> databaseColumns;
+            List<MySQLIndex> indexes;
+            try {
+                databaseColumns = getTableColumns(con, tableName, databaseName);
+                indexes = getIndexes(con, tableName, databaseName);
+            } catch (SQLIntegrityConstraintViolationException e) {
+                // see fromConnection()
+                return null;
+            }
+            MySQLTable newTable = new MySQLTable(tableName, databaseColumns, indexes, table.getEngine());
+            for (MySQLColumn c : databaseColumns) {
+                c.setTable(newTable);
+            }
+            List<MySQLTable> databaseTables = new ArrayList<>(schema.getDatabaseTables());
+            databaseTables.set(databaseTables.indexOf(table), newTable);
+            return new MySQLSchema(databaseTables);
+        };
+    }
+
     private static List<MySQLIndex> getIndexes(Connection con, String tableName, String databaseName)
             throws SQLException {
         List<MySQLIndex> indexes = new ArrayList<>();
@@ -276,18 +318,21 @@ public class MySQLSchema extends AbstractSchema<MySQLTable> {
             try (ResultSet rs = s.executeQuery("select * from information_schema.columns where table_schema = '"
                     + databaseName + "' AND TABLE_NAME='" + tableName + "'")) {
                 while (rs.next()) {
-                    String columnName = rs.getString("COLUMN_NAME");
-                    String dataType = rs.getString("DATA_TYPE");
-                    int precision = rs.getInt("NUMERIC_PRECISION");
-                    boolean isPrimaryKey = rs.getString("COLUMN_KEY").equals("PRI");
-                    MySQLColumn c = new MySQLColumn(columnName, getColumnType(dataType), isPrimaryKey, precision);
-                    columns.add(c);
+                    columns.add(createColumn(rs));
                 }
             }
         }
         return columns;
     }
 
+    private static MySQLColumn createColumn(ResultSet rs) throws SQLException {
+        String columnName = rs.getString("COLUMN_NAME");
+        String dataType = rs.getString("DATA_TYPE");
+        int precision = rs.getInt("NUMERIC_PRECISION");
+        boolean isPrimaryKey = rs.getString("COLUMN_KEY").equals("PRI");
+        return new MySQLColumn(columnName, getColumnType(dataType), isPrimaryKey, precision);
+    }
+
     public MySQLSchema(List<MySQLTable> databaseTables) {
         super(databaseTables);
     }
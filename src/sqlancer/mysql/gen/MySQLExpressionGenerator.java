@@ -57,7 +57,7 @@ public class MySQLExpressionGenerator extends UntypedExpressionGenerator<MySQLEx
         if (depth >= state.getOptions().getMaxExpressionDepth()) {
             return generateLeafNode();
         }
-        switch (Randomly.fromOptions(Actions.values())) {
+        switch (state.getGrammarWeights().choose(Actions.values())) {
         case COLUMN:
             return generateColumn();
         case LITERAL:
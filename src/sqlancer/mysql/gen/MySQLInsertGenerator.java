@@ -8,6 +8,7 @@ import sqlancer.Randomly;
 import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.QueryAdapter;
+import sqlancer.common.schema.TableModification;
 import sqlancer.mysql.MySQLGlobalState;
 import sqlancer.mysql.MySQLSchema.MySQLColumn;
 import sqlancer.mysql.MySQLSchema.MySQLTable;
@@ -19,6 +20,7 @@ public class MySQLInsertGenerator {
     private final StringBuilder sb = new StringBuilder();
     private final ExpectedErrors errors = new ExpectedErrors();
     private final MySQLGlobalState globalState;
+    private boolean isReplace;
 
     public MySQLInsertGenerator(MySQLGlobalState globalState) {
         this.globalState = globalState;
@@ -35,6 +37,7 @@ public class MySQLInsertGenerator {
 
     private Query generateReplace() {
         sb.append("REPLACE");
+        isReplace = true;
         if (Randomly.getBoolean()) {
             sb.append(" ");
             sb.append(Randomly.fromOptions("LOW_PRIORITY", "DELAYED"));
@@ -92,7 +95,9 @@ public class MySQLInsertGenerator {
         errors.add("Data truncated for column");
         errors.add("cannot be null");
         errors.add("Incorrect decimal value");
-        return new QueryAdapter(sb.toString(), errors);
+        // REPLACE counts both the deleted and the inserted rows
+        return new QueryAdapter(sb.toString(), errors,
+                isReplace ? TableModification.unknown(table.getName()) : TableModification.insert(table.getName()));
     }
 
 }
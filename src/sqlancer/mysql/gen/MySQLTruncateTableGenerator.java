@@ -3,6 +3,7 @@ package sqlancer.mysql.gen;
 import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.QueryAdapter;
+import sqlancer.common.schema.TableModification;
 import sqlancer.mysql.MySQLGlobalState;
 
 public final class MySQLTruncateTableGenerator {
@@ -11,9 +12,11 @@ public final class MySQLTruncateTableGenerator {
     }
 
     public static Query generate(MySQLGlobalState globalState) {
+        String tableName = globalState.getSchema().getRandomTable().getName();
         StringBuilder sb = new StringBuilder("TRUNCATE TABLE ");
-        sb.append(globalState.getSchema().getRandomTable().getName());
-        return new QueryAdapter(sb.toString(), ExpectedErrors.from("doesn't have this option"));
+        sb.append(tableName);
+        return new QueryAdapter(sb.toString(), ExpectedErrors.from("doesn't have this option"),
+                TableModification.unknown(tableName));
     }
 
 }
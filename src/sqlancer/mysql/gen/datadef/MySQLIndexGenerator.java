@@ -115,7 +115,7 @@ public class MySQLIndexGenerator {
         errors.add("out of range");
         errors.add("Data truncated for functional index");
         errors.add("used in key specification without a key length");
-        return new QueryAdapter(string, errors, true);
+        return new QueryAdapter(string, errors, MySQLSchema.reloadTable(globalState, table.getName()));
     }
 
     private void algorithmOption() {
@@ -7,6 +7,7 @@ import java.util.List;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
+import sqlancer.ResultMultiset;
 import sqlancer.mysql.MySQLGlobalState;
 import sqlancer.mysql.MySQLVisitor;
 
@@ -22,23 +23,25 @@ public class MySQLTLPWhereOracle extends MySQLQueryPartitioningBase {
         select.setWhereClause(null);
         String originalQueryString = MySQLVisitor.asString(select);
 
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
-        if (Randomly.getBoolean()) {
-            select.setOrderByExpressions(gen.generateOrderBys());
+        try (ResultMultiset resultSet = ComparatorHelper.getResultSetFirstColumnAsMultiset(originalQueryString, errors,
+                state)) {
+            if (Randomly.getBoolean()) {
+                select.setOrderByExpressions(gen.generateOrderBys());
+            }
+            select.setOrderByExpressions(Collections.emptyList());
+            select.setWhereClause(predicate);
+            String firstQueryString = MySQLVisitor.asString(select);
+            select.setWhereClause(negatedPredicate);
+            String secondQueryString = MySQLVisitor.asString(select);
+            select.setWhereClause(isNullPredicate);
+            String thirdQueryString = MySQLVisitor.asString(select);
+            List<String> combinedString = new ArrayList<>();
+            try (ResultMultiset secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString,
+                    secondQueryString, thirdQueryString, combinedString, Randomly.getBoolean(), state, errors)) {
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, state);
+            }
         }
-        select.setOrderByExpressions(Collections.emptyList());
-        select.setWhereClause(predicate);
-        String firstQueryString = MySQLVisitor.asString(select);
-        select.setWhereClause(negatedPredicate);
-        String secondQueryString = MySQLVisitor.asString(select);
-        select.setWhereClause(isNullPredicate);
-        String thirdQueryString = MySQLVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, Randomly.getBoolean(), state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
     }
 
 }
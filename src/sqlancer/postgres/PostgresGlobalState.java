@@ -10,51 +10,39 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.postgresql.core.BaseConnection;
+import org.postgresql.core.TransactionState;
 
 import sqlancer.GlobalState;
 import sqlancer.Randomly;
+import sqlancer.common.query.QueryAdapter;
 import sqlancer.postgres.ast.PostgresExpression;
+import sqlancer.postgres.gen.PostgresConstraintSolver;
 
 public class PostgresGlobalState extends GlobalState<PostgresOptions, PostgresSchema> {
 
-    public class Tuple {
-        private String var;
-        private int val;
-
-        public Tuple(String var, int val) {
-            this.val = val;
-            this.var = var;
-        }
-
-        public String getVar() {
-            return var;
-        }
-
-        public int getVal() {
-            return val;
-        }
-
-        public boolean varNameIsEqual(String search) {
-            return var.equals(search);
-        }
-    }
-
     public static final char IMMUTABLE = 'i';
     public static final char STABLE = 's';
     public static final char VOLATILE = 'v';
 
+    private static final Pattern PLAN_PROPERTY = Pattern.compile("^\\s*(->\\s*)?[A-Z][A-Za-z ]*: .*");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+\\b");
+
     private List<String> operators = Collections.emptyList();
     private List<String> collates = Collections.emptyList();
     private List<String> opClasses = Collections.emptyList();
     // store check statements and give access to them
     private ArrayList<ArrayList<ArrayList<PostgresExpression>>> checkStatements = new ArrayList<ArrayList<ArrayList<PostgresExpression>>>();
     // store already inserted values
-    private static ArrayList<ArrayList<Tuple>> usedNumbersSat = new ArrayList<ArrayList<Tuple>>();
-    private static ArrayList<ArrayList<Tuple>> usedNumbersNsat = new ArrayList<ArrayList<Tuple>>();
+    private final PostgresUsedValues usedValues = new PostgresUsedValues();
 
     // store and allow filtering by function volatility classifications
     private final Map<String, Character> functionsAndTypes = new HashMap<>();
     private List<Character> allowedFunctionTypes = Arrays.asList(IMMUTABLE, STABLE, VOLATILE);
+    private PostgresConstraintSolver constraintSolver;
+    private boolean serverStatementTimeoutSet;
 
     public PostgresGlobalState() {
     }
@@ -137,6 +125,108 @@ public class PostgresGlobalState extends GlobalState<PostgresOptions, PostgresSc
         return PostgresSchema.fromConnection(getConnection(), getDatabaseName());
     }
 
+    @Override
+    protected Long readSchemaChecksum() throws SQLException {
+        return PostgresSchema.readChecksum(getConnection());
+    }
+
+    @Override
+    public String getResultFingerprintQuery(String query) {
+        return String.format("SELECT COUNT(*), SUM(hashtext(r::text)) FROM (%s) AS r", query);
+    }
+
+    /*
+     * The plan is requested without costs, which depend on the statistics of the tables.
+     */
+    @Override
+    protected String getQueryPlanQuery(String query) {
+        return "EXPLAIN (COSTS OFF) " + query;
+    }
+
+    /**
+     * Normalizes the lines of EXPLAIN into the plan nodes (e.g., "-> Index Scan using i0 on t0"), without their
+     * properties such as filters and index conditions, which contain the predicates and constants of the query. The
+     * numbers of subplans (e.g., "InitPlan 1") are removed.
+     */
+    @Override
+    protected String normalizeQueryPlan(List<List<String>> rows) {
+        StringBuilder sb = new StringBuilder();
+        for (List<String> row : rows) {
+            String line = row.get(0);
+            if (PLAN_PROPERTY.matcher(line).matches()) {
+                continue;
+            }
+            sb.append(NUMBER.matcher(line).replaceAll("?"));
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean supportsPipelinedQueries() {
+        return true;
+    }
+
+    @Override
+    protected long getDefaultStatementTimeoutMs() {
+        // a backstop for the statements executed before statement_timeout is set at the end of prepareTables
+        return serverStatementTimeoutSet ? 0 : 10_000;
+    }
+
+    /**
+     * Sets statement_timeout for the session, after which the server cancels long-running statements itself, so that
+     * the watchdog no longer watches statements unless a timeout is given by
+     * {@link sqlancer.MainOptions#getStatementTimeoutMs()}.
+     *
+     * @param timeoutMs
+     *            the timeout in milliseconds
+     *
+     * @throws Exception
+     *             if executing the statement fails
+     */
+    public void setServerStatementTimeout(int timeoutMs) throws Exception {
+        if (executeStatement(new QueryAdapter("SET SESSION statement_timeout = " + timeoutMs + ";\n"))) {
+            serverStatementTimeoutSet = true;
+        }
+    }
+
+    /**
+     * PgJDBC only fetches a result in batches of the fetch size (using a portal) if autocommit is disabled. If a fetch
+     * size is given and no transaction is in progress, autocommit is therefore disabled for the query and re-enabled
+     * after its result set has been closed. Queries within an explicit transaction are still buffered, since
+     * re-enabling autocommit would commit the transaction.
+     */
+    @Override
+    public Runnable configureResultStreaming(Statement s) throws SQLException {
+        Runnable resetFetchSize = super.configureResultStreaming(s);
+        Connection con = s.getConnection();
+        if (getOptions().getFetchSize() <= 0 || !con.getAutoCommit()
+                || con.unwrap(BaseConnection.class).getTransactionState() != TransactionState.IDLE) {
+            return resetFetchSize;
+        }
+        con.setAutoCommit(false);
+        return () -> {
+            resetFetchSize.run();
+            try {
+                // the query only read from the database, but might have failed and aborted the transaction
+                con.rollback();
+                con.setAutoCommit(true);
+            } catch (SQLException e) {
+                throw new AssertionError(e);
+            }
+        };
+    }
+
+    /**
+     * Whether the rows generated by {@link sqlancer.postgres.gen.PostgresInsertGeneratorLite} can be streamed with COPY
+     * FROM STDIN, which identifies the line of a rejected row.
+     *
+     * @return true if COPY is used, false if the rows are inserted with a multi-row INSERT
+     */
+    public boolean supportsCopy() {
+        return getDmbsSpecificOptions().useCopy;
+    }
+
     public void addFunctionAndType(String functionName, Character functionType) {
         this.functionsAndTypes.put(functionName, functionType);
     }
@@ -157,6 +247,29 @@ public class PostgresGlobalState extends GlobalState<PostgresOptions, PostgresSc
         return this.allowedFunctionTypes;
     }
 
+    /**
+     * Gets the solver that computes the values for the check constraints of this database, which is created on first
+     * use.
+     *
+     * @return the solver
+     */
+    public PostgresConstraintSolver getConstraintSolver() {
+        if (constraintSolver == null) {
+            constraintSolver = new PostgresConstraintSolver();
+        }
+        return constraintSolver;
+    }
+
+    /**
+     * Releases the native resources of the constraint solver, if it has been created.
+     */
+    public void closeConstraintSolver() {
+        if (constraintSolver != null) {
+            constraintSolver.close();
+            constraintSolver = null;
+        }
+    }
+
     public ArrayList<PostgresExpression> getCheckStatementsOfTableNColumnM(int i, int j) {
         return checkStatements.get(i).get(j);
     }
@@ -195,55 +308,7 @@ public class PostgresGlobalState extends GlobalState<PostgresOptions, PostgresSc
         }
     }
 
-    public void initializeUsedNumbersSat(int n) {
-        for (int i = 0; i < n; i++) {
-            usedNumbersSat.add(new ArrayList<Tuple>());
-        }
-    }
-
-    public void addUsedNumberSat(int i, String var, int val) {
-        boolean dup = false;
-        ArrayList<Tuple> workset = usedNumbersSat.get(i);
-        // check for duplicates
-        for (Tuple t : workset) {
-            if (t.var.equals(var) && t.val == val) {
-                dup = true;
-            }
-        }
-        if (!dup) {
-            workset.add(new Tuple(var, val));
-        }
-
-    }
-
-    // returns the used numbers of column n
-    public ArrayList<Tuple> getUsedNumbersSat(int i) {
-        return usedNumbersSat.get(i);
-    }
-
-    public void initializeUsedNumbersNsat(int n) {
-        for (int i = 0; i < n; i++) {
-            usedNumbersNsat.add(new ArrayList<Tuple>());
-        }
-    }
-
-    public void addUsedNumberNsat(int i, String var, int val) {
-        boolean dup = false;
-        ArrayList<Tuple> workset = usedNumbersNsat.get(i);
-        // check for duplicates
-        for (Tuple t : workset) {
-            if (t.var.equals(var) && t.val == val) {
-                dup = true;
-            }
-        }
-        if (!dup) {
-            workset.add(new Tuple(var, val));
-        }
-
-    }
-
-    // returns the used numbers of column n
-    public ArrayList<Tuple> getUsedNumbersNsat(int i) {
-        return usedNumbersNsat.get(i);
+    public PostgresUsedValues getUsedValues() {
+        return usedValues;
     }
 }
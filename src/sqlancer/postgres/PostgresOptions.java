@@ -56,6 +56,9 @@ public class PostgresOptions implements DBMSSpecificOptions<PostgresOracleFactor
     @Parameter(names = "--number-of-values", description = "Specifies how many values per insert are added")
     public int nrValues = 5;
 
+    @Parameter(names = "--use-copy", description = "Specifies whether the values generated for the check constraints are inserted with COPY FROM STDIN rather than with a multi-row INSERT", arity = 1)
+    public boolean useCopy = true;
+
     @Parameter(names = "--number-of-tables", description = "Specifies how many tables a database should generate")
     public int nrTables = 4;
 
@@ -13,6 +13,7 @@ import java.util.concurrent.TimeUnit;
 import com.google.common.base.Stopwatch;
 
 import sqlancer.AbstractAction;
+import sqlancer.DatabasePool;
 import sqlancer.IgnoreMeException;
 import sqlancer.Randomly;
 import sqlancer.SQLProviderAdapter;
@@ -22,6 +23,7 @@ import sqlancer.common.query.QueryAdapter;
 import sqlancer.common.query.QueryProvider;
 import sqlancer.common.query.SQLancerResultSet;
 import sqlancer.postgres.PostgresOptions.PostgresOracleFactory;
+import sqlancer.postgres.PostgresSchema.PostgresTable.TableType;
 import sqlancer.postgres.gen.PostgresAlterTableGenerator;
 import sqlancer.postgres.gen.PostgresAnalyzeGenerator;
 import sqlancer.postgres.gen.PostgresClusterGenerator;
@@ -218,6 +220,16 @@ public class PostgresProvider extends SQLProviderAdapter<PostgresGlobalState, Po
 
     }
 
+    @Override
+    public void generateAndTestDatabase(PostgresGlobalState globalState) throws Exception {
+        try {
+            super.generateAndTestDatabase(globalState);
+        } finally {
+            globalState.closeConstraintSolver();
+            globalState.getUsedValues().clear();
+        }
+    }
+
     @Override
     public void generateDatabase(PostgresGlobalState globalState) throws Exception {
         readFunctions(globalState);
@@ -271,26 +283,52 @@ public class PostgresProvider extends SQLProviderAdapter<PostgresGlobalState, Po
             throw new AssertionError(e);
         }
         String entryDatabaseName = entryPath.substring(1);
-        databaseName = globalState.getDatabaseName();
-        Connection con = DriverManager.getConnection("jdbc:" + entryURL, username, password);
+        String entryDatabaseURL = "jdbc:" + entryURL;
+        String entryUsername = username;
+        String entryPassword = password;
+        if (usesDatabasePool(globalState)) {
+            databaseName = DatabasePool.getEmptyDatabase(globalState, name -> {
+                try (Connection con = DriverManager.getConnection(entryDatabaseURL, entryUsername, entryPassword);
+                        Statement s = con.createStatement()) {
+                    s.execute("DROP DATABASE IF EXISTS " + name);
+                    s.execute("CREATE DATABASE " + name);
+                }
+            });
+            createDatabaseCommand = "CREATE DATABASE " + databaseName;
+        } else {
+            databaseName = globalState.getDatabaseName();
+            createDatabaseCommand = getCreateDatabaseCommand(globalState);
+            try (Connection con = DriverManager.getConnection(entryDatabaseURL, entryUsername, entryPassword)) {
+                try (Statement s = con.createStatement()) {
+                    s.execute("DROP DATABASE IF EXISTS " + databaseName);
+                }
+                try (Statement s = con.createStatement()) {
+                    s.execute(createDatabaseCommand);
+                }
+            }
+        }
         globalState.getState().logStatement(String.format("\\c %s;", entryDatabaseName));
         globalState.getState().logStatement("DROP DATABASE IF EXISTS " + databaseName);
-        createDatabaseCommand = getCreateDatabaseCommand(globalState);
         globalState.getState().logStatement(createDatabaseCommand);
-        try (Statement s = con.createStatement()) {
-            s.execute("DROP DATABASE IF EXISTS " + databaseName);
-        }
-        try (Statement s = con.createStatement()) {
-            s.execute(createDatabaseCommand);
-        }
-        con.close();
         int databaseIndex = entryURL.indexOf(entryPath) + 1;
         String preDatabaseName = entryURL.substring(0, databaseIndex);
         String postDatabaseName = entryURL.substring(databaseIndex + entryDatabaseName.length());
         testURL = preDatabaseName + databaseName + postDatabaseName;
         globalState.getState().logStatement(String.format("\\c %s;", databaseName));
-        con = DriverManager.getConnection("jdbc:" + testURL, username, password);
-        return con;
+        return DriverManager.getConnection("jdbc:" + testURL, username, password);
+    }
+
+    /**
+     * Returns whether the test database can be taken from a {@link DatabasePool}, which only creates databases with the
+     * default settings.
+     *
+     * @param globalState
+     *            the state of the database to be created
+     *
+     * @return whether the database pool can be used
+     */
+    protected boolean usesDatabasePool(PostgresGlobalState globalState) {
+        return !((PostgresOptions) globalState.getDmbsSpecificOptions()).testCollations;
     }
 
     protected void readFunctions(PostgresGlobalState globalState) throws SQLException {
@@ -325,7 +363,7 @@ public class PostgresProvider extends SQLProviderAdapter<PostgresGlobalState, Po
                 });
         se.executeStatements();
         globalState.executeStatement(new QueryAdapter("COMMIT", true));
-        globalState.executeStatement(new QueryAdapter("SET SESSION statement_timeout = 5000;\n"));
+        globalState.setServerStatementTimeout(5000);
     }
 
     private String getCreateDatabaseCommand(PostgresGlobalState state) {
@@ -347,6 +385,21 @@ public class PostgresProvider extends SQLProviderAdapter<PostgresGlobalState, Po
         return sb.toString();
     }
 
+    @Override
+    public Connection createReadConnection(PostgresGlobalState globalState) throws SQLException {
+        if (globalState.getSchema().getDatabaseTables().stream()
+                .anyMatch(t -> t.getTableType() == TableType.TEMPORARY)) {
+            // temporary tables and views are only visible to the main connection
+            return null;
+        }
+        // the transactions of the generation phase are committed by prepareTables
+        Connection con = DriverManager.getConnection(globalState.getConnection().getMetaData().getURL(), username,
+                password);
+        replaySessionStatements(con, globalState,
+                s -> s.startsWith("SET ") || s.startsWith("RESET ") || s.startsWith("DISCARD "));
+        return con;
+    }
+
     @Override
     public String getDBMSName() {
         return "postgres";
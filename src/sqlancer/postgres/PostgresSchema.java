@@ -217,50 +217,160 @@ public class PostgresSchema extends AbstractSchema<PostgresTable> {
 
     }
 
-    public static PostgresSchema fromConnection(Connection con, String databaseName) throws SQLException {
-        try {
-            List<PostgresTable> databaseTables = new ArrayList<>();
-            try (Statement s = con.createStatement()) {
-                try (ResultSet rs = s.executeQuery(
-                        "SELECT table_name, table_schema, table_type, is_insertable_into FROM information_schema.tables WHERE table_schema='public' OR table_schema LIKE 'pg_temp_%' ORDER BY table_name;")) {
-                    while (rs.next()) {
-                        String tableName = rs.getString("table_name");
-                        String tableTypeSchema = rs.getString("table_schema");
-                        boolean isInsertable = rs.getBoolean("is_insertable_into");
-                        // TODO: also check insertable
-                        // TODO: insert into view?
-                        boolean isView = tableName.startsWith("v"); // tableTypeStr.contains("VIEW") ||
-                                                                    // tableTypeStr.contains("LOCAL TEMPORARY") &&
-                                                                    // !isInsertable;
-                        PostgresTable.TableType tableType = getTableType(tableTypeSchema);
-                        List<PostgresColumn> databaseColumns = getTableColumns(con, tableName);
-                        List<PostgresIndex> indexes = getIndexes(con, tableName);
-                        List<PostgresStatisticsObject> statistics = getStatistics(con);
-                        PostgresTable t = new PostgresTable(tableName, databaseColumns, indexes, tableType, statistics,
-                                isView, isInsertable);
-                        for (PostgresColumn c : databaseColumns) {
-                            c.setTable(t);
-                        }
-                        databaseTables.add(t);
-                    }
-                }
+    /**
+     * Computes a checksum over the relations, columns, and statistics objects that {@link #fromConnection} reads, using
+     * a single query.
+     *
+     * @param con
+     *            the connection to the database
+     *
+     * @return the checksum
+     *
+     * @throws SQLException
+     *             if the checksum cannot be computed
+     */
+    public static long readChecksum(Connection con) throws SQLException {
+        try (Statement s = con.createStatement()) {
+            try (ResultSet rs = s.executeQuery("SELECT md5(COALESCE(string_agg(c.relname || ':' || c.relkind || ':' "
+                    + "|| COALESCE(a.attname || ':' || a.atttypid, ''), ',' ORDER BY c.relname, a.attnum), '') "
+                    + "|| (SELECT COALESCE(string_agg(stxname, ',' ORDER BY stxname), '') FROM pg_statistic_ext)) "
+                    + "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace LEFT JOIN pg_attribute a "
+                    + "ON a.attrelid = c.oid AND a.attnum > 0 AND NOT a.attisdropped "
+                    + "WHERE n.nspname = 'public' OR n.nspname LIKE 'pg_temp_%';")) {
+                rs.next();
+                return Long.parseUnsignedLong(rs.getString(1).substring(0, 16), 16);
             }
-            return new PostgresSchema(databaseTables, databaseName);
-        } catch (SQLIntegrityConstraintViolationException e) {
-            throw new AssertionError(e);
         }
     }
 
-    protected static List<PostgresStatisticsObject> getStatistics(Connection con) throws SQLException {
-        List<PostgresStatisticsObject> statistics = new ArrayList<>();
+    public static PostgresSchema fromConnection(Connection con, String databaseName) throws SQLException {
+        return new PostgresSchema(loadTables(con, null, null), databaseName);
+    }
+
+    /**
+     * Consumes the result of an additional catalog query that is sent together with the queries of
+     * {@link PostgresSchema#loadTables}.
+     */
+    @FunctionalInterface
+    protected interface CatalogResultHandler {
+
+        void handle(ResultSet rs) throws SQLException;
+
+    }
+
+    /**
+     * Reads the tables of the database together with their columns, indexes, and statistics objects in a single round
+     * trip. The catalog queries are sent as one multi-statement query, and the tables are assembled from their results
+     * on the client side.
+     *
+     * @param con
+     *            the connection to the database
+     * @param additionalQuery
+     *            a query that is appended to the catalog queries (e.g., to read DBMS-specific table properties), or
+     *            null
+     * @param handler
+     *            consumes the result of the additional query
+     *
+     * @return the tables, ordered by their names
+     *
+     * @throws SQLException
+     *             if reading the catalog fails
+     */
+    protected static List<PostgresTable> loadTables(Connection con, String additionalQuery,
+            CatalogResultHandler handler) throws SQLException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("SELECT table_name, table_schema, is_insertable_into FROM information_schema.tables "
+                + "WHERE table_schema='public' OR table_schema LIKE 'pg_temp_%' ORDER BY table_name;");
+        sb.append("SELECT table_schema, table_name, column_name, data_type FROM information_schema.columns "
+                + "WHERE table_schema='public' OR table_schema LIKE 'pg_temp_%' ORDER BY column_name;");
+        sb.append("SELECT schemaname, tablename, indexname FROM pg_indexes "
+                + "WHERE schemaname='public' OR schemaname LIKE 'pg_temp_%' ORDER BY indexname;");
+        sb.append("SELECT stxname FROM pg_statistic_ext ORDER BY stxname;");
+        if (additionalQuery != null) {
+            sb.append(additionalQuery);
+        }
         try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery("SELECT stxname FROM pg_statistic_ext ORDER BY stxname;")) {
+            s.execute(sb.toString());
+            List<CatalogTable> catalogTables = new ArrayList<>();
+            try (ResultSet rs = s.getResultSet()) {
+                while (rs.next()) {
+                    catalogTables.add(new CatalogTable(rs.getString("table_name"), rs.getString("table_schema"),
+                            rs.getBoolean("is_insertable_into")));
+                }
+            }
+            Map<String, List<PostgresColumn>> columns = new HashMap<>();
+            s.getMoreResults();
+            try (ResultSet rs = s.getResultSet()) {
+                while (rs.next()) {
+                    PostgresColumn c = new PostgresColumn(rs.getString("column_name"),
+                            getColumnType(rs.getString("data_type")));
+                    columns.computeIfAbsent(getQualifiedName(rs.getString("table_schema"), rs.getString("table_name")),
+                            n -> new ArrayList<>()).add(c);
+                }
+            }
+            Map<String, List<PostgresIndex>> indexes = new HashMap<>();
+            s.getMoreResults();
+            try (ResultSet rs = s.getResultSet()) {
+                while (rs.next()) {
+                    String indexName = rs.getString("indexname");
+                    if (indexName.length() != 2) {
+                        // FIXME: implement cleanly
+                        continue; // skip internal indexes
+                    }
+                    indexes.computeIfAbsent(getQualifiedName(rs.getString("schemaname"), rs.getString("tablename")),
+                            n -> new ArrayList<>()).add(PostgresIndex.create(indexName));
+                }
+            }
+            List<PostgresStatisticsObject> statistics = new ArrayList<>();
+            s.getMoreResults();
+            try (ResultSet rs = s.getResultSet()) {
                 while (rs.next()) {
                     statistics.add(new PostgresStatisticsObject(rs.getString("stxname")));
                 }
             }
+            if (additionalQuery != null) {
+                s.getMoreResults();
+                try (ResultSet rs = s.getResultSet()) {
+                    handler.handle(rs);
+                }
+            }
+            List<PostgresTable> databaseTables = new ArrayList<>();
+            for (CatalogTable catalogTable : catalogTables) {
+                String tableName = catalogTable.name;
+                String qualifiedName = getQualifiedName(catalogTable.schemaName, tableName);
+                // TODO: insert into view?
+                boolean isView = tableName.startsWith("v");
+                List<PostgresColumn> databaseColumns = columns.getOrDefault(qualifiedName, new ArrayList<>());
+                PostgresTable t = new PostgresTable(tableName, databaseColumns,
+                        indexes.getOrDefault(qualifiedName, new ArrayList<>()), getTableType(catalogTable.schemaName),
+                        statistics, isView, catalogTable.isInsertable);
+                for (PostgresColumn c : databaseColumns) {
+                    c.setTable(t);
+                }
+                databaseTables.add(t);
+            }
+            return databaseTables;
+        } catch (SQLIntegrityConstraintViolationException e) {
+            throw new AssertionError(e);
         }
-        return statistics;
+    }
+
+    private static final class CatalogTable {
+
+        private final String name;
+        private final String schemaName;
+        private final boolean isInsertable;
+
+        CatalogTable(String name, String schemaName, boolean isInsertable) {
+            this.name = name;
+            this.schemaName = schemaName;
+            this.isInsertable = isInsertable;
+        }
+
+    }
+
+    private static String getQualifiedName(String schemaName, String tableName) {
+        return schemaName + "." + tableName;
     }
 
     protected static PostgresTable.TableType getTableType(String tableTypeStr) throws AssertionError {
@@ -275,41 +385,6 @@ public class PostgresSchema extends AbstractSchema<PostgresTable> {
         return tableType;
     }
 
-    protected static List<PostgresIndex> getIndexes(Connection con, String tableName) throws SQLException {
-        List<PostgresIndex> indexes = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery(String
-                    .format("SELECT indexname FROM pg_indexes WHERE tablename='%s' ORDER BY indexname;", tableName))) {
-                while (rs.next()) {
-                    String indexName = rs.getString("indexname");
-                    if (indexName.length() != 2) {
-                        // FIXME: implement cleanly
-                        continue; // skip internal indexes
-                    }
-                    indexes.add(PostgresIndex.create(indexName));
-                }
-            }
-        }
-        return indexes;
-    }
-
-    protected static List<PostgresColumn> getTableColumns(Connection con, String tableName) throws SQLException {
-        List<PostgresColumn> columns = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s
-                    .executeQuery("select column_name, data_type from INFORMATION_SCHEMA.COLUMNS where table_name = '"
-                            + tableName + "' ORDER BY column_name")) {
-                while (rs.next()) {
-                    String columnName = rs.getString("column_name");
-                    String dataType = rs.getString("data_type");
-                    PostgresColumn c = new PostgresColumn(columnName, getColumnType(dataType));
-                    columns.add(c);
-                }
-            }
-        }
-        return columns;
-    }
-
     public PostgresSchema(List<PostgresTable> databaseTables, String databaseName) {
         super(databaseTables);
         this.databaseName = databaseName;
@@ -0,0 +1,154 @@
+package sqlancer.postgres;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The values that {@link sqlancer.postgres.gen.PostgresInsertGeneratorLite} has inserted into the INT columns of a
+ * database, separately for the values that satisfy the check constraints of a column and those that violate them, so
+ * that each value is inserted only once. A store is owned by a single {@link PostgresGlobalState}, and thus discarded
+ * with the database; it is not thread safe.
+ */
+public final class PostgresUsedValues {
+
+    private final Map<String, IntSet> satisfying = new HashMap<>();
+    private final Map<String, IntSet> violating = new HashMap<>();
+
+    /**
+     * Gets the used values of a column.
+     *
+     * @param column
+     *            the fully-qualified name of the column (e.g., "t0.c0")
+     * @param sat
+     *            whether to get the values that satisfy the check constraints of the column, rather than those that
+     *            violate them
+     *
+     * @return the values, to which further values can be added
+     */
+    public IntSet get(String column, boolean sat) {
+        return (sat ? satisfying : violating).computeIfAbsent(column, c -> new IntSet());
+    }
+
+    public void clear() {
+        satisfying.clear();
+        violating.clear();
+    }
+
+    /**
+     * A set of ints, stored as its maximal ranges of consecutive values in a single sorted array of primitive
+     * bounds, so that it does not box its values, takes two ints per range rather than per value, and can count the
+     * values in a range, and retrieve the ranges, without sorting. Looking up a value takes time logarithmic in the
+     * number of ranges; adding a value that neither extends nor joins existing ranges shifts the ranges above it.
+     */
+    public static final class IntSet {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        // the lower bound of the first range, its upper bound, the lower bound of the second range, and so on
+        private int[] bounds = new int[INITIAL_CAPACITY * 2];
+        private int nrRanges;
+        private int size;
+
+        /**
+         * Finds the first range whose upper bound is at least the given value.
+         *
+         * @param value
+         *            the value
+         *
+         * @return the index of the range, or the number of ranges if there is no such range
+         */
+        private int findRange(long value) {
+            int low = 0;
+            int high = nrRanges;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (bounds[mid * 2 + 1] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        public boolean contains(int value) {
+            int i = findRange(value);
+            return i < nrRanges && bounds[i * 2] <= value;
+        }
+
+        /**
+         * @param value
+         *            the value to add
+         *
+         * @return whether the set did not contain the value
+         */
+        public boolean add(int value) {
+            int i = findRange(value);
+            if (i < nrRanges && bounds[i * 2] <= value) {
+                return false;
+            }
+            // the ranges below i end before the value and range i starts after it, so neither check overflows
+            boolean extendsBelow = i > 0 && bounds[i * 2 - 1] == value - 1;
+            boolean extendsAbove = i < nrRanges && bounds[i * 2] == value + 1;
+            if (extendsBelow && extendsAbove) {
+                bounds[i * 2 - 1] = bounds[i * 2 + 1];
+                System.arraycopy(bounds, i * 2 + 2, bounds, i * 2, (nrRanges - i - 1) * 2);
+                nrRanges--;
+            } else if (extendsBelow) {
+                bounds[i * 2 - 1] = value;
+            } else if (extendsAbove) {
+                bounds[i * 2] = value;
+            } else {
+                if (nrRanges * 2 == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                }
+                System.arraycopy(bounds, i * 2, bounds, i * 2 + 2, (nrRanges - i) * 2);
+                bounds[i * 2] = value;
+                bounds[i * 2 + 1] = value;
+                nrRanges++;
+            }
+            size++;
+            return true;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Counts the values in the range [from, to], in time logarithmic in the number of ranges of consecutive values
+         * plus linear in the number of those ranges that overlap [from, to].
+         *
+         * @param from
+         *            the lower bound
+         * @param to
+         *            the upper bound
+         *
+         * @return the number of values in the range
+         */
+        public int countBetween(long from, long to) {
+            if (from > to) {
+                return 0;
+            }
+            long count = 0;
+            for (int i = findRange(from); i < nrRanges && bounds[i * 2] <= to; i++) {
+                count += Math.min(bounds[i * 2 + 1], to) - Math.max(bounds[i * 2], from) + 1;
+            }
+            return (int) count;
+        }
+
+        /**
+         * Gets the maximal ranges of consecutive values in the set, which allows excluding the values with one
+         * constraint per range.
+         *
+         * @return the inclusive bounds of the ranges in ascending order (i.e., the lower bound of the first range, its
+         *         upper bound, the lower bound of the second range, and so on)
+         */
+        public int[] getRanges() {
+            return Arrays.copyOf(bounds, nrRanges * 2);
+        }
+
+    }
+
+}
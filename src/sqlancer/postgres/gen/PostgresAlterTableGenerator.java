@@ -1,5 +1,6 @@
 package sqlancer.postgres.gen;
 
+import java.util.EnumSet;
 import java.util.List;
 
 import sqlancer.IgnoreMeException;
@@ -7,6 +8,7 @@ import sqlancer.Randomly;
 import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.QueryAdapter;
+import sqlancer.common.schema.SchemaDelta;
 import sqlancer.postgres.PostgresGlobalState;
 import sqlancer.postgres.PostgresSchema.PostgresColumn;
 import sqlancer.postgres.PostgresSchema.PostgresDataType;
@@ -52,6 +54,18 @@ public class PostgresAlterTableGenerator {
         REPLICA_IDENTITY
     }
 
+    /**
+     * The actions that do not affect the tables, columns, and indexes that {@link sqlancer.postgres.PostgresSchema}
+     * reads.
+     */
+    private static final EnumSet<Action> SCHEMA_PRESERVING_ACTIONS = EnumSet.of(Action.ALTER_COLUMN_SET_DROP_DEFAULT,
+            Action.ALTER_COLUMN_SET_DROP_NULL, Action.ALTER_COLUMN_SET_STATISTICS,
+            Action.ALTER_COLUMN_SET_ATTRIBUTE_OPTION, Action.ALTER_COLUMN_RESET_ATTRIBUTE_OPTION,
+            Action.ALTER_COLUMN_SET_STORAGE, Action.VALIDATE_CONSTRAINT, Action.DISABLE_ROW_LEVEL_SECURITY,
+            Action.ENABLE_ROW_LEVEL_SECURITY, Action.FORCE_ROW_LEVEL_SECURITY, Action.NO_FORCE_ROW_LEVEL_SECURITY,
+            Action.CLUSTER_ON, Action.SET_WITHOUT_CLUSTER, Action.SET_WITHOUT_OIDS, Action.SET_LOGGED_UNLOGGED,
+            Action.NOT_OF, Action.OWNER_TO, Action.REPLICA_IDENTITY);
+
     public PostgresAlterTableGenerator(PostgresTable randomTable, PostgresGlobalState globalState,
             boolean generateOnlyKnown) {
         this.randomTable = randomTable;
@@ -368,6 +382,9 @@ public class PostgresAlterTableGenerator {
             }
         }
 
+        if (SCHEMA_PRESERVING_ACTIONS.containsAll(action)) {
+            return new QueryAdapter(sb.toString(), errors, SchemaDelta.unchanged());
+        }
         return new QueryAdapter(sb.toString(), errors, true);
     }
 
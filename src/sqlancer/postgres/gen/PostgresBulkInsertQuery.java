@@ -0,0 +1,438 @@
+package sqlancer.postgres.gen;
+
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+
+import sqlancer.GlobalState;
+import sqlancer.common.query.ExpectedErrors;
+import sqlancer.common.query.Query;
+import sqlancer.common.query.StatementCache;
+import sqlancer.common.query.StatementWatchdog;
+import sqlancer.postgres.PostgresUsedValues.IntSet;
+import sqlancer.postgres.PostgresVisitor;
+import sqlancer.postgres.ast.PostgresConstant;
+import sqlancer.postgres.ast.PostgresExpression;
+
+/**
+ * Inserts the rows that {@link PostgresInsertGeneratorLite} has generated for one or more tables. The rows of a table
+ * are streamed with COPY FROM STDIN, which the server parses and plans once for all rows, or, if the DBMS does not
+ * support COPY or a value cannot be written in its text format, inserted with a single multi-row INSERT.
+ *
+ * Both statements insert either all rows or none, so a rejected row is identified and the other rows are inserted
+ * again: a failed COPY reports the line of the rejected row, and a failed multi-row INSERT is repeated with one INSERT
+ * per row. The values of the constrained columns are recorded as used only for the rows that were accepted, so that
+ * the used values do not include the values of rows that were never checked (e.g., since the transaction had been
+ * aborted). Of a row that was rejected by a check constraint, only the value of the column whose check constraint
+ * failed is recorded, since the check constraints of the other columns might not have been evaluated.
+ *
+ * The query is logged as one INSERT per row, which reproduces the outcome of each row.
+ */
+public class PostgresBulkInsertQuery extends Query {
+
+    private static final Pattern COPY_LINE = Pattern.compile("^COPY [^,]+, line (\\d+)");
+
+    private final List<Table> tables = new ArrayList<>();
+    private final ExpectedErrors errors;
+    private final boolean useCopy;
+
+    /**
+     * @param errors
+     *            the errors that the statements are expected to cause
+     * @param useCopy
+     *            whether the rows are streamed with COPY, rather than inserted with a multi-row INSERT
+     */
+    public PostgresBulkInsertQuery(ExpectedErrors errors, boolean useCopy) {
+        this.errors = errors;
+        this.useCopy = useCopy;
+    }
+
+    /**
+     * Adds a table whose rows are inserted, after those of the previously added tables.
+     *
+     * @param name
+     *            the name of the table
+     * @param nrRows
+     *            the number of rows, which is the number of values of each column
+     *
+     * @return the table, to which the values of the inserted columns are added
+     */
+    public Table addTable(String name, int nrRows) {
+        Table table = new Table(name, nrRows);
+        tables.add(table);
+        return table;
+    }
+
+    /**
+     * The values of the rows that are inserted into a table, column by column.
+     */
+    public static final class Table {
+
+        private final String name;
+        private final int nrRows;
+        private final List<String> columns = new ArrayList<>();
+        private final List<List<PostgresExpression>> values = new ArrayList<>();
+        private final List<IntSet> usedValues = new ArrayList<>();
+
+        private Table(String name, int nrRows) {
+            this.name = name;
+            this.nrRows = nrRows;
+        }
+
+        /**
+         * Adds an inserted column.
+         *
+         * @param column
+         *            the name of the column
+         * @param columnValues
+         *            the values of the column, one per row
+         * @param used
+         *            the set to which the values of the accepted rows are added, which requires the values to be
+         *            INT constants, or null if the values are not recorded
+         */
+        public void addColumn(String column, List<PostgresExpression> columnValues, IntSet used) {
+            if (columnValues.size() != nrRows) {
+                throw new AssertionError(columnValues.size());
+            }
+            columns.add(column);
+            values.add(columnValues);
+            usedValues.add(used);
+        }
+
+        private String getColumnList() {
+            return columns.stream().collect(Collectors.joining(", "));
+        }
+
+        public String getInsert(int row) {
+            return String.format("INSERT INTO %s(%s) VALUES(%s)", name, getColumnList(), getValueList(row));
+        }
+
+        public String getMultiRowInsert(List<Integer> rows) {
+            return String.format("INSERT INTO %s(%s) VALUES%s", name, getColumnList(),
+                    rows.stream().map(row -> "(" + getValueList(row) + ")").collect(Collectors.joining(", ")));
+        }
+
+        private String getValueList(int row) {
+            return values.stream().map(v -> PostgresVisitor.asString(v.get(row))).collect(Collectors.joining(", "));
+        }
+
+        public String getCopyStatement() {
+            return String.format("COPY %s(%s) FROM STDIN", name, getColumnList());
+        }
+
+        /**
+         * Gets the rows in the text format of COPY, with one line per row.
+         *
+         * @param rows
+         *            the indexes of the rows
+         *
+         * @return the lines of the rows
+         */
+        public String getCopyData(List<Integer> rows) {
+            StringBuilder sb = new StringBuilder();
+            for (int row : rows) {
+                for (int i = 0; i < values.size(); i++) {
+                    if (i != 0) {
+                        sb.append('\t');
+                    }
+                    appendCopyValue(sb, (PostgresConstant) values.get(i).get(row));
+                }
+                sb.append('\n');
+            }
+            return sb.toString();
+        }
+
+        private static void appendCopyValue(StringBuilder sb, PostgresConstant value) {
+            if (value.isNull()) {
+                sb.append("\\N");
+                return;
+            }
+            for (char c : value.getUnquotedTextRepresentation().toCharArray()) {
+                switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+                }
+            }
+        }
+
+        /*
+         * The values of types such as DECIMAL are not constants whose text is known, and the values of some check
+         * constraints are other expressions.
+         */
+        private boolean supportsCopy() {
+            for (List<PostgresExpression> columnValues : values) {
+                for (PostgresExpression value : columnValues) {
+                    if (!(value instanceof PostgresConstant)) {
+                        return false;
+                    }
+                    PostgresConstant constant = (PostgresConstant) value;
+                    if (!constant.isNull() && constant.getUnquotedTextRepresentation() == null) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private List<Integer> getRows() {
+            List<Integer> rows = new ArrayList<>(nrRows);
+            for (int i = 0; i < nrRows; i++) {
+                rows.add(i);
+            }
+            return rows;
+        }
+
+        private void recordRow(int row) {
+            for (int i = 0; i < values.size(); i++) {
+                recordValue(i, row);
+            }
+        }
+
+        /*
+         * The check constraints are named after their column by PostgresTableGeneratorLite.
+         */
+        private void recordRejectedRow(int row, String constraint) {
+            for (int i = 0; i < values.size(); i++) {
+                if (constraint.startsWith(PostgresTableGeneratorLite.getCheckConstraintPrefix(name, columns.get(i)))) {
+                    recordValue(i, row);
+                }
+            }
+        }
+
+        private void recordValue(int column, int row) {
+            if (usedValues.get(column) != null) {
+                usedValues.get(column).add((int) ((PostgresConstant) values.get(column).get(row)).asInt());
+            }
+        }
+
+    }
+
+    /**
+     * Gets the row that a failed COPY rejected from the context of the error (e.g., "COPY t0, line 2: ...").
+     *
+     * @param where
+     *            the context of the error, which might be null
+     *
+     * @return the (one-based) line of the rejected row, or -1 if the context does not identify the row
+     */
+    public static int getRejectedLine(String where) {
+        if (where == null) {
+            return -1;
+        }
+        Matcher m = COPY_LINE.matcher(where);
+        return m.find() ? Integer.parseInt(m.group(1)) : -1;
+    }
+
+    /**
+     * Gets the check constraint that rejected a row.
+     *
+     * @param e
+     *            the error of the statement that inserted the row
+     *
+     * @return the name of the constraint, or null if the row was not rejected by a check constraint
+     */
+    public static String getViolatedCheckConstraint(SQLException e) {
+        if (e.getMessage() == null || !e.getMessage().contains("violates check constraint")
+                || !(e instanceof PSQLException)) {
+            return null;
+        }
+        ServerErrorMessage message = ((PSQLException) e).getServerErrorMessage();
+        return message == null ? null : message.getConstraint();
+    }
+
+    private static void recordRejectedRow(Table table, int row, SQLException e) {
+        String constraint = getViolatedCheckConstraint(e);
+        if (constraint != null) {
+            table.recordRejectedRow(row, constraint);
+        }
+    }
+
+    @Override
+    public boolean execute(GlobalState<?, ?> globalState, String... fills) throws Exception {
+        boolean success = true;
+        for (Table table : tables) {
+            if (useCopy && table.supportsCopy()) {
+                success &= copy(globalState, table);
+            } else {
+                success &= insertAll(globalState, table);
+            }
+        }
+        return success;
+    }
+
+    /*
+     * The driver does not expose the statement of a COPY, which is therefore cancelled by a cancel request for the
+     * connection, since prepareTables inserts rows before statement_timeout is set.
+     */
+    private boolean copy(GlobalState<?, ?> globalState, Table table) throws Exception {
+        BaseConnection con = globalState.getConnection().unwrap(BaseConnection.class);
+        CopyManager copyManager = new CopyManager(con);
+        String copy = table.getCopyStatement();
+        List<Integer> rows = table.getRows();
+        boolean success = true;
+        while (!rows.isEmpty()) {
+            StatementWatchdog.Watch watch = globalState.watchStatement(() -> cancel(con), copy);
+            try {
+                copyManager.copyIn(copy, new StringReader(table.getCopyData(rows)));
+            } catch (SQLException e) {
+                watch.close();
+                globalState.getMetrics().incrementUnsuccessfulStatements();
+                recordOutcome(globalState, false);
+                if (watch.handleCancel()) {
+                    // the rows of a COPY that timed out are not inserted again
+                    return false;
+                }
+                checkException(copy, e);
+                success = false;
+                ServerErrorMessage message = e instanceof PSQLException
+                        ? ((PSQLException) e).getServerErrorMessage() : null;
+                int line = getRejectedLine(message == null ? null : message.getWhere());
+                if (line < 1 || line > rows.size()) {
+                    // e.g., the transaction has been aborted before
+                    insertEach(globalState, table, rows);
+                    return false;
+                }
+                recordRejectedRow(table, rows.remove(line - 1), e);
+                continue;
+            }
+            watch.close();
+            // the COPY might have been cancelled just before it finished
+            watch.handleCancel();
+            globalState.getMetrics().incrementSuccessfulStatements();
+            recordOutcome(globalState, true);
+            for (int row : rows) {
+                table.recordRow(row);
+            }
+            break;
+        }
+        return success;
+    }
+
+    private static void cancel(BaseConnection con) {
+        try {
+            con.cancelQuery();
+        } catch (SQLException e) {
+            // the COPY might have finished in the meantime
+        }
+    }
+
+    private boolean insertAll(GlobalState<?, ?> globalState, Table table) throws SQLException {
+        List<Integer> rows = table.getRows();
+        String insert = table.getMultiRowInsert(rows);
+        SQLException e = executeStatement(globalState, insert);
+        if (e == null) {
+            for (int row : rows) {
+                table.recordRow(row);
+            }
+            return true;
+        }
+        if (rows.size() == 1) {
+            recordRejectedRow(table, rows.get(0), e);
+        } else {
+            insertEach(globalState, table, rows);
+        }
+        return false;
+    }
+
+    private boolean insertEach(GlobalState<?, ?> globalState, Table table, List<Integer> rows)
+            throws SQLException {
+        boolean success = true;
+        for (int row : rows) {
+            SQLException e = executeStatement(globalState, table.getInsert(row));
+            if (e == null) {
+                table.recordRow(row);
+            } else {
+                recordRejectedRow(table, row, e);
+            }
+            success &= e == null;
+        }
+        return success;
+    }
+
+    /*
+     * Executes a statement like QueryAdapter, but returns the exception to determine the outcome of the rows.
+     */
+    private SQLException executeStatement(GlobalState<?, ?> globalState, String sql) throws SQLException {
+        StatementCache cache = globalState.getStatementCache();
+        Statement s = cache.getStatement();
+        StatementWatchdog.Watch watch = globalState.watchStatement(s, sql);
+        try {
+            s.execute(sql);
+        } catch (SQLException e) {
+            watch.close();
+            cache.release(s);
+            globalState.getMetrics().incrementUnsuccessfulStatements();
+            recordOutcome(globalState, false);
+            if (!watch.handleCancel()) {
+                checkException(sql, e);
+            }
+            return e;
+        }
+        watch.close();
+        cache.release(s);
+        watch.handleCancel();
+        globalState.getMetrics().incrementSuccessfulStatements();
+        recordOutcome(globalState, true);
+        return null;
+    }
+
+    private void checkException(String sql, SQLException e) {
+        if (!errors.errorIsExpected(e.getMessage())) {
+            throw new AssertionError(sql, e);
+        }
+    }
+
+    @Override
+    public String getQueryString() {
+        return getUnterminatedQueryString() + ";";
+    }
+
+    @Override
+    public String getUnterminatedQueryString() {
+        List<String> inserts = new ArrayList<>();
+        for (Table table : tables) {
+            for (int row = 0; row < table.nrRows; row++) {
+                inserts.add(table.getInsert(row));
+            }
+        }
+        return String.join(";\n", inserts);
+    }
+
+    @Override
+    public boolean couldAffectSchema() {
+        return false;
+    }
+
+    @Override
+    public ExpectedErrors getExpectedErrors() {
+        return errors;
+    }
+
+    @Override
+    public String getLogString() {
+        return getQueryString();
+    }
+
+}
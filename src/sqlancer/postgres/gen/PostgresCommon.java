@@ -19,10 +19,22 @@ import sqlancer.postgres.PostgresVisitor;
 
 public final class PostgresCommon {
 
+    private static final ExpectedErrors COMMON_FETCH_ERRORS = getCommonFetchErrors();
+    private static final ExpectedErrors COMMON_TABLE_ERRORS = getCommonTableErrors();
+    private static final ExpectedErrors COMMON_RANGE_EXPRESSION_ERRORS = getCommonRangeExpressionErrors();
+    private static final ExpectedErrors COMMON_EXPRESSION_ERRORS = getCommonExpressionErrors();
+    private static final ExpectedErrors COMMON_INSERT_UPDATE_ERRORS = getCommonInsertUpdateErrors();
+    private static final ExpectedErrors GROUPING_ERRORS = getGroupingErrors();
+
     private PostgresCommon() {
     }
 
     public static void addCommonFetchErrors(ExpectedErrors errors) {
+        errors.addAll(COMMON_FETCH_ERRORS);
+    }
+
+    private static ExpectedErrors getCommonFetchErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("FULL JOIN is only supported with merge-joinable or hash-joinable join conditions");
         errors.add("but it cannot be referenced from this part of the query");
         errors.add("missing FROM-clause entry for table");
@@ -32,14 +44,26 @@ public final class PostgresCommon {
         errors.add("non-integer constant in GROUP BY");
         errors.add("must appear in the GROUP BY clause or be used in an aggregate function");
         errors.add("GROUP BY position");
+        return errors.toImmutable();
     }
 
     public static void addCommonTableErrors(ExpectedErrors errors) {
+        errors.addAll(COMMON_TABLE_ERRORS);
+    }
+
+    private static ExpectedErrors getCommonTableErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("is not commutative"); // exclude
         errors.add("operator requires run-time type coercion"); // exclude
+        return errors.toImmutable();
     }
 
     public static void addCommonExpressionErrors(ExpectedErrors errors) {
+        errors.addAll(COMMON_EXPRESSION_ERRORS);
+    }
+
+    private static ExpectedErrors getCommonExpressionErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("You might need to add explicit type casts");
         errors.add("invalid regular expression");
         errors.add("could not determine which collation to use");
@@ -68,6 +92,7 @@ public final class PostgresCommon {
         addFunctionErrors(errors);
         addCommonRangeExpressionErrors(errors);
         addCommonRegexExpressionErrors(errors);
+        return errors.toImmutable();
     }
 
     private static void addToCharFunctionErrors(ExpectedErrors errors) {
@@ -110,15 +135,27 @@ public final class PostgresCommon {
     }
 
     public static void addCommonRangeExpressionErrors(ExpectedErrors errors) {
+        errors.addAll(COMMON_RANGE_EXPRESSION_ERRORS);
+    }
+
+    private static ExpectedErrors getCommonRangeExpressionErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("range lower bound must be less than or equal to range upper bound");
         errors.add("result of range difference would not be contiguous");
         errors.add("out of range");
         errors.add("malformed range literal");
+        return errors.toImmutable();
     }
 
     public static void addCommonInsertUpdateErrors(ExpectedErrors errors) {
+        errors.addAll(COMMON_INSERT_UPDATE_ERRORS);
+    }
+
+    private static ExpectedErrors getCommonInsertUpdateErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("value too long for type character");
         errors.add("not found in view targetlist");
+        return errors.toImmutable();
     }
 
     public static boolean appendDataType(PostgresDataType type, StringBuilder sb, boolean allowSerial,
@@ -409,10 +446,16 @@ public final class PostgresCommon {
     }
 
     public static void addGroupingErrors(ExpectedErrors errors) {
+        errors.addAll(GROUPING_ERRORS);
+    }
+
+    private static ExpectedErrors getGroupingErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("non-integer constant in GROUP BY"); // TODO
         errors.add("must appear in the GROUP BY clause or be used in an aggregate function");
         errors.add("is not in select list");
         errors.add("aggregate functions are not allowed in GROUP BY");
+        return errors.toImmutable();
     }
 
 }
@@ -0,0 +1,146 @@
+package sqlancer.postgres.gen;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.microsoft.z3.BoolExpr;
+import com.microsoft.z3.Context;
+import com.microsoft.z3.Expr;
+import com.microsoft.z3.IntExpr;
+import com.microsoft.z3.IntNum;
+import com.microsoft.z3.Model;
+import com.microsoft.z3.Solver;
+import com.microsoft.z3.Status;
+
+import sqlancer.IgnoreMeException;
+import sqlancer.postgres.PostgresUsedValues.IntSet;
+import sqlancer.postgres.ast.PostgresExpression;
+
+/**
+ * The Z3 context and solver with which {@link PostgresInsertGeneratorLite} computes the values that satisfy (or
+ * violate) the check constraints of a column. A solver is owned by a single
+ * {@link sqlancer.postgres.PostgresGlobalState}, so that its native context is created once per database rather than
+ * once per INSERT, and it must be closed once the database has been tested.
+ *
+ * The check constraints of the database do not change after the tables have been created, so their translations are
+ * cached. The constraints of a column are asserted in their own scope, which is popped after its values have been
+ * computed.
+ */
+public final class PostgresConstraintSolver implements AutoCloseable {
+
+    private final Context ctx;
+    private final Solver solver;
+    private final Map<PostgresExpression, BoolExpr> satisfyingConstraints = new IdentityHashMap<>();
+    private final Map<PostgresExpression, BoolExpr> violatingConstraints = new IdentityHashMap<>();
+
+    public PostgresConstraintSolver() {
+        this.ctx = new Context();
+        this.solver = ctx.mkSolver();
+    }
+
+    public Context getContext() {
+        return ctx;
+    }
+
+    /**
+     * Gets the translation of a check constraint, or of its negation.
+     *
+     * @param check
+     *            the check constraint
+     * @param sat
+     *            whether the values must satisfy the constraint, rather than violate it
+     * @param translation
+     *            translates the check constraint if it has not been translated yet
+     *
+     * @return the constraint that the values must satisfy
+     */
+    public BoolExpr getConstraint(PostgresExpression check, boolean sat, Function<Context, BoolExpr> translation) {
+        Map<PostgresExpression, BoolExpr> constraints = sat ? satisfyingConstraints : violatingConstraints;
+        BoolExpr constraint = constraints.get(check);
+        if (constraint == null) {
+            BoolExpr e = translation.apply(ctx);
+            constraint = sat ? e : ctx.mkNot(e);
+            constraints.put(check, constraint);
+        }
+        return constraint;
+    }
+
+    /**
+     * Computes distinct values for a variable with a single call to the solver. The constraints are asserted for
+     * <i>n</i> copies of the variable, which must be pairwise distinct, so that each model yields <i>n</i> values.
+     *
+     * @param variable
+     *            the name of the variable (e.g., "t0.c0")
+     * @param constraints
+     *            the constraints that the values must satisfy
+     * @param excluded
+     *            the values that must not be returned, which are excluded with one constraint per range of
+     *            consecutive values
+     * @param n
+     *            the number of values
+     *
+     * @return the values
+     *
+     * @throws IgnoreMeException
+     *             if there are fewer than <i>n</i> such values, or the solver fails to find them
+     */
+    public List<Integer> getDistinctValues(String variable, List<BoolExpr> constraints, IntSet excluded, int n) {
+        Expr var = ctx.mkIntConst(variable);
+        IntExpr[] copies = new IntExpr[n];
+        int[] ranges = excluded.getRanges();
+        solver.push();
+        try {
+            for (int i = 0; i < n; i++) {
+                copies[i] = ctx.mkIntConst(variable + "#" + i);
+                for (BoolExpr constraint : constraints) {
+                    solver.add((BoolExpr) constraint.substitute(var, copies[i]));
+                }
+                for (int j = 0; j < ranges.length; j += 2) {
+                    solver.add(notBetween(copies[i], ranges[j], ranges[j + 1]));
+                }
+            }
+            if (n > 1) {
+                solver.add(ctx.mkDistinct(copies));
+            }
+            if (solver.check() != Status.SATISFIABLE) {
+                throw new IgnoreMeException();
+            }
+            Model model = solver.getModel();
+            List<Integer> values = new ArrayList<>(n);
+            for (Expr copy : copies) {
+                values.add(toInt(model.eval(copy, true)));
+            }
+            return values;
+        } finally {
+            solver.pop();
+        }
+    }
+
+    private BoolExpr notBetween(IntExpr e, int lower, int upper) {
+        if (lower == upper) {
+            return ctx.mkNot(ctx.mkEq(e, ctx.mkInt(lower)));
+        }
+        return ctx.mkOr(ctx.mkLt(e, ctx.mkInt(lower)), ctx.mkGt(e, ctx.mkInt(upper)));
+    }
+
+    private static int toInt(Expr e) {
+        if (!e.isIntNum()) {
+            throw new IgnoreMeException();
+        }
+        IntNum num = (IntNum) e;
+        if (num.getBigInteger().bitLength() >= Integer.SIZE) {
+            // does not fit into an INT column
+            throw new IgnoreMeException();
+        }
+        return num.getInt();
+    }
+
+    @Override
+    public void close() {
+        ctx.close();
+    }
+
+}
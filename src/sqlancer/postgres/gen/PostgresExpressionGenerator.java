@@ -160,7 +160,7 @@ public class PostgresExpressionGenerator implements ExpressionGenerator<Postgres
             validOptions.remove(BooleanExpression.POSIX_REGEX);
             validOptions.remove(BooleanExpression.BINARY_RANGE_COMPARISON);
         }
-        BooleanExpression option = Randomly.fromList(validOptions);
+        BooleanExpression option = choose(validOptions);
         switch (option) {
         case POSTFIX_OPERATOR:
             PostfixOperator random = PostfixOperator.getRandom();
@@ -359,6 +359,13 @@ public class PostgresExpressionGenerator implements ExpressionGenerator<Postgres
 
     }
 
+    private <T extends Enum<T>> T choose(List<T> options) {
+        if (globalState == null) {
+            return Randomly.fromList(options);
+        }
+        return globalState.getGrammarWeights().choose(options);
+    }
+
     private enum RangeExpression {
         BINARY_OP;
     }
@@ -366,7 +373,7 @@ public class PostgresExpressionGenerator implements ExpressionGenerator<Postgres
     private PostgresExpression generateRangeExpression(int depth) {
         RangeExpression option;
         List<RangeExpression> validOptions = new ArrayList<>(Arrays.asList(RangeExpression.values()));
-        option = Randomly.fromList(validOptions);
+        option = choose(validOptions);
         switch (option) {
         case BINARY_OP:
             return new PostgresBinaryRangeOperation(PostgresBinaryRangeOperator.getRandom(),
@@ -390,7 +397,7 @@ public class PostgresExpressionGenerator implements ExpressionGenerator<Postgres
         if (!globalState.getDmbsSpecificOptions().testCollations) {
             validOptions.remove(TextExpression.COLLATE);
         }
-        option = Randomly.fromList(validOptions);
+        option = choose(validOptions);
 
         switch (option) {
         case CAST:
@@ -420,7 +427,7 @@ public class PostgresExpressionGenerator implements ExpressionGenerator<Postgres
 
     private PostgresExpression generateBitExpression(int depth) {
         BitExpression option;
-        option = Randomly.fromOptions(BitExpression.values());
+        option = choose(Arrays.asList(BitExpression.values()));
         switch (option) {
         case BINARY_OPERATION:
             return new PostgresBinaryBitOperation(PostgresBinaryBitOperator.getRandom(),
@@ -437,7 +444,7 @@ public class PostgresExpressionGenerator implements ExpressionGenerator<Postgres
 
     private PostgresExpression generateIntExpression(int depth) {
         IntExpression option;
-        option = Randomly.fromOptions(IntExpression.values());
+        option = choose(Arrays.asList(IntExpression.values()));
         switch (option) {
         case CAST:
             return new PostgresCastOperation(generateExpression(depth + 1), getCompoundDataType(PostgresDataType.INT));
@@ -72,7 +72,8 @@ public class PostgresExpressionGeneratorLite extends PostgresExpressionGenerator
     private PostgresExpression generateBooleanExpression(int depth) {
         List<BooleanExpression> validOptions = new ArrayList<>(Arrays.asList(BooleanExpression.values()));
 
-        BooleanExpression option = Randomly.fromList(validOptions);
+        BooleanExpression option = globalState == null ? Randomly.fromList(validOptions)
+                : globalState.getGrammarWeights().choose(validOptions);
         switch (option) {
         case BINARY_COMPARISON:
             PostgresDataType dataType = getMeaningfulType();
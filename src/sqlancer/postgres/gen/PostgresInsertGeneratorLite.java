@@ -2,40 +2,35 @@ package sqlancer.postgres.gen;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.microsoft.z3.ArithExpr;
 import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.Context;
-import com.microsoft.z3.Expr;
-import com.microsoft.z3.IntNum;
-import com.microsoft.z3.Solver;
-import com.microsoft.z3.Status;
 
 import sqlancer.IgnoreMeException;
 import sqlancer.common.ast.BinaryNode;
 import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.Query;
-import sqlancer.common.query.QueryAdapter;
 import sqlancer.postgres.PostgresGlobalState;
-import sqlancer.postgres.PostgresGlobalState.Tuple;
 import sqlancer.postgres.PostgresSchema.PostgresColumn;
 import sqlancer.postgres.PostgresSchema.PostgresTable;
+import sqlancer.postgres.PostgresUsedValues.IntSet;
 import sqlancer.postgres.PostgresVisitor;
 import sqlancer.postgres.ast.PostgresConstant;
 import sqlancer.postgres.ast.PostgresExpression;
 
 public class PostgresInsertGeneratorLite {
+
+    private static final ExpectedErrors ERRORS = getExpectedErrors();
+
     public PostgresInsertGeneratorLite() {
     }
 
-    public static Query insert(PostgresGlobalState globalState) {
-        PostgresTable table = globalState.getSchema().getRandomTable(t -> t.isInsertable());
+    private static ExpectedErrors getExpectedErrors() {
         ExpectedErrors errors = new ExpectedErrors();
         errors.add("cannot insert into column");
         PostgresCommon.addCommonExpressionErrors(errors);
         PostgresCommon.addCommonInsertUpdateErrors(errors);
-        PostgresCommon.addCommonExpressionErrors(errors);
         errors.add("multiple assignments to same column");
         errors.add("violates foreign key constraint");
         errors.add("value too long for type character varying");
@@ -46,7 +41,19 @@ public class PostgresInsertGeneratorLite {
         errors.add("new row violates check option for view");
         errors.add("reached maximum value of sequence");
         errors.add("but expression is of type");
-        StringBuilder sb = new StringBuilder();
+        errors.add("duplicate key value violates unique constraint");
+        errors.add("identity column defined as GENERATED ALWAYS");
+        errors.add("out of range");
+        errors.add("violates check constraint");
+        errors.add("no partition of relation");
+        errors.add("invalid input syntax");
+        errors.add("division by zero");
+        errors.add("data type unknown");
+        return errors.toImmutable();
+    }
+
+    public static Query insert(PostgresGlobalState globalState) {
+        PostgresTable table = globalState.getSchema().getRandomTable(t -> t.isInsertable());
 
         List<PostgresColumn> columns = table
                 .getRandomNonEmptyColumnSubset(globalState.getDmbsSpecificOptions().nrColumns);
@@ -56,157 +63,60 @@ public class PostgresInsertGeneratorLite {
         // define the number of times insert is called
         int n = globalState.getDmbsSpecificOptions().nrValues;
 
-        // initialize used Numbers
-        globalState.initializeUsedNumbersSat(globalState.getSchema().getDatabaseTables().size());
-        globalState.initializeUsedNumbersNsat(globalState.getSchema().getDatabaseTables().size());
-        // generate a Z3 solver for satisfying the constraint and one that does not and initialize it accordingly
-        Context ctxt = new Context();
-        Solver s = ctxt.mkSolver();
+        PostgresConstraintSolver solver = globalState.getConstraintSolver();
 
-        List<List<String>> colNums = new ArrayList<>();
+        PostgresBulkInsertQuery query = new PostgresBulkInsertQuery(ERRORS, globalState.supportsCopy());
+        PostgresBulkInsertQuery.Table rows = query.addTable(table.getName(), n);
         for (PostgresColumn column : columns) {
-            colNums.add(insertRow(s, ctxt, globalState, column, table, true, n));
-        }
-
-        for (int i = 0; i < n; i++) {
-            sb.append("INSERT INTO ");
-            sb.append(table.getName());
-            sb.append("(");
-            sb.append(columns.stream().map(c -> c.getName()).collect(Collectors.joining(", ")));
-            sb.append(")");
-
-            sb.append(" VALUES");
-            sb.append("(");
-            // add the gathered values into the subset
-            for (int j = 0; j < colNums.size(); j++) {
-                sb.append(colNums.get(j).get(i));
-                if (j < colNums.size() - 1) {
-                    sb.append(", ");
-                }
-            }
-            sb.append(")");
-            if (i < n - 1) {
-                sb.append(";");
-                sb.append("\n");
-            }
+            insertRow(solver, globalState, column, table, null, true, n, rows);
         }
 
-        errors.add("duplicate key value violates unique constraint");
-        errors.add("identity column defined as GENERATED ALWAYS");
-        errors.add("out of range");
-        errors.add("violates check constraint");
-        errors.add("no partition of relation");
-        errors.add("invalid input syntax");
-        errors.add("division by zero");
-        errors.add("violates foreign key constraint");
-        errors.add("data type unknown");
-        return new QueryAdapter(sb.toString(), errors);
+        return query;
     }
 
-    public static Query insert(PostgresGlobalState globalState, PostgresExpression query, Context ctxt, boolean sat) {
+    public static Query insert(PostgresGlobalState globalState, PostgresExpression query, boolean sat) {
         List<PostgresTable> tables = globalState.getSchema().getTables(t -> t.isInsertable());
-        ExpectedErrors errors = new ExpectedErrors();
-        errors.add("cannot insert into column");
-        PostgresCommon.addCommonExpressionErrors(errors);
-        PostgresCommon.addCommonInsertUpdateErrors(errors);
-        PostgresCommon.addCommonExpressionErrors(errors);
-        errors.add("multiple assignments to same column");
-        errors.add("violates foreign key constraint");
-        errors.add("value too long for type character varying");
-        errors.add("conflicting key value violates exclusion constraint");
-        errors.add("violates not-null constraint");
-        errors.add("current transaction is aborted");
-        errors.add("bit string too long");
-        errors.add("new row violates check option for view");
-        errors.add("reached maximum value of sequence");
-        errors.add("but expression is of type");
-        StringBuilder sb = new StringBuilder();
-        // initialize used Numbers
-        globalState.initializeUsedNumbersSat(globalState.getSchema().getDatabaseTables().size());
-        globalState.initializeUsedNumbersNsat(globalState.getSchema().getDatabaseTables().size());
-        int tSize = tables.size();
-        Solver s = ctxt.mkSolver();
+        PostgresConstraintSolver solver = globalState.getConstraintSolver();
 
         // int n = Randomly.smallNumber() + 1;
         // define the number of times insert is called
         int n = globalState.getDmbsSpecificOptions().nrValues;
 
+        PostgresBulkInsertQuery insertQuery = new PostgresBulkInsertQuery(ERRORS, globalState.supportsCopy());
         for (PostgresTable table : tables) {
-            List<PostgresColumn> columns = table.getColumns();
-
-            List<List<String>> colNums = new ArrayList<>();
+            PostgresBulkInsertQuery.Table rows = insertQuery.addTable(table.getName(), n);
 
             // get all column values
-            for (PostgresColumn column : columns) {
-                colNums.add(insertRow(s, ctxt, globalState, column, table, query, sat, n));
-            }
-            // gather and send values to string buffer
-            for (int i = 0; i < n; i++) {
-                sb.append("INSERT INTO ");
-                sb.append(table.getName());
-                sb.append("(");
-                sb.append(columns.stream().map(c -> c.getName()).collect(Collectors.joining(", ")));
-                sb.append(")");
-                sb.append(" VALUES");
-                sb.append("(");
-                // add the gathered values into the subset
-                for (int j = 0; j < colNums.size(); j++) {
-                    sb.append(colNums.get(j).get(i));
-                    if (j < colNums.size() - 1) {
-                        sb.append(", ");
-                    }
-                }
-                sb.append(")");
-                if (i < n - 1) {
-                    sb.append(";");
-                    sb.append("\n");
-                }
-            }
-            if (tSize > 1) {
-                sb.append(";\n");
+            for (PostgresColumn column : table.getColumns()) {
+                insertRow(solver, globalState, column, table, query, sat, n, rows);
             }
-            tSize--;
         }
-        errors.add("duplicate key value violates unique constraint");
-        errors.add("identity column defined as GENERATED ALWAYS");
-        errors.add("out of range");
-        errors.add("violates check constraint");
-        errors.add("no partition of relation");
-        errors.add("invalid input syntax");
-        errors.add("division by zero");
-        errors.add("violates foreign key constraint");
-        errors.add("data type unknown");
 
-        return new QueryAdapter(sb.toString(), errors);
+        return insertQuery;
     }
 
-    private static List<String> insertRow(Solver s, Context ctxt, PostgresGlobalState globalState,
-            PostgresColumn column, PostgresTable table, boolean sat, int n) throws IgnoreMeException {
-        s.reset();
-        List<String> numbers = new ArrayList<>();
+    /*
+     * Computes n values for the column that satisfy (or violate) its check constraints and, if given, the query
+     * predicate, and adds them to the inserted rows. The values computed for the check constraints are recorded as used
+     * once the rows have been inserted.
+     */
+    private static void insertRow(PostgresConstraintSolver solver, PostgresGlobalState globalState,
+            PostgresColumn column, PostgresTable table, PostgresExpression query, boolean sat, int n,
+            PostgresBulkInsertQuery.Table rows) throws IgnoreMeException {
+        List<PostgresExpression> numbers = new ArrayList<>();
         int tableNr = getTableNumber(table.getName());
         int columnNr = getTableNumber(column.getName());
-        // get the list of checks for the given table
-        ArrayList<Tuple> currConstraints;
-        // Add all used Numbers to the constraints
-        if (sat) {
-            currConstraints = globalState.getUsedNumbersSat(tableNr);
-        } else {
-            currConstraints = globalState.getUsedNumbersNsat(tableNr);
-        }
-
         String currColumn = table.getName() + "." + column.getName();
-        // System.err.println("Loop iteration: " + i + " | currCol: " + currColumn);
-        ArrayList<PostgresExpression> checks = globalState.getCheckStatementsOfTableNColumnM(tableNr, columnNr);
-
-        // for each Tuple of the given table
-        for (Tuple t : currConstraints) {
-            if (t.varNameIsEqual(currColumn)) {
-                // add not equal constraint for the already used value
-                s.add(ctxt.mkNot(ctxt.mkEq(ctxt.mkIntConst(currColumn), ctxt.mkInt(t.getVal()))));
-            }
+        // the already used values of the column, which are excluded
+        IntSet used = globalState.getUsedValues().get(currColumn, sat);
+        List<PostgresExpression> checks = globalState.getCheckStatementsOfTableNColumnM(tableNr, columnNr);
+        if (query != null) {
+            checks = new ArrayList<>(checks);
+            checks.add(query);
         }
-        String var = "";
+        boolean singleCheck = query != null || globalState.getDmbsSpecificOptions().nrChecks == 1;
+
+        List<BoolExpr> constraints = new ArrayList<>();
 
         boolean varToEvaluate = false;
         boolean eqNeq = false;
@@ -216,8 +126,6 @@ public class PostgresInsertGeneratorLite {
             PostgresExpression left;
             PostgresExpression right;
 
-            // System.err.println(PostgresVisitor.asString(expr));
-
             if (expr instanceof BinaryNode) {
                 @SuppressWarnings("unchecked")
                 BinaryNode<PostgresExpression> comp = (BinaryNode<PostgresExpression>) expr;
@@ -232,267 +140,81 @@ public class PostgresInsertGeneratorLite {
 
             // variable we will evaluate on
             if (!l.equals("noVar")) {
-                var = l;
                 leftIsVar = true;
             }
             if (!r.equals("noVar")) {
-                var = r;
                 rightIsVar = true;
             }
             // create argument when a variable is present
-            if ((leftIsVar || rightIsVar) && (!leftIsVar || !rightIsVar)) {
-                ArithExpr arg0;
-                ArithExpr arg1;
-
-                try {
-                    if (rightIsVar) {
-                        arg1 = ctxt.mkIntConst(PostgresVisitor.asString(right));
-                    } else {
-                        arg1 = ctxt.mkInt(Integer.parseInt(right.toString()));
-                    }
-                    if (leftIsVar) {
-                        arg0 = ctxt.mkIntConst(PostgresVisitor.asString(left));
-                    } else {
-                        arg0 = ctxt.mkInt(Integer.parseInt(left.toString()));
-                    }
-                    // System.err.println("Argument 0: " + arg0 + " | Argument 1: " + arg1);
-                    BoolExpr e = makeBoolExpr(ctxt, arg0, arg1, getOperator(expr));
-
-                    if (!sat) {
-                        e = ctxt.mkNot(e);
-                    }
-                    s.add(e);
-                    varToEvaluate = true;
-                } catch (Exception e) {
-                    // some numbers seem to exceed Integer range (bigInt)
-                    throw new IgnoreMeException();
-                }
+            if (leftIsVar != rightIsVar) {
+                constraints.add(solver.getConstraint(expr, sat, ctxt -> translate(ctxt, expr, left, right)));
+                varToEvaluate = true;
             }
             // single constraint edge case
-            if (globalState.getDmbsSpecificOptions().nrChecks == 1 && varToEvaluate) {
+            if (singleCheck && varToEvaluate) {
                 // Special Case EQ/NEQ
                 boolean isEqSat = getOperator(expr) == Ops.EQUAL && sat;
                 boolean isNeqNsat = getOperator(expr) == Ops.NOT_EQUAL && !sat;
-                boolean isSC = isEqSat || isNeqNsat;
-                if (isSC) {
-                    String num = "";
-                    if (isEqSat) {
-                        if (rightIsVar) {
-                            num = PostgresVisitor.asString(left);
-                        } else if (leftIsVar) {
-                            num = PostgresVisitor.asString(right);
-                        }
-                        eqNeq = true;
-                    } else if (isNeqNsat) {
-                        if (rightIsVar) {
-                            num = PostgresVisitor.asString(left);
-                        } else if (leftIsVar) {
-                            num = PostgresVisitor.asString(right);
-                        }
-                        eqNeq = true;
-                    }
+                if ((isEqSat || isNeqNsat) && !eqNeq) {
+                    PostgresExpression num = rightIsVar ? left : right;
+                    eqNeq = true;
                     for (int j = 0; j < n; j++) {
                         numbers.add(num);
                     }
                 }
             }
         }
+        // only the values computed for the check constraints are excluded from later inserts
+        IntSet recorded = null;
         // choose how many values are inserted per column
         if (!varToEvaluate) {
             for (int j = 0; j < n; j++) {
                 // just use random numbers
-                PostgresExpression generateConstant;
-                generateConstant = PostgresExpressionGenerator.generateConstant(globalState.getRandomly(),
-                        column.getType());
-                numbers.add(PostgresVisitor.asString(generateConstant));
+                numbers.add(PostgresExpressionGenerator.generateConstant(globalState.getRandomly(), column.getType()));
             }
         } else if (!eqNeq) {
-            for (int j = 0; j < n; j++) {
-                Status state = s.check();
-                // check if statement is satisfiable
-                if (state.toInt() > 0) {
-
-                    // evaluate current column
-                    Expr e = s.getModel().eval(ctxt.mkIntConst(currColumn), true);
-                    int x = modelToInt(e);
-                    s.add(ctxt.mkNot(ctxt.mkEq(ctxt.mkIntConst(currColumn), ctxt.mkInt(x))));
-
-                    // System.err.println("name | value: " + name + " | " + ctxt.mkInt(x));
-                    PostgresExpression generateConstantFromZ3 = PostgresConstant.createIntConstant(x);
-                    if (sat) {
-                        globalState.addUsedNumberSat(tableNr, var, x);
-                    } else {
-                        globalState.addUsedNumberNsat(tableNr, var, x);
-                    }
-                    numbers.add(PostgresVisitor.asString(generateConstantFromZ3));
-                    // not satisfiable
-                } else {
+            // most check constraints compare the column with a constant, which does not require the solver
+            PostgresIntervalConstraint interval = PostgresIntervalConstraint.compile(checks, currColumn, sat);
+            List<Integer> values = interval == null ? null
+                    : interval.getDistinctValues(globalState.getRandomly(), used, n);
+            if (values == null) {
+                globalState.getMetrics().incrementSolverCalls();
+                values = solver.getDistinctValues(currColumn, constraints, used, n);
+            } else {
+                globalState.getMetrics().incrementSolverAvoidedCalls();
+                if (values.size() < n) {
                     throw new IgnoreMeException();
                 }
             }
+            for (int x : values) {
+                numbers.add(PostgresConstant.createIntConstant(x));
+            }
+            recorded = used;
         }
         // if special case equal or not(not equal) [Not Satisfying] occured skip model evaluation
-        return numbers;
+        rows.addColumn(column.getName(), numbers, recorded);
     }
 
-    private static List<String> insertRow(Solver s, Context ctxt, PostgresGlobalState globalState,
-            PostgresColumn column, PostgresTable table, PostgresExpression query, boolean sat, int n)
-            throws IgnoreMeException {
-        s.reset();
-        List<String> numbers = new ArrayList<>();
-        int tableNr = getTableNumber(table.getName());
-        int columnNr = getTableNumber(column.getName());
-        // get the list of checks for the given table
-        ArrayList<Tuple> currConstraints;
-        // Add all used Numbers to the constraints
-        if (sat) {
-            currConstraints = globalState.getUsedNumbersSat(tableNr);
-        } else {
-            currConstraints = globalState.getUsedNumbersNsat(tableNr);
-        }
-
-        String currColumn = table.getName() + "." + column.getName();
-        // System.err.println("Loop iteration: " + i + " | currCol: " + currColumn);
-        ArrayList<PostgresExpression> checks = globalState.getCheckStatementsOfTableNColumnM(tableNr, columnNr);
-        checks.add(query);
-        // for each Tuple of the given table
-        for (Tuple t : currConstraints) {
-            if (t.varNameIsEqual(currColumn)) {
-                // add not equal constraint for the already used value
-                s.add(ctxt.mkNot(ctxt.mkEq(ctxt.mkIntConst(currColumn), ctxt.mkInt(t.getVal()))));
-            }
-        }
-        String var = "";
-
-        boolean varToEvaluate = false;
-        boolean eqNeq = false;
-        for (PostgresExpression expr : checks) {
-            boolean rightIsVar = false;
-            boolean leftIsVar = false;
-            PostgresExpression left;
-            PostgresExpression right;
-
-            // System.err.println(PostgresVisitor.asString(expr));
-
-            if (expr instanceof BinaryNode) {
-                @SuppressWarnings("unchecked")
-                BinaryNode<PostgresExpression> comp = (BinaryNode<PostgresExpression>) expr;
-                left = comp.getLeft();
-                right = comp.getRight();
+    private static BoolExpr translate(Context ctxt, PostgresExpression expr, PostgresExpression left,
+            PostgresExpression right) {
+        ArithExpr arg0;
+        ArithExpr arg1;
+        try {
+            if (isVar(right)) {
+                arg1 = ctxt.mkIntConst(PostgresVisitor.asString(right));
             } else {
-                // Expression is not a comparison (!Binary Node)
-                System.err.println("hereA");
-                throw new IgnoreMeException();
-            }
-            String l = varToString(left);
-            String r = varToString(right);
-
-            // variable we will evaluate on
-            if (!l.equals("noVar")) {
-                var = l;
-                leftIsVar = true;
+                arg1 = ctxt.mkInt(Integer.parseInt(right.toString()));
             }
-            if (!r.equals("noVar")) {
-                var = r;
-                rightIsVar = true;
-            }
-            // create argument when a variable is present
-            if ((leftIsVar || rightIsVar) && (!leftIsVar || !rightIsVar)) {
-                ArithExpr arg0;
-                ArithExpr arg1;
-
-                try {
-                    if (rightIsVar) {
-                        arg1 = ctxt.mkIntConst(PostgresVisitor.asString(right));
-                    } else {
-                        arg1 = ctxt.mkInt(Integer.parseInt(right.toString()));
-                    }
-                    if (leftIsVar) {
-                        arg0 = ctxt.mkIntConst(PostgresVisitor.asString(left));
-                    } else {
-                        arg0 = ctxt.mkInt(Integer.parseInt(left.toString()));
-                    }
-                    // System.err.println("Argument 0: " + arg0 + " | Argument 1: " + arg1);
-                    BoolExpr e = makeBoolExpr(ctxt, arg0, arg1, getOperator(expr));
-
-                    if (!sat) {
-                        e = ctxt.mkNot(e);
-                    }
-                    s.add(e);
-                    varToEvaluate = true;
-                } catch (Exception e) {
-                    System.err.println("hereB");
-                    // some numbers seem to exceed Integer range (bigInt)
-                    throw new IgnoreMeException();
-                }
-            }
-            // single constraint edge case
-            if (varToEvaluate) {
-                // Special Case EQ/NEQ
-                boolean isEqSat = getOperator(expr) == Ops.EQUAL && sat;
-                boolean isNeqNsat = getOperator(expr) == Ops.NOT_EQUAL && !sat;
-                boolean isSC = isEqSat || isNeqNsat;
-                if (isSC) {
-                    String num = "";
-                    if (isEqSat) {
-                        if (rightIsVar) {
-                            num = PostgresVisitor.asString(left);
-                        } else if (leftIsVar) {
-                            num = PostgresVisitor.asString(right);
-                        }
-                        eqNeq = true;
-                    } else if (isNeqNsat) {
-                        if (rightIsVar) {
-                            num = PostgresVisitor.asString(left);
-                        } else if (leftIsVar) {
-                            num = PostgresVisitor.asString(right);
-                        }
-                        eqNeq = true;
-                    }
-                    for (int j = 0; j < n; j++) {
-                        numbers.add(num);
-                    }
-                }
-            }
-        }
-        // choose how many values are inserted per column
-        if (!varToEvaluate) {
-            for (int j = 0; j < n; j++) {
-                // just use random numbers
-                PostgresExpression generateConstant;
-                generateConstant = PostgresExpressionGenerator.generateConstant(globalState.getRandomly(),
-                        column.getType());
-                numbers.add(PostgresVisitor.asString(generateConstant));
-            }
-        } else if (!eqNeq) {
-            for (int j = 0; j < n; j++) {
-                Status state = s.check();
-                // check if statement is satisfiable
-                if (state.toInt() > 0) {
-
-                    // evaluate current column
-                    Expr e = s.getModel().eval(ctxt.mkIntConst(currColumn), true);
-                    int x = modelToInt(e);
-                    s.add(ctxt.mkNot(ctxt.mkEq(ctxt.mkIntConst(currColumn), ctxt.mkInt(x))));
-
-                    // System.err.println("name | value: " + name + " | " + ctxt.mkInt(x));
-                    PostgresExpression generateConstantFromZ3 = PostgresConstant.createIntConstant(x);
-                    if (sat) {
-                        globalState.addUsedNumberSat(tableNr, var, x);
-                    } else {
-                        globalState.addUsedNumberNsat(tableNr, var, x);
-                    }
-                    numbers.add(PostgresVisitor.asString(generateConstantFromZ3));
-                    // not satisfiable
-                } else {
-                    System.err.println("hereC");
-                    throw new IgnoreMeException();
-                }
+            if (isVar(left)) {
+                arg0 = ctxt.mkIntConst(PostgresVisitor.asString(left));
+            } else {
+                arg0 = ctxt.mkInt(Integer.parseInt(left.toString()));
             }
+        } catch (NumberFormatException e) {
+            // some numbers seem to exceed Integer range (bigInt)
+            throw new IgnoreMeException();
         }
-        // if special case equal or not(not equal) [Not Satisfying] occured skip model evaluation
-
-        return numbers;
+        return makeBoolExpr(ctxt, arg0, arg1, getOperator(expr));
     }
 
     public static boolean isVar(PostgresExpression expr) {
@@ -553,15 +275,6 @@ public class PostgresInsertGeneratorLite {
         return Integer.parseInt(tableName.substring(1));
     }
 
-    private static int modelToInt(Expr e) throws IgnoreMeException {
-        if (e.isInt()) {
-            IntNum eIntSat = (IntNum) e;
-            return eIntSat.getInt();
-        } else {
-            throw new IgnoreMeException();
-        }
-    }
-
     public static String varToString(PostgresExpression var) {
         if (isVar(var)) {
             return PostgresVisitor.asString(var);
@@ -0,0 +1,227 @@
+package sqlancer.postgres.gen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import sqlancer.IgnoreMeException;
+import sqlancer.Randomly;
+import sqlancer.common.ast.BinaryNode;
+import sqlancer.postgres.PostgresUsedValues.IntSet;
+import sqlancer.postgres.ast.PostgresExpression;
+import sqlancer.postgres.gen.PostgresInsertGeneratorLite.Ops;
+
+/**
+ * The values of an INT column that satisfy a conjunction of comparisons of the column with integer constants (e.g.,
+ * "t0.c0 > 3" and "5 != t0.c0"), which are the check constraints that {@link PostgresExpressionGeneratorLite}
+ * usually generates. Such a conjunction denotes an interval without a set of excluded points, from which
+ * {@link PostgresInsertGeneratorLite} draws values directly rather than with the {@link PostgresConstraintSolver}.
+ */
+public final class PostgresIntervalConstraint {
+
+    /**
+     * Values of intervals that are unbounded on one side are drawn at most this far from their bound, like the values
+     * found by the solver, which are close to the constants of the constraints.
+     */
+    static final int MAX_DISTANCE = 1000;
+
+    private long lower = Integer.MIN_VALUE;
+    private long upper = Integer.MAX_VALUE;
+    private final Set<Integer> excluded = new HashSet<>();
+
+    /**
+     * Compiles the check constraints of a column into an interval, for values that satisfy all the constraints or that
+     * violate all of them.
+     *
+     * @param checks
+     *            the check constraints
+     * @param column
+     *            the fully-qualified name of the column (e.g., "t0.c0")
+     * @param sat
+     *            whether the values must satisfy the constraints, rather than violate them
+     *
+     * @return the interval, or null if a constraint does not compare the column with a constant
+     */
+    public static PostgresIntervalConstraint compile(List<PostgresExpression> checks, String column, boolean sat) {
+        PostgresIntervalConstraint interval = new PostgresIntervalConstraint();
+        for (PostgresExpression check : checks) {
+            if (!(check instanceof BinaryNode)) {
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            BinaryNode<PostgresExpression> comp = (BinaryNode<PostgresExpression>) check;
+            String left = PostgresInsertGeneratorLite.varToString(comp.getLeft());
+            String right = PostgresInsertGeneratorLite.varToString(comp.getRight());
+            if (left.equals("noVar") && right.equals("noVar")) {
+                // compares two constants, like the constraints that the solver ignores
+                continue;
+            }
+            boolean columnOnLeft = left.equals(column) && right.equals("noVar");
+            boolean columnOnRight = right.equals(column) && left.equals("noVar");
+            if (!columnOnLeft && !columnOnRight) {
+                // compares two columns, or another column than the one whose values are computed
+                return null;
+            }
+            int constant;
+            try {
+                constant = Integer.parseInt((columnOnLeft ? comp.getRight() : comp.getLeft()).toString());
+            } catch (NumberFormatException e) {
+                throw new IgnoreMeException();
+            }
+            Ops op = PostgresInsertGeneratorLite.getOperator(check);
+            if (!interval.add(sat ? op : negate(op), constant, columnOnLeft)) {
+                return null;
+            }
+        }
+        return interval;
+    }
+
+    /**
+     * Restricts the interval by a comparison of the column with a constant.
+     *
+     * @param op
+     *            the comparison operator
+     * @param constant
+     *            the constant
+     * @param columnOnLeft
+     *            whether the column is the left operand of the comparison
+     *
+     * @return false if the operator is not supported
+     */
+    public boolean add(Ops op, int constant, boolean columnOnLeft) {
+        switch (columnOnLeft ? op : mirror(op)) {
+        case GREATER_EQUAL:
+            lower = Math.max(lower, constant);
+            return true;
+        case GREATER_THAN:
+            lower = Math.max(lower, constant + 1L);
+            return true;
+        case LESS_EQUAL:
+            upper = Math.min(upper, constant);
+            return true;
+        case LESS_THAN:
+            upper = Math.min(upper, constant - 1L);
+            return true;
+        case EQUAL:
+            lower = Math.max(lower, constant);
+            upper = Math.min(upper, constant);
+            return true;
+        case NOT_EQUAL:
+            excluded.add(constant);
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Draws distinct values from the interval.
+     *
+     * @param r
+     *            the random number generator
+     * @param used
+     *            the values that must not be returned
+     * @param n
+     *            the number of values
+     *
+     * @return the values, an empty list if the interval contains fewer than <i>n</i> values, or null if the values
+     *         within {@link #MAX_DISTANCE} of the bound of an unbounded interval do not suffice
+     */
+    public List<Integer> getDistinctValues(Randomly r, IntSet used, int n) {
+        long from = lower;
+        long to = upper;
+        if (from == Integer.MIN_VALUE && to == Integer.MAX_VALUE) {
+            from = -MAX_DISTANCE;
+            to = MAX_DISTANCE;
+        } else if (from == Integer.MIN_VALUE) {
+            from = Math.max(from, to - MAX_DISTANCE);
+        } else if (to == Integer.MAX_VALUE) {
+            to = Math.min(to, from + MAX_DISTANCE);
+        }
+        boolean bounded = from == lower && to == upper;
+        if (from > to) {
+            return Collections.emptyList();
+        }
+        long width = to - from + 1;
+        long nrBlocked = 0;
+        for (int value : excluded) {
+            if (from <= value && value <= to) {
+                nrBlocked++;
+            }
+        }
+        nrBlocked += used.countBetween(from, to);
+        for (int value : excluded) {
+            if (from <= value && value <= to && used.contains(value)) {
+                nrBlocked--;
+            }
+        }
+        long nrAvailable = width - nrBlocked;
+        if (nrAvailable < n) {
+            return bounded ? Collections.emptyList() : null;
+        }
+        List<Integer> values = new ArrayList<>(n);
+        if (nrAvailable * 2 >= width) {
+            // most values are available, so that rejection sampling needs few attempts
+            Set<Integer> chosen = new HashSet<>();
+            while (values.size() < n) {
+                int value = (int) r.getLong(from, to + 1);
+                if (!excluded.contains(value) && !used.contains(value) && chosen.add(value)) {
+                    values.add(value);
+                }
+            }
+        } else {
+            // the range is at most twice as large as the number of blocked values
+            List<Integer> available = new ArrayList<>();
+            for (long value = from; value <= to; value++) {
+                if (!excluded.contains((int) value) && !used.contains((int) value)) {
+                    available.add((int) value);
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                Collections.swap(available, i, r.getInteger(i, available.size()));
+                values.add(available.get(i));
+            }
+        }
+        return values;
+    }
+
+    static Ops negate(Ops op) {
+        switch (op) {
+        case GREATER_EQUAL:
+            return Ops.LESS_THAN;
+        case GREATER_THAN:
+            return Ops.LESS_EQUAL;
+        case LESS_EQUAL:
+            return Ops.GREATER_THAN;
+        case LESS_THAN:
+            return Ops.GREATER_EQUAL;
+        case EQUAL:
+            return Ops.NOT_EQUAL;
+        case NOT_EQUAL:
+            return Ops.EQUAL;
+        default:
+            return op;
+        }
+    }
+
+    /*
+     * The operator for swapped operands, e.g., "3 < c0" is "c0 > 3".
+     */
+    private static Ops mirror(Ops op) {
+        switch (op) {
+        case GREATER_EQUAL:
+            return Ops.LESS_EQUAL;
+        case GREATER_THAN:
+            return Ops.LESS_THAN;
+        case LESS_EQUAL:
+            return Ops.GREATER_EQUAL;
+        case LESS_THAN:
+            return Ops.GREATER_THAN;
+        default:
+            return op;
+        }
+    }
+
+}
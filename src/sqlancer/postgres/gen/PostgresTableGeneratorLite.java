@@ -44,6 +44,21 @@ public class PostgresTableGeneratorLite extends PostgresTableGenerator {
         return new PostgresTableGeneratorLite(tableName, newSchema, generateOnlyKnown, globalState).generate();
     }
 
+    /**
+     * Gets the prefix of the names of the check constraints of a column, which are followed by the number of the check
+     * constraint (e.g., "t0_c1_check0"). It identifies the column whose check constraint rejected a row.
+     *
+     * @param tableName
+     *            the name of the table
+     * @param columnName
+     *            the name of the column
+     *
+     * @return the prefix
+     */
+    public static String getCheckConstraintPrefix(String tableName, String columnName) {
+        return tableName + "_" + columnName + "_check";
+    }
+
     Query generate() {
         sb.append("CREATE");
         sb.append(" TABLE");
@@ -97,7 +112,7 @@ public class PostgresTableGeneratorLite extends PostgresTableGenerator {
             }
             // TODO:: back to random, right now it guarantees a check constraint
             if (true) {
-                createColumnConstraint(type, serial, columnName, tableName);
+                createColumnConstraint(type, serial, columnName, tableName, i);
             }
         }
     }
@@ -106,7 +121,8 @@ public class PostgresTableGeneratorLite extends PostgresTableGenerator {
         CHECK
     };
 
-    private void createColumnConstraint(PostgresDataType type, boolean serial, String columnName, String tableName) {
+    private void createColumnConstraint(PostgresDataType type, boolean serial, String columnName, String tableName,
+            int checkNr) {
         List<ColumnConstraint> constraintSubset = new ArrayList<ColumnConstraint>();
         constraintSubset.add(ColumnConstraint.CHECK);
 
@@ -114,7 +130,10 @@ public class PostgresTableGeneratorLite extends PostgresTableGenerator {
             sb.append(" ");
             switch (c) {
             case CHECK:
-                sb.append("CHECK (");
+                sb.append("CONSTRAINT ");
+                sb.append(getCheckConstraintPrefix(tableName, columnName));
+                sb.append(checkNr);
+                sb.append(" CHECK (");
                 // save the check Statement in the gloablState
                 PostgresExpression check = PostgresExpressionGeneratorLite.generateCheckExpression(globalState,
                         columnsToBeAdded, columnName);
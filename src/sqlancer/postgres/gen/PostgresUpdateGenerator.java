@@ -6,6 +6,7 @@ import sqlancer.Randomly;
 import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.QueryAdapter;
+import sqlancer.common.schema.SchemaDelta;
 import sqlancer.postgres.PostgresGlobalState;
 import sqlancer.postgres.PostgresSchema.PostgresColumn;
 import sqlancer.postgres.PostgresSchema.PostgresDataType;
@@ -71,7 +72,7 @@ public final class PostgresUpdateGenerator {
             sb.append(PostgresVisitor.asString(where));
         }
 
-        return new QueryAdapter(sb.toString(), errors, true);
+        return new QueryAdapter(sb.toString(), errors, SchemaDelta.unchanged());
     }
 
 }
@@ -17,6 +17,8 @@ import sqlancer.common.oracle.TestOracle;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.QueryAdapter;
 import sqlancer.common.query.SQLancerResultSet;
+import sqlancer.common.query.StatementCache;
+import sqlancer.common.query.StatementWatchdog;
 import sqlancer.postgres.PostgresCompoundDataType;
 import sqlancer.postgres.PostgresGlobalState;
 import sqlancer.postgres.PostgresSchema;
@@ -165,18 +167,23 @@ public class PostgresNoRECOracle extends NoRECBase<PostgresGlobalState> implemen
         select.setSelectType(SelectType.ALL);
         select.setJoinClauses(joinStatements);
         int firstCount = 0;
-        try (Statement stat = con.createStatement()) {
-            optimizedQueryString = PostgresVisitor.asString(select);
-            if (options.logEachSelect()) {
-                logger.writeCurrent(optimizedQueryString);
-            }
-            try (ResultSet rs = stat.executeQuery(optimizedQueryString)) {
-                while (rs.next()) {
-                    firstCount++;
-                }
+        optimizedQueryString = PostgresVisitor.asString(select);
+        if (options.logEachSelect()) {
+            logger.writeCurrent(optimizedQueryString);
+        }
+        StatementCache cache = state.getStatementCache();
+        Statement stat = cache.getStatement();
+        StatementWatchdog.Watch watch = state.watchStatement(stat, optimizedQueryString);
+        try (ResultSet rs = stat.executeQuery(optimizedQueryString)) {
+            while (rs.next()) {
+                firstCount++;
             }
         } catch (SQLException e) {
             throw new IgnoreMeException();
+        } finally {
+            watch.close();
+            cache.release(stat);
+            watch.handleCancel();
         }
         return firstCount;
     }
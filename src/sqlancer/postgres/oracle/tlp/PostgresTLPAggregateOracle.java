@@ -1,6 +1,5 @@
 package sqlancer.postgres.oracle.tlp;
 
-import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -104,14 +103,7 @@ public class PostgresTLPAggregateOracle extends PostgresTLPBase implements TestO
     private String getAggregateResult(String queryString) throws SQLException {
         // log TLP Aggregate SELECT queries on the current log file
         if (state.getOptions().logEachSelect()) {
-            // TODO: refactor me
             state.getLogger().writeCurrent(queryString);
-            try {
-                state.getLogger().getCurrentFileWriter().flush();
-            } catch (IOException e) {
-                // TODO Auto-generated catch block
-                e.printStackTrace();
-            }
         }
         String resultString;
         QueryAdapter q = new QueryAdapter(queryString, errors);
@@ -1,7 +1,7 @@
 package sqlancer.postgres.oracle.tlp;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import sqlancer.ComparatorHelper;
@@ -32,7 +32,6 @@ public class PostgresTLPHavingOracle extends PostgresTLPBase {
         select.setGroupByExpressions(gen.generateExpressions(Randomly.smallNumber() + 1));
         select.setHavingClause(null);
         String originalQueryString = PostgresVisitor.asString(select);
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
 
         boolean orderBy = Randomly.getBoolean();
         if (orderBy) {
@@ -44,11 +43,8 @@ public class PostgresTLPHavingOracle extends PostgresTLPBase {
         String secondQueryString = PostgresVisitor.asString(select);
         select.setHavingClause(isNullPredicate);
         String thirdQueryString = PostgresVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, !orderBy, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        ComparatorHelper.assumeResultSetsAreEqual(originalQueryString,
+                Arrays.asList(firstQueryString, secondQueryString, thirdQueryString), !orderBy, state, errors);
     }
 
     @Override
@@ -1,9 +1,8 @@
 package sqlancer.postgres.oracle.tlp;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
@@ -27,7 +26,6 @@ public class PostgresTLPWhereOracle extends PostgresTLPBase {
             select.setOrderByExpressions(gen.generateOrderBy());
         }
         String originalQueryString = PostgresVisitor.asString(select);
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
 
         select.setOrderByExpressions(Collections.emptyList());
         select.setWhereClause(predicate);
@@ -36,10 +34,8 @@ public class PostgresTLPWhereOracle extends PostgresTLPBase {
         String secondQueryString = PostgresVisitor.asString(select);
         select.setWhereClause(isNullPredicate);
         String thirdQueryString = PostgresVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, Randomly.getBoolean(), state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        ComparatorHelper.assumeResultSetsAreEqual(originalQueryString,
+                Arrays.asList(firstQueryString, secondQueryString, thirdQueryString), Randomly.getBoolean(), state,
+                errors);
     }
 }
@@ -6,17 +6,35 @@ import sqlancer.common.query.ExpectedErrors;
 
 public final class SQLite3Errors {
 
+    private static final ExpectedErrors DELETE_ERRORS = getDeleteErrors();
+    private static final ExpectedErrors EXPECTED_EXPRESSION_ERRORS = getExpectedExpressionErrors();
+    private static final ExpectedErrors MATCH_QUERY_ERRORS = getMatchQueryErrors();
+    private static final ExpectedErrors TABLE_MANIPULATION_ERRORS = getTableManipulationErrors();
+    private static final ExpectedErrors QUERY_ERRORS = getQueryErrors();
+    private static final ExpectedErrors INSERT_NOW_ERRORS = getInsertNowErrors();
+
     private SQLite3Errors() {
     }
 
     public static void addDeleteErrors(ExpectedErrors errors) {
+        errors.addAll(DELETE_ERRORS);
+    }
+
+    private static ExpectedErrors getDeleteErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         // DELETE trigger for a view/table to which colomns were added or deleted
         errors.add("columns but");
         // trigger with on conflict clause
         errors.add("ON CONFLICT clause does not match any PRIMARY KEY or UNIQUE constraint");
+        return errors.toImmutable();
     }
 
     public static void addExpectedExpressionErrors(ExpectedErrors errors) {
+        errors.addAll(EXPECTED_EXPRESSION_ERRORS);
+    }
+
+    private static ExpectedErrors getExpectedExpressionErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("FTS expression tree is too large");
         errors.add("String or BLOB exceeds size limit");
         errors.add("[SQLITE_ERROR] SQL error or missing database (integer overflow)");
@@ -60,10 +78,15 @@ public final class SQLite3Errors {
         errors.add("ORDER BY term does not match any column in the result set");
         errors.add("ORDER BY clause should come after");
         errors.add("LIMIT clause should come after");
-
+        return errors.toImmutable();
     }
 
     public static void addMatchQueryErrors(ExpectedErrors errors) {
+        errors.addAll(MATCH_QUERY_ERRORS);
+    }
+
+    private static ExpectedErrors getMatchQueryErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("unable to use function MATCH in the requested context");
         errors.add("malformed MATCH expression");
         errors.add("fts5: syntax error near");
@@ -72,25 +95,44 @@ public final class SQLite3Errors {
         errors.add("fts5: column queries are not supported"); // vt0.c0 MATCH '2016456922'
         errors.add("fts5: phrase queries are not supported");
         errors.add("unterminated string");
+        return errors.toImmutable();
     }
 
     public static void addTableManipulationErrors(ExpectedErrors errors) {
+        errors.addAll(TABLE_MANIPULATION_ERRORS);
+    }
+
+    private static ExpectedErrors getTableManipulationErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("unsupported frame specification");
         errors.add("non-deterministic functions prohibited in CHECK constraints");
         errors.addAll(Arrays.asList("subqueries prohibited in CHECK constraints",
                 "generated columns cannot be part of the PRIMARY KEY", "must have at least one non-generated column"));
+        return errors.toImmutable();
     }
 
     public static void addQueryErrors(ExpectedErrors errors) {
+        errors.addAll(QUERY_ERRORS);
+    }
+
+    private static ExpectedErrors getQueryErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("ON clause references tables to its right");
+        return errors.toImmutable();
     }
 
     public static void addInsertNowErrors(ExpectedErrors errors) {
+        errors.addAll(INSERT_NOW_ERRORS);
+    }
+
+    private static ExpectedErrors getInsertNowErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("non-deterministic use of strftime()");
         errors.add("non-deterministic use of time()");
         errors.add("non-deterministic use of datetime()");
         errors.add("non-deterministic use of julianday()");
         errors.add("non-deterministic use of date()");
+        return errors.toImmutable();
     }
 
 }
@@ -3,10 +3,17 @@ package sqlancer.sqlite3;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.sqlite.SQLiteConfig;
 
 import sqlancer.AbstractAction;
 import sqlancer.GlobalState;
@@ -114,11 +121,55 @@ public class SQLite3Provider extends SQLProviderAdapter<SQLite3GlobalState, SQLi
 
     public static class SQLite3GlobalState extends GlobalState<SQLite3Options, SQLite3Schema> {
 
+        private static final Pattern NUMBER = Pattern.compile("\\b\\d+\\b");
+
         @Override
         protected SQLite3Schema readSchema() throws SQLException {
             return SQLite3Schema.fromConnection(this);
         }
 
+        @Override
+        protected Long readSchemaChecksum() throws SQLException {
+            return SQLite3Schema.readSchemaVersions(getConnection());
+        }
+
+        @Override
+        protected Runnable getCancelAction(Statement s) {
+            Thread thread = Thread.currentThread();
+            return () -> SQLite3StatementCanceller.cancel(thread);
+        }
+
+        @Override
+        protected void recoverFromCancel(Statement s) {
+            SQLite3StatementCanceller.reset();
+        }
+
+        @Override
+        protected String getQueryPlanQuery(String query) {
+            return "EXPLAIN QUERY PLAN " + query;
+        }
+
+        /**
+         * Normalizes the rows (id, parent, notused, detail) of EXPLAIN QUERY PLAN into the details indented by their
+         * depth in the plan tree. The ids of subqueries in the details (e.g., "CORRELATED SCALAR SUBQUERY 2") are
+         * removed.
+         */
+        @Override
+        protected String normalizeQueryPlan(List<List<String>> rows) {
+            Map<String, Integer> depths = new HashMap<>();
+            StringBuilder sb = new StringBuilder();
+            for (List<String> row : rows) {
+                int depth = depths.getOrDefault(row.get(1), -1) + 1;
+                depths.put(row.get(0), depth);
+                for (int i = 0; i < depth; i++) {
+                    sb.append("  ");
+                }
+                sb.append(NUMBER.matcher(row.get(3)).replaceAll("?"));
+                sb.append('\n');
+            }
+            return sb.toString();
+        }
+
     }
 
     private enum TableType {
@@ -293,7 +344,45 @@ public class SQLite3Provider extends SQLProviderAdapter<SQLite3GlobalState, SQLi
             dataBase.delete();
         }
         String url = "jdbc:sqlite:" + dataBase.getAbsolutePath();
-        return DriverManager.getConnection(url);
+        Connection con = DriverManager.getConnection(url);
+        installStatementCanceller(globalState, con);
+        return con;
+    }
+
+    @Override
+    public Connection createReadConnection(SQLite3GlobalState globalState) throws SQLException {
+        try (Statement s = globalState.getConnection().createStatement()) {
+            try (ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM sqlite_temp_master")) {
+                if (!rs.next() || rs.getLong(1) != 0) {
+                    // temporary tables and views are only visible to the main connection
+                    return null;
+                }
+            }
+            try (ResultSet rs = s.executeQuery("PRAGMA main.locking_mode")) {
+                if (!rs.next() || !"normal".equalsIgnoreCase(rs.getString(1))) {
+                    // the main connection keeps its locks, so that other connections cannot read the database
+                    return null;
+                }
+            }
+        }
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        Connection con = DriverManager.getConnection(globalState.getConnection().getMetaData().getURL(),
+                config.toProperties());
+        // for example, PRAGMA case_sensitive_like affects the results of queries
+        replaySessionStatements(con, globalState, s -> s.startsWith("PRAGMA"));
+        installStatementCanceller(globalState, con);
+        return con;
+    }
+
+    /*
+     * SQLite calls the progress handler every few VM instructions, so it is only installed if statements can time out.
+     */
+    private static void installStatementCanceller(SQLite3GlobalState globalState, Connection con)
+            throws SQLException {
+        if (globalState.getStatementTimeoutMs() > 0) {
+            SQLite3StatementCanceller.install(con);
+        }
     }
 
     @Override
@@ -0,0 +1,56 @@
+package sqlancer.sqlite3;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.sqlite.ProgressHandler;
+
+/**
+ * Cancels statements by a progress handler, which SQLite invokes periodically in the thread that executes a statement.
+ * {@link java.sql.Statement#cancel()} calls sqlite3_interrupt(), which also fails all statements that are started on
+ * the connection while any other statement is still active (e.g., an internal statement of an R-Tree table), so that a
+ * single timeout could fail many subsequent statements. The progress handler, in contrast, only aborts the statement
+ * that is being executed.
+ *
+ * Since the driver keeps a single progress handler for all connections, statements are cancelled by the thread that
+ * executes them, which is unique, as each connection is used by a single thread.
+ */
+final class SQLite3StatementCanceller extends ProgressHandler {
+
+    private static final int NR_INSTRUCTIONS_BETWEEN_CHECKS = 1000;
+    private static final SQLite3StatementCanceller INSTANCE = new SQLite3StatementCanceller();
+    private static final Set<Thread> CANCELLED_THREADS = ConcurrentHashMap.newKeySet();
+
+    private SQLite3StatementCanceller() {
+    }
+
+    static void install(Connection con) throws SQLException {
+        ProgressHandler.setHandler(con, NR_INSTRUCTIONS_BETWEEN_CHECKS, INSTANCE);
+    }
+
+    /**
+     * Cancels the statement that the given thread currently executes, and all statements that it executes until
+     * {@link #reset()} is called.
+     *
+     * @param thread
+     *            the thread that executes the statement
+     */
+    static void cancel(Thread thread) {
+        CANCELLED_THREADS.add(thread);
+    }
+
+    /**
+     * Allows the current thread to execute statements again after {@link #cancel(Thread)}.
+     */
+    static void reset() {
+        CANCELLED_THREADS.remove(Thread.currentThread());
+    }
+
+    @Override
+    protected int progress() {
+        return !CANCELLED_THREADS.isEmpty() && CANCELLED_THREADS.contains(Thread.currentThread()) ? 1 : 0;
+    }
+
+}
@@ -181,7 +181,7 @@ public class SQLite3ExpressionGenerator implements ExpressionGenerator<SQLite3Ex
      * https://www.sqlite.org/syntax/literal-value.html
      */
     private SQLite3Expression getRandomLiteralValueInternal(Randomly r) {
-        LiteralValueType randomLiteral = Randomly.fromOptions(LiteralValueType.values());
+        LiteralValueType randomLiteral = globalState.getGrammarWeights().choose(LiteralValueType.values());
         switch (randomLiteral) {
         case INTEGER:
             if (Randomly.getBoolean()) {
@@ -262,7 +262,7 @@ public class SQLite3ExpressionGenerator implements ExpressionGenerator<SQLite3Ex
         if (!globalState.getDmbsSpecificOptions().testIn) {
             list.remove(ExpressionType.IN_OPERATOR);
         }
-        ExpressionType randomExpressionType = Randomly.fromList(list);
+        ExpressionType randomExpressionType = globalState.getGrammarWeights().choose(list);
         switch (randomExpressionType) {
         case AND_OR_CHAIN:
             return getAndOrChain(depth + 1);
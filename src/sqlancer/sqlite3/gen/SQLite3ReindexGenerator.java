@@ -4,6 +4,7 @@ import sqlancer.Randomly;
 import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.QueryAdapter;
+import sqlancer.common.schema.SchemaDelta;
 import sqlancer.sqlite3.SQLite3Provider.SQLite3GlobalState;
 import sqlancer.sqlite3.schema.SQLite3Schema;
 
@@ -44,6 +45,6 @@ public final class SQLite3ReindexGenerator {
                 throw new AssertionError(t);
             }
         }
-        return new QueryAdapter(sb.toString(), errors, true);
+        return new QueryAdapter(sb.toString(), errors, SchemaDelta.unchanged());
     }
 }
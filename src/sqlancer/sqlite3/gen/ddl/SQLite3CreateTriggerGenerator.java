@@ -110,7 +110,8 @@ public final class SQLite3CreateTriggerGenerator {
         sb.append("END");
 
         return new QueryAdapter(sb.toString(),
-                ExpectedErrors.from("parser stack overflow", "unsupported frame specification"));
+                ExpectedErrors.from("parser stack overflow", "unsupported frame specification"),
+                SQLite3Schema.addTrigger());
     }
 
     private static void appendTableNameAndWhen(SQLite3GlobalState globalState, StringBuilder sb, SQLite3Table table) {
@@ -5,6 +5,7 @@ import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.QueryAdapter;
 import sqlancer.sqlite3.SQLite3Provider.SQLite3GlobalState;
+import sqlancer.sqlite3.schema.SQLite3Schema;
 
 // see https://www.sqlite.org/lang_dropindex.html
 public final class SQLite3DropIndexGenerator {
@@ -24,7 +25,7 @@ public final class SQLite3DropIndexGenerator {
         sb.append('"');
         return new QueryAdapter(sb.toString(), ExpectedErrors.from(
                 "[SQLITE_ERROR] SQL error or missing database (index associated with UNIQUE or PRIMARY KEY constraint cannot be dropped)"),
-                true);
+                SQLite3Schema.dropIndex(indexName));
     }
 
 }
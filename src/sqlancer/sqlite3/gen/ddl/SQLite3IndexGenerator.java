@@ -14,6 +14,7 @@ import sqlancer.sqlite3.SQLite3ToStringVisitor;
 import sqlancer.sqlite3.ast.SQLite3Expression;
 import sqlancer.sqlite3.gen.SQLite3Common;
 import sqlancer.sqlite3.gen.SQLite3ExpressionGenerator;
+import sqlancer.sqlite3.schema.SQLite3Schema;
 import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Column;
 import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Table;
 
@@ -22,6 +23,7 @@ public class SQLite3IndexGenerator {
 
     private final ExpectedErrors errors = new ExpectedErrors();
     private final SQLite3GlobalState globalState;
+    private String indexName;
 
     public static Query insertIndex(SQLite3GlobalState globalState) throws SQLException {
         return new SQLite3IndexGenerator(globalState).create();
@@ -58,7 +60,7 @@ public class SQLite3IndexGenerator {
          * https://www.mail-archive.com/sqlite-users@mailinglists.sqlite.org/msg115014.html).
          */
         errors.add("[SQLITE_ERROR] SQL error or missing database (no such column:");
-        return new QueryAdapter(q, errors, true);
+        return new QueryAdapter(q, errors, SQLite3Schema.addIndex(indexName));
     }
 
     private String createIndex(SQLite3Table t, List<SQLite3Column> columns) {
@@ -75,7 +77,8 @@ public class SQLite3IndexGenerator {
             errors.add("already exists");
         }
         sb.append(" ");
-        sb.append(SQLite3Common.getFreeIndexName(globalState.getSchema()));
+        indexName = SQLite3Common.getFreeIndexName(globalState.getSchema());
+        sb.append(indexName);
         sb.append(" ON ");
         sb.append(t.getName());
         sb.append("(");
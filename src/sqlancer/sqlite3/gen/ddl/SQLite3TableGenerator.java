@@ -57,7 +57,8 @@ public class SQLite3TableGenerator {
         errors.add("parser stack overflow");
         errors.add("malformed JSON");
         errors.add("JSON cannot hold BLOB values");
-        return new QueryAdapter(sqLite3TableGenerator.sb.toString(), errors, true);
+        return new QueryAdapter(sqLite3TableGenerator.sb.toString(), errors,
+                SQLite3Schema.createTable(globalState, tableName));
     }
 
     public void start() {
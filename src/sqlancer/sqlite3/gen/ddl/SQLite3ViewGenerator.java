@@ -24,8 +24,9 @@ public final class SQLite3ViewGenerator {
     public static Query dropView(SQLite3GlobalState globalState) {
         SQLite3Schema s = globalState.getSchema();
         StringBuilder sb = new StringBuilder("DROP VIEW ");
-        sb.append(s.getRandomViewOrBailout().getName());
-        return new QueryAdapter(sb.toString(), true);
+        String viewName = s.getRandomViewOrBailout().getName();
+        sb.append(viewName);
+        return new QueryAdapter(sb.toString(), SQLite3Schema.dropView(viewName));
     }
 
     public static Query generate(SQLite3GlobalState globalState) throws SQLException {
@@ -39,7 +40,8 @@ public final class SQLite3ViewGenerator {
         if (Randomly.getBoolean()) {
             sb.append(" IF NOT EXISTS ");
         }
-        sb.append(SQLite3Common.getFreeViewName(globalState.getSchema()));
+        String viewName = SQLite3Common.getFreeViewName(globalState.getSchema());
+        sb.append(viewName);
         ExpectedErrors errors = new ExpectedErrors();
         SQLite3Errors.addExpectedExpressionErrors(errors);
         errors.add("is circularly defined");
@@ -53,7 +55,7 @@ public final class SQLite3ViewGenerator {
         } while (globalState.getDmbsSpecificOptions().oracles == SQLite3OracleFactory.PQS
                 && !checkAffinity(randomQuery));
         sb.append(SQLite3Visitor.asString(randomQuery));
-        return new QueryAdapter(sb.toString(), errors, true);
+        return new QueryAdapter(sb.toString(), errors, SQLite3Schema.createView(globalState, viewName));
 
     }
 
@@ -8,6 +8,7 @@ import sqlancer.Randomly;
 import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.QueryAdapter;
+import sqlancer.common.schema.TableModification;
 import sqlancer.sqlite3.SQLite3Errors;
 import sqlancer.sqlite3.SQLite3Provider.SQLite3GlobalState;
 import sqlancer.sqlite3.SQLite3ToStringVisitor;
@@ -23,6 +24,7 @@ public class SQLite3InsertGenerator {
     private final Randomly r;
     private final ExpectedErrors errors;
     private final SQLite3GlobalState globalState;
+    private boolean mightReplaceRows;
 
     public SQLite3InsertGenerator(SQLite3GlobalState globalState, Randomly r) {
         this.globalState = globalState;
@@ -38,7 +40,19 @@ public class SQLite3InsertGenerator {
     public static Query insertRow(SQLite3GlobalState globalState, SQLite3Table randomTable) {
         SQLite3InsertGenerator generator = new SQLite3InsertGenerator(globalState, globalState.getRandomly());
         String query = generator.insertRow(randomTable);
-        return new QueryAdapter(query, generator.errors, true);
+        if (randomTable.isVirtual()) {
+            // virtual tables can interpret inserts as commands (e.g., FTS "optimize"), so re-read the schema
+            return new QueryAdapter(query, generator.errors, true);
+        }
+        TableModification modification;
+        if (generator.mightReplaceRows) {
+            // the update count does not include the replaced rows
+            modification = TableModification.unknown(randomTable.getName());
+        } else {
+            modification = TableModification.insert(randomTable.getName());
+        }
+        return new QueryAdapter(query, generator.errors,
+                globalState.getSchema().getTableModification(randomTable, modification));
     }
 
     private String insertRow(SQLite3Table table) {
@@ -69,6 +83,7 @@ public class SQLite3InsertGenerator {
         } else {
             String fromOptions = Randomly.fromOptions("OR REPLACE ", "OR ABORT ", "OR FAIL ", "OR ROLLBACK ");
             sb.append(fromOptions);
+            mightReplaceRows = "OR REPLACE ".contentEquals(fromOptions);
         }
         boolean defaultValues = false;
         sb.append("INTO ");
@@ -103,6 +118,7 @@ public class SQLite3InsertGenerator {
                 sb.append("NOTHING");
             } else {
                 sb.append("UPDATE SET ");
+                mightReplaceRows = true;
                 List<SQLite3Column> columns = table.getRandomNonEmptyColumnSubset();
                 for (int i = 0; i < columns.size(); i++) {
                     if (i != 0) {
@@ -7,6 +7,7 @@ import sqlancer.Randomly;
 import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.QueryAdapter;
+import sqlancer.common.schema.TableModification;
 import sqlancer.sqlite3.SQLite3Errors;
 import sqlancer.sqlite3.SQLite3Provider.SQLite3GlobalState;
 import sqlancer.sqlite3.SQLite3Visitor;
@@ -39,14 +40,18 @@ public class SQLite3UpdateGenerator {
     }
 
     private Query update(SQLite3Table table) {
+        // without an OR clause, the ON CONFLICT clauses of the table's constraints apply, which might be REPLACE
+        boolean mightReplaceRows = true;
         sb.append("UPDATE ");
         if (Randomly.getBoolean()) {
             sb.append("OR IGNORE ");
+            mightReplaceRows = false;
         } else {
             if (Randomly.getBoolean()) {
                 String fromOptions = Randomly.fromOptions("OR ROLLBACK", "OR ABORT", "OR REPLACE", "OR FAIL");
                 sb.append(fromOptions);
                 sb.append(" ");
+                mightReplaceRows = "OR REPLACE".contentEquals(fromOptions);
             }
             errors.add("[SQLITE_CONSTRAINT]");
         }
@@ -117,7 +122,15 @@ public class SQLite3UpdateGenerator {
         SQLite3Errors.addInsertNowErrors(errors);
         SQLite3Errors.addExpectedExpressionErrors(errors);
         SQLite3Errors.addDeleteErrors(errors);
-        return new QueryAdapter(sb.toString(), errors, true /* column could have an ON UPDATE clause */);
+        TableModification modification;
+        if (mightReplaceRows) {
+            // a REPLACE deletes the rows that conflict with an updated row
+            modification = TableModification.unknown(table.getName());
+        } else {
+            modification = TableModification.update(table.getName());
+        }
+        return new QueryAdapter(sb.toString(), errors,
+                globalState.getSchema().getTableModification(table, modification));
 
     }
 
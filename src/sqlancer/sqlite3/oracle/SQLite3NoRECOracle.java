@@ -4,12 +4,15 @@ import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import sqlancer.IgnoreMeException;
 import sqlancer.Randomly;
 import sqlancer.common.oracle.NoRECBase;
 import sqlancer.common.oracle.TestOracle;
 import sqlancer.common.query.QueryAdapter;
+import sqlancer.common.query.ReadConnectionPool;
 import sqlancer.common.query.SQLancerResultSet;
 import sqlancer.sqlite3.SQLite3Errors;
 import sqlancer.sqlite3.SQLite3Provider.SQLite3GlobalState;
@@ -54,6 +57,10 @@ public class SQLite3NoRECOracle extends NoRECBase<SQLite3GlobalState> implements
         SQLite3Tables randomTables = s.getRandomTableNonEmptyTables();
         List<SQLite3Column> columns = randomTables.getColumns();
         gen = new SQLite3ExpressionGenerator(state).setColumns(columns);
+        if (state.hasReadConnections()) {
+            // functions such as CHANGES() depend on the connection that executes the query
+            gen = gen.deterministicOnly();
+        }
         SQLite3Expression randomWhereCondition = gen.generateExpression();
         List<SQLite3Table> tables = randomTables.getTables();
         List<Join> joinStatements = gen.getRandomJoinClauses(tables);
@@ -62,8 +69,10 @@ public class SQLite3NoRECOracle extends NoRECBase<SQLite3GlobalState> implements
         select.setFromTables(tableRefs);
         select.setJoinClauses(joinStatements);
 
-        int optimizedCount = getOptimizedQuery(select, randomWhereCondition);
-        int unoptimizedCount = getUnoptimizedQuery(select, randomWhereCondition);
+        Future<Integer> optimizedFuture = state.submitRead(getOptimizedQuery(select, randomWhereCondition));
+        Future<Integer> unoptimizedFuture = state.submitRead(getUnoptimizedQuery(select, randomWhereCondition));
+        int optimizedCount = ReadConnectionPool.getResult(optimizedFuture);
+        int unoptimizedCount = ReadConnectionPool.getResult(unoptimizedFuture);
         if (optimizedCount == NO_VALID_RESULT || unoptimizedCount == NO_VALID_RESULT) {
             throw new IgnoreMeException();
         }
@@ -74,7 +83,7 @@ public class SQLite3NoRECOracle extends NoRECBase<SQLite3GlobalState> implements
 
     }
 
-    private int getUnoptimizedQuery(SQLite3Select select, SQLite3Expression randomWhereCondition) throws SQLException {
+    private Callable<Integer> getUnoptimizedQuery(SQLite3Select select, SQLite3Expression randomWhereCondition) {
         SQLite3PostfixUnaryOperation isTrue = new SQLite3PostfixUnaryOperation(PostfixUnaryOperator.IS_TRUE,
                 randomWhereCondition);
         SQLite3PostfixText asText = new SQLite3PostfixText(isTrue, " as count", null);
@@ -85,10 +94,10 @@ public class SQLite3NoRECOracle extends NoRECBase<SQLite3GlobalState> implements
             logger.writeCurrent(unoptimizedQueryString);
         }
         QueryAdapter q = new QueryAdapter(unoptimizedQueryString, errors);
-        return extractCounts(q);
+        return () -> extractCounts(q);
     }
 
-    private int getOptimizedQuery(SQLite3Select select, SQLite3Expression randomWhereCondition) throws SQLException {
+    private Callable<Integer> getOptimizedQuery(SQLite3Select select, SQLite3Expression randomWhereCondition) {
         boolean useAggregate = Randomly.getBoolean();
         if (Randomly.getBoolean()) {
             select.setOrderByExpressions(gen.generateOrderBys());
@@ -106,7 +115,7 @@ public class SQLite3NoRECOracle extends NoRECBase<SQLite3GlobalState> implements
             logger.writeCurrent(optimizedQueryString);
         }
         QueryAdapter q = new QueryAdapter(optimizedQueryString, errors);
-        return useAggregate ? extractCounts(q) : countRows(q);
+        return useAggregate ? () -> extractCounts(q) : () -> countRows(q);
     }
 
     private int countRows(QueryAdapter q) {
@@ -41,6 +41,10 @@ public class SQLite3TLPBase extends TernaryLogicPartitioningOracleBase<SQLite3Ex
         s = state.getSchema();
         targetTables = s.getRandomTableNonEmptyTables();
         gen = new SQLite3ExpressionGenerator(state).setColumns(targetTables.getColumns());
+        if (state.hasReadConnections()) {
+            // functions such as CHANGES() depend on the connection that executes the query
+            gen = gen.deterministicOnly();
+        }
         initializeTernaryPredicateVariants();
         select = new SQLite3Select();
         select.setFetchColumns(generateFetchColumns());
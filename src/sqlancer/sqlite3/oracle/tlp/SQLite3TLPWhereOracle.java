@@ -1,8 +1,7 @@
 package sqlancer.sqlite3.oracle.tlp;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
@@ -21,8 +20,6 @@ public class SQLite3TLPWhereOracle extends SQLite3TLPBase {
         select.setWhereClause(null);
         String originalQueryString = SQLite3Visitor.asString(select);
 
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
         boolean orderBy = Randomly.getBooleanWithSmallProbability();
         if (orderBy) {
             select.setOrderByExpressions(gen.generateOrderBys());
@@ -33,11 +30,8 @@ public class SQLite3TLPWhereOracle extends SQLite3TLPBase {
         String secondQueryString = SQLite3Visitor.asString(select);
         select.setWhereClause(isNullPredicate);
         String thirdQueryString = SQLite3Visitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, !orderBy, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        ComparatorHelper.assumeResultSetsAreEqual(originalQueryString,
+                Arrays.asList(firstQueryString, secondQueryString, thirdQueryString), !orderBy, state, errors);
     }
 
 }
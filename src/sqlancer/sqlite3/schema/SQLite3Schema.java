@@ -19,7 +19,10 @@ import sqlancer.common.schema.AbstractSchema;
 import sqlancer.common.schema.AbstractTable;
 import sqlancer.common.schema.AbstractTableColumn;
 import sqlancer.common.schema.AbstractTables;
+import sqlancer.common.schema.RowReservoir;
+import sqlancer.common.schema.SchemaDelta;
 import sqlancer.common.schema.TableIndex;
+import sqlancer.common.schema.TableModification;
 import sqlancer.sqlite3.SQLite3Provider.SQLite3GlobalState;
 import sqlancer.sqlite3.ast.SQLite3Constant;
 import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Column.SQLite3CollateSequence;
@@ -34,11 +37,33 @@ public class SQLite3Schema extends AbstractSchema<SQLite3Table> {
     public static final List<String> ROWID_STRINGS = Collections
             .unmodifiableList(Arrays.asList("rowid", "_rowid_", "oid"));
     private final List<String> indexNames;
+    private final boolean hasTriggers;
+    private final boolean hasForeignKeys;
 
     public List<String> getIndexNames() {
         return indexNames;
     }
 
+    /**
+     * Returns whether the database might contain triggers, in which case a DML statement might modify other tables than
+     * its target table.
+     *
+     * @return true if the database might contain triggers
+     */
+    public boolean hasTriggers() {
+        return hasTriggers;
+    }
+
+    /**
+     * Returns whether a table of the database might have a foreign key, in which case a DML statement might modify the
+     * tables that reference its target table (e.g., by ON DELETE CASCADE or ON UPDATE SET NULL).
+     *
+     * @return true if a table might have a foreign key
+     */
+    public boolean hasForeignKeys() {
+        return hasForeignKeys;
+    }
+
     public String getRandomIndexOrBailout() {
         if (indexNames.isEmpty()) {
             throw new IgnoreMeException();
@@ -156,35 +181,11 @@ public class SQLite3Schema extends AbstractSchema<SQLite3Table> {
         }
 
         public SQLite3RowValue getRandomRowValue(Connection con) throws SQLException {
-            String randomRow = String.format("SELECT %s, %s FROM %s ORDER BY RANDOM() LIMIT 1", columnNamesAsString(
-                    c -> c.getTable().getName() + "." + c.getName() + " AS " + c.getTable().getName() + c.getName()),
-                    columnNamesAsString(c -> "typeof(" + c.getTable().getName() + "." + c.getName() + ")"),
-                    tableNamesAsString());
             Map<SQLite3Column, SQLite3Constant> values = new HashMap<>();
-            try (Statement s = con.createStatement()) {
-                ResultSet randomRowValues;
-                try {
-                    randomRowValues = s.executeQuery(randomRow);
-                } catch (SQLException e) {
-                    throw new IgnoreMeException();
-                }
-                if (!randomRowValues.next()) {
-                    throw new IgnoreMeException();
-                    // throw new AssertionError("could not find random row! " + randomRow);
-                }
-                for (int i = 0; i < getColumns().size(); i++) {
-                    SQLite3Column column = getColumns().get(i);
-                    int columnIndex = randomRowValues.findColumn(column.getTable().getName() + column.getName());
-                    assert columnIndex == i + 1;
-                    String typeString = randomRowValues.getString(columnIndex + getColumns().size());
-                    SQLite3DataType valueType = getColumnType(typeString);
-                    SQLite3Constant constant = getConstant(randomRowValues, columnIndex, valueType);
-                    values.put(column, constant);
-                }
-                assert !randomRowValues.next();
-                return new SQLite3RowValue(this, values);
+            for (SQLite3Table table : getTables()) {
+                values.putAll(table.getRandomRowValue(con));
             }
-
+            return new SQLite3RowValue(this, values);
         }
 
     }
@@ -201,6 +202,7 @@ public class SQLite3Schema extends AbstractSchema<SQLite3Table> {
         private final boolean withoutRowid;
         private final boolean isVirtual;
         private final boolean isReadOnly;
+        private final RowReservoir<SQLite3Column, SQLite3Constant> rowReservoir = new RowReservoir<>();
 
         public SQLite3Table(String tableName, List<SQLite3Column> columns, TableKind tableType, boolean withoutRowid,
                 boolean isView, boolean isVirtual, boolean isReadOnly) {
@@ -243,6 +245,23 @@ public class SQLite3Schema extends AbstractSchema<SQLite3Table> {
             return isReadOnly;
         }
 
+        Map<SQLite3Column, SQLite3Constant> getRandomRowValue(Connection con) throws SQLException {
+            List<SQLite3Column> columns = getColumns();
+            String query = String.format("SELECT %s, %s FROM %s",
+                    columns.stream().map(c -> getName() + "." + c.getName()).collect(Collectors.joining(", ")),
+                    columns.stream().map(c -> "typeof(" + getName() + "." + c.getName() + ")")
+                            .collect(Collectors.joining(", ")),
+                    getName());
+            return rowReservoir.getRandomRow(con, this, query, rs -> {
+                Map<SQLite3Column, SQLite3Constant> values = new HashMap<>();
+                for (int i = 0; i < columns.size(); i++) {
+                    SQLite3DataType valueType = getColumnType(rs.getString(i + 1 + columns.size()));
+                    values.put(columns.get(i), getConstant(rs, i + 1, valueType));
+                }
+                return values;
+            });
+        }
+
     }
 
     public static class SQLite3RowValue extends AbstractRowValue<SQLite3Tables, SQLite3Column, SQLite3Constant> {
@@ -253,9 +272,12 @@ public class SQLite3Schema extends AbstractSchema<SQLite3Table> {
 
     }
 
-    public SQLite3Schema(List<SQLite3Table> databaseTables, List<String> indexNames) {
+    public SQLite3Schema(List<SQLite3Table> databaseTables, List<String> indexNames, boolean hasTriggers,
+            boolean hasForeignKeys) {
         super(databaseTables);
         this.indexNames = indexNames;
+        this.hasTriggers = hasTriggers;
+        this.hasForeignKeys = hasForeignKeys;
     }
 
     @Override
@@ -271,6 +293,8 @@ public class SQLite3Schema extends AbstractSchema<SQLite3Table> {
     public static SQLite3Schema fromConnection(SQLite3GlobalState globalState) throws SQLException {
         List<SQLite3Table> databaseTables = new ArrayList<>();
         List<String> indexNames = new ArrayList<>();
+        boolean hasTriggers = false;
+        boolean hasForeignKeys = false;
         Connection con = globalState.getConnection();
 
         try (Statement s = con.createStatement()) {
@@ -278,54 +302,27 @@ public class SQLite3Schema extends AbstractSchema<SQLite3Table> {
                     + "SELECT name, 'temp_table' as category, sql FROM sqlite_temp_master WHERE type='table' UNION SELECT name, 'view' as category, sql FROM sqlite_temp_master WHERE type='view' GROUP BY name;")) {
                 while (rs.next()) {
                     String tableName = rs.getString("name");
-                    String tableType = rs.getString("category");
-                    boolean isReadOnly;
                     if (databaseTables.stream().anyMatch(t -> t.getName().contentEquals(tableName))) {
                         continue;
                     }
-                    String sqlString = rs.getString("sql") == null ? "" : rs.getString("sql").toLowerCase();
-                    if (tableName.startsWith("sqlite_") || tableType.equals("index") || tableType.equals("trigger")
-                            || tableName.endsWith("_idx") || tableName.endsWith("_docsize")
-                            || tableName.endsWith("_content") || tableName.endsWith("_data")
-                            || tableName.endsWith("_config") || tableName.endsWith("_segdir")
-                            || tableName.endsWith("_stat") || tableName.endsWith("_segments")
-                            || tableName.contains("_")) {
-                        isReadOnly = true;
-                        continue; // TODO
-                    } else if (sqlString.contains("using dbstat")) {
-                        isReadOnly = true;
-                    } else if (sqlString.contains("content=''")) {
-                        isReadOnly = true;
-                    } else {
-                        isReadOnly = false;
-                    }
-                    boolean withoutRowid = sqlString.contains("without rowid");
-                    boolean isView = tableType.contentEquals("view");
-                    boolean isVirtual = sqlString.contains("virtual");
-                    boolean isDbStatsTable = sqlString.contains("using dbstat");
-                    List<SQLite3Column> databaseColumns = getTableColumns(con, tableName, sqlString, isView,
-                            isDbStatsTable);
-                    SQLite3Table t = new SQLite3Table(tableName, databaseColumns,
-                            tableType.contentEquals("temp_table") ? TableKind.TEMP : TableKind.MAIN, withoutRowid,
-                            isView, isVirtual, isReadOnly);
-                    if (isRowIdTable(withoutRowid, isView, isVirtual)) {
-                        String rowId = Randomly.fromList(ROWID_STRINGS);
-                        SQLite3Column rowid = new SQLite3Column(rowId, SQLite3DataType.INT, true, null, true);
-                        t.addRowid(rowid);
-                        rowid.setTable(t);
+                    String sql = rs.getString("sql");
+                    SQLite3Table t = readTable(con, tableName, rs.getString("category"), sql);
+                    if (t != null) {
+                        databaseTables.add(t);
+                        hasForeignKeys |= hasForeignKey(sql);
                     }
-                    for (SQLite3Column c : databaseColumns) {
-                        c.setTable(t);
-                    }
-                    databaseTables.add(t);
                 }
             } catch (SQLException e) {
                 // ignore
             }
             try (ResultSet rs = s.executeQuery(
-                    "SELECT name FROM SQLite_master WHERE type = 'index' UNION SELECT name FROM sqlite_temp_master WHERE type='index'")) {
+                    "SELECT name, type FROM SQLite_master WHERE type IN ('index', 'trigger') UNION SELECT name, type FROM sqlite_temp_master WHERE type IN ('index', 'trigger')")) {
                 while (rs.next()) {
                     String name = rs.getString(1);
+                    if ("trigger".contentEquals(rs.getString(2))) {
+                        hasTriggers = true;
+                        continue;
+                    }
                     if (name.contains("_autoindex")) {
                         continue;
                     }
@@ -338,7 +335,184 @@ public class SQLite3Schema extends AbstractSchema<SQLite3Table> {
             }
         }
 
-        return new SQLite3Schema(databaseTables, indexNames);
+        return new SQLite3Schema(databaseTables, indexNames, hasTriggers, hasForeignKeys);
+    }
+
+    private static boolean hasForeignKey(String sql) {
+        return sql != null && sql.toLowerCase().contains("references");
+    }
+
+    private static SQLite3Table readTable(Connection con, String tableName, String tableType, String sql)
+            throws SQLException {
+        boolean isReadOnly;
+        String sqlString = sql == null ? "" : sql.toLowerCase();
+        if (tableName.startsWith("sqlite_") || tableType.equals("index") || tableType.equals("trigger")
+                || tableName.endsWith("_idx") || tableName.endsWith("_docsize") || tableName.endsWith("_content")
+                || tableName.endsWith("_data") || tableName.endsWith("_config") || tableName.endsWith("_segdir")
+                || tableName.endsWith("_stat") || tableName.endsWith("_segments") || tableName.contains("_")) {
+            isReadOnly = true;
+            return null; // TODO
+        } else if (sqlString.contains("using dbstat")) {
+            isReadOnly = true;
+        } else if (sqlString.contains("content=''")) {
+            isReadOnly = true;
+        } else {
+            isReadOnly = false;
+        }
+        boolean withoutRowid = sqlString.contains("without rowid");
+        boolean isView = tableType.contentEquals("view");
+        boolean isVirtual = sqlString.contains("virtual");
+        boolean isDbStatsTable = sqlString.contains("using dbstat");
+        List<SQLite3Column> databaseColumns = getTableColumns(con, tableName, sqlString, isView, isDbStatsTable);
+        SQLite3Table t = new SQLite3Table(tableName, databaseColumns,
+                tableType.contentEquals("temp_table") ? TableKind.TEMP : TableKind.MAIN, withoutRowid, isView,
+                isVirtual, isReadOnly);
+        if (isRowIdTable(withoutRowid, isView, isVirtual)) {
+            String rowId = Randomly.fromList(ROWID_STRINGS);
+            SQLite3Column rowid = new SQLite3Column(rowId, SQLite3DataType.INT, true, null, true);
+            t.addRowid(rowid);
+            rowid.setTable(t);
+        }
+        for (SQLite3Column c : databaseColumns) {
+            c.setTable(t);
+        }
+        return t;
+    }
+
+    /**
+     * Reads the PRAGMA schema_version values of the main and temp databases, which SQLite increments whenever the
+     * respective schema changes.
+     *
+     * @param con
+     *            the connection to the database
+     *
+     * @return the combined schema versions
+     *
+     * @throws SQLException
+     *             if the schema versions cannot be read
+     */
+    public static long readSchemaVersions(Connection con) throws SQLException {
+        try (Statement s = con.createStatement()) {
+            long version;
+            try (ResultSet rs = s.executeQuery("PRAGMA main.schema_version")) {
+                rs.next();
+                version = rs.getLong(1);
+            }
+            try (ResultSet rs = s.executeQuery("PRAGMA temp.schema_version")) {
+                rs.next();
+                return version << 32 ^ rs.getLong(1);
+            }
+        }
+    }
+
+    public static SchemaDelta<SQLite3Schema> addIndex(String indexName) {
+        return schema -> {
+            List<String> indexNames = new ArrayList<>(schema.getIndexNames());
+            indexNames.add(indexName);
+            return new SQLite3Schema(schema.getDatabaseTables(), indexNames, schema.hasTriggers(),
+                    schema.hasForeignKeys());
+        };
+    }
+
+    public static SchemaDelta<SQLite3Schema> dropIndex(String indexName) {
+        return schema -> {
+            List<String> indexNames = new ArrayList<>(schema.getIndexNames());
+            indexNames.remove(indexName);
+            return new SQLite3Schema(schema.getDatabaseTables(), indexNames, schema.hasTriggers(),
+                    schema.hasForeignKeys());
+        };
+    }
+
+    public static SchemaDelta<SQLite3Schema> dropView(String viewName) {
+        return schema -> new SQLite3Schema(schema.getTables(t -> !t.getName().contentEquals(viewName)),
+                schema.getIndexNames(), schema.hasTriggers(), schema.hasForeignKeys());
+    }
+
+    /**
+     * Returns a delta that reads a newly created view from the catalog, rather than the whole schema.
+     *
+     * @param globalState
+     *            the state whose connection is used
+     * @param viewName
+     *            the name of the created view
+     *
+     * @return the delta
+     */
+    public static SchemaDelta<SQLite3Schema> createView(SQLite3GlobalState globalState, String viewName) {
+        return schema -> addCreatedTable(globalState, schema, viewName);
+    }
+
+    /**
+     * Returns a delta that reads a newly created (and thus empty) table from the catalog, rather than the whole schema.
+     *
+     * @param globalState
+     *            the state whose connection is used
+     * @param tableName
+     *            the name of the created table
+     *
+     * @return the delta
+     */
+    public static SchemaDelta<SQLite3Schema> createTable(SQLite3GlobalState globalState, String tableName) {
+        return schema -> {
+            SQLite3Schema newSchema = addCreatedTable(globalState, schema, tableName);
+            if (newSchema != null) {
+                newSchema.getDatabaseTable(tableName).setRowCount(0);
+            }
+            return newSchema;
+        };
+    }
+
+    private static SQLite3Schema addCreatedTable(SQLite3GlobalState globalState, SQLite3Schema schema, String name)
+            throws SQLException {
+        List<SQLite3Table> databaseTables = new ArrayList<>(schema.getDatabaseTables());
+        if (databaseTables.stream().anyMatch(t -> t.getName().contentEquals(name))) {
+            return null;
+        }
+        boolean hasForeignKeys;
+        Connection con = globalState.getConnection();
+        try (Statement s = con.createStatement()) {
+            try (ResultSet rs = s.executeQuery(String.format(
+                    "SELECT type as category, sql FROM sqlite_master WHERE type IN ('table', 'view') AND name='%s' UNION SELECT CASE type WHEN 'table' THEN 'temp_table' ELSE type END as category, sql FROM sqlite_temp_master WHERE type IN ('table', 'view') AND name='%s';",
+                    name, name))) {
+                if (!rs.next()) {
+                    return null;
+                }
+                String sql = rs.getString("sql");
+                SQLite3Table t = readTable(con, name, rs.getString("category"), sql);
+                if (t == null) {
+                    return null;
+                }
+                databaseTables.add(t);
+                hasForeignKeys = hasForeignKey(sql);
+            }
+        }
+        return new SQLite3Schema(databaseTables, schema.getIndexNames(), schema.hasTriggers(),
+                schema.hasForeignKeys() || hasForeignKeys);
+    }
+
+    public static SchemaDelta<SQLite3Schema> addTrigger() {
+        return schema -> new SQLite3Schema(schema.getDatabaseTables(), schema.getIndexNames(), true,
+                schema.hasForeignKeys());
+    }
+
+    /**
+     * Returns the effect of a DML statement on the rows of its target table, or null if the statement might modify
+     * other tables as well (by triggers or by the actions of foreign keys, which are enforced if PRAGMA foreign_keys
+     * is enabled).
+     *
+     * @param table
+     *            the table that the statement modifies
+     * @param modification
+     *            the effect of the statement on the rows of the table
+     *
+     * @return the modification, or null if the rows of all tables need to be counted again
+     */
+    public TableModification getTableModification(SQLite3Table table, TableModification modification) {
+        if (hasTriggers || hasForeignKeys || table.isVirtual()) {
+            // virtual tables can interpret DML statements as commands (e.g., FTS "optimize")
+            return null;
+        }
+        return modification;
     }
 
     // https://www.sqlite.org/rowidtable.html
@@ -4,10 +4,19 @@ import sqlancer.common.query.ExpectedErrors;
 
 public final class TiDBErrors {
 
+    private static final ExpectedErrors EXPRESSION_ERRORS = getExpressionErrors();
+    private static final ExpectedErrors EXPRESSION_HAVING_ERRORS = getExpressionHavingErrors();
+    private static final ExpectedErrors INSERT_ERRORS = getInsertErrors();
+
     private TiDBErrors() {
     }
 
     public static void addExpressionErrors(ExpectedErrors errors) {
+        errors.addAll(EXPRESSION_ERRORS);
+    }
+
+    private static ExpectedErrors getExpressionErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("DECIMAL value is out of range");
         errors.add("error parsing regexp");
         errors.add("BIGINT UNSIGNED value is out of range");
@@ -44,14 +53,26 @@ public final class TiDBErrors {
         errors.add("inconsistent index"); // https://github.com/tidb-challenge-program/bug-hunting-issue/issues/58
 
         errors.add("Illegal mix of collations");
+        return errors.toImmutable();
     }
 
     public static void addExpressionHavingErrors(ExpectedErrors errors) {
+        errors.addAll(EXPRESSION_HAVING_ERRORS);
+    }
+
+    private static ExpectedErrors getExpressionHavingErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("is not in GROUP BY clause and contains nonaggregated column");
         errors.add("Unknown column");
+        return errors.toImmutable();
     }
 
     public static void addInsertErrors(ExpectedErrors errors) {
+        errors.addAll(INSERT_ERRORS);
+    }
+
+    private static ExpectedErrors getInsertErrors() {
+        ExpectedErrors errors = new ExpectedErrors();
         errors.add("Duplicate entry");
         errors.add("cannot be null");
         errors.add("doesn't have a default value");
@@ -74,6 +95,7 @@ public final class TiDBErrors {
             // https://github.com/tidb-challenge-program/bug-hunting-issue/issues/54
             errors.add("Miss column");
         }
+        return errors.toImmutable();
     }
 
 }
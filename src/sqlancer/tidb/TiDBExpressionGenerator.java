@@ -62,7 +62,7 @@ public class TiDBExpressionGenerator extends UntypedExpressionGenerator<TiDBExpr
             List<TiDBExpression> args = generateExpressions(func.getNrArgs());
             return new TiDBAggregate(args, func);
         }
-        switch (Randomly.fromOptions(Gen.values())) {
+        switch (globalState.getGrammarWeights().choose(Gen.values())) {
         case DEFAULT:
             if (TiDBBugs.bug15) {
                 throw new IgnoreMeException();
@@ -6,7 +6,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 
 import sqlancer.AbstractAction;
-import sqlancer.GlobalState;
+import sqlancer.DatabasePool;
 import sqlancer.IgnoreMeException;
 import sqlancer.Randomly;
 import sqlancer.SQLProviderAdapter;
@@ -15,6 +15,7 @@ import sqlancer.common.query.ExpectedErrors;
 import sqlancer.common.query.Query;
 import sqlancer.common.query.QueryAdapter;
 import sqlancer.common.query.QueryProvider;
+import sqlancer.mysql.MySQLProtocolGlobalState;
 import sqlancer.tidb.TiDBProvider.TiDBGlobalState;
 import sqlancer.tidb.gen.TiDBAlterTableGenerator;
 import sqlancer.tidb.gen.TiDBAnalyzeTableGenerator;
@@ -66,7 +67,7 @@ public class TiDBProvider extends SQLProviderAdapter<TiDBGlobalState, TiDBOption
         }
     }
 
-    public static class TiDBGlobalState extends GlobalState<TiDBOptions, TiDBSchema> {
+    public static class TiDBGlobalState extends MySQLProtocolGlobalState<TiDBOptions, TiDBSchema> {
 
         @Override
         protected TiDBSchema readSchema() throws SQLException {
@@ -132,24 +133,29 @@ public class TiDBProvider extends SQLProviderAdapter<TiDBGlobalState, TiDBOption
 
     @Override
     public Connection createDatabase(TiDBGlobalState globalState) throws SQLException {
-        String databaseName = globalState.getDatabaseName();
         String url = "jdbc:mysql://127.0.0.1:4000/";
-        Connection con = DriverManager.getConnection(url, globalState.getOptions().getUserName(),
-                globalState.getOptions().getPassword());
+        String userName = globalState.getOptions().getUserName();
+        String password = globalState.getOptions().getPassword();
+        String databaseName = DatabasePool.getEmptyDatabase(globalState, name -> {
+            try (Connection con = DriverManager.getConnection(url, userName, password);
+                    Statement s = con.createStatement()) {
+                s.execute("DROP DATABASE IF EXISTS " + name);
+                s.execute("CREATE DATABASE " + name);
+            }
+        });
         globalState.getState().logStatement("USE test");
         globalState.getState().logStatement("DROP DATABASE IF EXISTS " + databaseName);
-        String createDatabaseCommand = "CREATE DATABASE " + databaseName;
-        globalState.getState().logStatement(createDatabaseCommand);
+        globalState.getState().logStatement("CREATE DATABASE " + databaseName);
         globalState.getState().logStatement("USE " + databaseName);
-        try (Statement s = con.createStatement()) {
-            s.execute("DROP DATABASE IF EXISTS " + databaseName);
-        }
-        try (Statement s = con.createStatement()) {
-            s.execute(createDatabaseCommand);
-        }
-        con.close();
-        con = DriverManager.getConnection("jdbc:mysql://127.0.0.1:4000/" + databaseName,
+        return DriverManager.getConnection(url + databaseName, userName, password);
+    }
+
+    @Override
+    public Connection createReadConnection(TiDBGlobalState globalState) throws SQLException {
+        Connection con = DriverManager.getConnection(globalState.getConnection().getMetaData().getURL(),
                 globalState.getOptions().getUserName(), globalState.getOptions().getPassword());
+        // TiDBSetGenerator only changes session variables
+        replaySessionStatements(con, globalState, s -> s.startsWith("set @@"));
         return con;
     }
 
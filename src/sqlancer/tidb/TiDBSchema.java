@@ -1,10 +1,7 @@
 package sqlancer.tidb;
 
 import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
 import java.util.List;
 
 import sqlancer.Randomly;
@@ -12,6 +9,7 @@ import sqlancer.common.schema.AbstractSchema;
 import sqlancer.common.schema.AbstractTable;
 import sqlancer.common.schema.AbstractTableColumn;
 import sqlancer.common.schema.AbstractTables;
+import sqlancer.common.schema.CatalogSnapshot;
 import sqlancer.common.schema.TableIndex;
 import sqlancer.tidb.TiDBSchema.TiDBTable;
 
@@ -243,62 +241,34 @@ public class TiDBSchema extends AbstractSchema<TiDBTable> {
     }
 
     public static TiDBSchema fromConnection(Connection con, String databaseName) throws SQLException {
-        List<TiDBTable> databaseTables = new ArrayList<>();
-        List<String> tableNames = getTableNames(con);
-        for (String tableName : tableNames) {
-            List<TiDBColumn> databaseColumns = getTableColumns(con, tableName);
-            List<TableIndex> indexes = getIndexes(con, tableName);
-            boolean isView = tableName.startsWith("v");
-            TiDBTable t = new TiDBTable(tableName, databaseColumns, indexes, isView);
-            for (TiDBColumn c : databaseColumns) {
-                c.setTable(t);
-            }
-            databaseTables.add(t);
-
-        }
-        return new TiDBSchema(databaseTables);
-    }
-
-    private static List<String> getTableNames(Connection con) throws SQLException {
-        List<String> tableNames = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            ResultSet tableRs = s.executeQuery("SHOW TABLES");
-            while (tableRs.next()) {
-                String tableName = tableRs.getString(1);
-                tableNames.add(tableName);
-            }
-        }
-        return tableNames;
-    }
-
-    private static List<TableIndex> getIndexes(Connection con, String tableName) throws SQLException {
-        List<TableIndex> indexes = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery(String.format("SHOW INDEX FROM %s", tableName))) {
-                while (rs.next()) {
-                    String indexName = rs.getString("Key_name");
-                    indexes.add(TableIndex.create(indexName));
-                }
-            }
-        }
-        return indexes;
-    }
-
-    private static List<TiDBColumn> getTableColumns(Connection con, String tableName) throws SQLException {
-        List<TiDBColumn> columns = new ArrayList<>();
-        try (Statement s = con.createStatement()) {
-            try (ResultSet rs = s.executeQuery("SHOW COLUMNS FROM " + tableName)) {
-                while (rs.next()) {
-                    String columnName = rs.getString("Field");
-                    String dataType = rs.getString("Type");
-                    boolean isNullable = rs.getString("Null").contentEquals("YES");
-                    boolean isPrimaryKey = rs.getString("Key").contains("PRI");
-                    TiDBColumn c = new TiDBColumn(columnName, getColumnType(dataType), isPrimaryKey, isNullable);
-                    columns.add(c);
-                }
-            }
-        }
-        return columns;
+        CatalogSnapshot<TiDBTable, TiDBColumn, TableIndex> snapshot = new CatalogSnapshot<>();
+        CatalogSnapshot.scan(con,
+                "SELECT TABLE_NAME FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() ORDER BY TABLE_NAME",
+                rs -> snapshot.addTable(rs.getString("TABLE_NAME")));
+        CatalogSnapshot.scan(con,
+                "SELECT TABLE_NAME, COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE, COLUMN_KEY FROM information_schema.COLUMNS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() ORDER BY TABLE_NAME, ORDINAL_POSITION",
+                rs -> {
+                    String tableName = rs.getString("TABLE_NAME");
+                    if (snapshot.containsTable(tableName)) {
+                        String columnName = rs.getString("COLUMN_NAME");
+                        String dataType = rs.getString("COLUMN_TYPE");
+                        boolean isNullable = rs.getString("IS_NULLABLE").contentEquals("YES");
+                        boolean isPrimaryKey = rs.getString("COLUMN_KEY").contains("PRI");
+                        snapshot.addColumn(tableName,
+                                new TiDBColumn(columnName, getColumnType(dataType), isPrimaryKey, isNullable));
+                    }
+                });
+        CatalogSnapshot.scan(con,
+                "SELECT TABLE_NAME, INDEX_NAME FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE()",
+                rs -> {
+                    String tableName = rs.getString("TABLE_NAME");
+                    if (snapshot.containsTable(tableName)) {
+                        snapshot.addIndex(tableName, TableIndex.create(rs.getString("INDEX_NAME")));
+                    }
+                });
+        return new TiDBSchema(snapshot.toTables((tableName, columns, indexes) -> new TiDBTable(tableName, columns,
+                indexes, tableName.startsWith("v"))));
     }
 
 }
@@ -6,6 +6,7 @@ import java.util.List;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
+import sqlancer.ResultMultiset;
 import sqlancer.common.oracle.TestOracle;
 import sqlancer.tidb.TiDBErrors;
 import sqlancer.tidb.TiDBProvider.TiDBGlobalState;
@@ -32,19 +33,21 @@ public class TiDBTLPHavingOracle extends TiDBTLPBase implements TestOracle {
         select.setGroupByExpressions(gen.generateExpressions(Randomly.smallNumber() + 1));
         select.setHavingClause(null);
         String originalQueryString = TiDBVisitor.asString(select);
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
-        select.setHavingClause(predicate);
-        String firstQueryString = TiDBVisitor.asString(select);
-        select.setHavingClause(negatedPredicate);
-        String secondQueryString = TiDBVisitor.asString(select);
-        select.setHavingClause(isNullPredicate);
-        String thirdQueryString = TiDBVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, !orderBy, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
+        try (ResultMultiset resultSet = ComparatorHelper.getResultSetFirstColumnAsMultiset(originalQueryString, errors,
+                state)) {
+            select.setHavingClause(predicate);
+            String firstQueryString = TiDBVisitor.asString(select);
+            select.setHavingClause(negatedPredicate);
+            String secondQueryString = TiDBVisitor.asString(select);
+            select.setHavingClause(isNullPredicate);
+            String thirdQueryString = TiDBVisitor.asString(select);
+            List<String> combinedString = new ArrayList<>();
+            try (ResultMultiset secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString,
+                    secondQueryString, thirdQueryString, combinedString, !orderBy, state, errors)) {
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, state);
+            }
+        }
     }
 
     @Override
@@ -6,6 +6,7 @@ import java.util.List;
 
 import sqlancer.ComparatorHelper;
 import sqlancer.Randomly;
+import sqlancer.ResultMultiset;
 import sqlancer.tidb.TiDBErrors;
 import sqlancer.tidb.TiDBProvider.TiDBGlobalState;
 import sqlancer.tidb.visitor.TiDBVisitor;
@@ -23,23 +24,25 @@ public class TiDBTLPWhereOracle extends TiDBTLPBase {
         select.setWhereClause(null);
         String originalQueryString = TiDBVisitor.asString(select);
 
-        List<String> resultSet = ComparatorHelper.getResultSetFirstColumnAsString(originalQueryString, errors, state);
-
-        boolean orderBy = Randomly.getBooleanWithRatherLowProbability();
-        if (orderBy) {
-            select.setOrderByExpressions(gen.generateOrderBys());
+        try (ResultMultiset resultSet = ComparatorHelper.getResultSetFirstColumnAsMultiset(originalQueryString, errors,
+                state)) {
+            boolean orderBy = Randomly.getBooleanWithRatherLowProbability();
+            if (orderBy) {
+                select.setOrderByExpressions(gen.generateOrderBys());
+            }
+            select.setWhereClause(predicate);
+            String firstQueryString = TiDBVisitor.asString(select);
+            select.setWhereClause(negatedPredicate);
+            String secondQueryString = TiDBVisitor.asString(select);
+            select.setWhereClause(isNullPredicate);
+            String thirdQueryString = TiDBVisitor.asString(select);
+            List<String> combinedString = new ArrayList<>();
+            try (ResultMultiset secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString,
+                    secondQueryString, thirdQueryString, combinedString, !orderBy, state, errors)) {
+                ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString,
+                        combinedString, state);
+            }
         }
-        select.setWhereClause(predicate);
-        String firstQueryString = TiDBVisitor.asString(select);
-        select.setWhereClause(negatedPredicate);
-        String secondQueryString = TiDBVisitor.asString(select);
-        select.setWhereClause(isNullPredicate);
-        String thirdQueryString = TiDBVisitor.asString(select);
-        List<String> combinedString = new ArrayList<>();
-        List<String> secondResultSet = ComparatorHelper.getCombinedResultSet(firstQueryString, secondQueryString,
-                thirdQueryString, combinedString, !orderBy, state, errors);
-        ComparatorHelper.assumeResultSetsAreEqual(resultSet, secondResultSet, originalQueryString, combinedString,
-                state);
     }
 
 }
@@ -0,0 +1,102 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.ActionScheduler.ActionStatistics;
+
+public class TestActionScheduler {
+
+    private static ActionStatistics[] newStatistics(int nr) {
+        ActionStatistics[] statistics = new ActionStatistics[nr];
+        for (int i = 0; i < nr; i++) {
+            statistics[i] = new ActionStatistics();
+        }
+        return statistics;
+    }
+
+    @Test // test that every action is drawn exactly as often as specified
+    public void testNrExecutions() {
+        int[] nrExecutions = { 3, 0, 17, 1, 0, 8, 5 };
+        for (boolean adaptive : new boolean[] { false, true }) {
+            ActionStatistics[] statistics = newStatistics(nrExecutions.length);
+            ActionScheduler scheduler = new ActionScheduler(statistics, nrExecutions, 1000, adaptive);
+            Randomly r = new Randomly(0);
+            int[] drawn = new int[nrExecutions.length];
+            while (scheduler.hasNext()) {
+                int i = scheduler.next(r);
+                drawn[i]++;
+                scheduler.record(i, i % 2 == 0, 1000 * (i + 1));
+            }
+            assertArrayEquals(nrExecutions, drawn);
+        }
+    }
+
+    @Test // test that the draw of a non-adaptive scheduler is proportional to the remaining executions
+    public void testNonAdaptiveDraw() {
+        int[] nrExecutions = { 2, 5, 0, 7 };
+        ActionScheduler scheduler = new ActionScheduler(newStatistics(nrExecutions.length), nrExecutions, 1000, false);
+        int[] nrRemaining = nrExecutions.clone();
+        int total = 14;
+        new Randomly(1);
+        long[] selections = new long[total];
+        for (int i = 0; i < total; i++) {
+            selections[i] = Randomly.getNotCachedInteger(0, total - i);
+        }
+        Randomly r = new Randomly(1);
+        for (long selection : selections) {
+            int expected = 0;
+            long previousRange = 0;
+            while (selection >= previousRange + nrRemaining[expected]) {
+                previousRange += nrRemaining[expected];
+                expected++;
+            }
+            nrRemaining[expected]--;
+            assertEquals(expected, scheduler.next(r));
+        }
+        assertFalse(scheduler.hasNext());
+    }
+
+    @Test
+    public void testAdaptive() {
+        ActionStatistics[] statistics = newStatistics(2);
+        ActionScheduler learning = new ActionScheduler(statistics, new int[] { 0, 0 }, 1000, true);
+        for (int i = 0; i < ActionScheduler.MIN_TRIES_BEFORE_LIMITING_RETRIES * 10; i++) {
+            learning.record(0, true, 1000);
+            learning.record(1, false, 1000);
+        }
+        ActionScheduler scheduler = new ActionScheduler(statistics, new int[] { 100, 100 }, 1000, true);
+        assertEquals(1000, scheduler.getRetryCount(0));
+        assertEquals(ActionScheduler.LIMITED_RETRY_COUNT, scheduler.getRetryCount(1));
+        Randomly r = new Randomly(2);
+        int nrFirstDrawn = 0;
+        for (int i = 0; i < 50; i++) {
+            if (scheduler.next(r) == 0) {
+                nrFirstDrawn++;
+            }
+        }
+        assertTrue(nrFirstDrawn > 35, String.valueOf(nrFirstDrawn)); // about 25 if the draw were not adaptive
+        ActionScheduler nonAdaptive = new ActionScheduler(statistics, new int[] { 100, 100 }, 1000, false);
+        assertEquals(1000, nonAdaptive.getRetryCount(1));
+    }
+
+    @Test // test that the timing of one thread does not affect the scheduling of another thread
+    public void testStatisticsPerThread() throws InterruptedException {
+        ActionStatistics statistics = ActionScheduler.getStatistics("provider", "action");
+        assertSame(statistics, ActionScheduler.getStatistics("provider", "action"));
+        AtomicReference<ActionStatistics> otherStatistics = new AtomicReference<>();
+        Thread thread = new Thread(() -> otherStatistics.set(ActionScheduler.getStatistics("provider", "action")));
+        thread.start();
+        thread.join();
+        assertNotSame(statistics, otherStatistics.get());
+    }
+
+}
@@ -1,11 +1,14 @@
 package sqlancer;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
 import sqlancer.common.query.ExpectedErrors;
+import sqlancer.sqlite3.SQLite3Errors;
 
 public class TestExpectedErrors {
 
@@ -37,4 +40,45 @@ public class TestExpectedErrors {
         assertTrue(errors.errorIsExpected("PRIMARY KEY constraint was violated!"));
     }
 
+    @Test
+    public void testImmutable() {
+        ExpectedErrors errors = ExpectedErrors.from("abcd", "bce", "violated", "é").toImmutable();
+        assertTrue(errors.errorIsExpected("xabcex")); // found after following the failure link of "abc"
+        assertTrue(errors.errorIsExpected("UNIQUE constraint was violated!"));
+        assertTrue(errors.errorIsExpected("café"));
+        assertFalse(errors.errorIsExpected("abc bc"));
+        assertFalse(errors.errorIsExpected(""));
+        assertThrows(UnsupportedOperationException.class, () -> errors.add("a"));
+        assertSame(errors, errors.toImmutable());
+    }
+
+    @Test
+    public void testUnion() {
+        ExpectedErrors first = ExpectedErrors.from("a").toImmutable();
+        ExpectedErrors second = ExpectedErrors.from("b");
+        ExpectedErrors union = ExpectedErrors.union(first, second);
+        assertTrue(union.errorIsExpected("a"));
+        assertTrue(union.errorIsExpected("b"));
+        assertFalse(union.errorIsExpected("c"));
+
+        ExpectedErrors errors = new ExpectedErrors().addAll(union).add("c");
+        assertTrue(errors.errorIsExpected("b"));
+        assertTrue(errors.errorIsExpected("c"));
+        assertFalse(errors.errorIsExpected("d"));
+    }
+
+    @Test
+    public void testSharedErrors() {
+        ExpectedErrors errors = new ExpectedErrors().add("c");
+        SQLite3Errors.addDeleteErrors(errors);
+        SQLite3Errors.addQueryErrors(errors);
+        SQLite3Errors.addDeleteErrors(errors);
+        assertTrue(errors.errorIsExpected("ON clause references tables to its right"));
+        assertTrue(errors.errorIsExpected("table t0 has 2 columns but 3 values were supplied"));
+        assertTrue(errors.errorIsExpected("c"));
+        assertFalse(errors.errorIsExpected("d"));
+        errors.add("d");
+        assertTrue(errors.errorIsExpected("d"));
+    }
+
 }
@@ -0,0 +1,94 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.gen.GrammarWeights;
+import sqlancer.common.metrics.MetricsRegistry;
+import sqlancer.common.metrics.MetricsRegistry.ProductionCounters;
+
+public class TestGrammarWeights {
+
+    private enum Production {
+        SUCCEEDING, FAILING, UNUSED
+    }
+
+    private static int countFailing(GrammarWeights weights) {
+        int nrFailing = 0;
+        for (int i = 0; i < 1000; i++) {
+            Production p = weights.choose(Production.SUCCEEDING, Production.FAILING);
+            if (p == Production.FAILING) {
+                nrFailing++;
+            }
+            weights.takeChoices().recordOutcome(p == Production.SUCCEEDING);
+        }
+        return nrFailing;
+    }
+
+    @Test
+    public void testWeighting() {
+        new Randomly(0);
+        int nrFailing = countFailing(new GrammarWeights(MetricsRegistry.getInstance(), "weighted", true));
+        assertTrue(nrFailing < 200, String.valueOf(nrFailing)); // about 500 if the draw were not weighted
+        assertTrue(nrFailing > 0);
+        int nrFailingUnweighted = countFailing(
+                new GrammarWeights(MetricsRegistry.getInstance(), "unweighted", false));
+        assertTrue(nrFailingUnweighted > 400, String.valueOf(nrFailingUnweighted));
+    }
+
+    @Test
+    public void testCounters() {
+        String provider = "counters";
+        GrammarWeights weights = new GrammarWeights(MetricsRegistry.getInstance(), provider, true);
+        weights.choose(Arrays.asList(Production.FAILING));
+        weights.choose(Production.FAILING);
+        GrammarWeights.Productions failingStatement = weights.takeChoices();
+        weights.choose(Production.SUCCEEDING);
+        GrammarWeights.Productions succeedingStatement = weights.takeChoices();
+        // the outcomes are attributed to the statements that hold the productions, in any order
+        succeedingStatement.recordOutcome(true);
+        failingStatement.recordOutcome(false);
+        weights.takeChoices().recordOutcome(true); // no production was chosen for this statement
+        weights.choose(Production.UNUSED);
+        weights.discardChoices();
+        weights.choose(Production.SUCCEEDING);
+        weights.takeChoices().recordOutcome(false);
+        ProductionCounters failing = MetricsRegistry.getInstance().getProductionCounters(provider,
+                "TestGrammarWeights.Production.FAILING");
+        assertEquals(1, failing.getStatements());
+        assertEquals(1, failing.getFailures());
+        ProductionCounters succeeding = MetricsRegistry.getInstance().getProductionCounters(provider,
+                "TestGrammarWeights.Production.SUCCEEDING");
+        assertEquals(2, succeeding.getStatements());
+        assertEquals(1, succeeding.getFailures());
+        ProductionCounters unused = MetricsRegistry.getInstance().getProductionCounters(provider,
+                "TestGrammarWeights.Production.UNUSED");
+        assertEquals(0, unused.getStatements());
+    }
+
+    @Test // test that the failure of a query of a check is attributed to the productions of the check
+    public void testCheckOutcome() {
+        GrammarWeights weights = new GrammarWeights(MetricsRegistry.getInstance(), "checks", true);
+        weights.recordFailure(); // fails before the check, e.g., when the database is generated
+        weights.discardChoices();
+        weights.choose(Production.FAILING); // the predicate
+        GrammarWeights.Productions productions = weights.takeChoices();
+        assertFalse(productions.causedError());
+        weights.choose(Production.FAILING);
+        weights.recordFailure(); // a partitioning query that contains the predicate fails
+        productions = weights.takeChoices();
+        assertTrue(productions.causedError());
+        productions.recordOutcome(!productions.causedError());
+        ProductionCounters failing = MetricsRegistry.getInstance().getProductionCounters("checks",
+                "TestGrammarWeights.Production.FAILING");
+        assertEquals(1, failing.getStatements());
+        assertEquals(1, failing.getFailures());
+        assertFalse(weights.takeChoices().causedError());
+    }
+
+}
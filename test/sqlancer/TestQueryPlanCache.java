@@ -0,0 +1,42 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.oracle.QueryPlanCache;
+
+public class TestQueryPlanCache {
+
+    @Test
+    public void testSaturation() {
+        new Randomly(0);
+        QueryPlanCache cache = new QueryPlanCache(10, 5);
+        int nrChecks = 0;
+        for (int i = 1; i <= 10000; i++) {
+            long count = cache.record("SCAN t0\n");
+            assertEquals(i, count);
+            if (cache.shouldCheck(count)) {
+                nrChecks++;
+            }
+        }
+        // about 5 + 5 * ln(10000 / 5)
+        assertTrue(nrChecks >= 5 && nrChecks < 100, String.valueOf(nrChecks));
+        assertEquals(1, cache.record("SEARCH t0 USING INDEX i0 (c0=?)\n"));
+        assertTrue(cache.shouldCheck(1));
+    }
+
+    @Test
+    public void testEviction() {
+        QueryPlanCache cache = new QueryPlanCache(2, 5);
+        cache.record("a");
+        cache.record("b");
+        cache.record("a");
+        cache.record("c");
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.record("a"));
+        assertEquals(1, cache.record("b"));
+    }
+
+}
@@ -168,6 +168,12 @@ public class TestRandomly {
         assertThrows(Exception.class, () -> Randomly.getNotCachedInteger(5, 0));
     }
 
+    @Test
+    public void testFromEmptyList() {
+        assertThrows(IllegalArgumentException.class, () -> Randomly.fromList(new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class, () -> Randomly.fromOptions(new Integer[0]));
+    }
+
     @Test
     public void testInteger() {
         Randomly r = new Randomly();
@@ -0,0 +1,156 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TestResultMultiset {
+
+    private static boolean isEqual(ResultMultiset first, ResultMultiset second) {
+        return ResultMultiset.compare(first, second, 10, new ArrayList<>(), new ArrayList<>());
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(isEqual(new ResultMultiset(10), new ResultMultiset(10)));
+    }
+
+    @Test
+    public void testOrderIsIgnored() {
+        ResultMultiset first = new ResultMultiset(10);
+        first.addLong(1);
+        first.addText("a");
+        first.addNull();
+        first.addDouble(0.5);
+        ResultMultiset second = new ResultMultiset(10);
+        second.addDouble(0.5);
+        second.addNull();
+        second.addText("a");
+        second.addLong(1);
+        assertTrue(isEqual(first, second));
+    }
+
+    @Test
+    public void testMultiplicities() {
+        ResultMultiset first = new ResultMultiset(10);
+        first.addText("a");
+        first.addText("a");
+        first.addText("b");
+        ResultMultiset second = new ResultMultiset(10);
+        second.addText("a");
+        second.addText("b");
+        second.addText("b");
+        List<String> firstMisses = new ArrayList<>();
+        List<String> secondMisses = new ArrayList<>();
+        assertFalse(ResultMultiset.compare(first, second, 10, firstMisses, secondMisses));
+        assertEquals(Arrays.asList("a"), firstMisses);
+        assertEquals(Arrays.asList("b"), secondMisses);
+    }
+
+    @Test
+    public void testKindsDoNotMatch() {
+        ResultMultiset first = new ResultMultiset(10);
+        first.addLong(1);
+        ResultMultiset second = new ResultMultiset(10);
+        second.addText("1");
+        assertFalse(isEqual(first, second));
+    }
+
+    @Test
+    public void testDoubleTolerance() {
+        ResultMultiset first = new ResultMultiset(10);
+        first.addDouble(1.0);
+        first.addDouble(100.0);
+        first.addDouble(Double.NaN);
+        ResultMultiset second = new ResultMultiset(10);
+        second.addDouble(Double.NaN);
+        second.addDouble(100.00001);
+        second.addDouble(1.0000001);
+        assertTrue(isEqual(first, second));
+        second.addDouble(2.0);
+        first.addDouble(3.0);
+        assertFalse(isEqual(first, second));
+    }
+
+    @Test
+    public void testSpill() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(i % 97);
+        }
+        try (ResultMultiset first = new ResultMultiset(64); ResultMultiset second = new ResultMultiset(1000)) {
+            for (int value : values) {
+                first.addLong(value);
+                first.addText("t" + value);
+                first.addDouble(value / 3.0);
+            }
+            Collections.shuffle(values, new Random(0));
+            for (int value : values) {
+                second.addDouble(value / 3.0);
+                second.addLong(value);
+                second.addText("t" + value);
+            }
+            assertEquals(first.size(), second.size());
+            assertTrue(isEqual(first, second));
+            second.addLong(5);
+            first.addLong(6);
+            List<String> firstMisses = new ArrayList<>();
+            List<String> secondMisses = new ArrayList<>();
+            assertFalse(ResultMultiset.compare(first, second, 10, firstMisses, secondMisses));
+            assertEquals(Arrays.asList("6"), firstMisses);
+            assertEquals(Arrays.asList("5"), secondMisses);
+        }
+    }
+
+    @Test
+    public void testSpillFiles() {
+        int nrFiles = countRunFiles();
+        try (ResultMultiset multiset = new ResultMultiset(8)) {
+            for (int i = 0; i < 16; i++) {
+                multiset.addLong(i);
+            }
+            // only the integers are written, to one run per spill
+            assertEquals(nrFiles + 2, countRunFiles());
+        }
+        assertEquals(nrFiles, countRunFiles());
+    }
+
+    private static int countRunFiles() {
+        File[] files = new File(System.getProperty("java.io.tmpdir"))
+                .listFiles((dir, name) -> name.startsWith("sqlancer-result"));
+        return files == null ? 0 : files.length;
+    }
+
+    @Test
+    public void testAddAll() {
+        try (ResultMultiset first = new ResultMultiset(8); ResultMultiset second = new ResultMultiset(8);
+                ResultMultiset third = new ResultMultiset(8)) {
+            for (int i = 0; i < 20; i++) {
+                first.addLong(i);
+                first.addText("t" + i % 3);
+                if (i % 2 == 0) {
+                    second.addLong(i);
+                    second.addText("t" + i % 3);
+                } else {
+                    third.addText("t" + i % 3);
+                    third.addLong(i);
+                }
+            }
+            first.addNull();
+            third.addNull();
+            second.addAll(third);
+            assertEquals(first.size(), second.size());
+            assertTrue(isEqual(first, second));
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.beust.jcommander.JCommander;
+
+import sqlancer.Main.QueryManager;
+import sqlancer.common.query.ExpectedErrors;
+import sqlancer.common.query.QueryAdapter;
+import sqlancer.common.schema.TableModification;
+import sqlancer.sqlite3.SQLite3Provider;
+import sqlancer.sqlite3.SQLite3Provider.SQLite3GlobalState;
+import sqlancer.sqlite3.schema.SQLite3Schema;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Table;
+import sqlancer.sqlite3.schema.SQLite3Schema.SQLite3Tables;
+
+public class TestRowReservoir {
+
+    @Test
+    public void testSampleDroppedAfterCascadingDelete() throws Exception {
+        new Randomly(0);
+        try (Connection con = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            try (Statement s = con.createStatement()) {
+                s.execute("PRAGMA foreign_keys = ON");
+                s.execute("CREATE TABLE t0 (c0 INT PRIMARY KEY)");
+                s.execute("CREATE TABLE t1 (c0 INT REFERENCES t0(c0) ON DELETE CASCADE)");
+                s.execute("INSERT INTO t0 VALUES (1)");
+                s.execute("INSERT INTO t1 VALUES (1)");
+            }
+            SQLite3GlobalState state = createGlobalState(con);
+            SQLite3Schema schema = state.getSchema();
+            SQLite3Table t0 = schema.getDatabaseTable("t0");
+            SQLite3Table t1 = schema.getDatabaseTable("t1");
+            SQLite3Tables pivotTables = new SQLite3Tables(Arrays.asList(t1));
+            assertEquals(1, pivotTables.getRandomRowValue(con).getValues().size());
+
+            TableModification modification = schema.getTableModification(t0, TableModification.delete("t0"));
+            // the DELETE also deletes the rows of t1 that reference the deleted rows
+            assertNull(modification);
+            state.executeStatement(new QueryAdapter("DELETE FROM t0", new ExpectedErrors(), modification));
+            assertEquals(0, t1.getNrRows(state));
+            assertThrows(IgnoreMeException.class, () -> pivotTables.getRandomRowValue(con));
+        }
+    }
+
+    private static SQLite3GlobalState createGlobalState(Connection con) {
+        MainOptions options = new MainOptions();
+        JCommander.newBuilder().addObject(options).build().parse("--log-each-select", "false",
+                "--statement-timeout-ms", "0");
+        SQLite3GlobalState state = new SQLite3GlobalState();
+        state.setMainOptions(options);
+        state.setConnection(con);
+        state.setState(new StateToReproduce("test", new SQLite3Provider()));
+        state.setManager(new QueryManager(state));
+        return state;
+    }
+
+}
@@ -0,0 +1,91 @@
+package sqlancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.common.log.StatementJournal;
+
+public class TestStatementJournal {
+
+    @Test
+    public void testEmpty() {
+        try (StatementJournal journal = new StatementJournal()) {
+            assertFalse(journal.iterator().hasNext());
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        List<String> statements = new ArrayList<>();
+        statements.add("CREATE TABLE t0(c0 INT, c1 TEXT);");
+        statements.add("INSERT INTO t0(c0, c1) VALUES (1, 'a'), (-2, 'äöü');");
+        statements.add("INSERT INTO t0(c0, c1) VALUES (3, 'b');");
+        statements.add("SELECT t0.c0 FROM t0 WHERE t0.c1 IS NULL;");
+        statements.add("");
+        statements.add("-- comment with a trailing _word");
+        try (StatementJournal journal = new StatementJournal()) {
+            for (String s : statements) {
+                journal.append(s);
+            }
+            assertEquals(statements.size(), journal.size());
+            assertEquals(statements, toList(journal));
+        }
+    }
+
+    @Test
+    public void testSegmentRollover() {
+        Randomly r = new Randomly(0);
+        List<String> statements = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            statements.add("INSERT INTO t" + i % 3 + "(c0) VALUES ('" + r.getString() + "');");
+        }
+        statements.add(String.format("SELECT '%0500d';", 0)); // larger than a segment
+        try (StatementJournal journal = new StatementJournal(64)) {
+            for (String s : statements) {
+                journal.append(s);
+            }
+            assertEquals(statements, toList(journal));
+        }
+    }
+
+    @Test
+    public void testClosed() {
+        StatementJournal journal = new StatementJournal();
+        journal.append("SELECT 1;");
+        journal.close();
+        assertThrows(IllegalStateException.class, () -> journal.append("SELECT 2;"));
+    }
+
+    @Test
+    public void testSegmentFilesDeleted() {
+        int nrFiles = countSegmentFiles();
+        try (StatementJournal journal = new StatementJournal(64)) {
+            for (int i = 0; i < 100; i++) {
+                journal.append("SELECT " + i + " FROM t0;");
+            }
+        }
+        assertEquals(nrFiles, countSegmentFiles());
+    }
+
+    private static int countSegmentFiles() {
+        File[] files = new File(System.getProperty("java.io.tmpdir"))
+                .listFiles((dir, name) -> name.startsWith("sqlancer-journal-"));
+        return files == null ? 0 : files.length;
+    }
+
+    private static List<String> toList(StatementJournal journal) {
+        List<String> result = new ArrayList<>();
+        for (String s : journal) {
+            result.add(s);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,86 @@
+package sqlancer.postgres;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import sqlancer.Randomly;
+import sqlancer.postgres.PostgresSchema.PostgresColumn;
+import sqlancer.postgres.PostgresSchema.PostgresDataType;
+import sqlancer.postgres.PostgresSchema.PostgresTable;
+import sqlancer.postgres.PostgresSchema.PostgresTable.TableType;
+import sqlancer.postgres.PostgresUsedValues.IntSet;
+import sqlancer.postgres.ast.PostgresBinaryComparisonOperation;
+import sqlancer.postgres.ast.PostgresBinaryComparisonOperation.PostgresBinaryComparisonOperator;
+import sqlancer.postgres.ast.PostgresColumnValue;
+import sqlancer.postgres.ast.PostgresConstant;
+import sqlancer.postgres.ast.PostgresExpression;
+import sqlancer.postgres.gen.PostgresIntervalConstraint;
+
+/**
+ * Generates random check constraints for the INT columns of a table t0, for the tests and benchmarks of
+ * {@link PostgresIntervalConstraint}. Like PostgresExpressionGeneratorLite, each operand of a check constraint of a
+ * column is one of the columns created so far (including the column itself) or a constant.
+ */
+public final class PostgresCheckListGenerator {
+
+    private final List<PostgresColumn> columns = new ArrayList<>();
+    private final List<PostgresBinaryComparisonOperator> operators = new ArrayList<>(
+            Arrays.asList(PostgresBinaryComparisonOperator.values()));
+
+    public PostgresCheckListGenerator(int nrColumns) {
+        for (int i = 0; i < nrColumns; i++) {
+            columns.add(new PostgresColumn("c" + i, PostgresDataType.INT));
+        }
+        PostgresTable table = new PostgresTable("t0", columns, Collections.emptyList(), TableType.STANDARD,
+                Collections.emptyList(), false, true);
+        for (PostgresColumn c : columns) {
+            c.setTable(table);
+        }
+        operators.remove(PostgresBinaryComparisonOperator.IS_DISTINCT);
+        operators.remove(PostgresBinaryComparisonOperator.IS_NOT_DISTINCT);
+    }
+
+    public List<PostgresColumn> getColumns() {
+        return columns;
+    }
+
+    public List<PostgresExpression> generateChecks(int nrChecks, int column) {
+        List<PostgresExpression> checks = new ArrayList<>();
+        for (int i = 0; i < nrChecks; i++) {
+            PostgresExpression[] operands = new PostgresExpression[2];
+            for (int j = 0; j < operands.length; j++) {
+                if (Randomly.getBoolean()) {
+                    operands[j] = PostgresColumnValue.create(columns.get((int) Randomly.getNotCachedInteger(0,
+                            column + 1)), null);
+                } else {
+                    operands[j] = PostgresConstant.createIntConstant(Randomly.getNotCachedInteger(-100, 100));
+                }
+            }
+            checks.add(new PostgresBinaryComparisonOperation(operands[0], operands[1], Randomly.fromList(operators)));
+        }
+        return checks;
+    }
+
+    /**
+     * Computes values for a column like PostgresInsertGeneratorLite, but without falling back to the solver.
+     *
+     * @param checks
+     *            the check constraints of the column
+     * @param column
+     *            the index of the column
+     * @param sat
+     *            whether the values must satisfy the constraints, rather than violate them
+     * @param r
+     *            the random number generator
+     *
+     * @return the values, or null if they can only be computed by the solver
+     */
+    public static List<Integer> computeWithoutSolver(List<PostgresExpression> checks, int column, boolean sat,
+            Randomly r) {
+        PostgresIntervalConstraint interval = PostgresIntervalConstraint.compile(checks, "t0.c" + column, sat);
+        return interval == null ? null : interval.getDistinctValues(r, new IntSet(), 5);
+    }
+
+}
@@ -0,0 +1,69 @@
+package sqlancer.postgres;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+
+import sqlancer.common.query.ExpectedErrors;
+import sqlancer.postgres.PostgresUsedValues.IntSet;
+import sqlancer.postgres.ast.PostgresConstant;
+import sqlancer.postgres.ast.PostgresExpression;
+import sqlancer.postgres.gen.PostgresBulkInsertQuery;
+
+public class TestPostgresBulkInsertQuery {
+
+    private static PostgresExpression i(long value) {
+        return PostgresConstant.createIntConstant(value);
+    }
+
+    @Test
+    public void testLoggedAsSingleRowInserts() {
+        PostgresBulkInsertQuery query = new PostgresBulkInsertQuery(new ExpectedErrors(), true);
+        PostgresBulkInsertQuery.Table t0 = query.addTable("t0", 2);
+        t0.addColumn("c0", Arrays.asList(i(1), i(-2)), new IntSet());
+        t0.addColumn("c1", Arrays.asList(i(3), PostgresConstant.createNullConstant()), null);
+        PostgresBulkInsertQuery.Table t1 = query.addTable("t1", 1);
+        t1.addColumn("c0", Arrays.asList(PostgresConstant.createTextConstant("a'b")), null);
+        assertEquals("INSERT INTO t0(c0, c1) VALUES(1, 3);\nINSERT INTO t0(c0, c1) VALUES(-2, NULL);\n"
+                + "INSERT INTO t1(c0) VALUES('a''b');", query.getQueryString());
+        assertEquals("INSERT INTO t0(c0, c1) VALUES(1, 3), (-2, NULL)", t0.getMultiRowInsert(Arrays.asList(0, 1)));
+        assertFalse(query.couldAffectSchema());
+    }
+
+    @Test
+    public void testCopyData() {
+        PostgresBulkInsertQuery query = new PostgresBulkInsertQuery(new ExpectedErrors(), true);
+        PostgresBulkInsertQuery.Table t0 = query.addTable("t0", 3);
+        t0.addColumn("c0", Arrays.asList(i(1), i(2), i(3)), new IntSet());
+        t0.addColumn("c1", Arrays.asList(PostgresConstant.createTextConstant("a\tb\\N"),
+                PostgresConstant.createNullConstant(), PostgresConstant.createBooleanConstant(true)), null);
+        assertEquals("COPY t0(c0, c1) FROM STDIN", t0.getCopyStatement());
+        assertEquals("1\ta\\tb\\\\N\n2\t\\N\n3\tTRUE\n", t0.getCopyData(Arrays.asList(0, 1, 2)));
+        // the rows that remain after a row has been rejected
+        assertEquals("1\ta\\tb\\\\N\n3\tTRUE\n", t0.getCopyData(Arrays.asList(0, 2)));
+    }
+
+    @Test
+    public void testRejectedLine() {
+        assertEquals(2, PostgresBulkInsertQuery.getRejectedLine("COPY t0, line 2: \"3\t4\""));
+        assertEquals(10, PostgresBulkInsertQuery.getRejectedLine("COPY t0, line 10, column c1: \"x\""));
+        assertEquals(-1, PostgresBulkInsertQuery.getRejectedLine("SQL statement \"SELECT 1\""));
+        assertEquals(-1, PostgresBulkInsertQuery.getRejectedLine(null));
+    }
+
+    @Test
+    public void testViolatedCheckConstraint() {
+        ServerErrorMessage message = new ServerErrorMessage("SERROR\0C23514\0Mnew row for relation \"t0\" violates "
+                + "check constraint \"t0_c1_check0\"\0nt0_c1_check0\0WCOPY t0, line 1: \"1\t2\"\0");
+        assertEquals("t0_c1_check0", PostgresBulkInsertQuery.getViolatedCheckConstraint(new PSQLException(message)));
+        assertNull(PostgresBulkInsertQuery.getViolatedCheckConstraint(new SQLException("ERROR: duplicate key value")));
+    }
+
+}
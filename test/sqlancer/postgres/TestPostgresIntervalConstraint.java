@@ -0,0 +1,113 @@
+package sqlancer.postgres;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.Randomly;
+import sqlancer.postgres.PostgresSchema.PostgresColumn;
+import sqlancer.postgres.PostgresUsedValues.IntSet;
+import sqlancer.postgres.ast.PostgresBinaryComparisonOperation;
+import sqlancer.postgres.ast.PostgresBinaryComparisonOperation.PostgresBinaryComparisonOperator;
+import sqlancer.postgres.ast.PostgresColumnValue;
+import sqlancer.postgres.ast.PostgresConstant;
+import sqlancer.postgres.ast.PostgresExpression;
+import sqlancer.postgres.gen.PostgresIntervalConstraint;
+
+public class TestPostgresIntervalConstraint {
+
+    private static final int NR_COLUMNS = 4;
+    private static final int NR_CHECK_LISTS = 1000;
+
+    private final PostgresCheckListGenerator generator = new PostgresCheckListGenerator(NR_COLUMNS);
+    private final List<PostgresColumn> columns = generator.getColumns();
+
+    private PostgresExpression check(int column, PostgresBinaryComparisonOperator op, int constant) {
+        return new PostgresBinaryComparisonOperation(PostgresColumnValue.create(columns.get(column), null),
+                PostgresConstant.createIntConstant(constant), op);
+    }
+
+    private PostgresExpression reversedCheck(int constant, PostgresBinaryComparisonOperator op, int column) {
+        return new PostgresBinaryComparisonOperation(PostgresConstant.createIntConstant(constant),
+                PostgresColumnValue.create(columns.get(column), null), op);
+    }
+
+    @Test
+    public void testSatisfyingValues() {
+        List<PostgresExpression> checks = Arrays.asList(check(0, PostgresBinaryComparisonOperator.GREATER, 3),
+                reversedCheck(10, PostgresBinaryComparisonOperator.GREATER_EQUALS, 0),
+                check(0, PostgresBinaryComparisonOperator.NOT_EQUALS, 5));
+        PostgresIntervalConstraint interval = PostgresIntervalConstraint.compile(checks, "t0.c0", true);
+        assertNotNull(interval);
+        Randomly r = new Randomly(0);
+        IntSet used = new IntSet();
+        used.add(8);
+        List<Integer> values = interval.getDistinctValues(r, used, 5);
+        assertEquals(new HashSet<>(Arrays.asList(4, 6, 7, 9, 10)), new HashSet<>(values));
+        assertTrue(interval.getDistinctValues(r, used, 6).isEmpty());
+    }
+
+    @Test
+    public void testViolatingValues() {
+        List<PostgresExpression> checks = Arrays.asList(check(0, PostgresBinaryComparisonOperator.GREATER, 3),
+                check(0, PostgresBinaryComparisonOperator.NOT_EQUALS, 1));
+        PostgresIntervalConstraint interval = PostgresIntervalConstraint.compile(checks, "t0.c0", false);
+        assertNotNull(interval);
+        assertEquals(Arrays.asList(1), interval.getDistinctValues(new Randomly(0), new IntSet(), 1));
+    }
+
+    @Test
+    public void testUnboundedInterval() {
+        List<PostgresExpression> checks = Arrays.asList(check(0, PostgresBinaryComparisonOperator.LESS, -50));
+        PostgresIntervalConstraint interval = PostgresIntervalConstraint.compile(checks, "t0.c0", true);
+        IntSet used = new IntSet();
+        Randomly r = new Randomly(0);
+        for (int i = 0; i < 100; i++) {
+            for (int value : interval.getDistinctValues(r, used, 10)) {
+                assertTrue(value < -50 && value >= -50 - 1 - 1000, String.valueOf(value));
+                assertTrue(used.add(value));
+            }
+        }
+        // the values near the bound are exhausted, so that the solver has to search further
+        assertNull(interval.getDistinctValues(r, used, 10));
+    }
+
+    @Test
+    public void testOtherColumns() {
+        assertNull(PostgresIntervalConstraint.compile(
+                Arrays.asList(check(1, PostgresBinaryComparisonOperator.LESS, 3)), "t0.c0", true));
+        PostgresExpression twoColumns = new PostgresBinaryComparisonOperation(
+                PostgresColumnValue.create(columns.get(0), null), PostgresColumnValue.create(columns.get(1), null),
+                PostgresBinaryComparisonOperator.LESS);
+        assertNull(PostgresIntervalConstraint.compile(Arrays.asList(twoColumns), "t0.c0", true));
+    }
+
+    /*
+     * A quarter of the random single checks compare two constants, which the solver ignores as well, and a quarter
+     * compare two columns, which requires the solver. The other half compare a column with a constant; averaged over
+     * the four columns, the compared column is the checked one in about half of them. About half of the single checks
+     * are therefore solved without the solver.
+     */
+    @Test
+    public void testHalfOfSingleChecksAvoidSolver() {
+        Randomly r = new Randomly(0);
+        int nrAvoided = 0;
+        for (int i = 0; i < NR_CHECK_LISTS; i++) {
+            int column = (int) Randomly.getNotCachedInteger(0, NR_COLUMNS);
+            List<PostgresExpression> checks = generator.generateChecks(1, column);
+            if (PostgresCheckListGenerator.computeWithoutSolver(checks, column, Randomly.getBoolean(), r) != null) {
+                nrAvoided++;
+            }
+        }
+        assertTrue(nrAvoided > NR_CHECK_LISTS * 2 / 5 && nrAvoided < NR_CHECK_LISTS * 3 / 5,
+                String.valueOf(nrAvoided));
+    }
+
+}
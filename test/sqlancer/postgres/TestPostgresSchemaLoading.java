@@ -0,0 +1,71 @@
+package sqlancer.postgres;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.postgres.PostgresSchema.PostgresIndex;
+import sqlancer.postgres.PostgresSchema.PostgresStatisticsObject;
+
+/**
+ * Checks that the bulk catalog loader reads the tables, columns, indexes, and statistics objects of a database. The
+ * test creates and drops its own database, and requires a PostgreSQL server with the default connection settings of
+ * SQLancer.
+ */
+public class TestPostgresSchemaLoading {
+
+    private static final String URL = "jdbc:postgresql://localhost:5432/";
+    private static final String DATABASE_NAME = "sqlancer_test_schema_loading";
+
+    String postgresAvailable = System.getenv("POSTGRES_AVAILABLE");
+    boolean postgresIsAvailable = postgresAvailable != null && postgresAvailable.equalsIgnoreCase("true");
+
+    @Test
+    public void testSchemaLoading() throws SQLException {
+        assumeTrue(postgresIsAvailable);
+        try (Connection con = DriverManager.getConnection(URL + "test", "sqlancer", "sqlancer");
+                Statement s = con.createStatement()) {
+            s.execute("DROP DATABASE IF EXISTS " + DATABASE_NAME);
+            s.execute("CREATE DATABASE " + DATABASE_NAME);
+            try {
+                assertEquals("t0STANDARDtrue[c0INT, c1TEXT, c2BOOLEAN][i0][s0]\n"
+                        + "t1STANDARDtrue[c0INT][][s0]\n"
+                        + "t2TEMPORARYtrue[c0INT][][s0]\n"
+                        + "v0STANDARDtrue[c0INT][][s0]", readSchema());
+            } finally {
+                s.execute("DROP DATABASE " + DATABASE_NAME);
+            }
+        }
+    }
+
+    private static String readSchema() throws SQLException {
+        try (Connection con = DriverManager.getConnection(URL + DATABASE_NAME, "sqlancer", "sqlancer")) {
+            try (Statement s = con.createStatement()) {
+                s.execute("CREATE TABLE t0(c2 BOOLEAN, c1 TEXT, c0 INT)");
+                s.execute("CREATE INDEX i0 ON t0(c0)");
+                s.execute("CREATE INDEX t0_c1_index ON t0(c1)");
+                s.execute("CREATE STATISTICS s0 ON c0, c1 FROM t0");
+                s.execute("CREATE TABLE t1(c0 BIGINT)");
+                s.execute("CREATE TEMPORARY TABLE t2(c0 SMALLINT)");
+                s.execute("CREATE VIEW v0 AS SELECT c0 FROM t0");
+            }
+            return toString(PostgresSchema.fromConnection(con, DATABASE_NAME));
+        }
+    }
+
+    private static String toString(PostgresSchema schema) {
+        return schema.getDatabaseTables().stream().map(t -> t.getName() + t.getTableType() + t.isInsertable()
+                + t.getColumns().stream().map(c -> c.getName() + c.getType()).collect(Collectors.toList())
+                + t.getIndexes().stream().map(PostgresIndex::getIndexName).collect(Collectors.toList())
+                + t.getStatistics().stream().map(PostgresStatisticsObject::getName).collect(Collectors.toList()))
+                .collect(Collectors.joining("\n"));
+    }
+
+}
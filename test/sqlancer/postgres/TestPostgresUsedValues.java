@@ -0,0 +1,93 @@
+package sqlancer.postgres;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import sqlancer.postgres.PostgresUsedValues.IntSet;
+
+public class TestPostgresUsedValues {
+
+    @Test
+    public void testIntSet() {
+        IntSet set = new IntSet();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(set.add(i * 7));
+        }
+        assertFalse(set.add(0));
+        assertTrue(set.add(Integer.MIN_VALUE));
+        assertFalse(set.add(Integer.MIN_VALUE));
+        assertEquals(10_001, set.size());
+        for (int i = 0; i < 70_000; i++) {
+            assertEquals(i % 7 == 0, set.contains(i));
+        }
+        assertTrue(set.contains(Integer.MIN_VALUE));
+        assertEquals(4, set.countBetween(Integer.MIN_VALUE, 14));
+    }
+
+    @Test
+    public void testRanges() {
+        IntSet set = new IntSet();
+        for (int value : new int[] { 5, 3, 4, 10, -1, Integer.MAX_VALUE, 11 }) {
+            set.add(value);
+        }
+        assertArrayEquals(new int[] { -1, -1, 3, 5, 10, 11, Integer.MAX_VALUE, Integer.MAX_VALUE }, set.getRanges());
+        assertArrayEquals(new int[0], new IntSet().getRanges());
+    }
+
+    @Test
+    public void testRangesAfterMerging() {
+        IntSet set = new IntSet();
+        for (int value : new int[] { 1, 3, 5, 2, 4, 7, Integer.MIN_VALUE + 1, Integer.MIN_VALUE }) {
+            set.add(value);
+        }
+        assertArrayEquals(new int[] { Integer.MIN_VALUE, Integer.MIN_VALUE + 1, 1, 5, 7, 7 }, set.getRanges());
+        assertEquals(5, set.countBetween(0, 6));
+        assertEquals(5, set.countBetween(2, 100));
+        assertEquals(2, set.countBetween(Long.MIN_VALUE, 0));
+        assertEquals(0, set.countBetween(8, Long.MAX_VALUE));
+        assertEquals(0, set.countBetween(4, 3));
+    }
+
+    @Test
+    public void testRandomValues() {
+        IntSet set = new IntSet();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random r = new Random(0);
+        for (int i = 0; i < 5_000; i++) {
+            int value = r.nextInt(2_000) - 1_000;
+            assertEquals(expected.add(value), set.add(value));
+        }
+        assertEquals(expected.size(), set.size());
+        for (int value = -1_001; value <= 1_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+        assertEquals(expected.subSet(-50, true, 50, true).size(), set.countBetween(-50, 50));
+        int[] ranges = set.getRanges();
+        int nrValues = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            nrValues += ranges[i + 1] - ranges[i] + 1;
+            assertFalse(set.contains(ranges[i] - 1));
+        }
+        assertEquals(expected.size(), nrValues);
+    }
+
+    @Test
+    public void testColumns() {
+        PostgresUsedValues values = new PostgresUsedValues();
+        values.get("t0.c0", true).add(1);
+        assertSame(values.get("t0.c0", true), values.get("t0.c0", true));
+        assertEquals(0, values.get("t0.c0", false).size());
+        assertEquals(0, values.get("t0.c1", true).size());
+        values.clear();
+        assertEquals(0, values.get("t0.c0", true).size());
+    }
+
+}